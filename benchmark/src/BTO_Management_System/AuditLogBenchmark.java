@@ -0,0 +1,160 @@
+package BTO_Management_System;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A benchmark of the {@link AuditLog}. It takes the same number of applications through approval and booking
+ * twice, first with no audit log and then with one subscribed to the {@link DomainEventBus}, and compares the
+ * latencies of {@code handleApplication} and {@code bookFlat} to show what auditing adds to them. It then reports
+ * the size of the log and its sparse index, checks the history of every audited application, and measures
+ * history lookups of random applications.
+ * <p>
+ * Usage: {@code java BTO_Management_System.AuditLogBenchmark [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --applications=20000} the number of applications taken through booking in each phase</li>
+ *     <li>{@code --lookups=2000} the number of history lookups to measure</li>
+ * </ul>
+ * The log is written to a temporary file, which is deleted when the benchmark ends.
+ */
+public class AuditLogBenchmark {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private AuditLogBenchmark() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The options described in the class documentation.
+     * @throws Exception if the log file cannot be created.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int applications = Integer.parseInt(options.getOrDefault("applications", "20000"));
+        int lookups = Integer.parseInt(options.getOrDefault("lookups", "2000"));
+
+        PrintStream console = System.out;
+        Path file = Files.createTempFile("bto-audit-", ".bin");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Map<String, User> users = new HashMap<>();
+            BatchCommandRunner runner = new BatchCommandRunner(users::get);
+            console.printf("%-10s %-18s %10s %10s %10s%n", "phase", "operation", "mean us", "p50 us", "p99 us");
+            run(console, "no audit", runner, users, 0, applications);
+            AuditLog auditLog = new AuditLog(file);
+            DomainEventBus.subscribe("audit", auditLog);
+            int[] audited = run(console, "audit", runner, users, 1, applications);
+            DomainEventBus.awaitDrained(10_000);
+
+            long bytes = new File(file.toString()).length();
+            console.printf("%nAudit log: %d records, %d bytes (%d per record), %d index entries%n",
+                    auditLog.getRecordCount(), bytes, AuditLog.RECORD_SIZE, auditLog.getBlockCount());
+            int incomplete = 0;
+            for (int applicationId : audited) {
+                List<AuditLog.Entry> history = auditLog.history(applicationId);
+                long bookings = history.stream().filter(entry -> entry.getNewStatus() == ApplicationStatus.BOOKED).count();
+                if (history.isEmpty() || history.get(history.size() - 1).getType() != DomainEventType.FLAT_BOOKED || bookings != 1) {
+                    incomplete++;
+                }
+            }
+            console.printf("Applications whose history does not end in exactly one booking: %d of %d%n", incomplete, audited.length);
+
+            LatencyHistogram latencies = new LatencyHistogram();
+            for (int i = 0; i < lookups; i++) {
+                int applicationId = audited[ThreadLocalRandom.current().nextInt(audited.length)];
+                long start = System.nanoTime();
+                auditLog.history(applicationId);
+                latencies.record(System.nanoTime() - start);
+            }
+            console.printf("history(): mean %.1f us, p50 %.1f us, p99 %.1f us%n",
+                    latencies.getMean() / 1e3, latencies.getPercentile(50) / 1e3, latencies.getPercentile(99) / 1e3);
+            auditLog.close();
+        } finally {
+            System.setOut(console);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Creates a project and takes the given number of applications for it through approval and booking,
+     * timing each approval and booking.
+     *
+     * @param console      The stream to report to.
+     * @param phase        The name of the phase.
+     * @param runner       The runner applying the commands.
+     * @param users        The map to add the users to, by NRIC.
+     * @param number       The number of the phase, which keeps its users apart from other phases'.
+     * @param applications The number of applications.
+     * @return The IDs of the applications.
+     */
+    private static int[] run(PrintStream console, String phase, BatchCommandRunner runner, Map<String, User> users,
+                             int number, int applications) {
+        String manager = nric('M', number);
+        String officer = nric('O', number);
+        users.put(manager, new HDBManager("Manager " + number, manager, 45, MaritalStatus.MARRIED));
+        users.put(officer, new HDBOfficer("Officer " + number, officer, 30, MaritalStatus.MARRIED));
+        String project = "Audit Project " + number;
+        runner.execute("create-project|" + manager + "|" + project + "|Town|" + applications + "|0|2025-01-01|2030-12-31|10");
+        runner.execute("register|" + officer + "|" + project);
+        runner.execute("approve-registration|" + manager + "|" + officer);
+
+        LatencyHistogram approvals = new LatencyHistogram();
+        LatencyHistogram bookings = new LatencyHistogram();
+        int[] ids = new int[applications];
+        for (int a = 0; a < applications; a++) {
+            String applicant = nric('A', number * applications + a);
+            users.put(applicant, new Applicant("Applicant " + a, applicant, 30, MaritalStatus.MARRIED));
+            OperationResult<?> applied = runner.execute("apply|" + applicant + "|" + project + "|TWOROOM");
+            ids[a] = ((Application) applied.getValue()).getApplicationId();
+            long start = System.nanoTime();
+            runner.execute("approve|" + manager + "|" + ids[a]);
+            long approved = System.nanoTime();
+            runner.execute("book|" + officer + "|" + ids[a]);
+            bookings.record(System.nanoTime() - approved);
+            approvals.record(approved - start);
+        }
+        report(console, phase, "handleApplication", approvals);
+        report(console, phase, "bookFlat", bookings);
+        return ids;
+    }
+
+    /**
+     * Prints one line of latencies.
+     *
+     * @param console   The stream to report to.
+     * @param phase     The name of the phase.
+     * @param operation The name of the operation.
+     * @param latencies The latencies.
+     */
+    private static void report(PrintStream console, String phase, String operation, LatencyHistogram latencies) {
+        console.printf("%-10s %-18s %10.2f %10.2f %10.2f%n", phase, operation, latencies.getMean() / 1e3,
+                latencies.getPercentile(50) / 1e3, latencies.getPercentile(99) / 1e3);
+    }
+
+    /**
+     * Builds a valid, unique NRIC.
+     *
+     * @param prefix A letter telling the kinds of users apart.
+     * @param n      The number of the user.
+     * @return An NRIC such as {@code S0000042M}.
+     */
+    private static String nric(char prefix, int n) {
+        return String.format("S%07d%c", n, prefix);
+    }
+}
@@ -0,0 +1,102 @@
+package BTO_Management_System;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A throughput benchmark of the {@link CredentialService}. For each worker count it resizes the hashing pool,
+ * has twice as many callers hash passwords as fast as the pool accepts them, and reports the hashes per second
+ * overall and per worker, so that the cost setting can be tuned to the cores available. It then measures how
+ * many repeated sign-ins per second are answered from the verified-credential cache. Hashing is run for one
+ * period first so that the key derivation is compiled before anything is measured.
+ * <p>
+ * Usage: {@code java BTO_Management_System.CredentialBenchmark [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --workers=1,2,4} the worker counts to measure</li>
+ *     <li>{@code --iterations=100000} the PBKDF2 iteration count</li>
+ *     <li>{@code --seconds=5} how long to measure each worker count</li>
+ * </ul>
+ */
+public class CredentialBenchmark {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private CredentialBenchmark() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The options described in the class documentation.
+     * @throws Exception if the callers are interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String[] workerCounts = options.getOrDefault("workers", "1,2,4").split(",");
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", String.valueOf(CredentialService.DEFAULT_ITERATIONS)));
+        long seconds = Long.parseLong(options.getOrDefault("seconds", "5"));
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            CredentialService.setIterations(iterations);
+            console.printf("PBKDF2 iterations: %d, available processors: %d%n", iterations, Runtime.getRuntime().availableProcessors());
+            measure(1, seconds, () -> CredentialService.hash("password"));
+            console.printf("%-8s %14s %20s%n", "workers", "hashes/s", "hashes/s per worker");
+            for (String workerCount : workerCounts) {
+                int workers = Integer.parseInt(workerCount.trim());
+                CredentialService.setWorkerCount(workers);
+                double rate = measure(workers * 2, seconds, () -> CredentialService.hash("password"));
+                console.printf("%-8d %14.1f %20.1f%n", workers, rate, rate / workers);
+            }
+
+            User user = new Applicant("Benchmark", "S0000000B", 30, MaritalStatus.SINGLE);
+            user.setPassword("correct horse");
+            user.checkPassword("correct horse");
+            double cached = measure(Runtime.getRuntime().availableProcessors(), seconds, () -> user.checkPassword("correct horse"));
+            console.printf("%nCached sign-ins: %.1f per second%n", cached);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Runs an operation repeatedly on several callers for a fixed time.
+     *
+     * @param callers   The number of caller threads.
+     * @param seconds   How long to run.
+     * @param operation The operation.
+     * @return The operations completed per second.
+     * @throws InterruptedException if interrupted while waiting for the callers.
+     */
+    private static double measure(int callers, long seconds, Runnable operation) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        long start = System.nanoTime();
+        for (int i = 0; i < callers; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    operation.run();
+                    completed.increment();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+        return completed.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,444 @@
+package BTO_Management_System;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A local load test of the {@link HttpApiServer}. It starts the server on a free loopback port over a generated
+ * catalogue, then has concurrent clients, each on its own virtual thread with one kept-alive connection, send
+ * requests from a weighted mix as fast as the server answers them. It reports the throughput, the latency percentiles of each request type as
+ * seen by the clients, the HTTP statuses returned, and the server-side {@link Metrics} of each endpoint.
+ * <p>
+ * Usage: {@code java BTO_Management_System.HttpLoadTest [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --projects=1000} the number of projects in the catalogue</li>
+ *     <li>{@code --applicants=5000} the number of applicants who may sign in</li>
+ *     <li>{@code --clients=64} the number of concurrent clients</li>
+ *     <li>{@code --warmup=3} how long to send requests before measuring, in seconds</li>
+ *     <li>{@code --seconds=10} how long to measure</li>
+ *     <li>{@code --mix=projects:60,filtered:15,application:10,enquiries:10,enquire:5} the relative weight of each request</li>
+ * </ul>
+ * Any console output of the domain objects is discarded while the test runs.
+ */
+public class HttpLoadTest {
+    /**
+     * The requests the clients can send.
+     */
+    private enum RequestType {
+        /** The first page of the catalogue, sorted by name. */
+        PROJECTS,
+        /** A page of the catalogue filtered by neighborhood and flat type, sorted by location. */
+        FILTERED,
+        /** The client's own application. */
+        APPLICATION,
+        /** The client's own enquiries. */
+        ENQUIRIES,
+        /** A new enquiry about a project. */
+        ENQUIRE
+    }
+
+    /**
+     * The number of neighborhoods the generated projects are spread over.
+     */
+    private static final int NEIGHBORHOODS = 22;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private HttpLoadTest() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args The options described in the class documentation.
+     * @throws Exception if the server cannot be started or the clients are interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int projectCount = Integer.parseInt(options.getOrDefault("projects", "1000"));
+        int applicantCount = Integer.parseInt(options.getOrDefault("applicants", "5000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "3"));
+        long seconds = Long.parseLong(options.getOrDefault("seconds", "10"));
+        RequestType[] mix = parseMix(options.getOrDefault("mix", "projects:60,filtered:15,application:10,enquiries:10,enquire:5"));
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        HttpApiServer server = null;
+        try {
+            Map<String, User> users = new HashMap<>();
+            List<String> nrics = createDataset(projectCount, applicantCount, users);
+            server = new HttpApiServer((nric, password) -> {
+                User user = users.get(nric);
+                return user != null && user.checkPassword(password) ? user : null;
+            });
+            int port = server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            console.printf("Serving %d projects on port %d to %d clients%n", projectCount, port, clients);
+
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            Run warmupRun = new Run(address, nrics, projectCount);
+            warmupRun.drive(mix, clients, warmup);
+            Run run = new Run(address, nrics, projectCount);
+            long start = System.nanoTime();
+            run.drive(mix, clients, seconds);
+            run.report(console, (System.nanoTime() - start) / 1e9);
+            console.println("\nServer-side latencies, including warmup (microseconds):");
+            console.print(Metrics.report());
+        } finally {
+            System.setOut(console);
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * Registers the projects and creates the applicants, each with the default password.
+     *
+     * @param projectCount   The number of projects.
+     * @param applicantCount The number of applicants.
+     * @param users          The map to add the applicants to, by NRIC.
+     * @return The NRICs of the applicants.
+     */
+    private static List<String> createDataset(int projectCount, int applicantCount, Map<String, User> users) {
+        HDBManager manager = new HDBManager("Manager", "S0000000M", 45, MaritalStatus.MARRIED);
+        List<BTOProject> projects = new ArrayList<>();
+        for (int p = 0; p < projectCount; p++) {
+            Map<FlatType, Integer> remaining = new HashMap<>();
+            remaining.put(FlatType.TWOROOM, 100);
+            if (p % 3 != 0) {
+                remaining.put(FlatType.THREEROOM, 100);
+            }
+            projects.add(new BTOProject("Project " + p, "Town " + (p % NEIGHBORHOODS), remaining,
+                    new Date(1, 1, 2025), new Date(31, 12, 2030), manager, 10));
+        }
+        ProjectRegistry.addProjects(projects);
+        List<String> nrics = new ArrayList<>();
+        for (int a = 0; a < applicantCount; a++) {
+            boolean single = a % 5 == 0;
+            Applicant applicant = new Applicant("Applicant" + a, String.format("S%07dA", a),
+                    single ? 36 : 28, single ? MaritalStatus.SINGLE : MaritalStatus.MARRIED);
+            users.put(applicant.getNRIC(), applicant);
+            nrics.add(applicant.getNRIC());
+        }
+        return nrics;
+    }
+
+    /**
+     * Parses a request mix of the form {@code name:weight,name:weight}.
+     *
+     * @param spec The mix specification.
+     * @return An array holding each request type as many times as its weight, to pick from uniformly.
+     */
+    private static RequestType[] parseMix(String spec) {
+        List<RequestType> mix = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split(":");
+            RequestType type = RequestType.valueOf(parts[0].trim().toUpperCase());
+            for (int w = 0; w < Integer.parseInt(parts[1].trim()); w++) {
+                mix.add(type);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The request mix is empty.");
+        }
+        return mix.toArray(new RequestType[0]);
+    }
+
+    /**
+     * One timed run of the clients against the server, and its measurements. Each client keeps one
+     * HTTP/1.1 connection open and writes and reads its requests directly, so that the client side
+     * costs as little as possible of the machine the server is being measured on.
+     */
+    private static final class Run {
+        private final InetSocketAddress address;
+        private final List<String> nrics;
+        private final int projectCount;
+        private final Map<RequestType, LatencyHistogram> latencies = new EnumMap<>(RequestType.class);
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        /**
+         * Constructs a run against a server.
+         *
+         * @param address      The address of the server.
+         * @param nrics        The NRICs the clients sign in as.
+         * @param projectCount The number of projects in the catalogue.
+         */
+        Run(InetSocketAddress address, List<String> nrics, int projectCount) {
+            this.address = address;
+            this.nrics = nrics;
+            this.projectCount = projectCount;
+            for (RequestType type : RequestType.values()) {
+                latencies.put(type, new LatencyHistogram());
+            }
+        }
+
+        /**
+         * Runs the clients for the given time.
+         *
+         * @param mix     The weighted request mix.
+         * @param clients The number of concurrent clients.
+         * @param seconds How long to run, in seconds.
+         * @throws InterruptedException if interrupted while waiting for the clients.
+         */
+        void drive(RequestType[] mix, int clients, long seconds) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+            for (int c = 0; c < clients; c++) {
+                executor.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    Connection connection = null;
+                    while (System.nanoTime() < deadline) {
+                        RequestType type = mix[random.nextInt(mix.length)];
+                        byte[] request = request(type, random);
+                        long start = System.nanoTime();
+                        try {
+                            if (connection == null) {
+                                connection = new Connection(address);
+                            }
+                            int status = connection.exchange(request);
+                            latencies.get(type).record(System.nanoTime() - start);
+                            statuses.computeIfAbsent(type + " " + status, k -> new LongAdder()).increment();
+                        } catch (IOException e) {
+                            errors.computeIfAbsent(type + " " + e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                            if (connection != null) {
+                                connection.close();
+                                connection = null;
+                            }
+                        }
+                    }
+                    if (connection != null) {
+                        connection.close();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Builds the bytes of one request.
+         *
+         * @param type   The request to build.
+         * @param random The client's random number generator.
+         * @return The request, ready to write to the connection.
+         */
+        private byte[] request(RequestType type, Random random) {
+            String nric = nrics.get(random.nextInt(nrics.size()));
+            String credentials = Base64.getEncoder().encodeToString((nric + ":password").getBytes(StandardCharsets.UTF_8));
+            String project = "Project " + random.nextInt(projectCount);
+            String method = "GET";
+            String target;
+            String body = null;
+            switch (type) {
+                case PROJECTS:
+                    target = "/api/projects?pageSize=20";
+                    break;
+                case FILTERED:
+                    target = "/api/projects?sort=LOCATION&flatType=THREEROOM&location=" + encode("Town " + random.nextInt(NEIGHBORHOODS));
+                    break;
+                case APPLICATION:
+                    target = "/api/application";
+                    break;
+                case ENQUIRIES:
+                    target = "/api/enquiries";
+                    break;
+                default:
+                    method = "POST";
+                    target = "/api/enquiries";
+                    body = "project=" + encode(project) + "&text=" + encode("Is " + project + " near an MRT station?");
+                    break;
+            }
+            StringBuilder request = new StringBuilder(256)
+                    .append(method).append(' ').append(target).append(" HTTP/1.1\r\n")
+                    .append("Host: localhost\r\n")
+                    .append("Authorization: Basic ").append(credentials).append("\r\n");
+            if (body != null) {
+                request.append("Content-Type: application/x-www-form-urlencoded\r\n")
+                        .append("Content-Length: ").append(body.length()).append("\r\n\r\n").append(body);
+            } else {
+                request.append("\r\n");
+            }
+            return request.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * URL-encodes a parameter value.
+         *
+         * @param value The value.
+         * @return The encoded value.
+         */
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Prints the throughput, latencies, statuses and errors of the run.
+         *
+         * @param out            The stream to print to.
+         * @param elapsedSeconds The length of the run.
+         */
+        void report(PrintStream out, double elapsedSeconds) {
+            long total = 0;
+            out.printf("%n%-12s %10s %10s %10s %10s %10s %10s%n", "Request", "Count", "Mean us", "p50 us", "p99 us", "p99.9 us", "Max us");
+            for (RequestType type : RequestType.values()) {
+                LatencyHistogram histogram = latencies.get(type);
+                total += histogram.getCount();
+                out.printf("%-12s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", type, histogram.getCount(),
+                        histogram.getMean() / 1000, histogram.getPercentile(50) / 1000.0, histogram.getPercentile(99) / 1000.0,
+                        histogram.getPercentile(99.9) / 1000.0, histogram.getMax() / 1000.0);
+            }
+            out.printf("%nThroughput: %.0f requests/s (%d requests in %.1f s)%n", total / elapsedSeconds, total, elapsedSeconds);
+
+            out.println("\nStatuses:");
+            for (Map.Entry<String, LongAdder> status : new TreeMap<>(statuses).entrySet()) {
+                out.println("  " + status.getKey() + ": " + status.getValue().sum());
+            }
+
+            out.println("\nErrors:");
+            if (errors.isEmpty()) {
+                out.println("  none");
+            }
+            for (Map.Entry<String, LongAdder> error : new TreeMap<>(errors).entrySet()) {
+                out.println("  " + error.getKey() + ": " + error.getValue().sum());
+            }
+        }
+    }
+
+    /**
+     * A kept-alive HTTP/1.1 connection that sends a request and reads and discards the response.
+     */
+    private static final class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        /**
+         * Opens a connection.
+         *
+         * @param address The address of the server.
+         * @throws IOException if the connection cannot be opened.
+         */
+        Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            in = new BufferedInputStream(socket.getInputStream(), 16384);
+            out = socket.getOutputStream();
+        }
+
+        /**
+         * Sends a request and reads the whole response.
+         *
+         * @param request The bytes of the request.
+         * @return The HTTP status of the response.
+         * @throws IOException if the exchange fails or the response is malformed.
+         */
+        int exchange(byte[] request) throws IOException {
+            out.write(request);
+            out.flush();
+            String statusLine = readLine();
+            if (statusLine.length() < 12) {
+                throw new IOException("Malformed status line: " + statusLine);
+            }
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            long contentLength = -1;
+            boolean chunked = false;
+            String header;
+            while (!(header = readLine()).isEmpty()) {
+                int colon = header.indexOf(':');
+                String name = header.substring(0, Math.max(colon, 0)).trim();
+                if (name.equalsIgnoreCase("Content-Length")) {
+                    contentLength = Long.parseLong(header.substring(colon + 1).trim());
+                } else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+                    chunked = header.substring(colon + 1).trim().equalsIgnoreCase("chunked");
+                }
+            }
+            if (chunked) {
+                long size;
+                while ((size = Long.parseLong(readLine().trim(), 16)) > 0) {
+                    skip(size);
+                    readLine();
+                }
+                readLine();
+            } else if (contentLength > 0) {
+                skip(contentLength);
+            }
+            return status;
+        }
+
+        /**
+         * Reads one CRLF-terminated line.
+         *
+         * @return The line without its terminator.
+         * @throws IOException if the connection ends first.
+         */
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder(64);
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    throw new EOFException("Connection closed by the server.");
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        /**
+         * Skips a number of bytes of the response body.
+         *
+         * @param count The number of bytes to skip.
+         * @throws IOException if the connection ends first.
+         */
+        private void skip(long count) throws IOException {
+            while (count > 0) {
+                long skipped = in.skip(count);
+                if (skipped <= 0) {
+                    if (in.read() < 0) {
+                        throw new EOFException("Connection closed by the server.");
+                    }
+                    skipped = 1;
+                }
+                count -= skipped;
+            }
+        }
+
+        /**
+         * Closes the connection, ignoring errors.
+         */
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing more can be done with a connection that fails to close.
+            }
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package BTO_Management_System;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A headless load simulator that replays a launch day against the domain objects directly,
+ * bypassing the {@code Scanner}-driven menus. Concurrent workers repeatedly pick an operation from a
+ * weighted mix (applicants applying, submitting enquiries and requesting withdrawals, managers
+ * approving applications and officers booking flats) and call the result-returning domain methods, while the
+ * simulator records the latency and outcome of every call. At the end it reports throughput, latency percentiles,
+ * the {@link ResultCode}s returned, errors thrown by the domain methods, and violations of the booking
+ * invariants, such as more flats booked than offered.
+ * <p>
+ * Usage: {@code java BTO_Management_System.LoadSimulator [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --projects=20} the number of projects launched</li>
+ *     <li>{@code --units=200} the number of units of each flat type per project</li>
+ *     <li>{@code --applicants=20000} the number of applicants</li>
+ *     <li>{@code --threads=8} the number of concurrent workers</li>
+ *     <li>{@code --virtual=false} run each worker on a virtual thread instead of a platform thread</li>
+ *     <li>{@code --seconds=10} how long to run</li>
+ *     <li>{@code --mix=apply:40,enquiry:20,withdraw:5,approve:20,book:15} the relative weight of each operation</li>
+ * </ul>
+ * Any console output of the domain objects is discarded while the simulation runs.
+ */
+public class LoadSimulator {
+    /**
+     * The operations the simulator can perform.
+     */
+    private enum Operation {
+        /** An applicant applies for a project. */
+        APPLY,
+        /** An applicant submits an enquiry about a project. */
+        ENQUIRY,
+        /** An applicant requests to withdraw their application. */
+        WITHDRAW,
+        /** A manager approves or rejects a pending application. */
+        APPROVE,
+        /** An officer books a flat for a successful application. */
+        BOOK
+    }
+
+    /**
+     * The share of approvals that are rejections instead.
+     */
+    private static final double REJECTION_RATE = 0.1;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private LoadSimulator() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the simulation.
+     *
+     * @param args The options described in the class documentation.
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int projectCount = Integer.parseInt(options.getOrDefault("projects", "20"));
+        int units = Integer.parseInt(options.getOrDefault("units", "200"));
+        int applicantCount = Integer.parseInt(options.getOrDefault("applicants", "20000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        boolean virtual = Boolean.parseBoolean(options.getOrDefault("virtual", "false"));
+        long seconds = Long.parseLong(options.getOrDefault("seconds", "10"));
+        Operation[] mix = parseMix(options.getOrDefault("mix", "apply:40,enquiry:20,withdraw:5,approve:20,book:15"));
+
+        PrintStream console = System.out;
+        console.printf("Simulating %d projects, %d applicants, %d %s workers for %d s%n",
+                projectCount, applicantCount, threads, virtual ? "virtual" : "platform", seconds);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Simulation simulation;
+        long start;
+        try {
+            simulation = new Simulation(projectCount, units, applicantCount);
+            start = System.nanoTime();
+            runWorkers(simulation, mix, threads, virtual, start + TimeUnit.SECONDS.toNanos(seconds), seconds);
+        } finally {
+            System.setOut(console);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        simulation.report(console, elapsedSeconds);
+    }
+
+    /**
+     * Runs the workers until the deadline passes.
+     *
+     * @param simulation The simulation to drive.
+     * @param mix        The weighted operation mix.
+     * @param threads    The number of workers.
+     * @param virtual    Whether to run the workers on virtual threads.
+     * @param deadline   The {@link System#nanoTime()} value at which the workers stop.
+     * @param seconds    The planned length of the run, used to bound the wait for the workers.
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    private static void runWorkers(Simulation simulation, Operation[] mix, int threads, boolean virtual, long deadline, long seconds)
+            throws InterruptedException {
+        ExecutorService executor = virtual ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    simulation.perform(mix[random.nextInt(mix.length)], random);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Parses an operation mix of the form {@code name:weight,name:weight}.
+     *
+     * @param spec The mix specification.
+     * @return An array holding each operation as many times as its weight, to pick from uniformly.
+     */
+    private static Operation[] parseMix(String spec) {
+        List<Operation> mix = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split(":");
+            Operation operation = Operation.valueOf(parts[0].trim().toUpperCase());
+            for (int w = 0; w < Integer.parseInt(parts[1].trim()); w++) {
+                mix.add(operation);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix is empty.");
+        }
+        return mix.toArray(new Operation[0]);
+    }
+
+    /**
+     * The simulated launch: the projects and users, the work queues that connect the flows,
+     * and the measurements.
+     */
+    private static final class Simulation {
+        private final List<BTOProject> projects = new ArrayList<>();
+        private final Map<BTOProject, Map<FlatType, Integer>> initialUnits = new IdentityHashMap<>();
+        private final Map<BTOProject, HDBManager> managers = new IdentityHashMap<>();
+        private final Map<BTOProject, HDBOfficer> officers = new IdentityHashMap<>();
+        private final List<Applicant> applicants = new ArrayList<>();
+        private final Queue<Applicant> notYetApplied = new ConcurrentLinkedQueue<>();
+        private final Queue<Application> pending = new ConcurrentLinkedQueue<>();
+        private final Queue<Application> successful = new ConcurrentLinkedQueue<>();
+        private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, LongAdder> skipped = new EnumMap<>(Operation.class);
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        /**
+         * Creates the projects, staff and applicants.
+         *
+         * @param projectCount   The number of projects.
+         * @param units          The number of units of each flat type per project.
+         * @param applicantCount The number of applicants.
+         */
+        Simulation(int projectCount, int units, int applicantCount) {
+            for (int p = 0; p < projectCount; p++) {
+                HDBManager manager = new HDBManager("Manager" + p, String.format("S%07dM", p), 45, MaritalStatus.MARRIED);
+                Map<FlatType, Integer> remaining = new HashMap<>();
+                remaining.put(FlatType.TWOROOM, units);
+                remaining.put(FlatType.THREEROOM, units);
+                BTOProject project = new BTOProject("Launch Project " + p, "Town " + (p % 7), remaining,
+                        new Date(1, 1, 2025), new Date(31, 12, 2030), manager, 10);
+                HDBOfficer officer = new HDBOfficer("Officer" + p, String.format("T%07dO", p), 30, MaritalStatus.MARRIED);
+                officer.setHandlingProject(project);
+                initialUnits.put(project, new EnumMap<>(remaining));
+                projects.add(project);
+                managers.put(project, manager);
+                officers.put(project, officer);
+            }
+            ProjectRegistry.addProjects(projects);
+            for (int a = 0; a < applicantCount; a++) {
+                boolean single = a % 5 == 0;
+                Applicant applicant = new Applicant("Applicant" + a, String.format("S%07dA", a),
+                        single ? 36 : 28, single ? MaritalStatus.SINGLE : MaritalStatus.MARRIED);
+                applicants.add(applicant);
+                notYetApplied.add(applicant);
+            }
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyHistogram());
+                skipped.put(operation, new LongAdder());
+            }
+        }
+
+        /**
+         * Performs one operation, recording its latency or, if there is nothing to do for it yet, counting it as skipped.
+         *
+         * @param operation The operation to perform.
+         * @param random    The worker's random number generator.
+         */
+        void perform(Operation operation, Random random) {
+            long start = System.nanoTime();
+            boolean performed = true;
+            try {
+                OperationResult<?> result = dispatch(operation, random);
+                if (result == null) {
+                    performed = false;
+                } else {
+                    outcomes.computeIfAbsent(operation + " " + result.getCode(), k -> new LongAdder()).increment();
+                }
+            } catch (RuntimeException e) {
+                errors.computeIfAbsent(operation + " " + e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+            }
+            if (performed) {
+                latencies.get(operation).record(System.nanoTime() - start);
+            } else {
+                skipped.get(operation).increment();
+            }
+        }
+
+        /**
+         * Calls the result-returning domain method for an operation.
+         *
+         * @param operation The operation to perform.
+         * @param random    The worker's random number generator.
+         * @return The result of the domain method, or null if there was nothing to perform the operation on.
+         */
+        private OperationResult<?> dispatch(Operation operation, Random random) {
+            BTOProject project = projects.get(random.nextInt(projects.size()));
+            switch (operation) {
+                case APPLY: {
+                    Applicant applicant = notYetApplied.poll();
+                    if (applicant == null) {
+                        return null;
+                    }
+                    FlatType flatType = applicant.getMaritalStatus() == MaritalStatus.SINGLE || random.nextBoolean() ? FlatType.TWOROOM : FlatType.THREEROOM;
+                    OperationResult<Application> result = applicant.submitApplication(project, flatType);
+                    if (result.isSuccess()) {
+                        pending.add(result.getValue());
+                    }
+                    return result;
+                }
+                case ENQUIRY: {
+                    Applicant applicant = applicants.get(random.nextInt(applicants.size()));
+                    return applicant.createEnquiry(project, "Is " + project.getName() + " near an MRT station?");
+                }
+                case WITHDRAW: {
+                    Applicant applicant = applicants.get(random.nextInt(applicants.size()));
+                    if (applicant.getApplication() == null) {
+                        return null;
+                    }
+                    return applicant.requestWithdrawal();
+                }
+                case APPROVE: {
+                    Application application = pending.poll();
+                    if (application == null) {
+                        return null;
+                    }
+                    ApplicationStatus decision = random.nextDouble() < REJECTION_RATE ? ApplicationStatus.UNSUCCESSFUL : ApplicationStatus.SUCCESSFUL;
+                    OperationResult<Application> result = managers.get(application.getProjectApplied()).processApplication(application, decision);
+                    if (result.isSuccess() && decision == ApplicationStatus.SUCCESSFUL) {
+                        successful.add(application);
+                    }
+                    return result;
+                }
+                case BOOK: {
+                    Application application = successful.poll();
+                    if (application == null) {
+                        return null;
+                    }
+                    return officers.get(application.getProjectApplied()).bookFlatForApplication(application, application.getAppliedFlatType());
+                }
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Prints the throughput, latencies, outcomes, errors and invariant violations of the run.
+         *
+         * @param out            The stream to print to.
+         * @param elapsedSeconds The length of the run in seconds.
+         */
+        void report(PrintStream out, double elapsedSeconds) {
+            long total = 0;
+            out.printf("%n%-10s %10s %10s %10s %10s %10s %10s %10s%n", "Operation", "Count", "Skipped", "Mean us", "p50 us", "p99 us", "p99.9 us", "Max us");
+            for (Operation operation : Operation.values()) {
+                LatencyHistogram histogram = latencies.get(operation);
+                total += histogram.getCount();
+                out.printf("%-10s %10d %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", operation, histogram.getCount(), skipped.get(operation).sum(),
+                        histogram.getMean() / 1000, histogram.getPercentile(50) / 1000.0, histogram.getPercentile(99) / 1000.0,
+                        histogram.getPercentile(99.9) / 1000.0, histogram.getMax() / 1000.0);
+            }
+            out.printf("%nThroughput: %.0f operations/s (%d operations in %.1f s)%n", total / elapsedSeconds, total, elapsedSeconds);
+
+            out.println("\nOutcomes:");
+            for (Map.Entry<String, LongAdder> outcome : new TreeMap<>(outcomes).entrySet()) {
+                out.println("  " + outcome.getKey() + ": " + outcome.getValue().sum());
+            }
+
+            out.println("\nErrors thrown by domain methods:");
+            if (errors.isEmpty()) {
+                out.println("  none");
+            }
+            for (Map.Entry<String, LongAdder> error : new TreeMap<>(errors).entrySet()) {
+                out.println("  " + error.getKey() + ": " + error.getValue().sum());
+            }
+
+            List<String> violations = checkInvariants();
+            out.println("\nInvariant violations:");
+            if (violations.isEmpty()) {
+                out.println("  none");
+            }
+            for (String violation : violations) {
+                out.println("  " + violation);
+            }
+        }
+
+        /**
+         * Checks the booking invariants after the run: no flat type is oversold, booked units and remaining units
+         * add up to the units offered, no applicant holds more than one application, and every enquiry submitted
+         * successfully is stored by its project and its applicant.
+         *
+         * @return A description of each violation found.
+         */
+        private List<String> checkInvariants() {
+            List<String> violations = new ArrayList<>();
+            Map<Applicant, Integer> applicationsPerApplicant = new IdentityHashMap<>();
+            for (BTOProject project : projects) {
+                Map<FlatType, Integer> booked = new EnumMap<>(FlatType.class);
+                for (Application application : new ArrayList<>(project.getApplications())) {
+                    applicationsPerApplicant.merge(application.getApplicant(), 1, Integer::sum);
+                    if (application.getApplicationStatus() == ApplicationStatus.BOOKED) {
+                        booked.merge(application.getAppliedFlatType(), 1, Integer::sum);
+                    }
+                }
+                for (Map.Entry<FlatType, Integer> offered : initialUnits.get(project).entrySet()) {
+                    int bookedUnits = booked.getOrDefault(offered.getKey(), 0);
+                    int remaining = project.getRemainingUnits().getOrDefault(offered.getKey(), 0);
+                    if (bookedUnits > offered.getValue()) {
+                        violations.add(project.getName() + " " + offered.getKey() + ": oversold, " + bookedUnits + " booked of " + offered.getValue());
+                    }
+                    if (remaining < 0) {
+                        violations.add(project.getName() + " " + offered.getKey() + ": negative remaining units " + remaining);
+                    }
+                    if (bookedUnits + remaining != offered.getValue()) {
+                        violations.add(project.getName() + " " + offered.getKey() + ": " + bookedUnits + " booked + " + remaining
+                                + " remaining != " + offered.getValue() + " offered");
+                    }
+                }
+            }
+            for (Map.Entry<Applicant, Integer> entry : applicationsPerApplicant.entrySet()) {
+                if (entry.getValue() > 1) {
+                    violations.add(entry.getKey().getNRIC() + ": " + entry.getValue() + " applications");
+                }
+            }
+            LongAdder submitted = outcomes.get(Operation.ENQUIRY + " " + ResultCode.SUCCESS);
+            long submittedEnquiries = submitted == null ? 0 : submitted.sum();
+            long projectEnquiries = 0;
+            for (BTOProject project : projects) {
+                projectEnquiries += project.getEnquiries().size();
+            }
+            long applicantEnquiries = 0;
+            for (Applicant applicant : applicants) {
+                applicantEnquiries += applicant.getEnquiries().size();
+            }
+            if (projectEnquiries != submittedEnquiries) {
+                violations.add(submittedEnquiries + " enquiries submitted but " + projectEnquiries + " stored by projects");
+            }
+            if (applicantEnquiries != submittedEnquiries) {
+                violations.add(submittedEnquiries + " enquiries submitted but " + applicantEnquiries + " stored by applicants");
+            }
+            return violations;
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package BTO_Management_System;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Micro-benchmarks for the registry, lookup, booking and report hot paths of the BTO Management System.
+ * Each benchmark is run against generated datasets of several sizes (the number of projects, and also the
+ * number of applications and enquiries). For every size the benchmark gets a number of warm-up iterations,
+ * which are discarded, followed by measured iterations; results are reported as the mean and standard deviation
+ * of nanoseconds per operation across the measured iterations.
+ * <p>
+ * Usage: {@code java BTO_Management_System.PerformanceBenchmark [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --sizes=1000,10000,100000} the dataset sizes to run (up to 1000000)</li>
+ *     <li>{@code --warmup=3} the number of warm-up iterations</li>
+ *     <li>{@code --iterations=5} the number of measured iterations</li>
+ *     <li>{@code --time=1000} the length of each iteration in milliseconds</li>
+ *     <li>{@code --only=findProject,bookFlat} run only the named benchmarks</li>
+ *     <li>{@code --output=results.csv} save the results, to be used as a later baseline</li>
+ *     <li>{@code --baseline=results.csv} compare the results with an earlier run</li>
+ * </ul>
+ * Console output of the measured methods is discarded while benchmarks run.
+ */
+public class PerformanceBenchmark {
+    /**
+     * The neighborhoods the generated projects are spread over.
+     */
+    private static final String[] NEIGHBORHOODS = {
+            "Ang Mo Kio", "Bedok", "Bishan", "Bukit Batok", "Bukit Merah", "Bukit Panjang", "Clementi",
+            "Geylang", "Hougang", "Jurong East", "Jurong West", "Kallang", "Pasir Ris", "Punggol",
+            "Queenstown", "Sembawang", "Sengkang", "Serangoon", "Tampines", "Toa Payoh", "Woodlands", "Yishun"
+    };
+    /**
+     * The number of managers the generated projects are spread over.
+     */
+    private static final int MANAGERS = 10;
+    /**
+     * The number of distinct lookup keys prepared per benchmark, cycled through while measuring.
+     */
+    private static final int KEYS = 1024;
+
+    /**
+     * The real console, kept so results can be printed while the measured methods' output is discarded.
+     */
+    private static final PrintStream console = System.out;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private PerformanceBenchmark() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args The options described in the class documentation.
+     * @throws IOException if the output or baseline file cannot be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int[] sizes = Arrays.stream(options.getOrDefault("sizes", "1000,10000,100000").split(","))
+                .mapToInt(size -> Integer.parseInt(size.trim())).toArray();
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        long iterationNanos = Long.parseLong(options.getOrDefault("time", "1000")) * 1_000_000L;
+        Set<String> only = options.containsKey("only") ? new HashSet<>(Arrays.asList(options.get("only").split(","))) : null;
+        Map<String, Double> baseline = options.containsKey("baseline") ? readResults(options.get("baseline")) : new HashMap<>();
+
+        List<String[]> results = new ArrayList<>();
+        Blackhole blackhole = new Blackhole();
+        console.printf("%-22s %10s %14s %12s %10s%n", "Benchmark", "Size", "ns/op", "+/-", "vs base");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int size : sizes) {
+                Dataset dataset = new Dataset(size);
+                for (Benchmark benchmark : benchmarks(dataset)) {
+                    if (only != null && !only.contains(benchmark.name)) {
+                        continue;
+                    }
+                    double[] nanosPerOp = new double[iterations];
+                    for (int i = 0; i < warmup + iterations; i++) {
+                        double result = runIteration(benchmark, iterationNanos, blackhole);
+                        if (i >= warmup) {
+                            nanosPerOp[i - warmup] = result;
+                        }
+                    }
+                    double mean = Arrays.stream(nanosPerOp).average().orElse(0);
+                    double deviation = Math.sqrt(Arrays.stream(nanosPerOp).map(x -> (x - mean) * (x - mean)).sum() / Math.max(1, iterations - 1));
+                    String key = benchmark.name + "," + size;
+                    String change = baseline.containsKey(key) ? String.format("%+.1f%%", (mean / baseline.get(key) - 1) * 100) : "";
+                    console.printf("%-22s %10d %14.1f %12.1f %10s%n", benchmark.name, size, mean, deviation, change);
+                    results.add(new String[]{benchmark.name, Integer.toString(size), String.format(Locale.ROOT, "%.1f", mean)});
+                }
+                dataset.release();
+            }
+        } finally {
+            System.setOut(console);
+        }
+        console.println("(checksum " + blackhole.checksum() + ")");
+        if (options.containsKey("output")) {
+            writeResults(options.get("output"), results);
+        }
+    }
+
+    /**
+     * Runs one iteration of a benchmark.
+     *
+     * @param benchmark      The benchmark to run.
+     * @param iterationNanos The length of the iteration. Ignored by benchmarks with a fixed batch size.
+     * @param blackhole      The {@link Blackhole} that consumes the results of each operation.
+     * @return The mean time per operation in nanoseconds.
+     */
+    private static double runIteration(Benchmark benchmark, long iterationNanos, Blackhole blackhole) {
+        benchmark.setupIteration();
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        if (benchmark.batchSize > 0) {
+            for (int i = 0; i < benchmark.batchSize; i++) {
+                benchmark.run(i, blackhole);
+            }
+            operations = benchmark.batchSize;
+            elapsed = System.nanoTime() - start;
+        } else {
+            do {
+                benchmark.run((int) (operations % KEYS), blackhole);
+                operations++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < iterationNanos);
+        }
+        return (double) elapsed / operations;
+    }
+
+    /**
+     * Defines the benchmarks over a dataset.
+     *
+     * @param data The dataset to run against.
+     * @return The benchmarks, in the order they are run.
+     */
+    private static List<Benchmark> benchmarks(Dataset data) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new Benchmark("findProject", 0,
+                (i, bh) -> bh.consume(ProjectRegistry.findProject(data.projectNames[i]))));
+        benchmarks.add(new Benchmark("filterProjects", 0,
+                (i, bh) -> bh.consume(ProjectRegistry.filterProjects(data.projects, data.locationFilters.get(i % data.locationFilters.size()), data.flatTypeFilter))));
+        benchmarks.add(new Benchmark("sortProjects", 0,
+                (i, bh) -> bh.consume(ProjectRegistry.sortProjects(new ArrayList<>(data.shuffledProjects), "LOCATION"))));
+        benchmarks.add(new Benchmark("findApplicationById", 0,
+                (i, bh) -> bh.consume(data.manager.findApplicationById(data.applicationIds[i]))));
+        benchmarks.add(new Benchmark("findEnquiryById", 0,
+                (i, bh) -> bh.consume(data.manager.findEnquiryById(data.enquiryIds[i]))));
+        benchmarks.add(new Benchmark("getAvailableProjects", 0,
+                (i, bh) -> bh.consume(data.applicant.getAvailableProjects())));
+        benchmarks.add(new Benchmark("bookFlat", data.bookingBatch, data::prepareBookings,
+                (i, bh) -> {
+                    Application application = data.bookings.get(i);
+                    data.officer.bookFlat(application, application.getAppliedFlatType());
+                    bh.consume(application.getApplicationStatus());
+                }));
+        benchmarks.add(new Benchmark("awaitingBookingScan", 0,
+                (i, bh) -> {
+                    List<Application> awaiting = new ArrayList<>();
+                    for (Application application : data.bookingProject.getApplications()) {
+                        if (application.getApplicationStatus() == ApplicationStatus.SUCCESSFUL) {
+                            awaiting.add(application);
+                        }
+                    }
+                    bh.consume(awaiting);
+                }));
+        benchmarks.add(new Benchmark("awaitingBookingBucket", 0,
+                (i, bh) -> bh.consume(new ArrayList<>(data.bookingProject.getSuccessfulApplications()))));
+        benchmarks.add(new Benchmark("generateBookingReport", 0,
+                (i, bh) -> {
+                    data.manager.generateBookingReport(data.bookedApplications, null, null);
+                    bh.consume(data.bookedApplications);
+                }));
+        return benchmarks;
+    }
+
+    /**
+     * Parses options of the form {@code --name=value}.
+     *
+     * @param args The command line arguments.
+     * @return The options by name.
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Reads results saved by an earlier run.
+     *
+     * @param fileName The results file.
+     * @return The nanoseconds per operation of each benchmark, keyed by {@code "name,size"}.
+     * @throws IOException if the file cannot be read.
+     */
+    private static Map<String, Double> readResults(String fileName) throws IOException {
+        Map<String, Double> results = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length == 3 && !fields[0].equals("benchmark")) {
+                    results.put(fields[0] + "," + fields[1], Double.parseDouble(fields[2]));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Saves results so a later run can be compared against them.
+     *
+     * @param fileName The results file.
+     * @param results  The rows of benchmark name, size and nanoseconds per operation.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void writeResults(String fileName, List<String[]> results) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
+            writer.println("benchmark,size,nsPerOp");
+            for (String[] row : results) {
+                writer.println(String.join(",", row));
+            }
+        }
+    }
+
+    /**
+     * Interface for the body of a benchmark, called once per measured operation.
+     */
+    private interface Operation {
+        /**
+         * Performs one operation.
+         *
+         * @param i         The index of the operation, used to pick a prepared key.
+         * @param blackhole The {@link Blackhole} to pass results to.
+         */
+        void run(int i, Blackhole blackhole);
+    }
+
+    /**
+     * A named benchmark.
+     */
+    private static final class Benchmark {
+        private final String name;
+        private final int batchSize;
+        private final Runnable iterationSetup;
+        private final Operation operation;
+
+        /**
+         * Constructs a benchmark without per-iteration setup.
+         *
+         * @param name      The name of the benchmark.
+         * @param batchSize The fixed number of operations per iteration, or 0 to run for the iteration time.
+         * @param operation The operation to measure.
+         */
+        Benchmark(String name, int batchSize, Operation operation) {
+            this(name, batchSize, () -> { }, operation);
+        }
+
+        /**
+         * Constructs a benchmark.
+         *
+         * @param name           The name of the benchmark.
+         * @param batchSize      The fixed number of operations per iteration, or 0 to run for the iteration time.
+         * @param iterationSetup The untimed setup run before each iteration.
+         * @param operation      The operation to measure.
+         */
+        Benchmark(String name, int batchSize, Runnable iterationSetup, Operation operation) {
+            this.name = name;
+            this.batchSize = batchSize;
+            this.iterationSetup = iterationSetup;
+            this.operation = operation;
+        }
+
+        /**
+         * Runs the untimed setup for an iteration.
+         */
+        void setupIteration() {
+            iterationSetup.run();
+        }
+
+        /**
+         * Performs one operation.
+         *
+         * @param i         The index of the operation.
+         * @param blackhole The {@link Blackhole} to pass results to.
+         */
+        void run(int i, Blackhole blackhole) {
+            operation.run(i, blackhole);
+        }
+    }
+
+    /**
+     * Consumes benchmark results so the JIT compiler cannot prove them unused and remove the measured work.
+     */
+    private static final class Blackhole {
+        private volatile Object sink;
+        private long hashes;
+
+        /**
+         * Consumes a result.
+         *
+         * @param value The result of an operation.
+         */
+        void consume(Object value) {
+            sink = value;
+            hashes += value == null ? 1 : 2;
+        }
+
+        /**
+         * Returns a value derived from everything consumed, printed so the work stays observable.
+         *
+         * @return The checksum.
+         */
+        long checksum() {
+            return hashes + (sink == null ? 0 : 1);
+        }
+    }
+
+    /**
+     * A generated dataset: projects spread over neighborhoods and managers, one application and one enquiry
+     * per project, and prepared lookup keys. The dataset is loaded into the {@link ProjectRegistry}.
+     */
+    private static final class Dataset {
+        private final List<BTOProject> projects = new ArrayList<>();
+        private final List<BTOProject> shuffledProjects;
+        private final String[] projectNames = new String[KEYS];
+        private final int[] applicationIds = new int[KEYS];
+        private final int[] enquiryIds = new int[KEYS];
+        private final List<List<String>> locationFilters = new ArrayList<>();
+        private final List<FlatType> flatTypeFilter = List.of(FlatType.TWOROOM);
+        private final HDBManager manager;
+        private final HDBOfficer officer;
+        private final Applicant applicant;
+        private final BTOProject bookingProject;
+        private final int bookingBatch;
+        private final List<Application> bookings = new ArrayList<>();
+        private final List<Application> bookedApplications = new ArrayList<>();
+
+        /**
+         * Generates a dataset and loads it into the registry.
+         *
+         * @param size The number of projects, applications and enquiries.
+         */
+        Dataset(int size) {
+            Random random = new Random(size);
+            HDBManager[] managers = new HDBManager[MANAGERS];
+            for (int m = 0; m < MANAGERS; m++) {
+                managers[m] = new HDBManager("Manager" + m, String.format("S%07dM", m), 40, MaritalStatus.MARRIED);
+            }
+            manager = managers[0];
+            officer = new HDBOfficer("Officer", "T0000001O", 30, MaritalStatus.MARRIED);
+            applicant = new Applicant("Applicant", "S0000001A", 30, MaritalStatus.MARRIED);
+            List<Application> managerApplications = new ArrayList<>();
+            List<Enquiry> managerEnquiries = new ArrayList<>();
+            for (int p = 0; p < size; p++) {
+                Map<FlatType, Integer> units = new HashMap<>();
+                units.put(FlatType.TWOROOM, 1000);
+                if (p % 3 != 0) {
+                    units.put(FlatType.THREEROOM, 1000);
+                }
+                HDBManager owner = managers[p % MANAGERS];
+                BTOProject project = new BTOProject(String.format("Project %07d", random.nextInt(size * 10)) + "-" + p,
+                        NEIGHBORHOODS[random.nextInt(NEIGHBORHOODS.length)], units,
+                        new Date(1, 1, 2025), new Date(31, 12, 2030), owner, 10);
+                project.setVisibility(p % 4 != 0);
+                Applicant buyer = new Applicant("Buyer" + p, String.format("S%07dB", p), 30, MaritalStatus.MARRIED);
+                Application application = new Application(buyer, project, ApplicationStatus.BOOKED, FlatType.TWOROOM);
+                project.addApplication(application);
+                Enquiry enquiry = new Enquiry(buyer, project, "Is there a shopping mall near " + project.getNeighborhood() + "?");
+                project.addEnquiry(enquiry);
+                projects.add(project);
+                if (owner == manager) {
+                    managerApplications.add(application);
+                    managerEnquiries.add(enquiry);
+                }
+            }
+            ProjectRegistry.addProjects(projects);
+            shuffledProjects = new ArrayList<>(projects);
+            Collections.shuffle(shuffledProjects, random);
+            for (int k = 0; k < KEYS; k++) {
+                projectNames[k] = projects.get(random.nextInt(size)).getName();
+                applicationIds[k] = managerApplications.get(random.nextInt(managerApplications.size())).getApplicationId();
+                enquiryIds[k] = managerEnquiries.get(random.nextInt(managerEnquiries.size())).getEnquiryId();
+            }
+            for (int f = 0; f < 16; f++) {
+                locationFilters.add(List.of(NEIGHBORHOODS[random.nextInt(NEIGHBORHOODS.length)], NEIGHBORHOODS[random.nextInt(NEIGHBORHOODS.length)]));
+            }
+            bookingProject = projects.get(0);
+            bookingBatch = Math.min(size, 100_000);
+            manager.setHandlingProject(bookingProject);
+            bookedApplications.addAll(managerApplications);
+        }
+
+        /**
+         * Prepares a fresh batch of successful applications for the booking benchmark and restocks the project.
+         */
+        void prepareBookings() {
+            bookingProject.removeApplications(bookings);
+            bookings.clear();
+            Map<FlatType, Integer> units = new HashMap<>();
+            units.put(FlatType.TWOROOM, bookingBatch);
+            bookingProject.setRemainingUnits(units);
+            for (int b = 0; b < bookingBatch; b++) {
+                Applicant buyer = new Applicant("Booker" + b, String.format("S%07dK", b), 30, MaritalStatus.MARRIED);
+                Application application = new Application(buyer, bookingProject, ApplicationStatus.SUCCESSFUL, FlatType.TWOROOM);
+                bookingProject.addApplication(application);
+                bookings.add(application);
+            }
+        }
+
+        /**
+         * Unloads the dataset from the registry.
+         */
+        void release() {
+            ProjectRegistry.clear();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package BTO_Management_System;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A throughput benchmark of the {@link ReceiptBatchWriter}. It books the given number of flats spread evenly
+ * over the given number of projects, then writes every receipt once per worker count and reports the receipts
+ * and megabytes written per second. It checks that every receipt was written and that one project's file matches
+ * the receipts {@link HDBOfficer#generateReceipt(Application)} would print.
+ * <p>
+ * Usage: {@code java BTO_Management_System.ReceiptBenchmark [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --projects=100} the number of projects</li>
+ *     <li>{@code --receipts=100000} the number of booked applications</li>
+ *     <li>{@code --workers=1,2,4} the worker counts to measure</li>
+ * </ul>
+ * The receipts are written to a temporary directory, which is deleted when the benchmark ends.
+ */
+public class ReceiptBenchmark {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ReceiptBenchmark() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The options described in the class documentation.
+     * @throws Exception if the receipt directory cannot be created or read.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int projectCount = Integer.parseInt(options.getOrDefault("projects", "100"));
+        int receipts = Integer.parseInt(options.getOrDefault("receipts", "100000"));
+        String[] workerCounts = options.getOrDefault("workers", "1,2,4").split(",");
+
+        PrintStream console = System.out;
+        Path directory = Files.createTempDirectory("bto-receipts-");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            List<BTOProject> projects = book(projectCount, receipts);
+            console.printf("Booked %d flats in %d projects, available processors: %d%n",
+                    receipts, projectCount, Runtime.getRuntime().availableProcessors());
+            new ReceiptBatchWriter(directory, 1).writeAll(projects);
+            console.printf("%-8s %12s %12s %10s%n", "workers", "ms", "receipts/s", "MB/s");
+            for (String workerCount : workerCounts) {
+                int workers = Integer.parseInt(workerCount.trim());
+                ReceiptBatchWriter writer = new ReceiptBatchWriter(directory, workers);
+                long start = System.nanoTime();
+                OperationResult<Map<String, Integer>> result = writer.writeAll(projects);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long bytes = 0;
+                for (BTOProject project : projects) {
+                    bytes += Files.size(writer.fileFor(project));
+                }
+                int written = result.getValue().values().stream().mapToInt(Integer::intValue).sum();
+                if (written != receipts) {
+                    console.printf("Violation: %d of %d receipts written%n", written, receipts);
+                }
+                console.printf("%-8d %12.1f %12.0f %10.1f%n", workers, seconds * 1e3, written / seconds, bytes / seconds / 1e6);
+            }
+
+            BTOProject sample = projects.get(0);
+            StringBuilder expected = new StringBuilder();
+            for (Application application : sample.getApplicationsWithStatus(ApplicationStatus.BOOKED)) {
+                expected.append(ReceiptBatchWriter.DEFAULT_TEMPLATE.render(application));
+            }
+            String actual = new String(Files.readAllBytes(new ReceiptBatchWriter(directory, 1).fileFor(sample)), StandardCharsets.UTF_8);
+            console.println(expected.toString().equals(actual) ? "Receipt file contents: as printed"
+                    : "Violation: the receipt file of " + sample.getName() + " differs from the printed receipts");
+        } finally {
+            System.setOut(console);
+            File[] files = directory.toFile().listFiles();
+            for (File file : files == null ? new File[0] : files) {
+                file.delete();
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Creates the projects and a booked application for each receipt, spread evenly over the projects.
+     *
+     * @param projectCount The number of projects.
+     * @param receipts     The number of booked applications.
+     * @return The projects.
+     */
+    private static List<BTOProject> book(int projectCount, int receipts) {
+        HDBManager manager = new HDBManager("Receipt Manager", "S0000001M", 45, MaritalStatus.MARRIED);
+        for (int p = 0; p < projectCount; p++) {
+            Map<FlatType, Integer> units = new EnumMap<>(FlatType.class);
+            units.put(FlatType.TWOROOM, receipts);
+            units.put(FlatType.THREEROOM, receipts);
+            manager.submitProject("Receipt Project " + p, "Town " + p % 10, units,
+                    new Date(1, 1, 2025), new Date(31, 12, 2030), 10);
+        }
+        List<BTOProject> projects = ProjectRegistry.getAllProjects();
+        for (int r = 0; r < receipts; r++) {
+            Applicant applicant = new Applicant("Buyer " + r, String.format("S%07dA", r), 30 + r % 30, MaritalStatus.MARRIED);
+            BTOProject project = projects.get(r % projectCount);
+            project.addApplication(new Application(applicant, project, ApplicationStatus.BOOKED, FlatType.values()[r % 2]));
+        }
+        return projects;
+    }
+}
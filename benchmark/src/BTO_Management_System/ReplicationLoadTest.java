@@ -0,0 +1,427 @@
+package BTO_Management_System;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local test of leader–follower replication. This JVM is the leader: it starts a {@link ReplicationLeader}
+ * and a follower JVM ({@code BTOManagementApp --follow}), then takes every write itself through a
+ * {@link BatchCommandRunner} while a reader thread queries the follower through a {@link ShardRouter}.
+ * The workload creates projects, registers officers, applies, approves and books, requests and approves
+ * withdrawals, submits and replies to enquiries, and finally moves and deletes some projects.
+ * <p>
+ * The reader compares the remaining units the follower reports with the leader's own, to show how often a
+ * follower read is stale. Once the writes stop, the test measures how long the follower takes to catch up,
+ * checks that its catalogue and booking reports match the leader's, and prints the follower's replication metrics.
+ * <p>
+ * Usage: {@code java BTO_Management_System.ReplicationLoadTest [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --projects=40} the number of projects, each with its own manager and officer</li>
+ *     <li>{@code --neighborhoods=10} the number of neighborhoods the projects are spread over</li>
+ *     <li>{@code --applicants=800} the number of applicants, each applying for one project</li>
+ * </ul>
+ * The follower JVM is stopped and its working directory removed when the test ends.
+ */
+public class ReplicationLoadTest {
+    /**
+     * The two-room and three-room units of every project.
+     */
+    private static final int UNITS_PER_FLAT_TYPE = 100;
+    /**
+     * How long to wait for the follower to catch up, in milliseconds.
+     */
+    private static final long CATCH_UP_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ReplicationLoadTest() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the test.
+     *
+     * @param args The options described in the class documentation.
+     * @throws Exception if the leader or the follower cannot be started.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int projectCount = Integer.parseInt(options.getOrDefault("projects", "40"));
+        int neighborhoods = Integer.parseInt(options.getOrDefault("neighborhoods", "10"));
+        int applicantCount = Integer.parseInt(options.getOrDefault("applicants", "800"));
+
+        PrintStream console = System.out;
+        ReplicationLeader leader = new ReplicationLeader();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        int leaderPort = leader.start(new InetSocketAddress(loopback, 0));
+        int metricsPort = freePort();
+        File directory = Files.createTempDirectory("bto-follower-").toFile();
+        Process follower = launch(directory, leaderPort, metricsPort);
+        try {
+            InetSocketAddress followerAddress = new InetSocketAddress(loopback, awaitPort(follower));
+            console.printf("Leader on port %d, follower on port %d%n", leaderPort, followerAddress.getPort());
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+            Map<String, User> users = new HashMap<>();
+            BatchCommandRunner runner = new BatchCommandRunner(users::get);
+            List<String> violations = new ArrayList<>();
+            try (ShardRouter router = new ShardRouter(Collections.singletonList(followerAddress), users::get)) {
+                AtomicBoolean writing = new AtomicBoolean(true);
+                AtomicLong reads = new AtomicLong();
+                AtomicLong staleReads = new AtomicLong();
+                Thread reader = new Thread(() -> sample(router, projectCount, writing, reads, staleReads), "follower-reader");
+                reader.start();
+                long start = System.nanoTime();
+                int commands = populate(runner, users, neighborhoods, projectCount, applicantCount, violations);
+                double writeMillis = (System.nanoTime() - start) / 1e6;
+                writing.set(false);
+                reader.join();
+                console.printf("Leader applied %d commands (%d events) in %.1f ms%n", commands, DomainEventBus.getLastSequence() + 1, writeMillis);
+                console.printf("Follower reads during writes: %d, stale: %d (%.1f%%)%n",
+                        reads.get(), staleReads.get(), reads.get() == 0 ? 0 : 100.0 * staleReads.get() / reads.get());
+
+                long caughtUp = catchUp(router);
+                console.println(caughtUp < 0 ? "Follower did not catch up within " + CATCH_UP_TIMEOUT_MILLIS + " ms"
+                        : String.format(Locale.ROOT, "Follower caught up %.1f ms after the last write", caughtUp / 1e6));
+                check(router, violations);
+            }
+            console.println("\nFollower replication metrics:");
+            for (String line : fetch("http://localhost:" + metricsPort + "/metrics").split("\n")) {
+                if (line.startsWith("replication")) {
+                    console.println("  " + line);
+                }
+            }
+            console.println(violations.isEmpty() ? "\nViolations: none" : "\nViolations:");
+            for (String violation : violations.subList(0, Math.min(20, violations.size()))) {
+                console.println("  " + violation);
+            }
+        } finally {
+            System.setOut(console);
+            leader.stop();
+            follower.destroy();
+            follower.waitFor(5, TimeUnit.SECONDS);
+            File[] files = directory.listFiles();
+            for (File file : files == null ? new File[0] : files) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    /**
+     * Starts the follower JVM, with the same Java runtime and class path as this one.
+     *
+     * @param directory   The working directory of the follower.
+     * @param leaderPort  The port the leader accepts followers on.
+     * @param metricsPort The port the follower serves its metrics on.
+     * @return The follower's process.
+     * @throws IOException If the process cannot be started.
+     */
+    private static Process launch(File directory, int leaderPort, int metricsPort) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-D" + Metrics.PORT_PROPERTY + "=" + metricsPort, "-cp", System.getProperty("java.class.path"),
+                "BTO_Management_System.BTOManagementApp", "--follow", String.valueOf(leaderPort), "0")
+                .directory(directory)
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    /**
+     * Finds a port that is free on the loopback interface.
+     *
+     * @return The port.
+     * @throws IOException If no port can be found.
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Reads the follower's output until it reports its port, then discards the rest of its output on a daemon thread.
+     *
+     * @param follower The follower's process.
+     * @return The port the follower serves queries on.
+     * @throws IOException If the follower exits without reporting a port.
+     */
+    private static int awaitPort(Process follower) throws IOException {
+        BufferedReader out = new BufferedReader(new InputStreamReader(follower.getInputStream(), StandardCharsets.UTF_8));
+        String prefix = "Follower serving on port ";
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                Thread drain = new Thread(() -> {
+                    try {
+                        while (out.readLine() != null) {
+                            // Discarding the follower's console output
+                        }
+                    } catch (IOException e) {
+                        // The follower has exited
+                    }
+                });
+                drain.setDaemon(true);
+                drain.start();
+                return Integer.parseInt(line.substring(prefix.length()).trim());
+            }
+        }
+        throw new IOException("The follower exited without reporting its port.");
+    }
+
+    /**
+     * Runs the write workload on the leader.
+     *
+     * @param runner         The runner applying the commands.
+     * @param users          The map to add the users to, by NRIC.
+     * @param neighborhoods  The number of neighborhoods.
+     * @param projectCount   The number of projects.
+     * @param applicantCount The number of applicants.
+     * @param violations     The list to add any unexpected failure to.
+     * @return The number of commands applied.
+     */
+    private static int populate(BatchCommandRunner runner, Map<String, User> users, int neighborhoods, int projectCount,
+                                int applicantCount, List<String> violations) {
+        int commands = 0;
+        for (int p = 0; p < projectCount; p++) {
+            String manager = nric('M', p);
+            String officer = nric('O', p);
+            users.put(manager, new HDBManager("Manager " + p, manager, 45, MaritalStatus.MARRIED));
+            users.put(officer, new HDBOfficer("Officer " + p, officer, 30, MaritalStatus.MARRIED));
+            expect(runner.execute("create-project|" + manager + "|Project " + p + "|Town " + (p % neighborhoods) + "|"
+                    + UNITS_PER_FLAT_TYPE + "|" + UNITS_PER_FLAT_TYPE + "|2025-01-01|2030-12-31|10"), violations);
+            expect(runner.execute("register|" + officer + "|Project " + p), violations);
+            expect(runner.execute("approve-registration|" + manager + "|" + officer), violations);
+            commands += 3;
+        }
+        for (int a = 0; a < applicantCount; a++) {
+            String applicant = nric('A', a);
+            users.put(applicant, new Applicant("Applicant " + a, applicant, 25 + a % 20, MaritalStatus.MARRIED));
+            int p = a % projectCount;
+            String flatType = FlatType.values()[a % 2].name();
+            OperationResult<?> applied = runner.execute("apply|" + applicant + "|Project " + p + "|" + flatType);
+            commands++;
+            if (!expect(applied, violations)) {
+                continue;
+            }
+            int applicationId = ((Application) applied.getValue()).getApplicationId();
+            expect(runner.execute("approve|" + nric('M', p) + "|" + applicationId), violations);
+            commands++;
+            if (a % 10 == 0) {
+                expect(runner.execute("withdraw|" + applicant), violations);
+                expect(runner.execute("approve-withdrawal|" + nric('M', p) + "|" + applicationId), violations);
+                commands += 2;
+            } else {
+                expect(runner.execute("book|" + nric('O', p) + "|" + applicationId + "|" + flatType), violations);
+                commands++;
+            }
+            if (a % 5 == 0) {
+                OperationResult<?> enquired = runner.execute("enquire|" + applicant + "|Project " + p + "|Is there parking near block " + a + "?");
+                commands++;
+                if (expect(enquired, violations)) {
+                    int enquiryId = ((Enquiry) enquired.getValue()).getEnquiryId();
+                    expect(runner.execute("reply|" + nric('M', p) + "|" + enquiryId + "|Yes, under block " + a + "."), violations);
+                    commands++;
+                }
+            }
+        }
+        for (int p = 0; p < projectCount; p += 7) {
+            ProjectRegistry.findProject("Project " + p).setNeighborhood("Town " + (p + 1) % neighborhoods);
+            commands++;
+        }
+        if (projectCount > 1) {
+            HDBManager manager = (HDBManager) users.get(nric('M', projectCount - 1));
+            manager.deleteProject(ProjectRegistry.findProject("Project " + (projectCount - 1)));
+            commands++;
+        }
+        return commands;
+    }
+
+    /**
+     * Reads random projects from the follower until the writes stop, counting the reads whose remaining
+     * units differ from the leader's at the time of the read.
+     *
+     * @param router       The router to the follower.
+     * @param projectCount The number of projects.
+     * @param writing      Whether the workload is still running.
+     * @param reads        The count of reads to add to.
+     * @param staleReads   The count of stale reads to add to.
+     */
+    private static void sample(ShardRouter router, int projectCount, AtomicBoolean writing, AtomicLong reads, AtomicLong staleReads) {
+        while (writing.get()) {
+            String name = "Project " + ThreadLocalRandom.current().nextInt(projectCount);
+            ShardRouter.RemoteProject replica = router.findProject(name);
+            BTOProject project = ProjectRegistry.findProject(name);
+            if (project == null) {
+                continue;
+            }
+            reads.incrementAndGet();
+            if (replica == null || unitsOf(replica) != unitsOf(project)) {
+                staleReads.incrementAndGet();
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(1);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits until the follower's catalogue matches the leader's.
+     *
+     * @param router The router to the follower.
+     * @return How long that took, in nanoseconds, or -1 if it did not happen in time.
+     */
+    private static long catchUp(ShardRouter router) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(CATCH_UP_TIMEOUT_MILLIS);
+        while (System.nanoTime() < deadline) {
+            if (differences(router).isEmpty()) {
+                return System.nanoTime() - start;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(1);
+            } catch (InterruptedException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks the follower's catalogue and booking reports against the leader's.
+     *
+     * @param router     The router to the follower.
+     * @param violations The list to add any violation to.
+     */
+    private static void check(ShardRouter router, List<String> violations) {
+        violations.addAll(differences(router));
+        for (BTOProject project : ProjectRegistry.getAllProjects()) {
+            Collection<Application> booked = project.getApplicationsWithStatus(ApplicationStatus.BOOKED);
+            String expected = HDBManager.formatBookingReport(project.getName(), booked, null, FlatType.TWOROOM.name());
+            OperationResult<Integer> report = router.bookingReport(project.getName(), null, FlatType.TWOROOM.name());
+            if (!report.isSuccess() || !expected.equals(report.getMessage())) {
+                violations.add("Booking report of " + project.getName() + " differs: " + report.getMessage());
+            }
+            if (report.isSuccess() && report.getValue() != booked.size()) {
+                violations.add(project.getName() + " has " + booked.size() + " bookings but the follower has " + report.getValue());
+            }
+        }
+    }
+
+    /**
+     * Compares the follower's catalogue with the leader's.
+     *
+     * @param router The router to the follower.
+     * @return A description of each difference found.
+     */
+    private static List<String> differences(ShardRouter router) {
+        List<String> differences = new ArrayList<>();
+        List<BTOProject> expected = ProjectRegistry.listProjects("ALPHABETICAL", Collections.emptyList(), Collections.emptyList());
+        List<ShardRouter.RemoteProject> actual = router.filterProjects("ALPHABETICAL", Collections.emptyList(), Collections.emptyList());
+        if (expected.size() != actual.size()) {
+            differences.add("The follower lists " + actual.size() + " of " + expected.size() + " projects.");
+            return differences;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            BTOProject project = expected.get(i);
+            ShardRouter.RemoteProject replica = actual.get(i);
+            if (!project.getName().equals(replica.getName()) || !project.getNeighborhood().equals(replica.getNeighborhood())
+                    || unitsOf(project) != unitsOf(replica)) {
+                differences.add(project.getName() + " in " + project.getNeighborhood() + " with " + unitsOf(project) + " units is "
+                        + replica.getName() + " in " + replica.getNeighborhood() + " with " + unitsOf(replica) + " units on the follower.");
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Adds up the remaining units of a project.
+     *
+     * @param project The project.
+     * @return The remaining units of every flat type it offers.
+     */
+    private static int unitsOf(BTOProject project) {
+        int units = 0;
+        for (FlatType flatType : project.getFlatTypes()) {
+            units += project.getRemainingUnits(flatType);
+        }
+        return units;
+    }
+
+    /**
+     * Adds up the remaining units of a project as the follower reports it.
+     *
+     * @param project The project.
+     * @return The remaining units of every flat type it offers.
+     */
+    private static int unitsOf(ShardRouter.RemoteProject project) {
+        int units = 0;
+        for (FlatType flatType : project.getFlatTypes()) {
+            units += project.getRemainingUnits(flatType);
+        }
+        return units;
+    }
+
+    /**
+     * Fetches a plain-text document over HTTP.
+     *
+     * @param url The URL.
+     * @return The document, or an empty string if it cannot be fetched.
+     */
+    private static String fetch(String url) {
+        try (InputStream in = URI.create(url).toURL().openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Records a failed result as a violation.
+     *
+     * @param result     The result.
+     * @param violations The list to add a violation to.
+     * @return true if the result was successful.
+     */
+    private static boolean expect(OperationResult<?> result, List<String> violations) {
+        if (!result.isSuccess()) {
+            violations.add(result.getCode() + ": " + result.getMessage());
+        }
+        return result.isSuccess();
+    }
+
+    /**
+     * Builds a valid, unique NRIC.
+     *
+     * @param prefix A letter telling the kinds of users apart.
+     * @param n      The number of the user.
+     * @return An NRIC such as {@code S0000042M}.
+     */
+    private static String nric(char prefix, int n) {
+        return String.format("S%07d%c", n, prefix);
+    }
+}
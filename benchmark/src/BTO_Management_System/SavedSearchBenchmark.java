@@ -0,0 +1,168 @@
+package BTO_Management_System;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A benchmark of the {@link SavedSearchIndex}. It saves one search for each of the given number of applicants,
+ * over random neighborhoods and flat types, then publishes projects one at a time and measures how long it takes
+ * to find and notify the matching applicants when each project is made visible. For comparison it also measures
+ * a scan of every saved search, which is what the applicants' polling amounts to, and checks that both find the
+ * same number of matches.
+ * <p>
+ * Usage: {@code java BTO_Management_System.SavedSearchBenchmark [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --searches=100000} the number of applicants with a saved search</li>
+ *     <li>{@code --projects=200} the number of projects published</li>
+ *     <li>{@code --towns=50} the number of neighborhoods</li>
+ * </ul>
+ * Searches name one to three neighborhoods, spelled in random case, or one in ten names none. The searches are
+ * saved before any project uses their neighborhoods, so the first project in each neighborhood also files the
+ * searches waiting for it.
+ */
+public class SavedSearchBenchmark {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SavedSearchBenchmark() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The options described in the class documentation.
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int searchCount = Integer.parseInt(options.getOrDefault("searches", "100000"));
+        int projectCount = Integer.parseInt(options.getOrDefault("projects", "200"));
+        int towns = Integer.parseInt(options.getOrDefault("towns", "50"));
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Random random = new Random(42);
+            List<Applicant> applicants = new ArrayList<>();
+            List<List<String>> searchedTowns = new ArrayList<>();
+            List<BitSet> locations = new ArrayList<>();
+            List<List<FlatType>> flatTypes = new ArrayList<>();
+            int ineligible = 0;
+            long start = System.nanoTime();
+            for (int s = 0; s < searchCount; s++) {
+                MaritalStatus maritalStatus = random.nextBoolean() ? MaritalStatus.MARRIED : MaritalStatus.SINGLE;
+                Applicant applicant = new Applicant("Searcher " + s, String.format("S%07dA", s), 21 + random.nextInt(40), maritalStatus);
+                List<String> wantedTowns = new ArrayList<>();
+                if (random.nextInt(10) != 0) {
+                    for (int t = 1 + random.nextInt(3); t > 0; t--) {
+                        String town = "Town " + random.nextInt(towns);
+                        wantedTowns.add(random.nextBoolean() ? town : town.toUpperCase());
+                    }
+                }
+                List<FlatType> wantedTypes = new ArrayList<>();
+                if (random.nextBoolean()) {
+                    wantedTypes.add(FlatType.values()[random.nextInt(FlatType.values().length)]);
+                }
+                if (SavedSearchIndex.save(applicant, wantedTowns, wantedTypes).isSuccess()) {
+                    applicants.add(applicant);
+                    searchedTowns.add(wantedTowns);
+                    locations.add(null);
+                    flatTypes.add(wantedTypes);
+                } else {
+                    ineligible++;
+                }
+            }
+            console.printf("Saved %d searches in %.1f ms (%d applicants not eligible for what they searched for)%n",
+                    SavedSearchIndex.size(), (System.nanoTime() - start) / 1e6, ineligible);
+
+            HDBManager manager = new HDBManager("Search Manager", "S9999999M", 45, MaritalStatus.MARRIED);
+            LatencyHistogram pushes = new LatencyHistogram();
+            LatencyHistogram scans = new LatencyHistogram();
+            long scanned = 0;
+            int filtersBuiltAt = -1;
+            for (int p = 0; p < projectCount; p++) {
+                Map<FlatType, Integer> units = new EnumMap<>(FlatType.class);
+                units.put(FlatType.values()[random.nextInt(FlatType.values().length)], 100);
+                BTOProject project = new BTOProject("Search Project " + p, "Town " + random.nextInt(towns), units,
+                        new Date(1, 1, 2025), new Date(31, 12, 2030), manager, 10);
+                project.setVisibility(false);
+                ProjectRegistry.addProject(project);
+                long pushStart = System.nanoTime();
+                project.setVisibility(true);
+                pushes.record(System.nanoTime() - pushStart);
+
+                if (filtersBuiltAt != NeighborhoodDictionary.size()) {
+                    // A polling view compiles its filter against the neighborhoods known when it polls
+                    filtersBuiltAt = NeighborhoodDictionary.size();
+                    for (int s = 0; s < applicants.size(); s++) {
+                        locations.set(s, ProjectRegistry.locationFilter(searchedTowns.get(s)));
+                    }
+                }
+                long scanStart = System.nanoTime();
+                int scanMatches = 0;
+                for (int s = 0; s < applicants.size(); s++) {
+                    if (matchesByScan(project, applicants.get(s), locations.get(s), flatTypes.get(s))) {
+                        scanMatches++;
+                    }
+                }
+                scans.record(System.nanoTime() - scanStart);
+                scanned += scanMatches;
+            }
+            long delivered = 0;
+            for (Applicant applicant : applicants) {
+                delivered += SavedSearchIndex.takeNotifications(applicant).size();
+            }
+
+            console.printf("%-22s %10s %10s %10s%n", "per published project", "mean us", "p50 us", "p99 us");
+            console.printf("%-22s %10.1f %10.1f %10.1f%n", "reverse index", pushes.getMean() / 1e3,
+                    pushes.getPercentile(50) / 1e3, pushes.getPercentile(99) / 1e3);
+            console.printf("%-22s %10.1f %10.1f %10.1f%n", "scan every search", scans.getMean() / 1e3,
+                    scans.getPercentile(50) / 1e3, scans.getPercentile(99) / 1e3);
+            console.printf("Matches: %d notified, %d by scan (%.1f per project)%n",
+                    delivered, scanned, delivered / (double) projectCount);
+            long dropped = SavedSearchIndex.getDroppedCount();
+            if (dropped > 0) {
+                console.printf("Dropped %d notifications of applicants already holding %d%n",
+                        dropped, SavedSearchIndex.MAX_NOTIFICATIONS_PER_APPLICANT);
+            }
+            if (delivered + dropped != scanned) {
+                console.println("Violation: the reverse index and the scan disagree");
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Checks a saved search against a project the slow way, as a polling view would.
+     *
+     * @param project   The project.
+     * @param applicant The applicant who saved the search.
+     * @param locations The codes of the neighborhoods searched for, or null for any.
+     * @param flatTypes The flat types searched for, or an empty list for any.
+     * @return true if the project matches the search and the applicant may apply for it.
+     */
+    private static boolean matchesByScan(BTOProject project, Applicant applicant, BitSet locations, List<FlatType> flatTypes) {
+        boolean matches = ProjectRegistry.matchesFilters(project, locations, flatTypes) && applicant.isEligibleToApply(project);
+        if (matches && !flatTypes.isEmpty()) {
+            matches = false;
+            for (FlatType flatType : flatTypes) {
+                matches |= applicant.getEligibleFlatTypes().contains(flatType) && project.getInventory().isOffered(flatType);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,303 @@
+package BTO_Management_System;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local test of the sharded registry. It starts several shard JVMs ({@code BTOManagementApp --shard 0}),
+ * each in its own working directory, and drives them through a {@link ShardRouter}: managers create projects
+ * spread over the neighborhoods, officers register and are approved, applicants apply and are approved, and
+ * officers book their flats. It then checks that every project is listed only by the shard owning its
+ * neighborhood, that cross-shard listings come back complete and in order, and that booked and remaining
+ * units add up, and measures lookups and listings through the router.
+ * <p>
+ * Usage: {@code java BTO_Management_System.ShardLauncher [options]} with the main module on the class path.
+ * <ul>
+ *     <li>{@code --shards=3} the number of shard JVMs</li>
+ *     <li>{@code --neighborhoods=22} the number of neighborhoods the projects are spread over</li>
+ *     <li>{@code --projects=60} the number of projects, each with its own manager and officer</li>
+ *     <li>{@code --applicants=600} the number of applicants, each applying for one project</li>
+ *     <li>{@code --seconds=3} how long to measure lookups and listings</li>
+ * </ul>
+ * The shard JVMs are stopped and their working directories removed when the test ends.
+ */
+public class ShardLauncher {
+    /**
+     * The two-room and three-room units of every project.
+     */
+    private static final int UNITS_PER_FLAT_TYPE = 100;
+    /**
+     * The working directories of the shards, removed when the test ends.
+     */
+    private static final List<File> DIRECTORIES = new ArrayList<>();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ShardLauncher() {
+        // Empty private constructor
+    }
+
+    /**
+     * Runs the test.
+     *
+     * @param args The options described in the class documentation.
+     * @throws Exception if a shard cannot be started.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int shardCount = Integer.parseInt(options.getOrDefault("shards", "3"));
+        int neighborhoods = Integer.parseInt(options.getOrDefault("neighborhoods", "22"));
+        int projectCount = Integer.parseInt(options.getOrDefault("projects", "60"));
+        int applicantCount = Integer.parseInt(options.getOrDefault("applicants", "600"));
+        long seconds = Long.parseLong(options.getOrDefault("seconds", "3"));
+
+        PrintStream console = System.out;
+        List<Process> shards = new ArrayList<>();
+        try {
+            List<InetSocketAddress> addresses = new ArrayList<>();
+            for (int i = 0; i < shardCount; i++) {
+                Process shard = launch(i);
+                shards.add(shard);
+                addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), awaitPort(shard)));
+            }
+            console.printf("Started %d shards on ports %s%n", shardCount, addresses);
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+            Map<String, User> users = new HashMap<>();
+            try (ShardRouter router = new ShardRouter(addresses, users::get)) {
+                List<String> violations = new ArrayList<>();
+                long start = System.nanoTime();
+                int booked = populate(router, users, neighborhoods, projectCount, applicantCount, violations);
+                console.printf("Populated %d projects and booked %d flats in %.1f ms%n",
+                        projectCount, booked, (System.nanoTime() - start) / 1e6);
+                console.println("Projects per shard: " + check(router, neighborhoods, projectCount, booked, violations));
+                measure(console, router, neighborhoods, projectCount, seconds);
+                console.println(violations.isEmpty() ? "\nViolations: none" : "\nViolations:");
+                for (String violation : violations.subList(0, Math.min(20, violations.size()))) {
+                    console.println("  " + violation);
+                }
+            }
+        } finally {
+            System.setOut(console);
+            for (Process shard : shards) {
+                shard.destroy();
+            }
+            for (Process shard : shards) {
+                shard.waitFor(5, TimeUnit.SECONDS);
+            }
+            for (File directory : DIRECTORIES) {
+                File[] files = directory.listFiles();
+                for (File file : files == null ? new File[0] : files) {
+                    file.delete();
+                }
+                directory.delete();
+            }
+        }
+    }
+
+    /**
+     * Starts a shard JVM on a free port, with the same Java runtime and class path as this one.
+     *
+     * @param index The position of the shard.
+     * @return The shard's process.
+     * @throws IOException If the process cannot be started.
+     */
+    private static Process launch(int index) throws IOException {
+        File directory = Files.createTempDirectory("bto-shard-" + index + "-").toFile();
+        DIRECTORIES.add(directory);
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "BTO_Management_System.BTOManagementApp", "--shard", "0")
+                .directory(directory)
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    /**
+     * Reads a shard's output until it reports its port, then discards the rest of its output on a daemon thread.
+     *
+     * @param shard The shard's process.
+     * @return The port the shard listens on.
+     * @throws IOException If the shard exits without reporting a port.
+     */
+    private static int awaitPort(Process shard) throws IOException {
+        BufferedReader out = new BufferedReader(new InputStreamReader(shard.getInputStream(), StandardCharsets.UTF_8));
+        String prefix = "Shard listening on port ";
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith(prefix)) {
+                Thread drain = new Thread(() -> {
+                    try {
+                        while (out.readLine() != null) {
+                            // Discarding the shard's console output
+                        }
+                    } catch (IOException e) {
+                        // The shard has exited
+                    }
+                });
+                drain.setDaemon(true);
+                drain.start();
+                return Integer.parseInt(line.substring(prefix.length()).trim());
+            }
+        }
+        throw new IOException("The shard exited without reporting its port.");
+    }
+
+    /**
+     * Creates the projects, staff and applicants through the router and takes every application through to a booking.
+     *
+     * @param router         The router.
+     * @param users          The map to add the users to, by NRIC.
+     * @param neighborhoods  The number of neighborhoods.
+     * @param projectCount   The number of projects.
+     * @param applicantCount The number of applicants.
+     * @param violations     The list to add any unexpected failure to.
+     * @return The number of flats booked.
+     */
+    private static int populate(ShardRouter router, Map<String, User> users, int neighborhoods, int projectCount,
+                                int applicantCount, List<String> violations) {
+        for (int p = 0; p < projectCount; p++) {
+            String manager = nric('M', p);
+            String officer = nric('O', p);
+            users.put(manager, new HDBManager("Manager " + p, manager, 45, MaritalStatus.MARRIED));
+            users.put(officer, new HDBOfficer("Officer " + p, officer, 30, MaritalStatus.MARRIED));
+            expect(router.execute("create-project|" + manager + "|Project " + p + "|Town " + (p % neighborhoods) + "|"
+                    + UNITS_PER_FLAT_TYPE + "|" + UNITS_PER_FLAT_TYPE + "|2025-01-01|2030-12-31|10"), violations);
+            expect(router.execute("register|" + officer + "|Project " + p), violations);
+            expect(router.execute("approve-registration|" + manager + "|" + officer), violations);
+        }
+        int booked = 0;
+        for (int a = 0; a < applicantCount; a++) {
+            String applicant = nric('A', a);
+            users.put(applicant, new Applicant("Applicant " + a, applicant, 30, MaritalStatus.MARRIED));
+            int p = a % projectCount;
+            OperationResult<Integer> applied = router.apply(applicant, "Project " + p, FlatType.values()[a % 2]);
+            if (expect(applied, violations)
+                    && expect(router.execute("approve|" + nric('M', p) + "|" + applied.getValue()), violations)
+                    && expect(router.book(nric('O', p), applied.getValue(), FlatType.values()[a % 2]), violations)) {
+                booked++;
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Checks the listings of the router against the dataset.
+     *
+     * @param router        The router.
+     * @param neighborhoods The number of neighborhoods.
+     * @param projectCount  The number of projects.
+     * @param booked        The number of flats booked.
+     * @param violations    The list to add any violation to.
+     * @return The number of projects each shard listed, by shard address.
+     */
+    private static Map<InetSocketAddress, Integer> check(ShardRouter router, int neighborhoods, int projectCount, int booked, List<String> violations) {
+        List<ShardRouter.RemoteProject> all = router.filterProjects("ALPHABETICAL", Collections.emptyList(), Collections.emptyList());
+        if (all.size() != projectCount) {
+            violations.add("Listing every shard returned " + all.size() + " of " + projectCount + " projects.");
+        }
+        int remaining = 0;
+        for (int i = 0; i < all.size(); i++) {
+            if (i > 0 && all.get(i - 1).getName().compareTo(all.get(i).getName()) > 0) {
+                violations.add("Merged listing out of order at " + all.get(i).getName());
+            }
+            for (FlatType flatType : all.get(i).getFlatTypes()) {
+                remaining += all.get(i).getRemainingUnits(flatType);
+            }
+        }
+        if (booked + remaining != projectCount * 2 * UNITS_PER_FLAT_TYPE) {
+            violations.add(booked + " booked + " + remaining + " remaining != " + projectCount * 2 * UNITS_PER_FLAT_TYPE + " offered");
+        }
+        Map<InetSocketAddress, Integer> perShard = new LinkedHashMap<>();
+        for (int n = 0; n < neighborhoods; n++) {
+            String town = "Town " + n;
+            List<ShardRouter.RemoteProject> local = router.filterProjects("LOCATION", Collections.singletonList(town), Collections.emptyList());
+            int expected = projectCount / neighborhoods + (n < projectCount % neighborhoods ? 1 : 0);
+            if (local.size() != expected) {
+                violations.add(town + " listed " + local.size() + " of " + expected + " projects.");
+            }
+            for (ShardRouter.RemoteProject project : local) {
+                if (!project.getNeighborhood().equals(town)) {
+                    violations.add(project.getName() + " of " + project.getNeighborhood() + " listed under " + town);
+                }
+            }
+            perShard.merge(router.shardFor(town), local.size(), Integer::sum);
+        }
+        return perShard;
+    }
+
+    /**
+     * Measures project lookups by name and single-neighborhood and all-shard listings through the router.
+     *
+     * @param console       The stream to report to.
+     * @param router        The router.
+     * @param neighborhoods The number of neighborhoods.
+     * @param projectCount  The number of projects.
+     * @param seconds       How long to measure each operation.
+     */
+    private static void measure(PrintStream console, ShardRouter router, int neighborhoods, int projectCount, long seconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        int lookups = 0;
+        while (System.nanoTime() < deadline) {
+            router.findProject("Project " + (lookups++ % projectCount));
+        }
+        console.printf("findProject:               %10.1f per second%n", lookups / (double) seconds);
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        int listings = 0;
+        while (System.nanoTime() < deadline) {
+            router.filterProjects("ALPHABETICAL", Collections.singletonList("Town " + (listings++ % neighborhoods)), Collections.emptyList());
+        }
+        console.printf("filterProjects, one town:  %10.1f per second%n", listings / (double) seconds);
+        deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        listings = 0;
+        while (System.nanoTime() < deadline) {
+            router.filterProjects("ALPHABETICAL", Collections.emptyList(), Collections.singletonList(FlatType.TWOROOM));
+            listings++;
+        }
+        console.printf("filterProjects, all shards:%10.1f per second%n", listings / (double) seconds);
+        console.println("\nRouter-side latencies (microseconds):");
+        console.print(Metrics.report());
+    }
+
+    /**
+     * Records a failed result as a violation.
+     *
+     * @param result     The result.
+     * @param violations The list to add a violation to.
+     * @return true if the result was successful.
+     */
+    private static boolean expect(OperationResult<?> result, List<String> violations) {
+        if (!result.isSuccess()) {
+            violations.add(result.getCode() + ": " + result.getMessage());
+        }
+        return result.isSuccess();
+    }
+
+    /**
+     * Builds a valid, unique NRIC.
+     *
+     * @param prefix A letter telling the kinds of users apart.
+     * @param n      The number of the user.
+     * @return An NRIC such as {@code S0000042M}.
+     */
+    private static String nric(char prefix, int n) {
+        return String.format("S%07d%c", n, prefix);
+    }
+}
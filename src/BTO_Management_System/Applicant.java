@@ -1,6 +1,7 @@
 package BTO_Management_System;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
 
 /**
@@ -16,9 +17,21 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     protected Application application;
     /**
-     * A list of enquiries submitted by this applicant.
+     * The enquiries submitted by this applicant, keyed by enquiry ID.
      */
-    private List<Enquiry> enquiries;
+    private final NavigableMap<Integer, Enquiry> enquiries;
+    /**
+     * The latency metrics of {@link #apply(ProjectViewable, FlatType)}.
+     */
+    private static final OperationMetrics APPLY_METRICS = Metrics.operation("apply");
+    /**
+     * The flat types singles aged 35 and above may apply for.
+     */
+    private static final Set<FlatType> SINGLE_FLAT_TYPES = Collections.unmodifiableSet(EnumSet.of(FlatType.TWOROOM));
+    /**
+     * The flat types married applicants aged 21 and above may apply for.
+     */
+    private static final Set<FlatType> MARRIED_FLAT_TYPES = Collections.unmodifiableSet(EnumSet.of(FlatType.TWOROOM, FlatType.THREEROOM));
 
     /**
      * Constructs a new Applicant with the specified details.
@@ -30,7 +43,7 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     public Applicant(String name, String nric, int age, MaritalStatus maritalStatus) {
         super(name, nric, age, maritalStatus);
-        this.enquiries = new ArrayList<>();
+        this.enquiries = new ConcurrentSkipListMap<>();
     }
 
     /**
@@ -43,14 +56,23 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
         return "Applicant";
     }
 
+    /**
+     * Returns the current application submitted by this applicant.
+     *
+     * @return The current {@link Application}, or null if the applicant has not applied.
+     */
+    public Application getApplication() {
+        return application;
+    }
+
     /**
      * Retrieves the list of enquiries submitted by this applicant.
      *
-     * @return A List of Enquiry objects.
+     * @return A copy of the list of Enquiry objects.
      */
     @Override
     public List<Enquiry> getEnquiries() {
-        return this.enquiries;
+        return new ArrayList<>(enquiries.values());
     }
 
     //Private Methods (helpers)
@@ -59,17 +81,29 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      * Retrieves a list of BTO projects that are currently available and for which
      * the applicant is eligible to apply. The list is sorted alphabetically by project name.
      *
+     * Package-private so the performance benchmarks can measure it.
+     *
      * @return A List of available and eligible BTOProject objects.
      */
-    private List<BTOProject> getAvailableProjects() {
-        List<BTOProject> filtered = new ArrayList<>();
-        for (BTOProject project : ProjectRegistry.getAllProjects()) {
-            if (isEligibleToApply(project) && project.isVisible()) {
-                filtered.add(project);
-            }
-        }
-        filtered.sort(Comparator.comparing(BTOProject::getName));
-        return filtered;
+    List<BTOProject> getAvailableProjects() {
+        return getAvailableProjects("ALPHABETICAL", Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Retrieves the available projects the applicant is eligible for that also match the given filters,
+     * read in order from the registry's pre-sorted index for the given sort order.
+     *
+     * @param sortBy    A String indicating the sorting order ("ALPHABETICAL", "LOCATION", "FLAT_TYPE").
+     * @param locations A list of neighborhood locations to filter by. An empty list means no location filter.
+     * @param flatTypes A list of FlatType enums to filter by. An empty list means no flat type filter.
+     * @return A List of available, eligible and matching BTOProject objects in sorted order.
+     */
+    private List<BTOProject> getAvailableProjects(String sortBy, List<String> locations, List<FlatType> flatTypes) {
+        BitSet locationCodes = ProjectRegistry.locationFilter(locations);
+        return ProjectRegistry.streamSortedProjects(sortBy)
+                .filter(project -> isEligibleToApply(project) && project.isVisible())
+                .filter(project -> ProjectRegistry.matchesFilters(project, locationCodes, flatTypes))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -81,12 +115,36 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     protected boolean isEligibleToApply(BTOProject project) {
         if (!project.isVisible()) return false;
+        for (FlatType flatType : getEligibleFlatTypes()) {
+            if (project.getInventory().isOffered(flatType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the flat types the applicant may apply for based on their age and marital status:
+     * two-room flats for singles aged 35 and above, and both flat types for married applicants aged 21 and above.
+     *
+     * @return The eligible flat types, empty if the applicant may not apply for any. The set is shared and cannot be modified.
+     */
+    Set<FlatType> getEligibleFlatTypes() {
         if (age >= 35 && maritalStatus == MaritalStatus.SINGLE) {
-            return project.getFlatTypes().contains(FlatType.TWOROOM);
+            return SINGLE_FLAT_TYPES;
         } else if (age >= 21 && maritalStatus == MaritalStatus.MARRIED) {
-            return project.getFlatTypes().contains(FlatType.TWOROOM) || project.getFlatTypes().contains(FlatType.THREEROOM); // Married 21+ can apply for both
+            return MARRIED_FLAT_TYPES; // Married 21+ can apply for both
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Prints and clears the notifications of new projects matching the applicant's saved search.
+     */
+    public void showSearchNotifications() {
+        for (String notification : SavedSearchIndex.takeNotifications(this)) {
+            System.out.println(notification);
         }
-        return false;
     }
 
     /**
@@ -112,41 +170,51 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     @Override
     public void apply(ProjectViewable project, FlatType flatType) {
+        System.out.println(APPLY_METRICS.time(() -> submitApplication(project, flatType)).getMessage());
+    }
+
+    /**
+     * Checks the applicant's eligibility and submits an application for a project and flat type,
+     * without printing anything. This is the operation behind {@link #apply(ProjectViewable, FlatType)}.
+     *
+     * @param project   The ProjectViewable object representing the BTO project to apply for.
+     * @param flatType  The desired flat type for the application.
+     * @return The result, holding the new {@link Application} on success.
+     */
+    public OperationResult<Application> submitApplication(ProjectViewable project, FlatType flatType) {
         if (!(project instanceof BTOProject)) {
-            System.out.println("Error: Invalid project type for application.");
-            return;
+            return OperationResult.failure(ResultCode.INVALID_PROJECT, "Error: Invalid project type for application.");
         }
         BTOProject btoProject = (BTOProject) project;
         if (!getAvailableProjects().contains(btoProject)) {
-            System.out.println("You are not allowed to apply for this project based on your eligibility!");
-            return;
+            return OperationResult.failure(ResultCode.NOT_ELIGIBLE, "You are not allowed to apply for this project based on your eligibility!");
         }
         if (!btoProject.getFlatTypes().contains(flatType)) {
-            System.out.println("The selected flat type (" + flatType + ") is not available for this project (" + btoProject.getName() + ")!");
-            return;
+            return OperationResult.failure(ResultCode.FLAT_TYPE_NOT_OFFERED, "The selected flat type (" + flatType + ") is not available for this project (" + btoProject.getName() + ")!");
         }
-        if (!btoProject.getRemainingUnits().containsKey(flatType) || btoProject.getRemainingUnits().get(flatType) <= 0) {
-            System.out.println("The selected flat type (" + flatType + ") in project " + btoProject.getName() + " is currently unavailable!");
-            return;
+        if (btoProject.getRemainingUnits(flatType) <= 0) {
+            return OperationResult.failure(ResultCode.NO_UNITS_AVAILABLE, "The selected flat type (" + flatType + ") in project " + btoProject.getName() + " is currently unavailable!");
         }
         if (maritalStatus == MaritalStatus.SINGLE) {
             if (age < 35) {
-                System.out.println("Single applicants must be 35 years old and above to apply.");
-                return;
+                return OperationResult.failure(ResultCode.NOT_ELIGIBLE, "Single applicants must be 35 years old and above to apply.");
             }
             if (flatType != FlatType.TWOROOM) {
-                System.out.println("Singles 35 years old and above can only apply for 2-Room flats.");
-                return;
+                return OperationResult.failure(ResultCode.NOT_ELIGIBLE, "Singles 35 years old and above can only apply for 2-Room flats.");
             }
         } else if (maritalStatus == MaritalStatus.MARRIED) {
             if (age < 21) {
-                System.out.println("Married applicants must be 21 years old and above to apply.");
-                return;
+                return OperationResult.failure(ResultCode.NOT_ELIGIBLE, "Married applicants must be 21 years old and above to apply.");
             }
         }
-        application = new Application(this, btoProject, ApplicationStatus.PENDING, flatType);
-        btoProject.getApplications().add(application);
-        System.out.println("Successfully applied for project: " + btoProject.getName() + " - " + flatType);
+        Application submitted = new Application(this, btoProject, ApplicationStatus.PENDING, flatType);
+        application = submitted;
+        // Published before anyone else can change the new application, so its submission is its first event
+        synchronized (submitted) {
+            btoProject.addApplication(submitted);
+            DomainEventBus.publish(DomainEventType.APPLICATION_SUBMITTED, submitted, this, null, ApplicationStatus.PENDING);
+        }
+        return OperationResult.success(application, "Successfully applied for project: " + btoProject.getName() + " - " + flatType);
     }
 
     /**
@@ -183,20 +251,36 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     @Override
     public void requestWithdrawApplication() {
-        if (application == null) {
-            System.out.println("You do not have any application yet!");
-            return;
-        }
-        if (application.getApplicationStatus() == ApplicationStatus.BOOKED) {
-            System.out.println("You cannot withdraw your application as it is already booked.");
-            return;
+        System.out.println(requestWithdrawal().getMessage());
+    }
+
+    /**
+     * Requests a withdrawal of the applicant's current application without printing anything.
+     * The request joins the withdrawal {@link ReviewQueue} of the project's manager.
+     * This is the operation behind {@link #requestWithdrawApplication()}.
+     *
+     * @return The result, holding the {@link Application} to be withdrawn on success.
+     */
+    public OperationResult<Application> requestWithdrawal() {
+        Application current = application;
+        if (current == null) {
+            return OperationResult.failure(ResultCode.NO_APPLICATION, "You do not have any application yet!");
         }
-        if (application.isWithdrawalRequested()) {
-            System.out.println("You have already requested a withdrawal. Please wait for approval.");
-            return;
+        synchronized (current) {
+            if (current.getApplicationStatus() == ApplicationStatus.BOOKED) {
+                return OperationResult.failure(ResultCode.ALREADY_BOOKED, "You cannot withdraw your application as it is already booked.");
+            }
+            if (current.isWithdrawalRequested()) {
+                return OperationResult.failure(ResultCode.WITHDRAWAL_ALREADY_REQUESTED, "You have already requested a withdrawal. Please wait for approval.");
+            }
+            current.setWithdrawalRequested(true);
+            HDBManager manager = current.getProjectApplied().getManager();
+            if (manager != null) {
+                manager.getWithdrawalQueue().enqueue(current);
+            }
+            DomainEventBus.publish(DomainEventType.WITHDRAWAL_REQUESTED, current, this, current.getApplicationStatus(), null);
         }
-        application.setWithdrawalRequested(true);
-        System.out.println("Your withdrawal request has been submitted and is pending manager approval.");
+        return OperationResult.success(current, "Your withdrawal request has been submitted and is pending manager approval.");
     }
 
     /**
@@ -217,20 +301,30 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     @Override
     public void submitEnquiry(ProjectViewable project, String enquiryText) {
+        System.out.println(createEnquiry(project, enquiryText).getMessage());
+    }
+
+    /**
+     * Creates an enquiry about a project without printing anything.
+     * This is the operation behind {@link #submitEnquiry(ProjectViewable, String)}.
+     *
+     * @param project     The ProjectViewable object representing the BTO project the enquiry is about.
+     * @param enquiryText The text content of the enquiry.
+     * @return The result, holding the new {@link Enquiry} on success.
+     */
+    public OperationResult<Enquiry> createEnquiry(ProjectViewable project, String enquiryText) {
         if (!(project instanceof BTOProject)) {
-            System.out.println("Error: Invalid project type for enquiry.");
-            return;
+            return OperationResult.failure(ResultCode.INVALID_PROJECT, "Error: Invalid project type for enquiry.");
         }
         BTOProject btoProject = (BTOProject) project;
         List<BTOProject> availableProjects = getAvailableProjects();
         if (!availableProjects.contains(btoProject)) {
-            System.out.println("Invalid or unavailable project for enquiry!");
-            return;
+            return OperationResult.failure(ResultCode.INVALID_PROJECT, "Invalid or unavailable project for enquiry!");
         }
         Enquiry newEnquiry = new Enquiry(this, btoProject, enquiryText);
-        enquiries.add(newEnquiry);
+        enquiries.put(newEnquiry.getEnquiryId(), newEnquiry);
         btoProject.addEnquiry(newEnquiry);
-        System.out.println("Enquiry submitted. ID: " + newEnquiry.getEnquiryId());
+        return OperationResult.success(newEnquiry, "Enquiry submitted. ID: " + newEnquiry.getEnquiryId());
     }
 
     /**
@@ -241,12 +335,7 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     @Override
     public Enquiry findEnquiryById(int enquiryId) {
-        for (Enquiry enquiry : enquiries) {
-            if (enquiry.getEnquiryId() == enquiryId) {
-                return enquiry;
-            }
-        }
-        return null;
+        return enquiries.get(enquiryId);
     }
 
     /**
@@ -254,11 +343,30 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     @Override
     public void showAllEnquiries() {
+        showAllEnquiries(null);
+    }
+
+    /**
+     * Displays the enquiries submitted by this applicant one page at a time.
+     *
+     * @param scanner The Scanner object used to ask for the next page, or null to print every page.
+     */
+    public void showAllEnquiries(Scanner scanner) {
         System.out.println("The following are all your enquiries:");
-        for (int i = 0; i < enquiries.size(); i++) {
-            Enquiry enquiry = enquiries.get(i);
-            System.out.println((i + 1) + ". " + enquiry.getEnquiryDetails());
-        }
+        int[] position = {0};
+        ConsolePager.show(scanner, token -> getEnquiriesPage(token, Page.DEFAULT_PAGE_SIZE),
+                enquiry -> (++position[0]) + ". " + enquiry.getEnquiryDetails());
+    }
+
+    /**
+     * Returns one page of the enquiries submitted by this applicant, in enquiry ID order.
+     *
+     * @param token    The continuation token from the previous page, or null for the first page.
+     * @param pageSize The maximum number of enquiries on the page.
+     * @return The requested page of enquiries.
+     */
+    public Page<Enquiry> getEnquiriesPage(String token, int pageSize) {
+        return Page.ofIdMap(enquiries, token, pageSize);
     }
 
     /**
@@ -315,16 +423,13 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      * @param enquiryId The ID of the enquiry to delete.
      */
     private void deleteEnquiry(int enquiryId) {
-        Iterator<Enquiry> iterator = enquiries.iterator();
-        while (iterator.hasNext()) {
-            Enquiry e = iterator.next();
-            if (e.getEnquiryId() == enquiryId) {
-                e.getProject().deleteEnquiry(e);
-                iterator.remove();
-                System.out.println("You have successfully deleted enquiry " + enquiryId);
-                return;
-            }
+        Enquiry e = findEnquiryById(enquiryId);
+        if (e == null) {
+            return;
         }
+        e.getProject().deleteEnquiry(e);
+        enquiries.remove(enquiryId, e);
+        System.out.println("You have successfully deleted enquiry " + enquiryId);
     }
 
     /**
@@ -337,9 +442,9 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      * @return A new list of BTOProject objects that match the filter criteria.
      */
     private List<BTOProject> filterProjects(List<BTOProject> projects, List<String> locations, List<FlatType> flatTypes) {
+        BitSet locationCodes = ProjectRegistry.locationFilter(locations);
         return projects.stream()
-                .filter(p -> locations.isEmpty() || locations.contains(p.getNeighborhood()))
-                .filter(p -> flatTypes.isEmpty() || p.getFlatTypes().stream().anyMatch(flatTypes::contains))
+                .filter(p -> ProjectRegistry.matchesFilters(p, locationCodes, flatTypes))
                 .collect(Collectors.toList());
     }
 
@@ -377,22 +482,14 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     public void handleViewAvailableProjects(Scanner scanner) {
         System.out.println("\n--- View Available Projects ---");
-        List<BTOProject> allAvailableProjects = getAvailableProjects();
         UserSettings userSettings = getUserSettings();
 
-        List<BTOProject> filteredAndSortedProjects = allAvailableProjects;
-
-        filteredAndSortedProjects = ProjectRegistry.filterProjects(
-                filteredAndSortedProjects,
+        List<BTOProject> filteredAndSortedProjects = getAvailableProjects(
+                userSettings.getProjectSortOrder(),
                 userSettings.getProjectFilterLocation(),
                 userSettings.getProjectFilterFlatTypes()
         );
 
-        filteredAndSortedProjects = ProjectRegistry.sortProjects(
-                filteredAndSortedProjects,
-                userSettings.getProjectSortOrder()
-        );
-
         if (filteredAndSortedProjects.isEmpty()) {
             System.out.println("No available projects based on your eligibility and filters.");
         } else {
@@ -408,6 +505,9 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
             System.out.println("1. Filter by Location (Current: " + userSettings.getProjectFilterLocation() + ")");
             System.out.println("2. Filter by Flat Type (Current: " + userSettings.getProjectFilterFlatTypes() + ")");
             System.out.println("3. Sort By (Current: " + userSettings.getProjectSortOrder() + ")");
+            SavedSearchIndex.SavedSearch savedSearch = SavedSearchIndex.getSavedSearch(this);
+            System.out.println("4. Save Location and Flat Type Filters as a Search (Current: " + (savedSearch == null ? "none" : savedSearch) + ")");
+            System.out.println("5. Remove Saved Search");
             System.out.println("0. Back to Main Menu");
             System.out.print("Enter your choice: ");
 
@@ -447,6 +547,13 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
                             System.out.println("Invalid sorting option.");
                         }
                         break;
+                    case 4:
+                        System.out.println(SavedSearchIndex.save(this, userSettings.getProjectFilterLocation(),
+                                userSettings.getProjectFilterFlatTypes()).getMessage());
+                        break;
+                    case 5:
+                        System.out.println(SavedSearchIndex.remove(this) ? "Saved search removed." : "You have no saved search.");
+                        break;
                     case 0:
                         stayingInMenu = false;
                         break;
@@ -454,16 +561,11 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
                         System.out.println("Invalid choice.");
                 }
 
-                List<BTOProject> updatedAvailableProjects = getAvailableProjects();
-                List<BTOProject> updatedFilteredAndSortedProjects = ProjectRegistry.filterProjects(
-                        updatedAvailableProjects,
+                List<BTOProject> updatedFilteredAndSortedProjects = getAvailableProjects(
+                        userSettings.getProjectSortOrder(),
                         userSettings.getProjectFilterLocation(),
                         userSettings.getProjectFilterFlatTypes()
                 );
-                updatedFilteredAndSortedProjects = ProjectRegistry.sortProjects(
-                        updatedFilteredAndSortedProjects,
-                        userSettings.getProjectSortOrder()
-                );
 
                 System.out.println("\n--- Updated Available Project List ---");
                 if (updatedFilteredAndSortedProjects.isEmpty()) {
@@ -580,7 +682,7 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
         int choice;
         do {
             System.out.println("\n--- Manage Enquiries ---");
-            showAllEnquiries();
+            showAllEnquiries(scanner);
             System.out.println("Choose an action:");
             System.out.println("1. Edit Enquiry");
             System.out.println("2. Delete Enquiry");
@@ -623,7 +725,7 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     private void handleEditEnquiry(Scanner scanner) {
         System.out.println("\n--- Edit Enquiry ---");
-        showAllEnquiries();
+        showAllEnquiries(scanner);
         System.out.print("Enter the ID of the enquiry you want to edit: ");
         if (scanner.hasNextInt()) {
             int enquiryId = scanner.nextInt();
@@ -649,7 +751,7 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     private void handleDeleteEnquiry(Scanner scanner) {
         System.out.println("\n--- Delete Enquiry ---");
-        showAllEnquiries();
+        showAllEnquiries(scanner);
         System.out.print("Enter the ID of the enquiry you want to delete: ");
         if (scanner.hasNextInt()) {
             int enquiryId = scanner.nextInt();
@@ -673,7 +775,7 @@ public class Applicant extends User implements ProjectApplicant, Enquirer, Enqui
      */
     private void handleViewEnquiryReply(Scanner scanner) {
         System.out.println("\n--- View Enquiry Reply ---");
-        showAllEnquiries();
+        showAllEnquiries(scanner);
         System.out.print("Enter the ID of the enquiry you want to view the reply for: ");
         if (scanner.hasNextInt()) {
             int enquiryId = scanner.nextInt();
@@ -1,5 +1,7 @@
 package BTO_Management_System;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Represents an application submitted by an applicant for a specific BTO project.
  * It tracks the applicant, the project applied for, the status of the application,
@@ -7,9 +9,9 @@ package BTO_Management_System;
  */
 public class Application {
     /**
-     * A counter to generate unique application IDs.
+     * A counter to generate unique application IDs, safe to draw from on any thread.
      */
-    private static int counter = 1;
+    private static final AtomicInteger counter = new AtomicInteger(1);
     /**
      * The unique identifier for this application.
      */
@@ -25,7 +27,7 @@ public class Application {
     /**
      * The current status of this application (e.g., PENDING, SUCCESSFUL).
      */
-    private ApplicationStatus applicationStatus;
+    private volatile ApplicationStatus applicationStatus;
     /**
      * The type of flat the applicant applied for in this project.
      */
@@ -38,6 +40,10 @@ public class Application {
      * Indicates whether the withdrawal request for this application has been approved.
      */
     private boolean withdrawalApproved = false;
+    /**
+     * The number of events published about this application so far.
+     */
+    private volatile int version;
 
     /**
      * Constructs a new Application object with the specified details.
@@ -49,7 +55,7 @@ public class Application {
      * @param appliedFlatType   The type of flat the applicant is applying for.
      */
     public Application(Applicant applicant, BTOProject projectApplied, ApplicationStatus applicationStatus, FlatType appliedFlatType) {
-        this.applicationId = counter++;
+        this.applicationId = counter.getAndIncrement();
         this.applicant = applicant;
         this.projectApplied = projectApplied;
         this.applicationStatus = applicationStatus;
@@ -120,12 +126,47 @@ public class Application {
     }
 
     /**
-     * Sets the current status of this application.
+     * Sets the current status of this application, as a change not made by any user.
      *
      * @param applicationStatus The new application status.
+     * @see #setApplicationStatus(ApplicationStatus, User)
      */
     public void setApplicationStatus(ApplicationStatus applicationStatus) {
+        setApplicationStatus(applicationStatus, null);
+    }
+
+    /**
+     * Sets the current status of this application.
+     * The application moves to the matching status bucket of its project in the same step, and a
+     * {@link DomainEventType#APPLICATION_STATUS_CHANGED} event is published if the status actually changes.
+     *
+     * @param applicationStatus The new application status.
+     * @param actor             The officer or manager making the change, or null.
+     */
+    public void setApplicationStatus(ApplicationStatus applicationStatus, User actor) {
+        changeStatus(applicationStatus, actor, DomainEventType.APPLICATION_STATUS_CHANGED);
+    }
+
+    /**
+     * Sets the current status of this application and publishes an event of the given type if the status
+     * actually changes. A booking uses this to be recorded as one {@link DomainEventType#FLAT_BOOKED} event.
+     * The event is published while the application's lock is held, so the bus carries the transitions of
+     * one application in the order they were made.
+     *
+     * @param applicationStatus The new application status.
+     * @param actor             The user making the change, or null.
+     * @param type              The kind of event to publish.
+     */
+    synchronized void changeStatus(ApplicationStatus applicationStatus, User actor, DomainEventType type) {
+        ApplicationStatus oldStatus = this.applicationStatus;
+        if (oldStatus == applicationStatus) {
+            return;
+        }
         this.applicationStatus = applicationStatus;
+        if (projectApplied != null) {
+            projectApplied.moveApplication(this, oldStatus, applicationStatus);
+        }
+        DomainEventBus.publish(type, this, actor, oldStatus, applicationStatus);
     }
 
     /**
@@ -163,4 +204,23 @@ public class Application {
     public void setWithdrawalApproved(boolean approved) {
         this.withdrawalApproved = approved;
     }
+
+    /**
+     * Returns the number of events published about this application so far. It is read before the
+     * application's other fields when they must be at least as new as that event.
+     *
+     * @return The version of the application.
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Advances the version of this application for an event about to be published about it.
+     *
+     * @return The new version.
+     */
+    synchronized int nextVersion() {
+        return ++version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,591 @@
+package BTO_Management_System;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A consumer of the {@link DomainEventBus} that keeps an append-only audit trail of every application
+ * transition: submissions, status changes, bookings and withdrawal requests and reviews.
+ * <p>
+ * Each transition is one fixed-width binary record of {@value #RECORD_SIZE} bytes holding the event's sequence
+ * number and time, the run it was recorded in, the application ID, the event type, the old and new status, the
+ * flat type and the NRIC of the user who made the change. Records are collected in a buffer and written with a single {@link FileChannel} write
+ * at the end of each batch of events, on the bus's consumer thread, so the domain methods never wait for the disk.
+ * <p>
+ * The file is kept across runs of the program, but application IDs and sequence numbers restart with every run,
+ * so each opening of the log is a new run, numbered one more than the last run in the file, and a history only
+ * ever holds the records of one run.
+ * <p>
+ * The history of one application comes from a sparse index: for every block of {@value #BLOCK_RECORDS} records
+ * the log keeps only the range of runs and of application IDs in it and a 64-bit mask of hashed IDs, and
+ * {@link #history(int)} reads just the blocks that may hold the application. The index is rebuilt from the file
+ * when the log is opened, and a partly written last record left by a crash is dropped. The file starts with a
+ * {@value #HEADER_SIZE}-byte header naming its format, and a file in any other format is left untouched.
+ */
+public class AuditLog implements DomainEventHandler {
+    /**
+     * The size of one record, in bytes.
+     */
+    public static final int RECORD_SIZE = 40;
+    /**
+     * The size of the file header, in bytes.
+     */
+    static final int HEADER_SIZE = 8;
+    /**
+     * The file header: "BTOAUD" followed by the format version.
+     */
+    private static final long MAGIC = 0x42544F4155440002L;
+    /**
+     * The number of records summarized by one index entry.
+     */
+    static final int BLOCK_RECORDS = 256;
+    /**
+     * The number of bytes an NRIC takes in a record. Shorter NRICs are padded with zero bytes.
+     */
+    private static final int NRIC_SIZE = 12;
+
+    /**
+     * The log file, or null if it could not be opened, has been closed or could not be written.
+     */
+    private volatile FileChannel channel;
+    /**
+     * The records waiting to be written.
+     */
+    private final ByteBuffer pending = ByteBuffer.allocateDirect(BLOCK_RECORDS * RECORD_SIZE);
+    /**
+     * The index entries, one per block of records, the last possibly for a partly filled block.
+     */
+    private final List<Block> blocks = new ArrayList<>();
+    /**
+     * The number of records written to the file.
+     */
+    private long recordCount;
+    /**
+     * The number of this run, stored in every record it writes.
+     */
+    private int run;
+
+    /**
+     * Opens an audit log for a new run, creating the file if it does not exist and indexing the records already
+     * in it. If the file cannot be opened or is not an audit log, an error is shown and events are discarded.
+     *
+     * @param file The log file.
+     */
+    public AuditLog(Path file) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_SIZE) {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putLong(0, MAGIC);
+                readOrWriteFully(channel, header, 0, true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                readOrWriteFully(channel, header, 0, false);
+                if (header.getLong(0) != MAGIC) {
+                    throw new IOException("The file is not an audit log in the current format.");
+                }
+            }
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+            run = indexExisting(records) + 1;
+        } catch (IOException e) {
+            System.out.println("Error: Cannot open audit log " + file + ": " + e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException closeFailure) {
+                    // Discarding events anyway
+                }
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Records the event if it is an application transition, writing the buffered records at the end of each batch.
+     *
+     * @param event      The {@link DomainEvent} to record.
+     * @param endOfBatch Whether this is the last event currently available.
+     */
+    @Override
+    public void onEvent(DomainEvent event, boolean endOfBatch) {
+        if (channel == null) {
+            return;
+        }
+        if (isAudited(event.getType())) {
+            pending.putLong(event.getSequence());
+            pending.putLong(event.getTimestamp());
+            pending.putInt(run);
+            pending.putInt(event.getSubjectId());
+            pending.put((byte) event.getType().ordinal());
+            pending.put(code(event.getOldStatus()));
+            pending.put(code(event.getNewStatus()));
+            pending.put(code(event.getFlatType()));
+            byte[] nric = event.getUserNric() == null ? new byte[0] : event.getUserNric().getBytes(StandardCharsets.US_ASCII);
+            int length = Math.min(nric.length, NRIC_SIZE);
+            pending.put(nric, 0, length);
+            for (int i = length; i < NRIC_SIZE; i++) {
+                pending.put((byte) 0);
+            }
+        }
+        if (!pending.hasRemaining() || (endOfBatch && pending.position() > 0)) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns the audited transitions of one application in the current run, oldest first. Transitions still
+     * waiting in the current batch are not included yet; call {@link DomainEventBus#awaitDrained(long)} first
+     * if they must be.
+     *
+     * @param applicationId The ID of the application.
+     * @return The transitions, or an empty list if there are none, the log could not be read, or it is closed.
+     */
+    public List<Entry> history(int applicationId) {
+        return history(run, applicationId);
+    }
+
+    /**
+     * Returns the audited transitions of one application in a given run, oldest first.
+     *
+     * @param run           The run, as returned by {@link #getRun()} in that run.
+     * @param applicationId The ID the application had in that run.
+     * @return The transitions, or an empty list if there are none, the log could not be read, or it is closed.
+     */
+    public List<Entry> history(int run, int applicationId) {
+        FileChannel file = channel;
+        if (file == null) {
+            return new ArrayList<>();
+        }
+        List<Long> candidates = new ArrayList<>();
+        long records;
+        synchronized (this) {
+            records = recordCount;
+            for (int i = 0; i < blocks.size(); i++) {
+                if (blocks.get(i).mayContain(run, applicationId)) {
+                    candidates.add((long) i);
+                }
+            }
+        }
+        List<Entry> history = new ArrayList<>();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_SIZE);
+        try {
+            for (long index : candidates) {
+                long first = index * BLOCK_RECORDS;
+                block.clear().limit((int) (Math.min(BLOCK_RECORDS, records - first) * RECORD_SIZE));
+                readOrWriteFully(file, block, HEADER_SIZE + first * RECORD_SIZE, false);
+                block.flip();
+                while (block.hasRemaining()) {
+                    if (block.getInt(block.position() + 20) == applicationId && block.getInt(block.position() + 16) == run) {
+                        history.add(decode(block));
+                    } else {
+                        block.position(block.position() + RECORD_SIZE);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Cannot read audit log: " + e.getMessage());
+        }
+        return history;
+    }
+
+    /**
+     * Returns the number of the current run. Runs are numbered from 1 in the order the log file was opened.
+     *
+     * @return The run.
+     */
+    public int getRun() {
+        return run;
+    }
+
+    /**
+     * Returns the number of records written to the log file, over every run.
+     *
+     * @return The record count.
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the number of index entries, each summarizing one block of records.
+     *
+     * @return The number of blocks.
+     */
+    public synchronized int getBlockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Writes the buffered records and closes the log file. Events arriving afterwards are discarded.
+     * Call it only once the bus has been drained, since the records are otherwise written by the consumer thread.
+     */
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        if (pending.position() > 0) {
+            flush();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        channel = null;
+    }
+
+    /**
+     * Returns whether events of a type are application transitions that belong in the audit trail.
+     *
+     * @param type The event type.
+     * @return true if the event is audited.
+     */
+    private static boolean isAudited(DomainEventType type) {
+        switch (type) {
+            case APPLICATION_SUBMITTED:
+            case APPLICATION_STATUS_CHANGED:
+            case FLAT_BOOKED:
+            case WITHDRAWAL_REQUESTED:
+            case WITHDRAWAL_APPROVED:
+            case WITHDRAWAL_REJECTED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Appends the buffered records to the file in one write and adds them to the index.
+     * If the write fails, an error is shown and later events are discarded.
+     */
+    private void flush() {
+        FileChannel file = channel;
+        if (file == null) {
+            pending.clear();
+            return;
+        }
+        pending.flip();
+        try {
+            long position = HEADER_SIZE + recordCount * RECORD_SIZE;
+            while (pending.hasRemaining()) {
+                position += file.write(pending, position);
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Cannot write to audit log: " + e.getMessage());
+            channel = null;
+            return;
+        }
+        synchronized (this) {
+            for (int offset = 0; offset < pending.limit(); offset += RECORD_SIZE) {
+                index(run, pending.getInt(offset + 20));
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * Rebuilds the index from the records already in the file.
+     *
+     * @param records The number of whole records in the file.
+     * @return The last run found in the file, or 0 if it holds no records.
+     * @throws IOException If the file cannot be read.
+     */
+    private int indexExisting(long records) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_SIZE);
+        int lastRun = 0;
+        while (recordCount < records) {
+            block.clear().limit((int) (Math.min(BLOCK_RECORDS, records - recordCount) * RECORD_SIZE));
+            readOrWriteFully(channel, block, HEADER_SIZE + recordCount * RECORD_SIZE, false);
+            for (int offset = 0; offset < block.limit(); offset += RECORD_SIZE) {
+                lastRun = Math.max(lastRun, block.getInt(offset + 16));
+                index(block.getInt(offset + 16), block.getInt(offset + 20));
+            }
+        }
+        return lastRun;
+    }
+
+    /**
+     * Counts one more record in the file and adds its run and application ID to the index entry of its block.
+     *
+     * @param run           The run of the record.
+     * @param applicationId The application ID of the record.
+     */
+    private void index(int run, int applicationId) {
+        if (recordCount % BLOCK_RECORDS == 0) {
+            blocks.add(new Block());
+        }
+        blocks.get(blocks.size() - 1).add(run, applicationId);
+        recordCount++;
+    }
+
+    /**
+     * Fills a buffer from the file, or writes a whole buffer to it.
+     *
+     * @param file     The log file.
+     * @param buffer   The buffer, read or written up to its limit.
+     * @param position The file position to start at.
+     * @param write    true to write the buffer, false to fill it.
+     * @throws IOException If the file cannot be read or written, or ends early.
+     */
+    private static void readOrWriteFully(FileChannel file, ByteBuffer buffer, long position, boolean write) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = write ? file.write(buffer, position) : file.read(buffer, position);
+            if (count < 0) {
+                throw new IOException("The audit log ends in the middle of a record.");
+            }
+            position += count;
+        }
+    }
+
+    /**
+     * Reads one record.
+     *
+     * @param buffer The buffer, positioned at the record. It is left positioned after it.
+     * @return The record.
+     */
+    private static Entry decode(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        int run = buffer.getInt();
+        int applicationId = buffer.getInt();
+        DomainEventType type = DomainEventType.values()[buffer.get()];
+        ApplicationStatus oldStatus = decode(buffer.get(), ApplicationStatus.values());
+        ApplicationStatus newStatus = decode(buffer.get(), ApplicationStatus.values());
+        FlatType flatType = decode(buffer.get(), FlatType.values());
+        byte[] nric = new byte[NRIC_SIZE];
+        buffer.get(nric);
+        int length = 0;
+        while (length < NRIC_SIZE && nric[length] != 0) {
+            length++;
+        }
+        String userNric = length == 0 ? null : new String(nric, 0, length, StandardCharsets.US_ASCII);
+        return new Entry(sequence, timestamp, run, applicationId, type, oldStatus, newStatus, flatType, userNric);
+    }
+
+    /**
+     * Encodes an optional enum constant as one byte.
+     *
+     * @param value The constant, or null.
+     * @return 0 for null, otherwise the constant's ordinal plus one.
+     */
+    private static byte code(Enum<?> value) {
+        return (byte) (value == null ? 0 : value.ordinal() + 1);
+    }
+
+    /**
+     * Decodes an optional enum constant encoded by {@link #code(Enum)}.
+     *
+     * @param code   The byte.
+     * @param values The constants of the enum.
+     * @param <E>    The enum type.
+     * @return The constant, or null.
+     */
+    private static <E extends Enum<E>> E decode(byte code, E[] values) {
+        return code == 0 ? null : values[code - 1];
+    }
+
+    /**
+     * One audited transition, as read back from the log.
+     */
+    public static final class Entry {
+        private final long sequence;
+        private final long timestamp;
+        private final int run;
+        private final int applicationId;
+        private final DomainEventType type;
+        private final ApplicationStatus oldStatus;
+        private final ApplicationStatus newStatus;
+        private final FlatType flatType;
+        private final String userNric;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param sequence      The sequence number of the event on the bus.
+         * @param timestamp     The time of the transition, in milliseconds since the epoch.
+         * @param run           The run the transition was recorded in.
+         * @param applicationId The ID of the application.
+         * @param type          The kind of transition.
+         * @param oldStatus     The status before the transition, or null.
+         * @param newStatus     The status after the transition, or null.
+         * @param flatType      The flat type applied for, or null.
+         * @param userNric      The NRIC of the user who made the change, or null.
+         */
+        Entry(long sequence, long timestamp, int run, int applicationId, DomainEventType type, ApplicationStatus oldStatus,
+              ApplicationStatus newStatus, FlatType flatType, String userNric) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.run = run;
+            this.applicationId = applicationId;
+            this.type = type;
+            this.oldStatus = oldStatus;
+            this.newStatus = newStatus;
+            this.flatType = flatType;
+            this.userNric = userNric;
+        }
+
+        /**
+         * Returns the sequence number of the event on the bus. Sequence numbers restart with every run.
+         *
+         * @return The sequence number.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns the time of the transition.
+         *
+         * @return The time, in milliseconds since the epoch.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Returns the run the transition was recorded in. The sequence number and application ID belong to that run.
+         *
+         * @return The run.
+         */
+        public int getRun() {
+            return run;
+        }
+
+        /**
+         * Returns the ID of the application.
+         *
+         * @return The application ID.
+         */
+        public int getApplicationId() {
+            return applicationId;
+        }
+
+        /**
+         * Returns the kind of transition.
+         *
+         * @return The event type.
+         */
+        public DomainEventType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the status before the transition.
+         *
+         * @return The old status, or null.
+         */
+        public ApplicationStatus getOldStatus() {
+            return oldStatus;
+        }
+
+        /**
+         * Returns the status after the transition.
+         *
+         * @return The new status, or null.
+         */
+        public ApplicationStatus getNewStatus() {
+            return newStatus;
+        }
+
+        /**
+         * Returns the flat type applied for.
+         *
+         * @return The flat type, or null.
+         */
+        public FlatType getFlatType() {
+            return flatType;
+        }
+
+        /**
+         * Returns the NRIC of the user who made the change: the applicant, or the officer or manager acting on the application.
+         *
+         * @return The NRIC, or null.
+         */
+        public String getUserNric() {
+            return userNric;
+        }
+
+        /**
+         * Returns a one-line description of the transition.
+         *
+         * @return A string describing the transition.
+         */
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder();
+            line.append('#').append(run).append('.').append(sequence).append(' ').append(timestamp).append(' ').append(type)
+                    .append(" id=").append(applicationId);
+            if (userNric != null) {
+                line.append(" user=").append(userNric);
+            }
+            if (flatType != null) {
+                line.append(" flatType=").append(flatType);
+            }
+            if (oldStatus != null || newStatus != null) {
+                line.append(" status=").append(oldStatus).append("->").append(newStatus);
+            }
+            return line.toString();
+        }
+    }
+
+    /**
+     * The index entry of one block of records.
+     */
+    private static final class Block {
+        private int minRun = Integer.MAX_VALUE;
+        private int maxRun = Integer.MIN_VALUE;
+        private int minId = Integer.MAX_VALUE;
+        private int maxId = Integer.MIN_VALUE;
+        private long mask;
+
+        /**
+         * Constructs the entry of an empty block.
+         */
+        Block() {
+            // Empty constructor
+        }
+
+        /**
+         * Adds the run and application ID of one record of the block.
+         *
+         * @param run           The run.
+         * @param applicationId The application ID.
+         */
+        void add(int run, int applicationId) {
+            minRun = Math.min(minRun, run);
+            maxRun = Math.max(maxRun, run);
+            minId = Math.min(minId, applicationId);
+            maxId = Math.max(maxId, applicationId);
+            mask |= bit(applicationId);
+        }
+
+        /**
+         * Returns whether the block may hold a record of an application in a run. False positives are possible,
+         * false negatives are not.
+         *
+         * @param run           The run.
+         * @param applicationId The application ID.
+         * @return true if the block has to be read.
+         */
+        boolean mayContain(int run, int applicationId) {
+            return run >= minRun && run <= maxRun && applicationId >= minId && applicationId <= maxId && (mask & bit(applicationId)) != 0;
+        }
+
+        /**
+         * Returns the bit of the mask an application ID sets.
+         *
+         * @param applicationId The application ID.
+         * @return A long with one bit set.
+         */
+        private static long bit(int applicationId) {
+            return 1L << ((applicationId * 0x9E3779B9) >>> 26);
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package BTO_Management_System;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,9 +27,30 @@ public class BTOManagementApp {
      */
     private static List<User> users = new ArrayList<>();
     /**
-     * The default password assigned to newly created users.
+     * The file that every domain event is appended to.
      */
-    private static final String DEFAULT_PASSWORD = "password";
+    private static final String EVENT_LOG_FILE = "bto-events.log";
+    /**
+     * The file every application transition is recorded in by the {@link AuditLog}.
+     */
+    private static final String AUDIT_LOG_FILE = "bto-audit.bin";
+    /**
+     * The file batch mode writes its results to when no {@code --log} option is given.
+     */
+    private static final String BATCH_LOG_FILE = "bto-batch.log";
+    /**
+     * The running counts of domain events, shown to managers on request.
+     */
+    private static final DomainEventStatistics eventStatistics = new DomainEventStatistics();
+    /**
+     * The audit trail of application transitions, shown to managers on request.
+     */
+    private static AuditLog auditLog;
+    /**
+     * The latency metrics of checking a user's credentials at login.
+     * Only the check itself is timed, not the time the user spends typing.
+     */
+    private static final OperationMetrics LOGIN_METRICS = Metrics.operation("login");
 
     /**
      * Default constructor for the BTOManagementApp class.
@@ -35,13 +62,43 @@ public class BTOManagementApp {
     /**
      * The main entry point of the BTO Management System application.
      * It initializes users, handles the login process, and displays the appropriate menu
-     * based on the user's role.
+     * based on the user's role. When started with {@code --batch <script> [--log <file>]},
+     * it runs the script with a {@link BatchCommandRunner} instead and exits; when started with
+     * {@code --api <port>}, it serves the {@link HttpApiServer} instead of the console; and when started with
+     * {@code --shard <port>}, it serves one shard of the registry to a {@link ShardRouter}. When started with
+     * {@code --follow <leaderPort> <port>}, it replicates the state of the JVM whose {@link ReplicationLeader}
+     * listens on the leader port and serves it read-only as a shard. Any JVM started with the system property
+     * {@value ReplicationLeader#PORT_PROPERTY} accepts followers.
      *
-     * @param args Command line arguments (not used).
+     * @param args Command line arguments, either none, the batch mode options, the API options, the shard options
+     *             or the follower options.
      */
     public static void main(String[] args) {
         System.out.println("Welcome to the BTO Management System Hub!");
+        DomainEventBus.subscribe("log", new DomainEventLog(EVENT_LOG_FILE));
+        DomainEventBus.subscribe("statistics", eventStatistics);
+        auditLog = new AuditLog(Paths.get(AUDIT_LOG_FILE));
+        DomainEventBus.subscribe("audit", auditLog);
+        Metrics.startHttpEndpointIfConfigured();
+        ReplicationLeader.startIfConfigured();
         addInitialUsers();
+        if (args.length > 0 && args[0].equals("--api")) {
+            runApi(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--shard")) {
+            runShard(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--follow")) {
+            runFollower(args);
+            return;
+        }
+        if (args.length > 0) {
+            runBatch(args);
+            DomainEventBus.awaitDrained(1000);
+            return;
+        }
         Scanner mainScanner = new Scanner(System.in);
         boolean running = true;
         while (running) {
@@ -77,6 +134,7 @@ public class BTOManagementApp {
 
             if (mainChoice == 2) {
                 running = false;
+                DomainEventBus.awaitDrained(1000);
                 System.out.println("Exiting the BTO Management System.");
             }
         }
@@ -107,6 +165,118 @@ public class BTOManagementApp {
     }
 
 
+    /**
+     * Runs a batch script given on the command line and prints a summary of the results.
+     *
+     * @param args The command line arguments: {@code --batch <script>}, optionally followed by {@code --log <file>}.
+     */
+    private static void runBatch(String[] args) {
+        String script = null;
+        String log = BATCH_LOG_FILE;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            if (args[i].equals("--batch")) {
+                script = args[i + 1];
+            } else if (args[i].equals("--log")) {
+                log = args[i + 1];
+            }
+        }
+        if (script == null) {
+            System.out.println("Usage: BTOManagementApp --batch <script> [--log <file>]");
+            return;
+        }
+        try {
+            Map<ResultCode, Integer> results = new BatchCommandRunner(BTOManagementApp::findUser).run(Paths.get(script), Paths.get(log));
+            System.out.println("Batch finished. Results written to " + log + ": " + results);
+        } catch (IOException e) {
+            System.out.println("Error: Batch failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts the HTTP API on the local machine. The server keeps the program running after main returns.
+     *
+     * @param args The command line arguments: {@code --api <port>}.
+     */
+    private static void runApi(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: BTOManagementApp --api <port>");
+            return;
+        }
+        try {
+            int port = new HttpApiServer(BTOManagementApp::authenticate)
+                    .start(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1])));
+            System.out.println("API listening on http://localhost:" + port + "/api");
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid port: " + args[1]);
+        } catch (IOException e) {
+            System.out.println("Error: Cannot start the API: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts serving one shard of the registry on the local machine. The shard keeps the program running
+     * after main returns. The port is printed once the shard is listening, so that a launcher that asked
+     * for port 0 can read the port that was picked.
+     *
+     * @param args The command line arguments: {@code --shard <port>}.
+     */
+    private static void runShard(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: BTOManagementApp --shard <port>");
+            return;
+        }
+        try {
+            int port = new ShardServer(BTOManagementApp::findUser)
+                    .start(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1])));
+            System.out.println("Shard listening on port " + port);
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid port: " + args[1]);
+        } catch (IOException e) {
+            System.out.println("Error: Cannot start the shard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts replicating the state of a leader JVM and serving it read-only as a shard on the local machine.
+     * The shard keeps the program running after main returns. The port is printed once the shard is listening.
+     *
+     * @param args The command line arguments: {@code --follow <leaderPort> <port>}.
+     */
+    private static void runFollower(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: BTOManagementApp --follow <leaderPort> <port>");
+            return;
+        }
+        try {
+            InetAddress loopback = InetAddress.getLoopbackAddress();
+            ReadWriteLock domainLock = new ReentrantReadWriteLock();
+            ReplicationFollower follower = new ReplicationFollower(new InetSocketAddress(loopback, Integer.parseInt(args[1])), domainLock);
+            int port = new ShardServer(follower::findUser, domainLock, true)
+                    .start(new InetSocketAddress(loopback, Integer.parseInt(args[2])));
+            follower.start();
+            System.out.println("Follower serving on port " + port);
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid port: " + args[1] + " or " + args[2]);
+        } catch (IOException e) {
+            System.out.println("Error: Cannot start the follower: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds a registered user by NRIC.
+     *
+     * @param nric The NRIC of the user.
+     * @return The matching User object, or null if no user has that NRIC.
+     */
+    static User findUser(String nric) {
+        for (User user : users) {
+            if (user.getNRIC().equals(nric)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
     /**
      * Handles the user login process. Prompts the user for their NRIC and password,
      * and authenticates them against the list of registered users.
@@ -123,12 +293,20 @@ public class BTOManagementApp {
         }
         System.out.print("Enter your password: ");
         String password = scanner.nextLine();
-        for (User user : users) {
-            if (user.getNRIC().equals(nric) && user.getPassword().equals(password)) {
-                return user;
-            }
-        }
-        return null;
+        return LOGIN_METRICS.time(() -> authenticate(nric, password));
+    }
+
+    /**
+     * Authenticates a user against the list of registered users.
+     * The password is checked against the user's stored hash by the {@link CredentialService}.
+     *
+     * @param nric     The NRIC entered by the user.
+     * @param password The password entered by the user.
+     * @return The matching User object, or null if the NRIC and password do not match any user.
+     */
+    static User authenticate(String nric, String password) {
+        User user = findUser(nric);
+        return user != null && user.checkPassword(password) ? user : null;
     }
 
     /**
@@ -144,7 +322,7 @@ public class BTOManagementApp {
         if (choice.equals("yes")) {
             System.out.print("Enter your current password: ");
             String currentPassword = scanner.nextLine();
-            if (currentPassword.equals(user.getPassword())) {
+            if (user.checkPassword(currentPassword)) {
                 System.out.print("Enter your new password: ");
                 String newPassword = scanner.nextLine();
                 user.setPassword(newPassword);
@@ -204,6 +382,7 @@ public class BTOManagementApp {
     private static void showApplicantMenu(Applicant applicant, Scanner scanner) {
         int choice;
         do {
+            applicant.showSearchNotifications();
             System.out.println("\n--- Applicant Menu ---");
             System.out.println("1. View Available Projects");
             System.out.println("2. Apply for Project");
@@ -268,6 +447,7 @@ public class BTOManagementApp {
     private static void showOfficerMenu(HDBOfficer officer, Scanner scanner) {
         int choice;
         do {
+            officer.showSearchNotifications();
             System.out.println("\nHDB Officer Menu:");
             System.out.println("--- Officer Actions ---");
             System.out.println("1. View Handling Project Details");
@@ -356,6 +536,32 @@ public class BTOManagementApp {
     }
 
 
+    /**
+     * Asks for an application ID and prints every audited transition of that application, oldest first.
+     *
+     * @param scanner The Scanner object to read user input.
+     */
+    private static void showAuditHistory(Scanner scanner) {
+        System.out.print("Enter the application ID: ");
+        if (!scanner.hasNextInt()) {
+            System.out.println("Invalid input. Please enter a number.");
+            scanner.nextLine(); // Consume invalid input
+            return;
+        }
+        int applicationId = scanner.nextInt();
+        scanner.nextLine(); // Consume newline
+        DomainEventBus.awaitDrained(1000);
+        List<AuditLog.Entry> history = auditLog.history(applicationId);
+        if (history.isEmpty()) {
+            System.out.println("No audited transitions for application " + applicationId + ".");
+            return;
+        }
+        System.out.println("\nAudit history of application " + applicationId + ":");
+        for (AuditLog.Entry entry : history) {
+            System.out.println(entry);
+        }
+    }
+
     /**
      * Displays the menu options for an HDB manager and handles their interactions.
      * It includes actions related to project management, officer management, application handling,
@@ -384,6 +590,9 @@ public class BTOManagementApp {
             System.out.println("14. Reply Enquiry");
             System.out.println("15. Change Password");
             System.out.println("16. Generate Booking Report");
+            System.out.println("17. View Activity Statistics");
+            System.out.println("18. View Application Audit History");
+            System.out.println("19. Write Receipts for Booked Applications");
             System.out.println("0. Logout");
             System.out.print("Enter your choice: ");
             if (scanner.hasNextInt()) {
@@ -401,7 +610,7 @@ public class BTOManagementApp {
                         manager.handleEditProject(scanner);
                         break;
                     case 4:
-                        manager.viewOwnCreatedProjects();
+                        manager.handleViewOwnCreatedProjects(scanner);
                         break;
                     case 5:
                         manager.handleSetHandlingProject(scanner);
@@ -439,6 +648,18 @@ public class BTOManagementApp {
                     case 16:
                         manager.handleGenerateReport(scanner);
                         break;
+                    case 17:
+                        System.out.println("\nEvents recorded since start-up:");
+                        System.out.print(eventStatistics.getSummary());
+                        System.out.println("\nOperation latencies (microseconds):");
+                        System.out.print(Metrics.report());
+                        break;
+                    case 18:
+                        showAuditHistory(scanner);
+                        break;
+                    case 19:
+                        manager.handleWriteReceipts(scanner);
+                        break;
                     case 0:
                         System.out.println("Logging out...");
                         return;
@@ -451,4 +672,4 @@ public class BTOManagementApp {
             }
         } while (true);
     }
-}
\ No newline at end of file
+}
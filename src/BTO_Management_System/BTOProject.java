@@ -1,13 +1,23 @@
 package BTO_Management_System;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a BTO (Build-To-Order) project managed by HDB.
  * It stores details such as name, neighborhood, available flat types and their remaining units,
  * visibility status, application period, assigned manager and officers,
- * registration applications from officers, applications from the public, enquiries,
- * and successful applications.
+ * registration applications from officers, applications from the public, and enquiries.
+ * Applications are also kept in one bucket per {@link ApplicationStatus}, so the applications
+ * in any one status can be read directly without scanning every application.
+ * <p>
+ * The applications, enquiries and officer registrations are kept together in an {@link Activity} that is only
+ * allocated when the first of them arrives. Most projects in a catalogue are only ever browsed, and they carry
+ * none of these collections.
  */
 public class BTOProject implements ProjectViewable {
     /**
@@ -19,13 +29,21 @@ public class BTOProject implements ProjectViewable {
      */
     private String neighborhood;
     /**
-     * A map storing the remaining number of units for each available flat type in the project.
+     * The {@link NeighborhoodDictionary} code of the neighborhood.
      */
-    private Map<FlatType, Integer> remainingUnits;
+    private int neighborhoodCode;
+    /**
+     * The remaining number of units for each available flat type in the project.
+     */
+    private final UnitInventory inventory;
     /**
      * Indicates whether the project is currently visible to applicants.
      */
     private boolean visibility;
+    /**
+     * Whether the project has been announced to the applicants whose saved searches it matches.
+     */
+    private final AtomicBoolean announced = new AtomicBoolean();
     /**
      * The date when applications for this project open.
      */
@@ -43,30 +61,31 @@ public class BTOProject implements ProjectViewable {
      */
     private List<HDBOfficer> officers;
     /**
-     * A list of registration applications submitted by HDB officers to be assigned to this project.
+     * The applications, enquiries and officer registrations of this project, or null until the first one arrives.
      */
-    private List<RegistrationApplication> officerApplications;
+    private volatile Activity activity;
     /**
-     * A list of applications submitted by the public for this project.
+     * The maximum number of officers that can be assigned to this project.
      */
-    private List<Application> applications;
+    private volatile int maxOfficers;
     /**
-     * A list of enquiries submitted by the public regarding this project.
+     * The number of officer slots taken, including slots reserved for officers about to be added.
+     * Slots are only taken with a compare-and-set against {@link #maxOfficers}, so concurrent approvals never overshoot it.
      */
-    private List<Enquiry> enquiries;
+    private final AtomicInteger officerSlotsTaken = new AtomicInteger();
     /**
-     * A list of applications that have been marked as successful for this project.
+     * The number of changes made to the name and neighborhood of the project.
      */
-    private List<Application> successfulApplications;
+    private final AtomicLong descriptionChanges = new AtomicLong();
     /**
-     * The maximum number of officers that can be assigned to this project.
+     * The last rendered {@link #getDetails()} text, reused until the modification stamp changes.
      */
-    private int maxOfficers;
+    private volatile RenderedView detailsView;
 
     /**
      * Constructs a new BTOProject with the specified details.
-     * Initializes empty lists for officers, officer applications, applications, enquiries,
-     * and successful applications. Sets the initial visibility to true.
+     * Initializes an empty list for officers; applications, enquiries and officer applications are
+     * allocated when the first of them is added. Sets the initial visibility to true.
      * Throws an IllegalArgumentException if the maximum number of officers exceeds 10.
      *
      * @param name                The name of the project.
@@ -82,16 +101,13 @@ public class BTOProject implements ProjectViewable {
                       Date applicationOpenDate, Date applicationCloseDate, HDBManager manager, int maxOfficers) {
         this.name = name;
         this.neighborhood = neighborhood;
-        this.remainingUnits = remainingUnits;
+        this.neighborhoodCode = NeighborhoodDictionary.codeOf(neighborhood);
+        this.inventory = new UnitInventory(remainingUnits);
         this.visibility = true;
         this.applicationOpenDate = applicationOpenDate;
         this.applicationCloseDate = applicationCloseDate;
         this.manager = manager;
         this.officers = new ArrayList<>();
-        this.officerApplications = new ArrayList<>();
-        this.applications = new ArrayList<>();
-        this.enquiries = new ArrayList<>();
-        this.successfulApplications = new ArrayList<>();
         if (maxOfficers > 10) {
             throw new IllegalArgumentException("Max officers cannot exceed 10.");
         }
@@ -116,7 +132,7 @@ public class BTOProject implements ProjectViewable {
         BTOProject temp = (BTOProject) obj;
         return this.getName().equals(temp.getName()) &&
                 this.getNeighborhood().equals(temp.getNeighborhood()) &&
-                this.remainingUnits.equals(temp.remainingUnits);
+                this.inventory.equals(temp.inventory);
     }
 
     /**
@@ -127,7 +143,7 @@ public class BTOProject implements ProjectViewable {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(name, neighborhood, remainingUnits);
+        return Objects.hash(name, neighborhood, inventory);
     }
 
     // Methods
@@ -135,18 +151,61 @@ public class BTOProject implements ProjectViewable {
     /**
      * Returns a detailed string representation of the BTO project, including its name,
      * neighborhood, and the remaining units for each flat type.
+     * The text is rendered once and reused until the project's modification stamp changes.
      *
      * @return A string containing the project's details.
      */
     @Override
     public String getDetails() {
-        String remainingUnitsString = remainingUnits.entrySet().stream()
-                .map(entry -> entry.getKey() + ": " + entry.getValue() + " units remaining")
-                .reduce((unit1, unit2) -> unit1 + ", " + unit2)
-                .orElse("No remaining units specified");
+        long stamp = getModificationStamp();
+        RenderedView view = detailsView;
+        if (!RenderedView.isCurrent(view, stamp)) {
+            view = new RenderedView(stamp, renderDetails());
+            detailsView = view;
+        }
+        return view.getText();
+    }
+
+    /**
+     * Builds the text returned by {@link #getDetails()}.
+     *
+     * @return The project's details.
+     */
+    private String renderDetails() {
+        StringBuilder details = new StringBuilder("Project: ").append(name)
+                .append(", Neighborhood: ").append(neighborhood)
+                .append(", Remaining Units: ");
+        List<FlatType> flatTypes = inventory.getFlatTypes();
+        if (flatTypes.isEmpty()) {
+            return details.append("No remaining units specified").toString();
+        }
+        for (int i = 0; i < flatTypes.size(); i++) {
+            if (i > 0) {
+                details.append(", ");
+            }
+            details.append(flatTypes.get(i)).append(": ").append(inventory.get(flatTypes.get(i))).append(" units remaining");
+        }
+        return details.toString();
+    }
+
+    /**
+     * Returns the modification stamp of the project's rendered details. It grows whenever the name,
+     * neighborhood or remaining units change, including bookings and restocks made through the inventory.
+     *
+     * @return The modification stamp.
+     */
+    long getModificationStamp() {
+        return descriptionChanges.get() + inventory.getVersion();
+    }
 
-        return "Project: " + name + ", Neighborhood: " + neighborhood +
-                ", Remaining Units: " + remainingUnitsString;
+    /**
+     * Returns the number of changes made to the name and neighborhood of the project, for views such as
+     * {@link Enquiry#getEnquiryDetails()} that show the name but not the remaining units.
+     *
+     * @return The number of changes.
+     */
+    long getDescriptionStamp() {
+        return descriptionChanges.get();
     }
 
     /**
@@ -166,6 +225,8 @@ public class BTOProject implements ProjectViewable {
      */
     public void setName(String name) {
         this.name = name;
+        descriptionChanges.incrementAndGet();
+        ProjectRegistry.reindexProject(this);
     }
 
     /**
@@ -178,6 +239,16 @@ public class BTOProject implements ProjectViewable {
         return this.neighborhood;
     }
 
+    /**
+     * Returns the {@link NeighborhoodDictionary} code of the project's neighborhood, which is the same for
+     * every spelling of the neighborhood that differs only in case or spacing.
+     *
+     * @return The neighborhood code.
+     */
+    public int getNeighborhoodCode() {
+        return neighborhoodCode;
+    }
+
     /**
      * Sets the neighborhood of the BTO project.
      *
@@ -185,24 +256,63 @@ public class BTOProject implements ProjectViewable {
      */
     public void setNeighborhood(String neighborhood) {
         this.neighborhood = neighborhood;
+        this.neighborhoodCode = NeighborhoodDictionary.codeOf(neighborhood);
+        descriptionChanges.incrementAndGet();
+        ProjectRegistry.reindexProject(this);
+        publishUpdate();
     }
 
     /**
-     * Returns the map of remaining units for each flat type in the project.
+     * Returns a copy of the remaining units for each flat type in the project.
+     * Changes to the returned map do not affect the project; use {@link #setRemainingUnits(FlatType, int)}.
      *
      * @return A map where keys are FlatType enums and values are the number of remaining units.
      */
     public Map<FlatType, Integer> getRemainingUnits() {
-        return this.remainingUnits;
+        return inventory.toMap();
+    }
+
+    /**
+     * Returns the remaining units of one flat type in the project.
+     *
+     * @param flatType The flat type.
+     * @return The number of remaining units, or 0 if the project does not offer the flat type.
+     */
+    public int getRemainingUnits(FlatType flatType) {
+        return inventory.get(flatType);
+    }
+
+    /**
+     * Returns the unit inventory of the project, for atomic booking and restocking.
+     *
+     * @return The project's {@link UnitInventory}.
+     */
+    public UnitInventory getInventory() {
+        return inventory;
     }
 
     /**
      * Sets the map of remaining units for each flat type in the project.
+     * Flat types missing from the map are no longer offered.
      *
      * @param remainingUnits The new map of remaining units.
      */
     public void setRemainingUnits(Map<FlatType, Integer> remainingUnits) {
-        this.remainingUnits = remainingUnits;
+        inventory.setAll(remainingUnits);
+        ProjectRegistry.reindexProject(this);
+        publishUpdate();
+    }
+
+    /**
+     * Sets the remaining units of one flat type in the project, offering it if it was not offered.
+     *
+     * @param flatType The flat type.
+     * @param count    The new number of remaining units.
+     */
+    public void setRemainingUnits(FlatType flatType, int count) {
+        inventory.set(flatType, count);
+        ProjectRegistry.reindexProject(this);
+        publishUpdate();
     }
 
     /**
@@ -215,12 +325,27 @@ public class BTOProject implements ProjectViewable {
     }
 
     /**
-     * Sets the visibility status of the project.
+     * Marks the project as announced to the applicants whose saved searches it matches.
+     *
+     * @return true if the project had not been announced before.
+     */
+    boolean markAnnounced() {
+        return announced.compareAndSet(false, true);
+    }
+
+    /**
+     * Sets the visibility status of the project. A hidden project that becomes visible for the first time is
+     * matched against the applicants' saved searches.
      *
      * @param visibility The new visibility status.
      */
     public void setVisibility(boolean visibility) {
+        boolean shown = visibility && !this.visibility;
         this.visibility = visibility;
+        publishUpdate();
+        if (shown) {
+            SavedSearchIndex.projectAvailable(this);
+        }
     }
 
     /**
@@ -239,6 +364,7 @@ public class BTOProject implements ProjectViewable {
      */
     public void setApplicationOpenDate(Date applicationOpenDate) {
         this.applicationOpenDate = applicationOpenDate;
+        publishUpdate();
     }
 
     /**
@@ -257,6 +383,14 @@ public class BTOProject implements ProjectViewable {
      */
     public void setApplicationCloseDate(Date applicationCloseDate) {
         this.applicationCloseDate = applicationCloseDate;
+        publishUpdate();
+    }
+
+    /**
+     * Publishes a {@link DomainEventType#PROJECT_UPDATED} event after the project has been edited.
+     */
+    private void publishUpdate() {
+        DomainEventBus.publish(DomainEventType.PROJECT_UPDATED, 0, name, manager == null ? null : manager.getNRIC(), null, null, null);
     }
 
     /**
@@ -280,48 +414,175 @@ public class BTOProject implements ProjectViewable {
     /**
      * Returns the list of registration applications submitted by HDB officers for this project.
      *
-     * @return The list of officer registration applications.
+     * @return The list of officer registration applications, which may be iterated while officers register,
+     * or an empty list if there have been none.
      */
     public List<RegistrationApplication> getOfficerApplications() {
-        return officerApplications;
+        Activity current = activity;
+        return current == null ? Collections.emptyList() : current.officerApplications;
     }
 
     /**
-     * Returns the list of applications submitted by the public for this project.
+     * Returns the list of applications submitted by the public for this project, in application ID order.
+     * Use {@link #addApplication(Application)} and {@link #removeApplication(Application)} to change it.
      *
-     * @return The list of public applications.
+     * @return A copy of the public applications.
      */
     public List<Application> getApplications() {
-        return applications;
+        Activity current = activity;
+        return current == null ? Collections.emptyList() : new ArrayList<>(current.applications.values());
+    }
+
+    /**
+     * Returns the applications of this project currently in a given status, in application ID order.
+     * The collection is a live, read-only view: it follows every later status change without being copied.
+     *
+     * @param status The application status.
+     * @return A view of the applications in that status.
+     */
+    public Collection<Application> getApplicationsWithStatus(ApplicationStatus status) {
+        return new AbstractCollection<Application>() {
+            @Override
+            public Iterator<Application> iterator() {
+                Activity current = activity;
+                return current == null ? Collections.emptyIterator()
+                        : Collections.unmodifiableCollection(current.bucket(status).values()).iterator();
+            }
+
+            @Override
+            public int size() {
+                return countApplicationsWithStatus(status);
+            }
+
+            @Override
+            public boolean isEmpty() {
+                Activity current = activity;
+                return current == null || current.bucket(status).isEmpty();
+            }
+        };
+    }
+
+    /**
+     * Finds an application of this project by ID, if it is currently in a given status.
+     *
+     * @param status        The application status.
+     * @param applicationId The ID of the application.
+     * @return The application, or null if no application with that ID is in that status.
+     */
+    public Application getApplicationWithStatus(ApplicationStatus status, int applicationId) {
+        Activity current = activity;
+        return current == null ? null : current.bucket(status).get(applicationId);
     }
 
     /**
-     * Returns a list of the flat types available in this project, based on the keys
-     * in the remainingUnits map.
+     * Counts the applications of this project currently in a given status.
+     *
+     * @param status The application status.
+     * @return The number of applications in that status.
+     */
+    public int countApplicationsWithStatus(ApplicationStatus status) {
+        Activity current = activity;
+        return current == null ? 0 : current.bucket(status).size();
+    }
+
+    /**
+     * Returns the flat types available in this project. The list is shared and cannot be modified.
      *
      * @return A list of FlatType enums available in the project.
      */
     @Override
     public List<FlatType> getFlatTypes(){
-        return new ArrayList<>(this.remainingUnits.keySet());
+        return inventory.getFlatTypes();
     }
 
     /**
      * Returns the list of enquiries submitted by the public regarding this project.
      *
-     * @return The list of enquiries.
+     * @return A copy of the list of enquiries in enquiry ID order, or an empty list if there have been none.
      */
     public List<Enquiry> getEnquiries() {
-        return enquiries;
+        Activity current = activity;
+        return current == null ? Collections.emptyList() : new ArrayList<>(current.enquiries.values());
+    }
+
+    /**
+     * Finds an application of this project by ID, whatever its status.
+     *
+     * @param applicationId The ID of the application.
+     * @return The application, or null if the project does not have it.
+     */
+    Application getApplication(int applicationId) {
+        Activity current = activity;
+        return current == null ? null : current.applications.get(applicationId);
+    }
+
+    /**
+     * Finds an enquiry of this project by ID.
+     *
+     * @param enquiryId The ID of the enquiry.
+     * @return The enquiry, or null if the project does not have it.
+     */
+    Enquiry getEnquiry(int enquiryId) {
+        Activity current = activity;
+        return current == null ? null : current.enquiries.get(enquiryId);
+    }
+
+    /**
+     * Returns the successful applications of this project that are awaiting booking.
+     * Applications leave this view as soon as they are booked or change status in any other way.
+     *
+     * @return A live, read-only view of the successful applications.
+     */
+    public Collection<Application> getSuccessfulApplications() {
+        return getApplicationsWithStatus(ApplicationStatus.SUCCESSFUL);
+    }
+
+    /**
+     * Returns one page of the applications submitted for this project, in application ID order.
+     *
+     * @param token    The continuation token from the previous page, or null for the first page.
+     * @param pageSize The maximum number of applications on the page.
+     * @return The requested page of applications.
+     */
+    public Page<Application> getApplicationsPage(String token, int pageSize) {
+        Activity current = activity;
+        return Page.ofIdMap(current == null ? Activity.NO_APPLICATIONS : current.applications, token, pageSize);
     }
 
     /**
-     * Returns the list of applications that have been marked as successful for this project.
+     * Returns one page of the successful applications for this project, in application ID order.
      *
-     * @return The list of successful applications.
+     * @param token    The continuation token from the previous page, or null for the first page.
+     * @param pageSize The maximum number of applications on the page.
+     * @return The requested page of successful applications.
      */
-    public List<Application> getSuccessfulApplications() {
-        return successfulApplications;
+    public Page<Application> getSuccessfulApplicationsPage(String token, int pageSize) {
+        return getApplicationsPage(ApplicationStatus.SUCCESSFUL, token, pageSize);
+    }
+
+    /**
+     * Returns one page of the applications of this project in a given status, in application ID order.
+     *
+     * @param status   The application status.
+     * @param token    The continuation token from the previous page, or null for the first page.
+     * @param pageSize The maximum number of applications on the page.
+     * @return The requested page of applications.
+     */
+    public Page<Application> getApplicationsPage(ApplicationStatus status, String token, int pageSize) {
+        Activity current = activity;
+        return Page.ofIdMap(current == null ? Activity.NO_APPLICATIONS : current.bucket(status), token, pageSize);
+    }
+
+    /**
+     * Returns one page of the enquiries submitted for this project, in enquiry ID order.
+     *
+     * @param token    The continuation token from the previous page, or null for the first page.
+     * @param pageSize The maximum number of enquiries on the page.
+     * @return The requested page of enquiries.
+     */
+    public Page<Enquiry> getEnquiriesPage(String token, int pageSize) {
+        Activity current = activity;
+        return Page.ofIdMap(current == null ? Activity.NO_ENQUIRIES : current.enquiries, token, pageSize);
     }
 
     /**
@@ -340,34 +601,92 @@ public class BTOProject implements ProjectViewable {
      */
     public void setMaxOfficers(int maxOfficers) {
         this.maxOfficers = maxOfficers;
+        publishUpdate();
     }
 
     /**
-     * Adds an HDB officer to the list of officers assigned to this project.
+     * Adds an HDB officer to the list of officers assigned to this project, taking a slot even if none is free.
+     * Use {@link #tryAddOfficer(HDBOfficer)} to respect {@link #getMaxOfficers()}.
      *
      * @param officer The HDBOfficer to add.
      */
     public void addOfficer(HDBOfficer officer){
-        this.getOfficers().add(officer);
+        officerSlotsTaken.incrementAndGet();
+        addReservedOfficer(officer);
     }
 
     /**
-     * Adds a registration application from an HDB officer to the list of officer applications
-     * for this project.
+     * Adds an HDB officer to this project if an officer slot is free. Checking for a free slot and taking
+     * it happen as one atomic step.
      *
-     * @param registrationApplication The RegistrationApplication to add.
+     * @param officer The HDBOfficer to add.
+     * @return true if the officer was added, false if the project already has its maximum number of officers.
      */
-    public void addRegisterApplication(RegistrationApplication registrationApplication){
-        this.officerApplications.add(registrationApplication);
+    public boolean tryAddOfficer(HDBOfficer officer) {
+        if (reserveOfficerSlots(1) == 0) {
+            return false;
+        }
+        addReservedOfficer(officer);
+        return true;
     }
 
     /**
-     * Adds an application to the list of successful applications for this project.
+     * Reserves up to a number of free officer slots in one atomic step, for approving several officers at once.
+     * Each reserved slot must then be filled with {@link #addReservedOfficer(HDBOfficer)}.
      *
-     * @param application The Application to add to the successful list.
+     * @param wanted The number of slots wanted.
+     * @return The number of slots reserved, between 0 and {@code wanted}.
      */
-    public void addSuccessfulApplication(Application application) {
-        this.successfulApplications.add(application);
+    public int reserveOfficerSlots(int wanted) {
+        while (true) {
+            int taken = officerSlotsTaken.get();
+            int granted = Math.min(wanted, maxOfficers - taken);
+            if (granted <= 0) {
+                return 0;
+            }
+            if (officerSlotsTaken.compareAndSet(taken, taken + granted)) {
+                return granted;
+            }
+        }
+    }
+
+    /**
+     * Gives back officer slots reserved with {@link #reserveOfficerSlots(int)} that will not be filled.
+     *
+     * @param count The number of unused slots.
+     */
+    public void releaseOfficerSlots(int count) {
+        officerSlotsTaken.addAndGet(-count);
+    }
+
+    /**
+     * Fills an officer slot reserved with {@link #reserveOfficerSlots(int)}.
+     *
+     * @param officer The HDBOfficer to add.
+     */
+    public void addReservedOfficer(HDBOfficer officer) {
+        synchronized (officers) {
+            officers.add(officer);
+        }
+    }
+
+    /**
+     * Returns the number of officer slots still free in this project.
+     *
+     * @return The number of officers that can still be added, never negative.
+     */
+    public int getFreeOfficerSlots() {
+        return Math.max(0, maxOfficers - officerSlotsTaken.get());
+    }
+
+    /**
+     * Adds a registration application from an HDB officer to the list of officer applications
+     * for this project.
+     *
+     * @param registrationApplication The RegistrationApplication to add.
+     */
+    public void addRegisterApplication(RegistrationApplication registrationApplication){
+        activity().officerApplications.add(registrationApplication);
     }
 
     /**
@@ -376,7 +695,14 @@ public class BTOProject implements ProjectViewable {
      * @param enq The Enquiry to add.
      */
     public void addEnquiry(Enquiry enq) {
-        this.enquiries.add(enq);
+        // Published under the enquiry's lock, like its edits and replies, so its submission is its first event
+        synchronized (enq) {
+            activity().enquiries.put(enq.getEnquiryId(), enq);
+            ProjectRegistry.enquiryAdded(enq);
+            EnquiryIndex.index(enq);
+            ReplyReuseCache.add(enq);
+            DomainEventBus.publish(DomainEventType.ENQUIRY_SUBMITTED, enq.getEnquiryId(), name, enq.getApplicant().getNRIC(), null, null, null);
+        }
     }
 
     /**
@@ -386,10 +712,16 @@ public class BTOProject implements ProjectViewable {
      * @param enquiry The Enquiry to delete.
      */
     public void deleteEnquiry(Enquiry enquiry) {
-        if (!this.enquiries.contains(enquiry)) {
-            System.out.println("Error! The project does not contain this enquiry!");
-        } else {
-            this.enquiries.remove(enquiry);
+        Activity current = activity;
+        synchronized (enquiry) {
+            if (current == null || !current.enquiries.remove(enquiry.getEnquiryId(), enquiry)) {
+                System.out.println("Error! The project does not contain this enquiry!");
+            } else {
+                ProjectRegistry.enquiryRemoved(enquiry);
+                EnquiryIndex.remove(enquiry);
+                ReplyReuseCache.remove(enquiry);
+                DomainEventBus.publish(DomainEventType.ENQUIRY_DELETED, enquiry.getEnquiryId(), name, enquiry.getApplicant().getNRIC(), null, null, null);
+            }
         }
     }
 
@@ -397,26 +729,29 @@ public class BTOProject implements ProjectViewable {
      * Displays all the enquiries submitted for this project.
      */
     public void showEnquiries() {
-        List<Enquiry> enquiries = this.getEnquiries();
+        showEnquiries(null);
+    }
+
+    /**
+     * Displays the enquiries submitted for this project one page at a time.
+     *
+     * @param scanner The Scanner object used to ask for the next page, or null to print every page.
+     */
+    public void showEnquiries(Scanner scanner) {
         System.out.println("All enquiries for project: " + this.getName() + " are as follows");
-        for (Enquiry enquiry : enquiries) {
-            System.out.println(enquiry.getEnquiryDetails());
-        }
+        ConsolePager.show(scanner, token -> getEnquiriesPage(token, Page.DEFAULT_PAGE_SIZE), Enquiry::getEnquiryDetails);
     }
 
     /**
      * Decrements the remaining units for a specific flat type in this project.
-     * It checks if there are any remaining units for the given flat type before decrementing.
+     * Checking for a remaining unit and taking it happen as one atomic step, so two bookings can never take the same last unit.
+     * The booking itself is recorded by the {@link DomainEventType#FLAT_BOOKED} event, so nothing is printed on success.
      *
      * @param flatType The FlatType for which to decrement the remaining units.
+     * @return true if a unit was taken, false if no units are left or the flat type is not offered.
      */
-    public void decrementRemainingUnits(FlatType flatType) {
-        if (remainingUnits.containsKey(flatType) && remainingUnits.get(flatType) > 0) {
-            remainingUnits.put(flatType, remainingUnits.get(flatType) - 1);
-            System.out.println("Remaining units for " + flatType + " in " + this.name + " decreased to " + remainingUnits.get(flatType));
-        } else {
-            System.out.println("Error: Cannot decrement remaining units for " + flatType + " in " + this.name + ". Either no units left or flat type not found.");
-        }
+    public boolean decrementRemainingUnits(FlatType flatType) {
+        return inventory.tryDecrement(flatType);
     }
 
     /**
@@ -426,7 +761,11 @@ public class BTOProject implements ProjectViewable {
      * @return The Application object if found, otherwise null.
      */
     public Application getApplicationByNRIC(String nric) {
-        for (Application app : applications) {
+        Activity current = activity;
+        if (current == null) {
+            return null;
+        }
+        for (Application app : current.applications.values()) {
             if (app.getApplicant().getNRIC().equals(nric)) {
                 return app;
             }
@@ -435,41 +774,173 @@ public class BTOProject implements ProjectViewable {
     }
 
     /**
-     * Adds an application to the list of applications for this project.
+     * Adds an application to the list of applications for this project, and to the bucket of its current status.
      *
      * @param application The Application to add.
      */
     public void addApplication(Application application) {
-        this.applications.add(application);
+        Activity current = activity();
+        synchronized (application) {
+            current.applications.put(application.getApplicationId(), application);
+            current.bucket(application.getApplicationStatus()).put(application.getApplicationId(), application);
+        }
     }
 
     /**
-     * Removes an application from the list of applications for this project.
+     * Removes an application from the list of applications for this project, and from its status bucket.
      *
      * @param application The Application to remove.
+     * @return true if the application belonged to this project, false otherwise.
+     */
+    public boolean removeApplication(Application application) {
+        Activity current = activity;
+        if (current == null) {
+            return false;
+        }
+        synchronized (application) {
+            boolean removed = current.applications.remove(application.getApplicationId(), application);
+            current.bucket(application.getApplicationStatus()).remove(application.getApplicationId(), application);
+            return removed;
+        }
+    }
+
+    /**
+     * Removes several applications from this project at once, each by an O(log n) lookup of its ID.
+     *
+     * @param toRemove The applications to remove. Applications that do not belong to this project are ignored.
+     * @return The number of applications removed.
+     */
+    public int removeApplications(Collection<Application> toRemove) {
+        Activity current = activity;
+        if (current == null) {
+            return 0;
+        }
+        int removed = 0;
+        for (Application application : toRemove) {
+            synchronized (application) {
+                if (current.applications.remove(application.getApplicationId(), application)) {
+                    removed++;
+                }
+                current.bucket(application.getApplicationStatus()).remove(application.getApplicationId(), application);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Moves an application from the bucket of its old status to the bucket of its new one.
+     * Called by {@link Application#setApplicationStatus(ApplicationStatus)} while it holds the application's lock,
+     * so transitions of one application are applied one at a time and in order.
+     * The application is added to its new bucket before it leaves the old one, so it never disappears from
+     * both at once. Applications that do not belong to this project are left alone.
+     *
+     * @param application The application whose status changed.
+     * @param oldStatus   The status it had.
+     * @param newStatus   The status it has now.
      */
-    public void removeApplication(Application application) {
-        this.applications.remove(application);
+    void moveApplication(Application application, ApplicationStatus oldStatus, ApplicationStatus newStatus) {
+        Activity current = activity;
+        if (current == null) {
+            return;
+        }
+        ConcurrentSkipListMap<Integer, Application> oldBucket = current.bucket(oldStatus);
+        if (oldBucket.get(application.getApplicationId()) != application) {
+            return;
+        }
+        current.bucket(newStatus).put(application.getApplicationId(), application);
+        oldBucket.remove(application.getApplicationId(), application);
     }
 
     /**
      * Updates the application status for a given applicant in this project.
-     * If the new status is SUCCESSFUL, the application is also added to the list
-     * of successful applications.
+     * The application moves to the bucket of its new status as part of the update.
      *
      * @param applicant   The applicant whose application status needs to be updated.
      * @param newStatus The new ApplicationStatus to set.
      */
     public void updateApplicationStatus(Applicant applicant, ApplicationStatus newStatus) {
-        for (Application app : this.applications) {
-            if (app.getApplicant().equals(applicant)) {
-                app.setApplicationStatus(newStatus);
-                if (newStatus == ApplicationStatus.SUCCESSFUL) {
-                    this.successfulApplications.add(app);
-                }
-                return;
-            }
+        Application app = getApplicationByNRIC(applicant.getNRIC());
+        if (app != null) {
+            app.setApplicationStatus(newStatus);
+            return;
         }
         System.out.println("Application not found for applicant: " + applicant.getName());
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the activity of this project, allocating it on first use.
+     *
+     * @return The project's {@link Activity}.
+     */
+    private Activity activity() {
+        Activity current = activity;
+        return current != null ? current : allocateActivity();
+    }
+
+    /**
+     * Allocates the activity of this project unless another thread has just done so.
+     *
+     * @return The project's {@link Activity}.
+     */
+    private synchronized Activity allocateActivity() {
+        if (activity == null) {
+            activity = new Activity();
+        }
+        return activity;
+    }
+
+    /**
+     * The applications, enquiries and officer registrations of a project, allocated together when the first
+     * of them arrives.
+     */
+    private static final class Activity {
+        /**
+         * A list of registration applications submitted by HDB officers to be assigned to the project.
+         * Officers register concurrently and registrations are few, so it is copied on write.
+         */
+        private final List<RegistrationApplication> officerApplications = new CopyOnWriteArrayList<>();
+        /**
+         * An empty map of applications, paged through for a project that has no activity yet.
+         */
+        private static final NavigableMap<Integer, Application> NO_APPLICATIONS = Collections.emptyNavigableMap();
+        /**
+         * An empty map of enquiries, paged through for a project that has no activity yet.
+         */
+        private static final NavigableMap<Integer, Enquiry> NO_ENQUIRIES = Collections.emptyNavigableMap();
+
+        /**
+         * The applications submitted by the public for the project, keyed by application ID, so they can be paged
+         * in ID order however the submissions of several threads interleave.
+         */
+        private final ConcurrentSkipListMap<Integer, Application> applications = new ConcurrentSkipListMap<>();
+        /**
+         * The enquiries submitted by the public regarding the project, keyed by enquiry ID.
+         */
+        private final ConcurrentSkipListMap<Integer, Enquiry> enquiries = new ConcurrentSkipListMap<>();
+        /**
+         * The applications of the project in each status, keyed by application ID.
+         * The map itself is filled once in the constructor and never changes; only the buckets do.
+         */
+        private final Map<ApplicationStatus, ConcurrentSkipListMap<Integer, Application>> applicationsByStatus =
+                new EnumMap<>(ApplicationStatus.class);
+
+        /**
+         * Constructs an empty activity with an empty bucket for each application status.
+         */
+        private Activity() {
+            for (ApplicationStatus status : ApplicationStatus.values()) {
+                applicationsByStatus.put(status, new ConcurrentSkipListMap<>());
+            }
+        }
+
+        /**
+         * Returns the bucket of one application status.
+         *
+         * @param status The application status.
+         * @return The applications in that status, keyed by application ID.
+         */
+        private ConcurrentSkipListMap<Integer, Application> bucket(ApplicationStatus status) {
+            return applicationsByStatus.get(status);
+        }
+    }
+}
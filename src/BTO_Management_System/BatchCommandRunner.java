@@ -0,0 +1,583 @@
+package BTO_Management_System;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Runs a script of commands against the domain layer without the interactive menus, and writes
+ * the outcome of every command to a single result log.
+ * <p>
+ * A script has one command per line. Fields are separated by {@value #FIELD_SEPARATOR}; the first
+ * field is the command and the second is the NRIC of the user performing it. Blank lines and lines
+ * starting with {@code #} are ignored. The supported commands are:
+ * <pre>
+ * create-project|managerNric|name|neighborhood|twoRoomUnits|threeRoomUnits|YYYY-MM-DD|YYYY-MM-DD|maxOfficers
+ * apply|applicantNric|projectName|TWOROOM or THREEROOM
+ * enquire|applicantNric|projectName|text
+ * withdraw|applicantNric
+ * register|officerNric|projectName
+ * approve-registration|managerNric|officerNric
+ * reject-registration|managerNric|officerNric
+ * approve-registrations|managerNric|count (0 for as many as there are free officer slots)
+ * approve|managerNric|applicationId
+ * reject|managerNric|applicationId
+ * approve-withdrawal|managerNric|applicationId
+ * reject-withdrawal|managerNric|applicationId
+ * approve-withdrawals|managerNric|count (0 for every pending request)
+ * reject-withdrawals|managerNric|count (0 for every pending request)
+ * book|officerNric|applicationId[|TWOROOM or THREEROOM]
+ * reply|staffNric|enquiryId|text
+ * </pre>
+ * The text of an enquiry or reply is the rest of the line, so it may itself contain the separator.
+ * <p>
+ * Reading and parsing the script runs on its own thread, ahead of the commands being applied, so a
+ * large script is read while earlier commands are still running. The commands themselves are applied
+ * one at a time, in script order, on the calling thread, because later commands usually depend on the
+ * effects of earlier ones. Each result is written to the log as {@code line<TAB>code<TAB>message},
+ * followed by a count of the results per {@link ResultCode}.
+ */
+public class BatchCommandRunner {
+    /**
+     * The character separating the fields of a command.
+     */
+    public static final char FIELD_SEPARATOR = '|';
+    /**
+     * The number of parsed commands that may wait to be applied before the reader pauses.
+     */
+    private static final int QUEUE_CAPACITY = 4096;
+    /**
+     * The size of the read and write buffers, in characters.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * The command placed on the queue after the last line of the script.
+     */
+    private static final BatchCommand END_OF_SCRIPT = new BatchCommand(-1, null, null);
+
+    /**
+     * Finds the user performing a command by NRIC.
+     */
+    private final Function<String, User> userLookup;
+    /**
+     * The number of results per result code.
+     */
+    private final Map<ResultCode, Integer> resultCounts = new EnumMap<>(ResultCode.class);
+
+    /**
+     * Constructs a runner that finds the users named in a script with the given lookup.
+     *
+     * @param userLookup A function returning the user with a given NRIC, or null if there is none.
+     */
+    public BatchCommandRunner(Function<String, User> userLookup) {
+        this.userLookup = userLookup;
+    }
+
+    /**
+     * Runs every command of a script and writes the results to a log file, replacing any existing log.
+     *
+     * @param script The script to run.
+     * @param log    The file to write the results to.
+     * @return The number of results per {@link ResultCode}.
+     * @throws IOException If the script cannot be read or the log cannot be written.
+     */
+    public Map<ResultCode, Integer> run(Path script, Path log) throws IOException {
+        BlockingQueue<BatchCommand> commands = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        IOException[] readFailure = new IOException[1];
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(Files.newBufferedReader(script, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                readScript(in, commands);
+            } catch (IOException e) {
+                readFailure[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                endScript(commands);
+            }
+        }, "batch-reader");
+        reader.setDaemon(true);
+        resultCounts.clear();
+
+        try (BufferedWriter out = new BufferedWriter(Files.newBufferedWriter(log, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            reader.start();
+            BatchCommand command;
+            while ((command = take(commands)) != END_OF_SCRIPT) {
+                OperationResult<?> result = command.error != null ? command.error : execute(command);
+                resultCounts.merge(result.getCode(), 1, Integer::sum);
+                out.write(Integer.toString(command.line));
+                out.write('\t');
+                out.write(result.getCode().name());
+                out.write('\t');
+                out.write(result.getMessage().replace('\n', ' '));
+                out.newLine();
+            }
+            join(reader);
+            if (readFailure[0] != null) {
+                throw readFailure[0];
+            }
+            out.write("# Summary");
+            out.newLine();
+            for (Map.Entry<ResultCode, Integer> entry : resultCounts.entrySet()) {
+                out.write("# " + entry.getKey() + "\t" + entry.getValue());
+                out.newLine();
+            }
+        }
+        return new EnumMap<>(resultCounts);
+    }
+
+    /**
+     * Parses and applies a single command line, in the same format as a line of a script.
+     *
+     * @param text The command line.
+     * @return The result of the command, or a failed result if the line is malformed.
+     */
+    public OperationResult<?> execute(String text) {
+        BatchCommand command = parse(0, text.trim());
+        return command.error != null ? command.error : execute(command);
+    }
+
+    /**
+     * Applies a single command given as its fields, as a line of a script is split into them.
+     * Unlike a line, the fields are taken as they are, so they may contain the field separator.
+     *
+     * @param fields The fields of the command, starting with its name.
+     * @return The result of the command, or a failed result if it has the wrong number of fields.
+     */
+    public OperationResult<?> execute(String[] fields) {
+        BatchCommand command = check(0, fields);
+        return command.error != null ? command.error : execute(command);
+    }
+
+    /**
+     * Reads the script line by line and queues a parsed command for every line that is not blank or a comment.
+     *
+     * @param in       The reader positioned at the start of the script.
+     * @param commands The queue to put the parsed commands on.
+     * @throws IOException          If the script cannot be read.
+     * @throws InterruptedException If the reader is interrupted while the queue is full.
+     */
+    private static void readScript(BufferedReader in, BlockingQueue<BatchCommand> commands) throws IOException, InterruptedException {
+        String text;
+        int line = 0;
+        while ((text = in.readLine()) != null) {
+            line++;
+            String trimmed = text.trim();
+            if (trimmed.isEmpty() || trimmed.charAt(0) == '#') {
+                continue;
+            }
+            commands.put(parse(line, trimmed));
+        }
+    }
+
+    /**
+     * Parses one line of the script into a command, checking that it has the number of fields its command needs.
+     *
+     * @param line The line number, starting at 1.
+     * @param text The trimmed text of the line.
+     * @return The parsed command, carrying a failed result instead of fields if the line is malformed.
+     */
+    static BatchCommand parse(int line, String text) {
+        int end = text.indexOf(FIELD_SEPARATOR);
+        String name = (end < 0 ? text : text.substring(0, end)).trim();
+        int[] counts = fieldCounts(name);
+        if (counts == null) {
+            return new BatchCommand(line, null, OperationResult.failure(ResultCode.INVALID_INPUT, "Unknown command: " + name));
+        }
+        return check(line, split(text, counts[1]));
+    }
+
+    /**
+     * Checks that a command has the number of fields its name needs.
+     *
+     * @param line   The line number, starting at 1, or 0 for a command that is not part of a script.
+     * @param fields The fields of the command, starting with its name.
+     * @return The command, carrying a failed result instead of fields if it is unknown or has the wrong number of fields.
+     */
+    static BatchCommand check(int line, String[] fields) {
+        String name = fields.length == 0 ? "" : fields[0];
+        int[] counts = fieldCounts(name);
+        if (counts == null) {
+            return new BatchCommand(line, null, OperationResult.failure(ResultCode.INVALID_INPUT, "Unknown command: " + name));
+        }
+        if (fields.length < counts[0]) {
+            return new BatchCommand(line, null, OperationResult.failure(ResultCode.INVALID_INPUT,
+                    "Command " + name + " needs " + counts[0] + " fields but has " + fields.length + "."));
+        }
+        if (fields.length > counts[1]) {
+            return new BatchCommand(line, null, OperationResult.failure(ResultCode.INVALID_INPUT,
+                    "Command " + name + " takes at most " + counts[1] + " fields but has " + fields.length + "."));
+        }
+        return new BatchCommand(line, fields, null);
+    }
+
+    /**
+     * Returns the number of fields a command needs, counting its name.
+     *
+     * @param name The name of the command.
+     * @return The smallest and largest number of fields, or null if there is no such command.
+     */
+    private static int[] fieldCounts(String name) {
+        switch (name) {
+            case "create-project":
+                return new int[] {9, 9};
+            case "apply":
+            case "enquire":
+            case "reply":
+                return new int[] {4, 4};
+            case "withdraw":
+                return new int[] {2, 2};
+            case "register":
+            case "approve-registration":
+            case "reject-registration":
+            case "approve-registrations":
+            case "approve":
+            case "reject":
+            case "approve-withdrawal":
+            case "reject-withdrawal":
+            case "approve-withdrawals":
+            case "reject-withdrawals":
+                return new int[] {3, 3};
+            case "book":
+                return new int[] {3, 4};
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Splits a line into at most the given number of trimmed fields. The last field holds the rest of the line.
+     *
+     * @param text      The line to split.
+     * @param maxFields The largest number of fields to return.
+     * @return The fields of the line.
+     */
+    private static String[] split(String text, int maxFields) {
+        List<String> fields = new ArrayList<>(maxFields);
+        int start = 0;
+        while (fields.size() < maxFields - 1) {
+            int end = text.indexOf(FIELD_SEPARATOR, start);
+            if (end < 0) {
+                break;
+            }
+            fields.add(text.substring(start, end).trim());
+            start = end + 1;
+        }
+        fields.add(text.substring(start).trim());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Applies one parsed command to the domain layer.
+     *
+     * @param command The command to apply.
+     * @return The result of the command.
+     */
+    private OperationResult<?> execute(BatchCommand command) {
+        String[] fields = command.fields;
+        User user = userLookup.apply(fields[1].toUpperCase());
+        if (user == null) {
+            return OperationResult.failure(ResultCode.NOT_FOUND, "No user with NRIC " + fields[1] + ".");
+        }
+        try {
+            switch (fields[0]) {
+                case "create-project":
+                    return createProject(asRole(user, HDBManager.class), fields);
+                case "apply":
+                    return asRole(user, Applicant.class).submitApplication(ProjectRegistry.findProject(fields[2]), parseFlatType(fields[3]));
+                case "enquire":
+                    return asRole(user, Applicant.class).createEnquiry(ProjectRegistry.findProject(fields[2]), fields[3]);
+                case "withdraw":
+                    return asRole(user, Applicant.class).requestWithdrawal();
+                case "register":
+                    return asRole(user, HDBOfficer.class).submitRegistration(ProjectRegistry.findProject(fields[2]));
+                case "approve-registration":
+                case "reject-registration":
+                    return reviewRegistration(asRole(user, HDBManager.class), fields);
+                case "approve-registrations":
+                    return asRole(user, HDBManager.class).approveOfficerRegistrations(parseInt(fields[2]));
+                case "approve":
+                case "reject":
+                    return review(asRole(user, HDBManager.class), fields);
+                case "approve-withdrawal":
+                case "reject-withdrawal":
+                    return reviewWithdrawal(asRole(user, HDBManager.class), fields);
+                case "approve-withdrawals":
+                case "reject-withdrawals":
+                    return asRole(user, HDBManager.class).processWithdrawals(parseInt(fields[2]), fields[0].equals("approve-withdrawals"));
+                case "book":
+                    return book(asRole(user, HDBOfficer.class), fields);
+                case "reply":
+                    return reply(user, fields);
+                default:
+                    return OperationResult.failure(ResultCode.INVALID_INPUT, "Unknown command: " + fields[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            return OperationResult.failure(ResultCode.INVALID_INPUT, e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a project from the fields of a {@code create-project} command. A flat type with zero units is not offered.
+     *
+     * @param manager The manager creating the project.
+     * @param fields  The fields of the command.
+     * @return The result of creating the project.
+     */
+    private static OperationResult<?> createProject(HDBManager manager, String[] fields) {
+        Map<FlatType, Integer> units = new HashMap<>();
+        int twoRoomUnits = parseInt(fields[4]);
+        int threeRoomUnits = parseInt(fields[5]);
+        if (twoRoomUnits > 0) {
+            units.put(FlatType.TWOROOM, twoRoomUnits);
+        }
+        if (threeRoomUnits > 0) {
+            units.put(FlatType.THREEROOM, threeRoomUnits);
+        }
+        if (ProjectRegistry.findProject(fields[2]) != null) {
+            return OperationResult.failure(ResultCode.INVALID_PROJECT, "A project named " + fields[2] + " already exists.");
+        }
+        return manager.submitProject(fields[2], fields[3], units, parseDate(fields[6]), parseDate(fields[7]), parseInt(fields[8]));
+    }
+
+    /**
+     * Approves or rejects an officer's registration on behalf of a manager.
+     *
+     * @param manager The manager reviewing the registration.
+     * @param fields  The fields of an {@code approve-registration} or {@code reject-registration} command.
+     * @return The result of the review.
+     */
+    private OperationResult<?> reviewRegistration(HDBManager manager, String[] fields) {
+        User officer = userLookup.apply(fields[2].toUpperCase());
+        if (!(officer instanceof HDBOfficer) || ((HDBOfficer) officer).getRegistrationApplication() == null) {
+            return OperationResult.failure(ResultCode.NOT_FOUND, "No registration from officer " + fields[2] + ".");
+        }
+        RegisterStatus newStatus = fields[0].equals("approve-registration") ? RegisterStatus.SUCCESSFUL : RegisterStatus.UNSUCCESSFUL;
+        return manager.processOfficerRegistration(((HDBOfficer) officer).getRegistrationApplication(), newStatus);
+    }
+
+    /**
+     * Approves or rejects an application on behalf of a manager.
+     *
+     * @param manager The manager reviewing the application.
+     * @param fields  The fields of an {@code approve} or {@code reject} command.
+     * @return The result of the review.
+     */
+    private static OperationResult<?> review(HDBManager manager, String[] fields) {
+        Application application = manager.findApplicationById(parseInt(fields[2]));
+        if (application == null) {
+            return OperationResult.failure(ResultCode.NOT_FOUND, "Application with ID " + fields[2] + " not found in your projects.");
+        }
+        ApplicationStatus newStatus = fields[0].equals("approve") ? ApplicationStatus.SUCCESSFUL : ApplicationStatus.UNSUCCESSFUL;
+        return manager.processApplication(application, newStatus);
+    }
+
+    /**
+     * Approves or rejects a withdrawal request on behalf of a manager.
+     *
+     * @param manager The manager reviewing the withdrawal.
+     * @param fields  The fields of an {@code approve-withdrawal} or {@code reject-withdrawal} command.
+     * @return The result of the review.
+     */
+    private static OperationResult<?> reviewWithdrawal(HDBManager manager, String[] fields) {
+        Application application = manager.getWithdrawalQueue().get(parseInt(fields[2]));
+        if (application == null) {
+            application = manager.findApplicationById(parseInt(fields[2]));
+        }
+        if (application == null) {
+            return OperationResult.failure(ResultCode.NOT_FOUND, "Application with ID " + fields[2] + " not found in your projects.");
+        }
+        return manager.processWithdrawal(application, fields[0].equals("approve-withdrawal"));
+    }
+
+    /**
+     * Books a flat for a successful application on behalf of an officer. Without a flat type,
+     * the flat type the applicant applied for is booked.
+     *
+     * @param officer The officer booking the flat.
+     * @param fields  The fields of a {@code book} command.
+     * @return The result of the booking.
+     */
+    private static OperationResult<?> book(HDBOfficer officer, String[] fields) {
+        Application application = officer.findSuccessfulApplicationById(parseInt(fields[2]));
+        if (application == null) {
+            return OperationResult.failure(ResultCode.NOT_FOUND, "No successful application with ID " + fields[2] + " in the handling project.");
+        }
+        FlatType flatType = fields.length > 3 ? parseFlatType(fields[3]) : application.getAppliedFlatType();
+        return officer.bookFlatForApplication(application, flatType);
+    }
+
+    /**
+     * Replies to an enquiry on behalf of an officer or a manager.
+     *
+     * @param user   The officer or manager replying.
+     * @param fields The fields of a {@code reply} command.
+     * @return The result of the reply.
+     */
+    private static OperationResult<?> reply(User user, String[] fields) {
+        int enquiryId = parseInt(fields[2]);
+        if (user instanceof HDBManager) {
+            return ((HDBManager) user).submitReply(enquiryId, fields[3]);
+        }
+        return asRole(user, HDBOfficer.class).submitReply(enquiryId, fields[3]);
+    }
+
+    /**
+     * Returns the user as the role a command needs.
+     *
+     * @param user The user performing the command.
+     * @param role The class of the role the command needs.
+     * @param <T>  The type of the role.
+     * @return The user as that role.
+     * @throws IllegalArgumentException If the user does not have that role.
+     */
+    private static <T extends User> T asRole(User user, Class<T> role) {
+        if (!role.isInstance(user)) {
+            throw new IllegalArgumentException("User " + user.getNRIC() + " (" + user.getRole() + ") cannot perform this command.");
+        }
+        return role.cast(user);
+    }
+
+    /**
+     * Parses a whole number field.
+     *
+     * @param s The field.
+     * @return The number.
+     * @throws IllegalArgumentException If the field is not a whole number.
+     */
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + s);
+        }
+    }
+
+    /**
+     * Parses a flat type field, ignoring case.
+     *
+     * @param s The field.
+     * @return The flat type.
+     * @throws IllegalArgumentException If the field is not a flat type.
+     */
+    private static FlatType parseFlatType(String s) {
+        try {
+            return FlatType.valueOf(s.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not a flat type: " + s);
+        }
+    }
+
+    /**
+     * Parses a date field in the format "YYYY-MM-DD".
+     *
+     * @param s The field.
+     * @return The date.
+     * @throws IllegalArgumentException If the field is not in the format "YYYY-MM-DD".
+     */
+    private static Date parseDate(String s) {
+        if (s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') {
+            throw new IllegalArgumentException("Not a date in the format YYYY-MM-DD: " + s);
+        }
+        return new Date(parseInt(s.substring(8, 10)), parseInt(s.substring(5, 7)), parseInt(s.substring(0, 4)));
+    }
+
+    /**
+     * Takes the next command from the queue, waiting for the reader if necessary.
+     *
+     * @param commands The queue of parsed commands.
+     * @return The next command, or the end-of-script marker if the runner is interrupted.
+     */
+    private static BatchCommand take(BlockingQueue<BatchCommand> commands) {
+        try {
+            return commands.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return END_OF_SCRIPT;
+        }
+    }
+
+    /**
+     * Puts the end-of-script marker on the queue, waiting for room even if the reader is interrupted,
+     * so that the commands already queued are still applied and the runner does not wait forever.
+     *
+     * @param commands The queue of parsed commands.
+     */
+    private static void endScript(BlockingQueue<BatchCommand> commands) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                commands.put(END_OF_SCRIPT);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the reader thread to finish.
+     *
+     * @param reader The reader thread.
+     */
+    private static void join(Thread reader) {
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One parsed line of a script.
+     */
+    static final class BatchCommand {
+        private final int line;
+        private final String[] fields;
+        private final OperationResult<?> error;
+
+        /**
+         * Constructs a parsed command.
+         *
+         * @param line   The line number of the command in the script.
+         * @param fields The fields of the command, or null if the line could not be parsed.
+         * @param error  The failed result reporting why the line could not be parsed, or null if it was parsed.
+         */
+        BatchCommand(int line, String[] fields, OperationResult<?> error) {
+            this.line = line;
+            this.fields = fields;
+            this.error = error;
+        }
+
+        /**
+         * Gets the fields of the command.
+         *
+         * @return The fields, starting with the command's name, or null if the line could not be parsed.
+         */
+        String[] getFields() {
+            return fields;
+        }
+
+        /**
+         * Gets the reason the line could not be parsed.
+         *
+         * @return The failed result, or null if the line was parsed.
+         */
+        OperationResult<?> getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package BTO_Management_System;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A consistent hash ring that assigns string keys to nodes. Every node is placed on the ring at a number
+ * of pseudo-random positions (virtual nodes), and a key belongs to the first node at or after the key's own
+ * position, wrapping around at the end. Adding or removing a node therefore only moves the keys of the ring
+ * segments it gains or loses, roughly one node's share, instead of reassigning almost every key as taking a
+ * hash modulo the node count would.
+ * <p>
+ * Positions are the first eight bytes of an MD5 digest, so every JVM places the same nodes and keys at the
+ * same positions. The ring is not thread-safe while nodes are being added or removed.
+ *
+ * @param <T> The type of the nodes.
+ */
+public class ConsistentHashRing<T> {
+    /**
+     * The number of positions each node gets when none is given.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    /**
+     * The nodes, by ring position.
+     */
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+    /**
+     * The nodes, in the order they were added.
+     */
+    private final List<T> nodes = new ArrayList<>();
+    /**
+     * The number of positions each node gets.
+     */
+    private final int virtualNodes;
+
+    /**
+     * Constructs an empty ring giving each node the default number of positions.
+     */
+    public ConsistentHashRing() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Constructs an empty ring.
+     *
+     * @param virtualNodes The number of positions each node gets. More positions spread the keys more evenly.
+     * @throws IllegalArgumentException If virtualNodes is not positive.
+     */
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("A node needs at least one position on the ring.");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Places a node on the ring. A node's positions depend only on its string form, so the node must have
+     * a stable {@code toString()} that differs from every other node's.
+     *
+     * @param node The node to add.
+     * @throws IllegalArgumentException If the node is already on the ring.
+     */
+    public void addNode(T node) {
+        if (nodes.contains(node)) {
+            throw new IllegalArgumentException(node + " is already on the ring.");
+        }
+        nodes.add(node);
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(position(node + "#" + i), node);
+        }
+    }
+
+    /**
+     * Takes a node off the ring. Its keys move to the nodes that follow its positions.
+     *
+     * @param node The node to remove.
+     * @return true if the node was on the ring.
+     */
+    public boolean removeNode(T node) {
+        if (!nodes.remove(node)) {
+            return false;
+        }
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.remove(position(node + "#" + i), node);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the node a key belongs to.
+     *
+     * @param key The key.
+     * @return The node owning the key.
+     * @throws IllegalStateException If the ring has no nodes.
+     */
+    public T nodeFor(String key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("The ring has no nodes.");
+        }
+        Map.Entry<Long, T> owner = ring.ceilingEntry(position(key));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Returns the nodes on the ring.
+     *
+     * @return An unmodifiable list of the nodes, in the order they were added.
+     */
+    public List<T> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Returns the ring position of a string.
+     *
+     * @param s The string.
+     * @return The first eight bytes of the string's MD5 digest, as a number.
+     */
+    private static long position(String s) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("MD5").digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available.", e);
+        }
+        long position = 0;
+        for (int i = 0; i < 8; i++) {
+            position = (position << 8) | (digest[i] & 0xFF);
+        }
+        return position;
+    }
+}
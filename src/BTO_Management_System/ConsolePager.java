@@ -0,0 +1,47 @@
+package BTO_Management_System;
+
+import java.util.Scanner;
+import java.util.function.Function;
+
+/**
+ * A helper class that prints a paged listing to the console one page at a time,
+ * so that only a single page is held in memory while the user browses.
+ */
+public class ConsolePager {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ConsolePager() {
+        // Empty private constructor
+    }
+
+    /**
+     * Prints a listing page by page. After each page that has a successor, the user is asked whether
+     * to continue: pressing Enter shows the next page and typing anything else stops the listing.
+     *
+     * @param scanner  The {@link Scanner} object to read the user's choice, or {@code null} to print every page without asking.
+     * @param fetch    A function returning the page for a continuation token ({@code null} for the first page).
+     * @param render   A function turning an item into the line to print.
+     * @param <T>      The type of the listed items.
+     * @return The number of items printed.
+     */
+    public static <T> int show(Scanner scanner, Function<String, Page<T>> fetch, Function<T, String> render) {
+        int shown = 0;
+        String token = null;
+        do {
+            Page<T> page = fetch.apply(token);
+            for (T item : page.getItems()) {
+                System.out.println(render.apply(item));
+                shown++;
+            }
+            token = page.getNextToken();
+            if (token != null && scanner != null) {
+                System.out.print("-- Press Enter for more, or type any key and Enter to stop: ");
+                if (!scanner.nextLine().isEmpty()) {
+                    break;
+                }
+            }
+        } while (token != null);
+        return shown;
+    }
+}
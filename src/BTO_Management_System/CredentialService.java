@@ -0,0 +1,556 @@
+package BTO_Management_System;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes and checks user passwords, and keeps track of signed-in sessions.
+ * <p>
+ * Passwords are stored as salted PBKDF2-HMAC-SHA256 hashes of the form
+ * {@code pbkdf2-sha256$iterations$salt$hash}. The number of iterations sets the cost of each hash; it is
+ * recorded in every stored hash, so raising it only affects passwords set afterwards. All hashing runs on a
+ * small pool of {@link #WORKERS_PROPERTY} worker threads with a bounded queue, so a burst of logins cannot
+ * take every core away from the rest of the system: once the queue is full, further checks are refused with
+ * a {@link RejectedExecutionException} instead of piling up.
+ * <p>
+ * Two expiring caches avoid hashing the same credentials again. A successful check is remembered under a
+ * keyed digest of the stored hash and the password, so repeated logins and API calls with the same password
+ * cost one HMAC instead of a full hash; because the stored hash is part of the key, changing a password makes
+ * the old entries useless at once. A session token is handed out after a successful sign-in and stands in
+ * for the password until it expires or the password changes. Neither cache ever holds a password.
+ * <p>
+ * Both caches are bounded. A full cache evicts its least recently used entry rather than refuse a new one, and
+ * each user may only hold {@value #MAX_SESSIONS_PER_USER} sessions, so one client signing in over and over only
+ * ever closes its own oldest sessions. Expired entries are swept out by a background thread every
+ * {@value #SWEEP_INTERVAL_SECONDS} seconds.
+ */
+public class CredentialService {
+    /**
+     * The system property holding the default number of PBKDF2 iterations per hash.
+     */
+    public static final String ITERATIONS_PROPERTY = "bto.credentials.iterations";
+    /**
+     * The system property holding the number of hashing worker threads.
+     */
+    public static final String WORKERS_PROPERTY = "bto.credentials.workers";
+    /**
+     * The system property holding how long sessions and verified credentials stay valid, in minutes.
+     */
+    public static final String TTL_PROPERTY = "bto.credentials.ttlMinutes";
+    /**
+     * The number of PBKDF2 iterations used when {@value #ITERATIONS_PROPERTY} is not set.
+     */
+    public static final int DEFAULT_ITERATIONS = 100_000;
+    /**
+     * The password every user starts with.
+     */
+    static final String DEFAULT_PASSWORD = "password";
+    /**
+     * The JCA name of the key derivation function.
+     */
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    /**
+     * The marker at the start of every stored hash.
+     */
+    private static final String SCHEME = "pbkdf2-sha256";
+    /**
+     * The length of each salt, in bytes.
+     */
+    private static final int SALT_BYTES = 16;
+    /**
+     * The length of each derived hash, in bits.
+     */
+    private static final int HASH_BITS = 256;
+    /**
+     * The number of hashing requests that may wait for a worker before new ones are refused.
+     */
+    private static final int QUEUE_CAPACITY = 256;
+    /**
+     * The largest number of entries each cache holds. Adding to a full cache evicts its least recently used entry.
+     */
+    private static final int MAX_CACHE_ENTRIES = 100_000;
+    /**
+     * The largest number of sessions one user may have open. Opening another closes the user's oldest session.
+     */
+    private static final int MAX_SESSIONS_PER_USER = 16;
+    /**
+     * How often expired entries are swept out of both caches, in seconds.
+     */
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    /**
+     * The source of salts, session tokens and the cache key.
+     */
+    private static final SecureRandom random = new SecureRandom();
+    /**
+     * The key of the digests the verified-credential cache is indexed by, chosen afresh at every start.
+     */
+    private static final SecretKeySpec cacheKey;
+    /**
+     * The worker threads that run every hash.
+     */
+    private static final ThreadPoolExecutor workers;
+    /**
+     * The expiry time of each verified credential, by keyed digest of the stored hash and password,
+     * least recently used first. Guarded by itself.
+     */
+    private static final LruCache<Long> verified = new LruCache<>();
+    /**
+     * The signed-in sessions, by token, least recently used first. Guarded by itself, together with {@link #sessionsByUser}.
+     */
+    private static final LruCache<Session> sessions = new LruCache<>();
+    /**
+     * The tokens of each user's open sessions, oldest first, by NRIC. Guarded by {@link #sessions}.
+     */
+    private static final Map<String, ArrayDeque<String>> sessionsByUser = new HashMap<>();
+    /**
+     * The thread that sweeps expired entries out of both caches.
+     */
+    private static final ScheduledExecutorService sweeper;
+    /**
+     * The latency metrics of each full password hash.
+     */
+    private static final OperationMetrics HASH_METRICS = Metrics.operation("credential hash");
+    /**
+     * How long sessions and verified credentials stay valid, in nanoseconds.
+     */
+    private static final long ttlNanos = TimeUnit.MINUTES.toNanos(Long.getLong(TTL_PROPERTY, 30));
+
+    /**
+     * The number of PBKDF2 iterations for new hashes.
+     */
+    private static volatile int iterations = Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS);
+    /**
+     * The stored hash of {@link #DEFAULT_PASSWORD}, computed on first use and shared by every new user.
+     */
+    private static volatile String defaultPasswordHash;
+
+    static {
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        cacheKey = new SecretKeySpec(key, "HmacSHA256");
+        int workerCount = Math.max(1, Integer.getInteger(WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), task -> {
+                    Thread thread = new Thread(task, "credential-hasher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        sweeper = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "credential-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(CredentialService::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private CredentialService() {
+        // Empty private constructor
+    }
+
+    /**
+     * Hashes a password with a fresh salt and the current number of iterations.
+     * The hash is computed on a worker thread; the caller waits for it.
+     *
+     * @param password The password to hash.
+     * @return The stored form of the hash.
+     * @throws RejectedExecutionException If too many hashes are already waiting for a worker.
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int cost = iterations;
+        byte[] hash = runOnWorker(() -> derive(password, salt, cost, HASH_BITS));
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return SCHEME + "$" + cost + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against a user's stored hash. A combination checked successfully before, and not yet
+     * expired, is accepted without hashing again.
+     *
+     * @param user     The user signing in.
+     * @param password The password given.
+     * @return true if the password is the user's password, false otherwise.
+     * @throws RejectedExecutionException If the password has to be hashed and too many hashes are already waiting.
+     */
+    public static boolean checkPassword(User user, String password) {
+        String storedHash = user.getPasswordHash();
+        String cacheEntry = digest(storedHash, password);
+        Long expiresAt;
+        synchronized (verified) {
+            expiresAt = verified.get(cacheEntry);
+        }
+        long now = System.nanoTime();
+        if (expiresAt != null && expiresAt - now > 0) {
+            return true;
+        }
+        if (!matches(password, storedHash)) {
+            return false;
+        }
+        synchronized (verified) {
+            verified.put(cacheEntry, now + ttlNanos);
+        }
+        return true;
+    }
+
+    /**
+     * Opens a session for a signed-in user. If the user already has {@value #MAX_SESSIONS_PER_USER} sessions open,
+     * the oldest of them is closed, and if the session cache is full, the least recently used session is closed.
+     *
+     * @param user The user, whose credentials have already been checked.
+     * @return The session token, to present in place of the password until it expires.
+     */
+    public static String openSession(User user) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, user, user.getPasswordHash(), System.nanoTime() + ttlNanos);
+        synchronized (sessions) {
+            ArrayDeque<String> tokens = sessionsByUser.computeIfAbsent(user.getNRIC(), nric -> new ArrayDeque<>());
+            if (tokens.size() >= MAX_SESSIONS_PER_USER) {
+                sessions.remove(tokens.pollFirst());
+            }
+            tokens.addLast(token);
+            sessions.put(token, session);
+        }
+        return token;
+    }
+
+    /**
+     * Returns the user a session token was issued to.
+     *
+     * @param token The session token.
+     * @return The user, or null if the token is unknown, has expired, or the user's password has changed since.
+     */
+    public static User resolveSession(String token) {
+        synchronized (sessions) {
+            Session session = sessions.get(token);
+            if (session == null) {
+                return null;
+            }
+            if (session.expiresAt - System.nanoTime() <= 0 || !session.passwordHash.equals(session.user.getPasswordHash())) {
+                removeSession(token);
+                return null;
+            }
+            return session.user;
+        }
+    }
+
+    /**
+     * Ends a session, so its token is no longer accepted.
+     *
+     * @param token The session token.
+     * @return true if the session was open, false otherwise.
+     */
+    public static boolean closeSession(String token) {
+        synchronized (sessions) {
+            return removeSession(token) != null;
+        }
+    }
+
+    /**
+     * Returns how long sessions and verified credentials stay valid.
+     *
+     * @return The time to live, in seconds.
+     */
+    public static long getTimeToLiveSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(ttlNanos);
+    }
+
+    /**
+     * Returns the number of PBKDF2 iterations used for new hashes.
+     *
+     * @return The number of iterations.
+     */
+    public static int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Sets the number of PBKDF2 iterations used for new hashes. Existing hashes keep the cost they were made with.
+     *
+     * @param newIterations The number of iterations. Must be positive.
+     * @throws IllegalArgumentException If the number of iterations is not positive.
+     */
+    public static void setIterations(int newIterations) {
+        if (newIterations <= 0) {
+            throw new IllegalArgumentException("The number of iterations must be positive.");
+        }
+        iterations = newIterations;
+    }
+
+    /**
+     * Returns the number of hashing worker threads.
+     *
+     * @return The number of workers.
+     */
+    public static int getWorkerCount() {
+        return workers.getMaximumPoolSize();
+    }
+
+    /**
+     * Sets the number of hashing worker threads.
+     *
+     * @param count The number of workers. Must be positive.
+     * @throws IllegalArgumentException If the count is not positive.
+     */
+    public static synchronized void setWorkerCount(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("The number of workers must be positive.");
+        }
+        if (count > workers.getMaximumPoolSize()) {
+            workers.setMaximumPoolSize(count);
+            workers.setCorePoolSize(count);
+        } else {
+            workers.setCorePoolSize(count);
+            workers.setMaximumPoolSize(count);
+        }
+    }
+
+    /**
+     * Returns the stored hash of the default password, hashing it on first use.
+     * Every new user starts with this same hash, so creating users costs no hashing.
+     *
+     * @return The stored hash of {@link #DEFAULT_PASSWORD}.
+     */
+    static String defaultPasswordHash() {
+        String result = defaultPasswordHash;
+        if (result == null) {
+            synchronized (CredentialService.class) {
+                result = defaultPasswordHash;
+                if (result == null) {
+                    result = hash(DEFAULT_PASSWORD);
+                    defaultPasswordHash = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks a password against a stored hash by hashing it again with the stored salt and cost.
+     *
+     * @param password   The password given.
+     * @param storedHash The stored hash.
+     * @return true if they match, false if they do not or the stored hash is malformed.
+     */
+    private static boolean matches(String password, String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4 || !parts[0].equals(SCHEME)) {
+            return false;
+        }
+        int cost;
+        byte[] salt;
+        byte[] expected;
+        try {
+            cost = Integer.parseInt(parts[1]);
+            salt = Base64.getDecoder().decode(parts[2]);
+            expected = Base64.getDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] actual = runOnWorker(() -> derive(password, salt, cost, expected.length * 8));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * Runs a hash on a worker thread and waits for its result.
+     *
+     * @param task The hash to compute.
+     * @return The hash.
+     * @throws RejectedExecutionException If too many hashes are already waiting for a worker.
+     */
+    private static byte[] runOnWorker(Callable<byte[]> task) {
+        Future<byte[]> result = workers.submit(task);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed.", e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Derives a PBKDF2-HMAC-SHA256 hash, recording its latency.
+     *
+     * @param password The password.
+     * @param salt     The salt.
+     * @param cost     The number of iterations.
+     * @param bits     The length of the hash, in bits.
+     * @return The hash.
+     */
+    private static byte[] derive(String password, byte[] salt, int cost, int bits) {
+        long start = System.nanoTime();
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, cost, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            HASH_METRICS.recordFailure();
+            throw new IllegalStateException("PBKDF2 is not available.", e);
+        } finally {
+            spec.clearPassword();
+            HASH_METRICS.recordSince(start);
+        }
+    }
+
+    /**
+     * Computes the key of the verified-credential cache for a stored hash and a password.
+     *
+     * @param storedHash The stored hash.
+     * @param password   The password given.
+     * @return A keyed digest of both, which reveals neither.
+     */
+    private static String digest(String storedHash, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(cacheKey);
+            mac.update(storedHash.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().withoutPadding().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available.", e);
+        }
+    }
+
+    /**
+     * Removes a session and forgets its token in its user's list. Called while holding the {@link #sessions} lock.
+     *
+     * @param token The session token.
+     * @return The removed session, or null if there was none.
+     */
+    private static Session removeSession(String token) {
+        Session session = sessions.remove(token);
+        if (session != null) {
+            forget(session);
+        }
+        return session;
+    }
+
+    /**
+     * Takes a session's token out of its user's list, dropping the list once it is empty.
+     * Called while holding the {@link #sessions} lock.
+     *
+     * @param session The session.
+     */
+    private static void forget(Session session) {
+        String nric = session.user.getNRIC();
+        ArrayDeque<String> tokens = sessionsByUser.get(nric);
+        if (tokens != null && tokens.remove(session.token) && tokens.isEmpty()) {
+            sessionsByUser.remove(nric);
+        }
+    }
+
+    /**
+     * Sweeps expired entries out of both caches. Runs on the sweeper thread every {@value #SWEEP_INTERVAL_SECONDS} seconds.
+     */
+    private static void sweep() {
+        long now = System.nanoTime();
+        synchronized (verified) {
+            verified.values().removeIf(expiresAt -> expiresAt - now <= 0);
+        }
+        synchronized (sessions) {
+            sessions.values().removeIf(session -> {
+                if (session.expiresAt - now > 0) {
+                    return false;
+                }
+                forget(session);
+                return true;
+            });
+        }
+    }
+
+    /**
+     * An access-ordered map that evicts its least recently used entry once it holds more than
+     * {@value #MAX_CACHE_ENTRIES} entries. Evicted sessions are taken out of their user's list too.
+     *
+     * @param <V> The type of the entries.
+     */
+    private static final class LruCache<V> extends LinkedHashMap<String, V> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs an empty cache.
+         */
+        LruCache() {
+            super(16, 0.75f, true);
+        }
+
+        /**
+         * Evicts the least recently used entry once the cache is over its size.
+         *
+         * @param eldest The least recently used entry.
+         * @return true if the entry is to be evicted.
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            if (size() <= MAX_CACHE_ENTRIES) {
+                return false;
+            }
+            if (eldest.getValue() instanceof Session) {
+                forget((Session) eldest.getValue());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A signed-in session.
+     */
+    private static final class Session {
+        private final String token;
+        private final User user;
+        private final String passwordHash;
+        private final long expiresAt;
+
+        /**
+         * Constructs a session.
+         *
+         * @param token        The session token.
+         * @param user         The signed-in user.
+         * @param passwordHash The user's stored hash when the session was opened.
+         * @param expiresAt    When the session expires, in {@link System#nanoTime()} terms.
+         */
+        Session(String token, User user, String passwordHash, long expiresAt) {
+            this.token = token;
+            this.user = user;
+            this.passwordHash = passwordHash;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
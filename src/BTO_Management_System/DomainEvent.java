@@ -0,0 +1,207 @@
+package BTO_Management_System;
+
+/**
+ * Represents a domain event published on the {@link DomainEventBus}.
+ * Event objects are preallocated slots of the bus's ring buffer and are overwritten
+ * once every consumer has moved past them, so consumers must copy any values they keep.
+ */
+public class DomainEvent {
+    /**
+     * The sequence number of the event on the bus.
+     */
+    private long sequence;
+    /**
+     * The kind of event.
+     */
+    private DomainEventType type;
+    /**
+     * The time the event was published, in milliseconds since the epoch.
+     */
+    private long timestamp;
+    /**
+     * The ID of the application, enquiry or registration the event is about.
+     */
+    private int subjectId;
+    /**
+     * The name of the project involved, if any.
+     */
+    private String projectName;
+    /**
+     * The NRIC of the applicant, officer or manager involved, if any.
+     */
+    private String userNric;
+    /**
+     * The flat type involved, if any.
+     */
+    private FlatType flatType;
+    /**
+     * The application status before the event, if any.
+     */
+    private ApplicationStatus oldStatus;
+    /**
+     * The application status after the event, if any.
+     */
+    private ApplicationStatus newStatus;
+    /**
+     * The version of the application the event is about once the event is applied, or 0 if the event is not about an application.
+     */
+    private int version;
+    /**
+     * Whether the application the event is about has a withdrawal request pending once the event is applied.
+     */
+    private boolean withdrawalRequested;
+
+    /**
+     * Fills this slot with a new event. Only the bus calls this.
+     *
+     * @param sequence            The sequence number of the event.
+     * @param type                The kind of event.
+     * @param subjectId           The ID of the application, enquiry or registration concerned.
+     * @param projectName         The name of the project involved, or null.
+     * @param userNric            The NRIC of the user involved, or null.
+     * @param flatType            The flat type involved, or null.
+     * @param oldStatus           The application status before the event, or null.
+     * @param newStatus           The application status after the event, or null.
+     * @param version             The version of the application after the event, or 0.
+     * @param withdrawalRequested Whether the application has a withdrawal request pending after the event.
+     */
+    void set(long sequence, DomainEventType type, int subjectId, String projectName, String userNric,
+             FlatType flatType, ApplicationStatus oldStatus, ApplicationStatus newStatus,
+             int version, boolean withdrawalRequested) {
+        this.sequence = sequence;
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+        this.subjectId = subjectId;
+        this.projectName = projectName;
+        this.userNric = userNric;
+        this.flatType = flatType;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.version = version;
+        this.withdrawalRequested = withdrawalRequested;
+    }
+
+    /**
+     * Returns the sequence number of the event on the bus.
+     *
+     * @return The sequence number.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the kind of event.
+     *
+     * @return The event type.
+     */
+    public DomainEventType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the time the event was published.
+     *
+     * @return The publish time in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the ID of the application, enquiry or registration the event is about.
+     *
+     * @return The subject ID.
+     */
+    public int getSubjectId() {
+        return subjectId;
+    }
+
+    /**
+     * Returns the name of the project involved.
+     *
+     * @return The project name, or null if none.
+     */
+    public String getProjectName() {
+        return projectName;
+    }
+
+    /**
+     * Returns the NRIC of the user involved.
+     *
+     * @return The user's NRIC, or null if none.
+     */
+    public String getUserNric() {
+        return userNric;
+    }
+
+    /**
+     * Returns the flat type involved.
+     *
+     * @return The flat type, or null if none.
+     */
+    public FlatType getFlatType() {
+        return flatType;
+    }
+
+    /**
+     * Returns the application status before the event.
+     *
+     * @return The old status, or null if none.
+     */
+    public ApplicationStatus getOldStatus() {
+        return oldStatus;
+    }
+
+    /**
+     * Returns the application status after the event.
+     *
+     * @return The new status, or null if none.
+     */
+    public ApplicationStatus getNewStatus() {
+        return newStatus;
+    }
+
+    /**
+     * Returns the version of the application the event is about, counting the events published about it.
+     *
+     * @return The version after the event, or 0 if the event is not about an application.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns whether the application the event is about has a withdrawal request pending after the event.
+     *
+     * @return true if a withdrawal is requested.
+     */
+    public boolean isWithdrawalRequested() {
+        return withdrawalRequested;
+    }
+
+    /**
+     * Returns a one-line description of the event, suitable for a log file.
+     *
+     * @return A string describing the event.
+     */
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder();
+        line.append('#').append(sequence).append(' ').append(timestamp).append(' ').append(type)
+                .append(" id=").append(subjectId);
+        if (projectName != null) {
+            line.append(" project=").append(projectName);
+        }
+        if (userNric != null) {
+            line.append(" user=").append(userNric);
+        }
+        if (flatType != null) {
+            line.append(" flatType=").append(flatType);
+        }
+        if (oldStatus != null || newStatus != null) {
+            line.append(" status=").append(oldStatus).append("->").append(newStatus);
+        }
+        return line.toString();
+    }
+}
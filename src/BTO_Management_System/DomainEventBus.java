@@ -0,0 +1,264 @@
+package BTO_Management_System;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-process event bus that carries {@link DomainEvent}s from the domain methods to
+ * background consumers such as the event log and the event statistics, so that the
+ * thread serving the user only pays for writing a few fields into a preallocated slot.
+ * <p>
+ * Events are stored in a fixed ring of {@link #RING_SIZE} reused slots. Each publisher claims the next
+ * sequence number, writes its slot and then marks the slot as published with that sequence number; each
+ * subscribed consumer runs on its own thread, follows the published slots at its own pace and handles every
+ * event available to it in one batch, stopping at the first slot still being written. If the slowest consumer
+ * falls a whole ring behind, publishers wait for it rather than overwrite events it has not seen yet. No lock
+ * is held by the bus, so a stalled consumer only holds up the publishers that need its slots, and publishers
+ * never wait for each other.
+ * <p>
+ * Events about one subject are published while the subject's state lock is held, so the bus carries them
+ * in the order the changes were made. Consumers must therefore never take a domain lock themselves.
+ */
+public class DomainEventBus {
+    /**
+     * The number of slots in the ring. Must be a power of two.
+     */
+    public static final int RING_SIZE = 1024;
+    /**
+     * The mask turning a sequence number into a slot index.
+     */
+    private static final int INDEX_MASK = RING_SIZE - 1;
+    /**
+     * How long an idle consumer sleeps before checking the ring again, in nanoseconds.
+     */
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    /**
+     * How long a blocked publisher sleeps before checking the slowest consumer again, in nanoseconds.
+     */
+    private static final long BACKPRESSURE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * The preallocated event slots.
+     */
+    private static final DomainEvent[] ring = new DomainEvent[RING_SIZE];
+    /**
+     * The sequence number of the last claimed slot, or -1 if none has been claimed.
+     */
+    private static final AtomicLong claimed = new AtomicLong(-1);
+    /**
+     * For each slot, the sequence number of the last event written to it, or -1 if none.
+     */
+    private static final AtomicLongArray published = new AtomicLongArray(RING_SIZE);
+    /**
+     * The subscribed consumers.
+     */
+    private static final List<EventConsumer> consumers = new CopyOnWriteArrayList<>();
+
+    static {
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new DomainEvent();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private DomainEventBus() {
+        // Empty private constructor
+    }
+
+    /**
+     * Subscribes a handler to every event published from now on. The handler is called on its own
+     * daemon thread, in publish order, and must not publish events itself.
+     *
+     * @param name    A name for the consumer, used for its thread.
+     * @param handler The {@link DomainEventHandler} to call for each event.
+     */
+    public static void subscribe(String name, DomainEventHandler handler) {
+        EventConsumer consumer = new EventConsumer(handler, claimed.get());
+        consumers.add(consumer);
+        // Moved past every slot claimed by a publisher that may have missed the consumer,
+        // so it only reads slots whose publishers waited for it.
+        consumer.sequence.set(claimed.get());
+        Thread thread = new Thread(consumer, "event-" + name);
+        thread.setDaemon(true);
+        consumer.thread = thread;
+        thread.start();
+    }
+
+    /**
+     * Publishes an event about an application. The event advances the application's version and carries
+     * the application's flat type and withdrawal request as they are now, so it must be published while
+     * holding the application's lock, after the change it reports.
+     *
+     * @param type        The kind of event.
+     * @param application The {@link Application} concerned.
+     * @param actor       The user who made the change: the applicant, or the officer or manager acting on the
+     *                    application. Null if the change was not made by a user.
+     * @param oldStatus   The application status before the event, or null.
+     * @param newStatus   The application status after the event, or null.
+     */
+    public static void publish(DomainEventType type, Application application, User actor, ApplicationStatus oldStatus, ApplicationStatus newStatus) {
+        publish(type, application.getApplicationId(), application.getProjectApplied().getName(),
+                actor == null ? null : actor.getNRIC(), application.getAppliedFlatType(), oldStatus, newStatus,
+                application.nextVersion(), application.isWithdrawalRequested());
+    }
+
+    /**
+     * Publishes an event. If the slowest consumer is a whole ring behind, this waits until it catches up.
+     *
+     * @param type        The kind of event.
+     * @param subjectId   The ID of the application, enquiry or registration concerned.
+     * @param projectName The name of the project involved, or null.
+     * @param userNric    The NRIC of the user involved, or null.
+     * @param flatType    The flat type involved, or null.
+     * @param oldStatus   The application status before the event, or null.
+     * @param newStatus   The application status after the event, or null.
+     */
+    public static void publish(DomainEventType type, int subjectId, String projectName, String userNric,
+                               FlatType flatType, ApplicationStatus oldStatus, ApplicationStatus newStatus) {
+        publish(type, subjectId, projectName, userNric, flatType, oldStatus, newStatus, 0, false);
+    }
+
+    /**
+     * Publishes an event, carrying the state of the application it is about if it is about one.
+     *
+     * @param type                The kind of event.
+     * @param subjectId           The ID of the application, enquiry or registration concerned.
+     * @param projectName         The name of the project involved, or null.
+     * @param userNric            The NRIC of the user involved, or null.
+     * @param flatType            The flat type involved, or null.
+     * @param oldStatus           The application status before the event, or null.
+     * @param newStatus           The application status after the event, or null.
+     * @param version             The version of the application after the event, or 0.
+     * @param withdrawalRequested Whether the application has a withdrawal request pending after the event.
+     */
+    private static void publish(DomainEventType type, int subjectId, String projectName, String userNric,
+                                FlatType flatType, ApplicationStatus oldStatus, ApplicationStatus newStatus,
+                                int version, boolean withdrawalRequested) {
+        long next = claimed.incrementAndGet();
+        while (next - slowestConsumerSequence(next - 1) > RING_SIZE) {
+            LockSupport.parkNanos(BACKPRESSURE_WAIT_NANOS);
+        }
+        int index = (int) (next & INDEX_MASK);
+        ring[index].set(next, type, subjectId, projectName, userNric, flatType, oldStatus, newStatus,
+                version, withdrawalRequested);
+        published.set(index, next);
+        for (EventConsumer consumer : consumers) {
+            if (consumer.waiting) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last event published, counting events that are still being written.
+     *
+     * @return The sequence number, or -1 if nothing has been published.
+     */
+    public static long getLastSequence() {
+        return claimed.get();
+    }
+
+    /**
+     * Waits until every consumer has handled every event published so far, or until the timeout passes.
+     *
+     * @param timeoutMillis The longest time to wait, in milliseconds.
+     * @return true if every consumer caught up, false if the timeout passed first.
+     */
+    public static boolean awaitDrained(long timeoutMillis) {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (slowestConsumerSequence(target) < target) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(BACKPRESSURE_WAIT_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the sequence number of the last event before the first slot, from the given one on,
+     * that is still being written.
+     *
+     * @param from The sequence number to start looking from.
+     * @return The last sequence number a consumer may read up to, or from - 1 if the slot of from is not published yet.
+     */
+    private static long lastPublished(long from) {
+        long last = claimed.get();
+        for (long s = from; s <= last; s++) {
+            if (published.get((int) (s & INDEX_MASK)) != s) {
+                return s - 1;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Returns the sequence number of the last event handled by the slowest consumer.
+     *
+     * @param ifNone The value to return if there are no consumers.
+     * @return The lowest consumer sequence, or ifNone if there are no consumers.
+     */
+    private static long slowestConsumerSequence(long ifNone) {
+        long slowest = ifNone;
+        for (EventConsumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.sequence.get());
+        }
+        return slowest;
+    }
+
+    /**
+     * A subscribed handler together with its position in the ring and the thread that drives it.
+     */
+    private static final class EventConsumer implements Runnable {
+        private final DomainEventHandler handler;
+        private final AtomicLong sequence;
+        private volatile Thread thread;
+        private volatile boolean waiting;
+
+        /**
+         * Constructs a consumer that starts after the given sequence number.
+         *
+         * @param handler The handler to call for each event.
+         * @param start   The sequence number of the last event the consumer should skip.
+         */
+        EventConsumer(DomainEventHandler handler, long start) {
+            this.handler = handler;
+            this.sequence = new AtomicLong(start);
+        }
+
+        /**
+         * Follows the published slots forever, handling each batch of available events and sleeping while there are none.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                long next = sequence.get() + 1;
+                long available = lastPublished(next);
+                if (available < next) {
+                    waiting = true;
+                    if (lastPublished(next) < next) {
+                        LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                    }
+                    waiting = false;
+                    continue;
+                }
+                for (long s = next; s <= available; s++) {
+                    try {
+                        handler.onEvent(ring[(int) (s & INDEX_MASK)], s == available);
+                    } catch (RuntimeException e) {
+                        System.err.println("Error handling event " + s + ": " + e.getMessage());
+                    }
+                }
+                sequence.set(available);
+            }
+        }
+    }
+}
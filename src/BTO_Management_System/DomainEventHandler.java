@@ -0,0 +1,16 @@
+package BTO_Management_System;
+
+/**
+ * Interface for consumers of the events published on the {@link DomainEventBus}.
+ */
+public interface DomainEventHandler {
+    /**
+     * Handles one published event. The event object is a reused ring buffer slot, so any
+     * values that are needed after this call returns must be copied out of it.
+     *
+     * @param event      The {@link DomainEvent} to handle.
+     * @param endOfBatch {@code true} if this is the last event currently available, which is
+     *                   a good moment to flush any buffered output.
+     */
+    void onEvent(DomainEvent event, boolean endOfBatch);
+}
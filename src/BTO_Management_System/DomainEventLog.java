@@ -0,0 +1,53 @@
+package BTO_Management_System;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * A consumer of the {@link DomainEventBus} that appends every event to a log file.
+ * Lines are buffered and flushed once per batch, so a burst of events costs a single write.
+ */
+public class DomainEventLog implements DomainEventHandler {
+    /**
+     * The writer for the log file, or null if the file could not be opened.
+     */
+    private BufferedWriter writer;
+
+    /**
+     * Constructs a new event log that appends to the given file.
+     * If the file cannot be opened, an error is shown and events are discarded.
+     *
+     * @param fileName The name of the log file.
+     */
+    public DomainEventLog(String fileName) {
+        try {
+            this.writer = new BufferedWriter(new FileWriter(fileName, true));
+        } catch (IOException e) {
+            System.out.println("Error: Cannot open event log " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes one event to the log, flushing the file at the end of each batch.
+     *
+     * @param event      The {@link DomainEvent} to log.
+     * @param endOfBatch Whether this is the last event currently available.
+     */
+    @Override
+    public void onEvent(DomainEvent event, boolean endOfBatch) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(event.toString());
+            writer.newLine();
+            if (endOfBatch) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Cannot write to event log: " + e.getMessage());
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package BTO_Management_System;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A consumer of the {@link DomainEventBus} that counts the events of each type,
+ * giving managers a running summary of system activity without slowing down the domain methods.
+ */
+public class DomainEventStatistics implements DomainEventHandler {
+    /**
+     * The number of events seen for each event type.
+     */
+    private final Map<DomainEventType, LongAdder> counts = new EnumMap<>(DomainEventType.class);
+
+    /**
+     * Constructs a new statistics consumer with every count at zero.
+     */
+    public DomainEventStatistics() {
+        for (DomainEventType type : DomainEventType.values()) {
+            counts.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Counts one event.
+     *
+     * @param event      The {@link DomainEvent} to count.
+     * @param endOfBatch Unused.
+     */
+    @Override
+    public void onEvent(DomainEvent event, boolean endOfBatch) {
+        counts.get(event.getType()).increment();
+    }
+
+    /**
+     * Returns the number of events of a type seen so far.
+     *
+     * @param type The event type.
+     * @return The number of events of that type.
+     */
+    public long getCount(DomainEventType type) {
+        return counts.get(type).sum();
+    }
+
+    /**
+     * Returns a summary of the counts of every event type.
+     *
+     * @return A string with one line per event type.
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (DomainEventType type : DomainEventType.values()) {
+            summary.append(type).append(": ").append(getCount(type)).append('\n');
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package BTO_Management_System;
+
+/**
+ * Enumerates the kinds of domain events published on the {@link DomainEventBus}
+ * when the state of projects, applications, enquiries or officer assignments changes.
+ */
+public enum DomainEventType {
+    /**
+     * An applicant has submitted an application for a project.
+     */
+    APPLICATION_SUBMITTED,
+    /**
+     * The status of an application has changed.
+     */
+    APPLICATION_STATUS_CHANGED,
+    /**
+     * An officer has booked a flat for a successful application.
+     */
+    FLAT_BOOKED,
+    /**
+     * An applicant has requested to withdraw their application.
+     */
+    WITHDRAWAL_REQUESTED,
+    /**
+     * A manager has approved a withdrawal, removing the application from its project.
+     */
+    WITHDRAWAL_APPROVED,
+    /**
+     * A manager has rejected a withdrawal request.
+     */
+    WITHDRAWAL_REJECTED,
+    /**
+     * An applicant has submitted an enquiry about a project.
+     */
+    ENQUIRY_SUBMITTED,
+    /**
+     * An applicant has edited the text of an enquiry.
+     */
+    ENQUIRY_UPDATED,
+    /**
+     * An enquiry has been deleted.
+     */
+    ENQUIRY_DELETED,
+    /**
+     * An officer or manager has replied to an enquiry.
+     */
+    ENQUIRY_REPLIED,
+    /**
+     * An officer's registration to handle a project has been approved.
+     */
+    OFFICER_REGISTERED,
+    /**
+     * A manager has created a project.
+     */
+    PROJECT_CREATED,
+    /**
+     * The details, visibility or remaining units of a project have been edited.
+     */
+    PROJECT_UPDATED,
+    /**
+     * A manager has deleted a project.
+     */
+    PROJECT_DELETED
+}
@@ -1,5 +1,8 @@
 package BTO_Management_System;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Represents an enquiry submitted by an applicant regarding a specific BTO project.
  * It stores the unique enquiry ID, the applicant who submitted it, the project it pertains to,
@@ -7,9 +10,9 @@ package BTO_Management_System;
  */
 public class Enquiry {
     /**
-     * A counter to generate unique enquiry IDs.
+     * A counter to generate unique enquiry IDs, safe to draw from on any thread.
      */
-    private static int counter = 1;
+    private static final AtomicInteger counter = new AtomicInteger(1);
     /**
      * The unique identifier for this enquiry.
      */
@@ -30,6 +33,14 @@ public class Enquiry {
      * The reply text provided by an HDB officer, if any.
      */
     private String replyText;
+    /**
+     * The number of changes made to the enquiry text and reply.
+     */
+    private final AtomicLong changes = new AtomicLong();
+    /**
+     * The last rendered {@link #getEnquiryDetails()} text, reused until the enquiry or its project's name changes.
+     */
+    private volatile RenderedView detailsView;
 
     /**
      * Constructs a new Enquiry object with the specified applicant, project, and enquiry text.
@@ -40,7 +51,23 @@ public class Enquiry {
      * @param enquiryText The text content of the enquiry.
      */
     public Enquiry(Applicant applicant, BTOProject project, String enquiryText) {
-        this.enquiryId = counter++;
+        this.enquiryId = counter.getAndIncrement();
+        this.applicant = applicant;
+        this.project = project;
+        this.enquiryText = enquiryText;
+    }
+
+    /**
+     * Constructs a copy of an enquiry that keeps the ID it was given elsewhere, for a
+     * {@link ReplicationFollower} mirroring the enquiries of a leader.
+     *
+     * @param enquiryId   The ID of the enquiry.
+     * @param applicant   The applicant who submitted the enquiry.
+     * @param project     The BTO project the enquiry is about.
+     * @param enquiryText The text content of the enquiry.
+     */
+    Enquiry(int enquiryId, Applicant applicant, BTOProject project, String enquiryText) {
+        this.enquiryId = enquiryId;
         this.applicant = applicant;
         this.project = project;
         this.enquiryText = enquiryText;
@@ -85,11 +112,19 @@ public class Enquiry {
     /**
      * Returns a formatted string containing the details of the enquiry,
      * including the enquiry ID, applicant's name, project name, and the enquiry text.
+     * The text is rendered once and reused until the enquiry or the project's name changes.
      *
      * @return A string representing the enquiry details.
      */
     public String getEnquiryDetails() {
-        return "Enquiry ID: " + enquiryId + ", Applicant: " + applicant.getName() + ", Project: " + project.getName() + ", Enquiry: " + enquiryText;
+        long stamp = changes.get() + project.getDescriptionStamp();
+        RenderedView view = detailsView;
+        if (!RenderedView.isCurrent(view, stamp)) {
+            view = new RenderedView(stamp, "Enquiry ID: " + enquiryId + ", Applicant: " + applicant.getName()
+                    + ", Project: " + project.getName() + ", Enquiry: " + enquiryText);
+            detailsView = view;
+        }
+        return view.getText();
     }
 
     /**
@@ -97,8 +132,12 @@ public class Enquiry {
      *
      * @param newText The new text for the enquiry.
      */
-    public void updateEnquiry(String newText) {
+    public synchronized void updateEnquiry(String newText) {
         this.enquiryText = newText;
+        changes.incrementAndGet();
+        EnquiryIndex.reindex(this);
+        ReplyReuseCache.update(this);
+        DomainEventBus.publish(DomainEventType.ENQUIRY_UPDATED, enquiryId, project.getName(), applicant.getNRIC(), null, null, null);
     }
 
     /**
@@ -111,12 +150,16 @@ public class Enquiry {
     }
 
     /**
-     * Sets the reply text for this enquiry, typically provided by an HDB officer.
+     * Sets the reply text for this enquiry, typically provided by an HDB officer,
+     * and publishes a {@link DomainEventType#ENQUIRY_REPLIED} event.
      *
      * @param replyText The reply text to set.
      */
-    public void setReplyText(String replyText) {
+    public synchronized void setReplyText(String replyText) {
         this.replyText = replyText;
+        changes.incrementAndGet();
+        EnquiryIndex.reindex(this);
+        DomainEventBus.publish(DomainEventType.ENQUIRY_REPLIED, enquiryId, project.getName(), applicant.getNRIC(), null, null, null);
     }
 
     /**
@@ -0,0 +1,406 @@
+package BTO_Management_System;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index over the enquiry text and reply text of every enquiry in the system,
+ * used by managers to search enquiries by keyword.
+ * The index is updated incrementally whenever an enquiry is added, edited, replied to or deleted.
+ * Each keyword maps to a posting list of enquiry IDs stored as variable-length encoded gaps.
+ */
+public class EnquiryIndex {
+    /**
+     * Words shorter than this are not indexed.
+     */
+    private static final int MIN_TERM_LENGTH = 2;
+
+    /**
+     * The posting list of every indexed term.
+     */
+    private static final Map<String, PostingList> postings = new HashMap<>();
+    /**
+     * The indexed enquiries by ID.
+     */
+    private static final Map<Integer, Enquiry> documents = new HashMap<>();
+    /**
+     * The terms each indexed enquiry was filed under, so it can be removed or re-indexed.
+     */
+    private static final Map<Integer, Set<String>> documentTerms = new HashMap<>();
+    /**
+     * Guards the index so searches can run alongside each other but not alongside updates.
+     */
+    private static final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private EnquiryIndex() {
+        // Empty private constructor
+    }
+
+    /**
+     * Splits text into lower-case search terms. Any character that is not a letter or digit
+     * separates terms, and terms shorter than two characters are dropped.
+     *
+     * @param text The text to tokenize. May be {@code null}.
+     * @return The terms of the text in order of appearance, including repeats.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (term.length() > 0) {
+                if (term.length() >= MIN_TERM_LENGTH) {
+                    terms.add(term.toString());
+                }
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Adds an enquiry to the index under the terms of its enquiry text and reply text.
+     * An enquiry that is already indexed is re-indexed.
+     *
+     * @param enquiry The {@link Enquiry} to index.
+     */
+    public static void index(Enquiry enquiry) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(enquiry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes an enquiry after its text or reply changed. Enquiries that are not indexed are ignored.
+     *
+     * @param enquiry The {@link Enquiry} that changed.
+     */
+    public static void reindex(Enquiry enquiry) {
+        lock.writeLock().lock();
+        try {
+            if (documents.containsKey(enquiry.getEnquiryId())) {
+                indexLocked(enquiry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an enquiry from the index.
+     *
+     * @param enquiry The {@link Enquiry} to remove.
+     */
+    public static void remove(Enquiry enquiry) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(enquiry.getEnquiryId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every enquiry from the index.
+     */
+    static void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentTerms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Files an enquiry under the terms of its enquiry text and reply text. If it is already indexed, only the
+     * posting lists of the terms it gained or lost are touched, so an edit that keeps most words is cheap.
+     * The write lock must be held.
+     *
+     * @param enquiry The {@link Enquiry} to index.
+     */
+    private static void indexLocked(Enquiry enquiry) {
+        int enquiryId = enquiry.getEnquiryId();
+        Set<String> terms = new HashSet<>(tokenize(enquiry.getEnquiryText()));
+        terms.addAll(tokenize(enquiry.getReplyText()));
+        Set<String> previous = documentTerms.getOrDefault(enquiryId, Collections.emptySet());
+        for (String term : previous) {
+            if (!terms.contains(term)) {
+                removePosting(term, enquiryId);
+            }
+        }
+        for (String term : terms) {
+            if (!previous.contains(term)) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(enquiryId);
+            }
+        }
+        documents.put(enquiryId, enquiry);
+        documentTerms.put(enquiryId, terms);
+    }
+
+    /**
+     * Removes an enquiry ID from every posting list it appears in. The write lock must be held.
+     *
+     * @param enquiryId The ID of the enquiry to remove.
+     */
+    private static void removeLocked(int enquiryId) {
+        Set<String> terms = documentTerms.remove(enquiryId);
+        documents.remove(enquiryId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            removePosting(term, enquiryId);
+        }
+    }
+
+    /**
+     * Removes an enquiry ID from the posting list of one term, dropping the list once it is empty.
+     * The write lock must be held.
+     *
+     * @param term      The term.
+     * @param enquiryId The ID of the enquiry to remove.
+     */
+    private static void removePosting(String term, int enquiryId) {
+        PostingList list = postings.get(term);
+        if (list != null) {
+            list.remove(enquiryId);
+            if (list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Searches the indexed enquiries by keyword. By default every keyword must match;
+     * if the query contains the word {@code OR}, an enquiry matching any keyword is returned instead.
+     * For example, {@code "lift MRT"} finds enquiries mentioning both words and
+     * {@code "lift OR MRT"} finds enquiries mentioning either.
+     *
+     * @param query   The keywords to search for.
+     * @param project The {@link BTOProject} to restrict the search to, or {@code null} to search every project.
+     * @return The matching enquiries in enquiry ID order.
+     */
+    public static List<Enquiry> search(String query, BTOProject project) {
+        boolean matchAny = false;
+        List<String> terms = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                matchAny = true;
+            } else if (!word.equals("AND")) {
+                terms.addAll(tokenize(word));
+            }
+        }
+        List<Enquiry> results = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return results;
+        }
+        lock.readLock().lock();
+        try {
+            int[] ids = null;
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                int[] termIds = list == null ? new int[0] : list.toArray();
+                if (ids == null) {
+                    ids = termIds;
+                } else {
+                    ids = matchAny ? union(ids, termIds) : intersect(ids, termIds);
+                }
+                if (!matchAny && ids.length == 0) {
+                    break;
+                }
+            }
+            for (int id : ids) {
+                Enquiry enquiry = documents.get(id);
+                if (project == null || enquiry.getProject() == project) {
+                    results.add(enquiry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return results;
+    }
+
+    /**
+     * Intersects two sorted ID arrays.
+     *
+     * @param a The first sorted array.
+     * @param b The second sorted array.
+     * @return The IDs present in both arrays, sorted.
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Merges two sorted ID arrays.
+     *
+     * @param a The first sorted array.
+     * @param b The second sorted array.
+     * @return The IDs present in either array, sorted and without duplicates.
+     */
+    private static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * A compressed, sorted list of enquiry IDs. IDs are stored as the gap from the previous ID,
+     * written as variable-length bytes (seven bits per byte), so the dense, increasing IDs of
+     * new enquiries usually take a single byte each. Appending a new, larger ID is O(1);
+     * inserting or removing an earlier ID rewrites the list.
+     */
+    private static final class PostingList {
+        private byte[] bytes = new byte[8];
+        private int length;
+        private int count;
+        private int lastId;
+
+        /**
+         * Adds an ID to the list, keeping it sorted.
+         *
+         * @param id The ID to add.
+         */
+        void add(int id) {
+            if (count == 0 || id > lastId) {
+                writeGap(id - lastId);
+                lastId = id;
+                count++;
+                return;
+            }
+            int[] ids = toArray();
+            int position = Arrays.binarySearch(ids, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            int[] updated = new int[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            updated[position] = id;
+            System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+            rewrite(updated);
+        }
+
+        /**
+         * Removes an ID from the list if present.
+         *
+         * @param id The ID to remove.
+         */
+        void remove(int id) {
+            int[] ids = toArray();
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return;
+            }
+            int[] updated = new int[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            rewrite(updated);
+        }
+
+        /**
+         * Returns the number of IDs in the list.
+         *
+         * @return The number of IDs.
+         */
+        int size() {
+            return count;
+        }
+
+        /**
+         * Decodes the list.
+         *
+         * @return The IDs in the list, sorted.
+         */
+        int[] toArray() {
+            int[] ids = new int[count];
+            int position = 0;
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                previous += gap;
+                ids[i] = previous;
+            }
+            return ids;
+        }
+
+        /**
+         * Replaces the contents of the list.
+         *
+         * @param ids The new IDs, sorted.
+         */
+        private void rewrite(int[] ids) {
+            length = 0;
+            count = 0;
+            lastId = 0;
+            for (int id : ids) {
+                writeGap(id - lastId);
+                lastId = id;
+                count++;
+            }
+        }
+
+        /**
+         * Appends one gap as variable-length bytes.
+         *
+         * @param gap The non-negative gap to append.
+         */
+        private void writeGap(int gap) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((gap & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            bytes[length++] = (byte) gap;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package BTO_Management_System;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A named value that is read when it is reported rather than recorded as it changes, such as the
+ * number of connected followers or how far a follower is behind its leader. Instances are obtained
+ * from {@link Metrics#gauge(String, LongSupplier)} and are published as platform MBeans.
+ */
+public class Gauge implements GaugeMXBean {
+    /**
+     * The name of the gauge.
+     */
+    private final String name;
+    /**
+     * Reads the current value.
+     */
+    private volatile LongSupplier value;
+
+    /**
+     * Constructs a gauge. Use {@link Metrics#gauge(String, LongSupplier)} instead so it is registered.
+     *
+     * @param name  The name of the gauge.
+     * @param value Reads the current value.
+     */
+    Gauge(String name, LongSupplier value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    /**
+     * Replaces the function the value is read with, for example when the component it reads is restarted.
+     *
+     * @param value Reads the current value.
+     */
+    void setValue(LongSupplier value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the name of the gauge.
+     *
+     * @return The gauge name.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current value of the gauge.
+     *
+     * @return The value.
+     */
+    @Override
+    public long getValue() {
+        return value.getAsLong();
+    }
+}
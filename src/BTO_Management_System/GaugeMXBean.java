@@ -0,0 +1,21 @@
+package BTO_Management_System;
+
+/**
+ * The management interface of {@link Gauge}, through which JMX clients such as
+ * JConsole read the current value of one gauge.
+ */
+public interface GaugeMXBean {
+    /**
+     * Returns the name of the gauge.
+     *
+     * @return The gauge name.
+     */
+    String getName();
+
+    /**
+     * Returns the current value of the gauge.
+     *
+     * @return The value.
+     */
+    long getValue();
+}
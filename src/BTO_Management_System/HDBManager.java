@@ -1,5 +1,6 @@
 package BTO_Management_System;
 
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,6 +19,14 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * The maximum number of officers allowed per project.
      */
     private static final int MAX_OFFICERS_PROJECT = 10;
+    /**
+     * The directory receipts are written to when the manager does not name one.
+     */
+    private static final String RECEIPT_DIRECTORY = "receipts";
+    /**
+     * The latency metrics of {@link #handleApplication(Application, ApplicationStatus)}.
+     */
+    private static final OperationMetrics HANDLE_APPLICATION_METRICS = Metrics.operation("handleApplication");
     /**
      * The BTO project currently being handled by this manager.
      */
@@ -26,11 +35,19 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * A flag indicating if this manager has created their first project.
      */
     private boolean hasCreatedFirstProject;
+    /**
+     * The pending withdrawal requests for this manager's projects, oldest first.
+     */
+    private final ReviewQueue<Application> withdrawalQueue;
+    /**
+     * The pending officer registrations for this manager's projects, oldest first.
+     */
+    private final ReviewQueue<RegistrationApplication> registrationQueue;
 
     /**
      * Constructs a new HDBManager with the specified details.
-     * Initializes an empty list for created projects and sets the
-     * {@code hasCreatedFirstProject} flag to false.
+     * Initializes an empty list for created projects and empty withdrawal and registration queues,
+     * and sets the {@code hasCreatedFirstProject} flag to false.
      *
      * @param name          The name of the manager.
      * @param nric          The NRIC of the manager (user ID).
@@ -41,6 +58,8 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
         super(name, nric, age, maritalStatus);
         this.projectsCreated = new ArrayList<>();
         this.hasCreatedFirstProject = false;
+        this.withdrawalQueue = new ReviewQueue<>(Application::getApplicationId);
+        this.registrationQueue = new ReviewQueue<>(RegistrationApplication::getRegisterId);
     }
 
     /**
@@ -53,6 +72,24 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
         return "Manager";
     }
 
+    /**
+     * Returns the queue of pending withdrawal requests for this manager's projects.
+     *
+     * @return The manager's withdrawal {@link ReviewQueue}, keyed by application ID.
+     */
+    public ReviewQueue<Application> getWithdrawalQueue() {
+        return withdrawalQueue;
+    }
+
+    /**
+     * Returns the queue of pending officer registrations for this manager's projects.
+     *
+     * @return The manager's registration {@link ReviewQueue}, keyed by register ID.
+     */
+    public ReviewQueue<RegistrationApplication> getRegistrationQueue() {
+        return registrationQueue;
+    }
+
     /**
      * Returns the list of BTO projects created by this manager.
      *
@@ -96,24 +133,47 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
     public void createProject(String name, String neighborhood,
                               Map<FlatType, Integer> remainingUnits, Date applicationOpenDate,
                               Date applicationCloseDate, int maxOfficers) {
-        if (maxOfficers > 10) {
-            System.out.println("Maximum number of officers for a project cannot exceed 10.");
-            return;
+        boolean firstProject = !hasCreatedFirstProject;
+        OperationResult<BTOProject> result = submitProject(name, neighborhood, remainingUnits, applicationOpenDate, applicationCloseDate, maxOfficers);
+        System.out.println(result.getMessage());
+        if (result.isSuccess() && firstProject) {
+            System.out.println("This is your first created project. It has been set as your handling project: " + name);
+        }
+    }
+
+    /**
+     * Creates a new BTO project without printing anything.
+     * This is the operation behind {@link #createProject(String, String, Map, Date, Date, int)}.
+     *
+     * @param name                The name of the new project.
+     * @param neighborhood        The neighborhood where the project is located.
+     * @param remainingUnits      A map of {@link FlatType} to the number of remaining units.
+     * @param applicationOpenDate The date when applications for this project open.
+     * @param applicationCloseDate The date when applications for this project close.
+     * @param maxOfficers         The maximum number of officers allowed for this project (up to {@link #MAX_OFFICERS_PROJECT}).
+     * @return The result, holding the new {@link BTOProject} on success.
+     */
+    public OperationResult<BTOProject> submitProject(String name, String neighborhood,
+                                                     Map<FlatType, Integer> remainingUnits, Date applicationOpenDate,
+                                                     Date applicationCloseDate, int maxOfficers) {
+        if (maxOfficers > MAX_OFFICERS_PROJECT) {
+            return OperationResult.failure(ResultCode.MAX_OFFICERS_REACHED, "Maximum number of officers for a project cannot exceed " + MAX_OFFICERS_PROJECT + ".");
         }
         if (remainingUnits == null || remainingUnits.isEmpty()) {
-            System.out.println("Please specify remaining units for at least one flat type.");
-            return;
+            return OperationResult.failure(ResultCode.INVALID_INPUT, "Please specify remaining units for at least one flat type.");
         }
 
         BTOProject newProject = new BTOProject(name, neighborhood, remainingUnits, applicationOpenDate, applicationCloseDate, this, maxOfficers);
         this.projectsCreated.add(newProject);
         ProjectRegistry.addProject(newProject);
-        System.out.println("New project created: " + name + " (Allowing: " + remainingUnits.keySet() + ")");
+        DomainEventBus.publish(DomainEventType.PROJECT_CREATED, 0, name, nric, null, null, null);
         if (!hasCreatedFirstProject) {
-            setHandlingProject(newProject);
+            if (this.handlingProject == null) {
+                this.handlingProject = newProject;
+            }
             hasCreatedFirstProject = true;
-            System.out.println("This is your first created project. It has been set as your handling project: " + name);
         }
+        return OperationResult.success(newProject, "New project created: " + name + " (Allowing: " + remainingUnits.keySet() + ")");
     }
 
     /**
@@ -127,6 +187,7 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
         if (projectsCreated.contains(project)) {
             projectsCreated.remove(project);
             ProjectRegistry.removeProject(project);
+            DomainEventBus.publish(DomainEventType.PROJECT_DELETED, 0, project.getName(), nric, null, null, null);
             System.out.println("Project " + project.getName() + " deleted.");
             if (handlingProject != null && handlingProject.equals(project)) {
                 handlingProject = null;
@@ -155,15 +216,18 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * If no projects have been created, a соответствующее message is displayed.
      */
     public void viewOwnCreatedProjects() {
-        List<BTOProject> createdProjects = this.getProjectsCreated();
-        if (createdProjects.isEmpty()) {
-            System.out.println("No BTO projects have been created by you yet.");
-        } else {
-            System.out.println("All BTO Projects created by you:");
-            for (BTOProject project : createdProjects) {
-                System.out.println(project.getDetails());
-            }
-        }
+        handleViewOwnCreatedProjects(null);
+    }
+
+    /**
+     * Returns one page of the BTO projects created by this manager, in alphabetical order.
+     *
+     * @param token    The continuation token from the previous page, or null for the first page.
+     * @param pageSize The maximum number of projects on the page.
+     * @return The requested {@link Page} of projects.
+     */
+    public Page<BTOProject> getProjectsCreatedPage(String token, int pageSize) {
+        return ProjectRegistry.getProjectsPage("ALPHABETICAL", project -> this.equals(project.getManager()), token, pageSize);
     }
 
     /**
@@ -177,30 +241,21 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
     }
 
     /**
-     * Displays all officer registration applications across all BTO projects.
-     * It iterates through each project in the registry and shows the pending,
-     * successful, or unsuccessful registration applications.
+     * Displays the pending officer registration applications for this manager's projects, oldest first,
+     * from the manager's registration {@link ReviewQueue}.
      */
     public void viewAllOfficerApplications() {
-        List<BTOProject> allProjects = ProjectRegistry.getAllProjects();
-        if (allProjects.isEmpty()){
-            System.out.println("No BTO projects have been created yet.");
+        List<RegistrationApplication> pending = registrationQueue.peek(0);
+        if (pending.isEmpty()) {
+            System.out.println("No pending officer registration applications for your projects.");
             return;
         }
-        for (BTOProject project : allProjects) {
-            List<RegistrationApplication> allOfficerApplications = project.getOfficerApplications();
-            if (allOfficerApplications != null && !allOfficerApplications.isEmpty()) {
-                System.out.println("Project: " + project.getName()); // Indicate which project the applications belong to
-                for (RegistrationApplication officerApplication : allOfficerApplications) {
-                    System.out.println("  Register ID: " + officerApplication.getRegisterId() +
-                            ", Applicant: " + officerApplication.getOfficer().getName() +
-                            " (NRIC: " + officerApplication.getOfficer().getNRIC() + ")" +
-                            ", Project: " + officerApplication.getProjectApplied().getName() +
-                            " - Status: " + officerApplication.getRegisterStatusStatus());
-                }
-            } else {
-                System.out.println("Project: " + project.getName() + " has no officer registration applications.");
-            }
+        for (RegistrationApplication officerApplication : pending) {
+            System.out.println("  Register ID: " + officerApplication.getRegisterId() +
+                    ", Applicant: " + officerApplication.getOfficer().getName() +
+                    " (NRIC: " + officerApplication.getOfficer().getNRIC() + ")" +
+                    ", Project: " + officerApplication.getProjectApplied().getName() +
+                    " - Status: " + officerApplication.getRegisterStatusStatus());
         }
     }
 
@@ -213,31 +268,114 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * @param newStatus               The new status for the application ({@link RegisterStatus#SUCCESSFUL} or {@link RegisterStatus#UNSUCCESSFUL}).
      */
     public void handleOfficerRegistration(RegistrationApplication registrationApplication, RegisterStatus newStatus) {
+        System.out.println(processOfficerRegistration(registrationApplication, newStatus).getMessage());
+    }
+
+    /**
+     * Approves or rejects an officer registration for the handling project without printing anything.
+     * This is the operation behind {@link #handleOfficerRegistration(RegistrationApplication, RegisterStatus)}.
+     *
+     * @param registrationApplication The {@link RegistrationApplication} to handle.
+     * @param newStatus               The new status for the application ({@link RegisterStatus#SUCCESSFUL} or {@link RegisterStatus#UNSUCCESSFUL}).
+     * @return The result, holding the handled {@link RegistrationApplication} on success.
+     */
+    public OperationResult<RegistrationApplication> processOfficerRegistration(RegistrationApplication registrationApplication, RegisterStatus newStatus) {
         if (this.handlingProject == null) {
-            System.out.println("You have not been assigned to a project yet!");
-            return;
+            return OperationResult.failure(ResultCode.NOT_HANDLING_PROJECT, "You have not been assigned to a project yet!");
         }
-        if (!handlingProject.getOfficerApplications().contains(registrationApplication)) {
-            System.out.println("You are not eligible to handle this application!");
-            return;
+        if (registrationApplication.getProjectApplied() != handlingProject) {
+            return OperationResult.failure(ResultCode.NOT_HANDLING_PROJECT, "You are not eligible to handle this application!");
         }
-        if (newStatus == RegisterStatus.SUCCESSFUL) {
-            if (handlingProject.getOfficers().size() >= handlingProject.getMaxOfficers()) {
-                System.out.println("Cannot approve application: max number of officers already assigned.");
-                return;
+        if (newStatus != RegisterStatus.SUCCESSFUL && newStatus != RegisterStatus.UNSUCCESSFUL) {
+            return OperationResult.failure(ResultCode.INVALID_STATUS, "Invalid application status.");
+        }
+        // The status check and the slot reservation happen together so that a registration is only approved once.
+        synchronized (registrationApplication) {
+            if (registrationApplication.getRegisterStatusStatus() != RegisterStatus.Pending) {
+                registrationQueue.remove(registrationApplication);
+                return OperationResult.failure(ResultCode.ALREADY_PROCESSED, "The registration (ID: " + registrationApplication.getRegisterId() + ") has already been processed.");
+            }
+            if (newStatus == RegisterStatus.SUCCESSFUL) {
+                if (!handlingProject.tryAddOfficer(registrationApplication.getOfficer())) {
+                    return OperationResult.failure(ResultCode.MAX_OFFICERS_REACHED, "Cannot approve application: max number of officers already assigned.");
+                }
+                assignOfficer(registrationApplication, handlingProject);
+            } else {
+                registrationApplication.setRegisterStatusStatus(RegisterStatus.UNSUCCESSFUL);
             }
-            registrationApplication.setRegisterStatusStatus(RegisterStatus.SUCCESSFUL);
-            HDBOfficer approvedOfficer = registrationApplication.getOfficer();
-            approvedOfficer.setHandlingProject(this.handlingProject);
-            approvedOfficer.setAssignedManager(this);
-            handlingProject.addOfficer(approvedOfficer);
-            System.out.println("Application for " + approvedOfficer.getName() + " (NRIC: " + approvedOfficer.getNRIC() + ") has been approved.");
-        } else if (newStatus == RegisterStatus.UNSUCCESSFUL) {
-            registrationApplication.setRegisterStatusStatus(RegisterStatus.UNSUCCESSFUL);
-            System.out.println("Application for " + registrationApplication.getOfficer().getName() + " (NRIC: " + registrationApplication.getOfficer().getNRIC() + ") has been rejected.");
-        } else {
-            System.out.println("Invalid application status.");
         }
+        registrationQueue.remove(registrationApplication);
+        HDBOfficer officer = registrationApplication.getOfficer();
+        return OperationResult.success(registrationApplication, "Application for " + officer.getName() + " (NRIC: " + officer.getNRIC() + ") has been "
+                + (newStatus == RegisterStatus.SUCCESSFUL ? "approved." : "rejected."));
+    }
+
+    /**
+     * Approves the oldest pending officer registrations for the handling project in one pass, without printing anything.
+     * The free officer slots are reserved in a single atomic step, so the project never goes over its maximum number
+     * of officers even if other approvals run at the same time. Registrations beyond the free slots stay pending.
+     *
+     * @param maxCount The maximum number of registrations to approve, or 0 or less for as many as there are free slots.
+     * @return The result, holding the approved {@link RegistrationApplication}s, oldest first, on success.
+     */
+    public OperationResult<List<RegistrationApplication>> approveOfficerRegistrations(int maxCount) {
+        if (this.handlingProject == null) {
+            return OperationResult.failure(ResultCode.NOT_HANDLING_PROJECT, "You have not been assigned to a project yet!");
+        }
+        BTOProject project = handlingProject;
+        List<RegistrationApplication> candidates = new ArrayList<>();
+        for (RegistrationApplication registration : registrationQueue.peek(0)) {
+            if (registration.getRegisterStatusStatus() != RegisterStatus.Pending) {
+                registrationQueue.remove(registration);
+            } else if (registration.getProjectApplied() == project && (maxCount <= 0 || candidates.size() < maxCount)) {
+                candidates.add(registration);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return OperationResult.failure(ResultCode.NOT_FOUND, "No pending officer registrations for " + project.getName() + ".");
+        }
+        int reserved = project.reserveOfficerSlots(candidates.size());
+        if (reserved == 0) {
+            return OperationResult.failure(ResultCode.MAX_OFFICERS_REACHED, "Cannot approve registrations: max number of officers already assigned.");
+        }
+        List<RegistrationApplication> approved = new ArrayList<>(reserved);
+        for (RegistrationApplication registration : candidates) {
+            if (approved.size() == reserved) {
+                break;
+            }
+            synchronized (registration) {
+                if (registration.getRegisterStatusStatus() != RegisterStatus.Pending) {
+                    continue;
+                }
+                project.addReservedOfficer(registration.getOfficer());
+                assignOfficer(registration, project);
+            }
+            registrationQueue.remove(registration);
+            approved.add(registration);
+        }
+        if (approved.size() < reserved) {
+            project.releaseOfficerSlots(reserved - approved.size());
+        }
+        String message = "Approved " + approved.size() + " officer registration(s) for " + project.getName() + ".";
+        if (approved.size() < candidates.size()) {
+            message += " " + (candidates.size() - approved.size()) + " left pending: not enough free officer slots.";
+        }
+        return OperationResult.success(approved, message);
+    }
+
+    /**
+     * Marks an officer registration as approved and assigns the officer to a project.
+     * The caller must already have added the officer to the project and must hold the registration's lock.
+     *
+     * @param registrationApplication The {@link RegistrationApplication} being approved.
+     * @param project                 The project the officer joins.
+     */
+    private void assignOfficer(RegistrationApplication registrationApplication, BTOProject project) {
+        registrationApplication.setRegisterStatusStatus(RegisterStatus.SUCCESSFUL);
+        HDBOfficer approvedOfficer = registrationApplication.getOfficer();
+        approvedOfficer.setHandlingProject(project);
+        approvedOfficer.setAssignedManager(this);
+        DomainEventBus.publish(DomainEventType.OFFICER_REGISTERED, registrationApplication.getRegisterId(), project.getName(), approvedOfficer.getNRIC(), null, null, null);
     }
 
     /**
@@ -249,26 +387,35 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * @param newStatus   The new status for the application ({@link ApplicationStatus#SUCCESSFUL} or {@link ApplicationStatus#UNSUCCESSFUL}).
      */
     public void handleApplication(Application application, ApplicationStatus newStatus) {
+        System.out.println(HANDLE_APPLICATION_METRICS.time(() -> processApplication(application, newStatus)).getMessage());
+    }
+
+    /**
+     * Approves or rejects an application without printing anything.
+     * This is the operation behind {@link #handleApplication(Application, ApplicationStatus)}.
+     *
+     * @param application The {@link Application} to handle.
+     * @param newStatus   The new status for the application ({@link ApplicationStatus#SUCCESSFUL} or {@link ApplicationStatus#UNSUCCESSFUL}).
+     * @return The result, holding the handled {@link Application} on success.
+     */
+    public OperationResult<Application> processApplication(Application application, ApplicationStatus newStatus) {
         if (application.getApplicationStatus() == ApplicationStatus.SUCCESSFUL || application.getApplicationStatus() == ApplicationStatus.UNSUCCESSFUL || application.getApplicationStatus() == ApplicationStatus.BOOKED) {
-            System.out.println("The application (ID: " + application.getApplicationId() + ") has already been processed.");
-            return;
+            return OperationResult.failure(ResultCode.ALREADY_PROCESSED, "The application (ID: " + application.getApplicationId() + ") has already been processed.");
         }
         BTOProject project = application.getProjectApplied();
         FlatType appliedFlatType = application.getAppliedFlatType();
         if (newStatus == ApplicationStatus.SUCCESSFUL) {
-            if (project.getRemainingUnits().containsKey(appliedFlatType) && project.getRemainingUnits().get(appliedFlatType) > 0) {
-                application.setApplicationStatus(ApplicationStatus.SUCCESSFUL);
-                project.updateApplicationStatus(application.getApplicant(), ApplicationStatus.SUCCESSFUL); // Use the project's method
-                System.out.println("Application (ID: " + application.getApplicationId() + ") for " + project.getName() + " has been approved.");
-            } else {
-                System.out.println("Cannot approve application (ID: " + application.getApplicationId() + ") for " + project.getName() + ". No remaining units of " + appliedFlatType + ".");
+            if (project.getRemainingUnits(appliedFlatType) <= 0) {
+                return OperationResult.failure(ResultCode.NO_UNITS_AVAILABLE, "Cannot approve application (ID: " + application.getApplicationId() + ") for " + project.getName() + ". No remaining units of " + appliedFlatType + ".");
             }
+            application.setApplicationStatus(ApplicationStatus.SUCCESSFUL, this);
+            project.updateApplicationStatus(application.getApplicant(), ApplicationStatus.SUCCESSFUL); // Use the project's method
+            return OperationResult.success(application, "Application (ID: " + application.getApplicationId() + ") for " + project.getName() + " has been approved.");
         } else if (newStatus == ApplicationStatus.UNSUCCESSFUL) {
-            application.setApplicationStatus(ApplicationStatus.UNSUCCESSFUL);
-            System.out.println("Application (ID: " + application.getApplicationId() + ") for " + project.getName() + " has been rejected.");
-        } else {
-            System.out.println("Invalid application status.");
+            application.setApplicationStatus(ApplicationStatus.UNSUCCESSFUL, this);
+            return OperationResult.success(application, "Application (ID: " + application.getApplicationId() + ") for " + project.getName() + " has been rejected.");
         }
+        return OperationResult.failure(ResultCode.INVALID_STATUS, "Invalid application status.");
     }
 
     /**
@@ -278,18 +425,11 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * @return The {@link Application} object if found, otherwise null.
      */
     public Application findApplicationById(int applicationId) {
-        List<BTOProject> allProjects = ProjectRegistry.getAllProjects();
-        if (allProjects != null) {
-            for (BTOProject project : allProjects) {
-                if (project.getManager() != null && project.getManager().equals(this)) {
-                    List<Application> applications = project.getApplications();
-                    if (applications != null) {
-                        for (Application app : applications) {
-                            if (app.getApplicationId() == applicationId) {
-                                return app;
-                            }
-                        }
-                    }
+        for (BTOProject project : ProjectRegistry.getAllProjects()) {
+            if (this.equals(project.getManager())) {
+                Application application = project.getApplication(applicationId);
+                if (application != null) {
+                    return application;
                 }
             }
         }
@@ -303,18 +443,11 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * @return The {@link Enquiry} object if found, otherwise null.
      */
     public Enquiry findEnquiryById(int enquiryId) {
-        List<BTOProject> allProjects = ProjectRegistry.getAllProjects();
-        if (allProjects != null) {
-            for (BTOProject project : allProjects) {
-                if (project.getManager() != null && project.getManager().equals(this)) {
-                    List<Enquiry> enquiries = project.getEnquiries();
-                    if (enquiries != null) {
-                        for (Enquiry enquiry : enquiries) {
-                            if (enquiry.getEnquiryId() == enquiryId) {
-                                return enquiry;
-                            }
-                        }
-                    }
+        for (BTOProject project : ProjectRegistry.getAllProjects()) {
+            if (this.equals(project.getManager())) {
+                Enquiry enquiry = project.getEnquiry(enquiryId);
+                if (enquiry != null) {
+                    return enquiry;
                 }
             }
         }
@@ -331,7 +464,10 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * @param applicationId The ID of the application for which to review the withdrawal request.
      */
     public void reviewWithdrawalApplication(Scanner scanner, int applicationId) {
-        Application application = findApplicationById(applicationId);
+        Application application = withdrawalQueue.get(applicationId);
+        if (application == null) {
+            application = findApplicationById(applicationId);
+        }
 
         if (application == null || !application.isWithdrawalRequested() || application.isWithdrawalApproved()) {
             if (application == null) {
@@ -361,23 +497,77 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
         }
         System.out.print("Approve withdrawal for Application ID " + application.getApplicationId() + "? (yes/no): ");
         String response = scanner.nextLine().trim().toLowerCase();
-        if (response.equals("yes")) {
+        System.out.println(processWithdrawal(application, response.equals("yes")).getMessage());
+    }
+
+    /**
+     * Approves or rejects a pending withdrawal request without printing anything. An approved withdrawal
+     * removes the application from its project, returns its unit if a flat was already booked,
+     * and frees the applicant to apply again. Either way the request leaves the withdrawal queue.
+     * <p>
+     * The request is claimed, taken off the queue and acted on while the application's lock is held, the same
+     * way {@link HDBOfficer#bookFlatForApplication(Application, FlatType)} books a flat, so a request reviewed
+     * here and in a batch at the same time is only acted on once.
+     *
+     * @param application The {@link Application} whose withdrawal request is reviewed.
+     * @param approve     true to approve the withdrawal, false to reject it.
+     * @return The result, holding the reviewed {@link Application} on success.
+     */
+    public OperationResult<Application> processWithdrawal(Application application, boolean approve) {
+        synchronized (application) {
+            if (!application.isWithdrawalRequested()) {
+                return OperationResult.failure(ResultCode.NO_WITHDRAWAL_REQUEST, "Error: Application with ID " + application.getApplicationId() + " does not have a pending withdrawal request.");
+            }
+            if (application.isWithdrawalApproved()) {
+                return OperationResult.failure(ResultCode.ALREADY_PROCESSED, "Error: Withdrawal request for Application ID " + application.getApplicationId() + " has already been processed.");
+            }
+            withdrawalQueue.remove(application);
+            if (!approve) {
+                application.setWithdrawalRequested(false);
+                DomainEventBus.publish(DomainEventType.WITHDRAWAL_REJECTED, application, this, application.getApplicationStatus(), null);
+                return OperationResult.success(application, "Withdrawal rejected for Application ID " + application.getApplicationId() + ".");
+            }
             application.setWithdrawalApproved(true);
-            if (project != null && project.getApplications().contains(application)) {
-                project.getApplications().remove(application);
-            } else if (project == null) {
-                System.out.println("Warning: Project associated with Application ID " + applicationId + " is null.");
-            } else {
-                System.out.println("Warning: Application ID " + applicationId + " not found in the associated project's application list.");
+            BTOProject project = application.getProjectApplied();
+            String message = "Withdrawal approved for Application ID " + application.getApplicationId() + ".";
+            if (project == null) {
+                message = "Warning: Project associated with Application ID " + application.getApplicationId() + " is null.\n" + message;
+            } else if (!project.removeApplication(application)) {
+                message = "Warning: Application ID " + application.getApplicationId() + " not found in the associated project's application list.\n" + message;
+            } else if (application.getApplicationStatus() == ApplicationStatus.BOOKED && project.getInventory().isOffered(application.getAppliedFlatType())) {
+                project.getInventory().restock(application.getAppliedFlatType(), 1);
             }
             if (application.getApplicant() != null) {
                 application.getApplicant().application = null;
             }
-            System.out.println("Withdrawal approved for Application ID " + application.getApplicationId() + ".");
-        } else {
-            application.setWithdrawalRequested(false);
-            System.out.println("Withdrawal rejected for Application ID " + application.getApplicationId() + ".");
+            if (project != null) {
+                DomainEventBus.publish(DomainEventType.WITHDRAWAL_APPROVED, application, this, application.getApplicationStatus(), null);
+            }
+            return OperationResult.success(application, message);
+        }
+    }
+
+    /**
+     * Approves or rejects a batch of the oldest pending withdrawal requests in one pass, without printing anything.
+     * The batch is taken off the withdrawal queue at once, and each request in it is then reviewed by
+     * {@link #processWithdrawal(Application, boolean)}, so requests that were already reviewed one at a time are skipped.
+     *
+     * @param maxCount The maximum number of requests to review, or 0 or less for every pending request.
+     * @param approve  true to approve the withdrawals, false to reject them.
+     * @return The result, holding the reviewed {@link Application}s, oldest first, on success.
+     */
+    public OperationResult<List<Application>> processWithdrawals(int maxCount, boolean approve) {
+        List<Application> batch = withdrawalQueue.poll(maxCount);
+        List<Application> reviewed = new ArrayList<>(batch.size());
+        for (Application application : batch) {
+            if (processWithdrawal(application, approve).isSuccess()) {
+                reviewed.add(application);
+            }
+        }
+        if (reviewed.isEmpty()) {
+            return OperationResult.failure(ResultCode.NO_WITHDRAWAL_REQUEST, "There are no pending withdrawal requests to review.");
         }
+        return OperationResult.success(reviewed, (approve ? "Approved " : "Rejected ") + reviewed.size() + " withdrawal request(s).");
     }
 
     /**
@@ -411,16 +601,44 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * @param response The reply text.
      */
     private void replyEnquiry(Enquiry enquiry, String response) {
+        System.out.println(processReply(enquiry, response).getMessage());
+    }
+
+    /**
+     * Replies to an enquiry of the handling project by its ID without printing anything.
+     *
+     * @param enquiryId The ID of the enquiry to reply to.
+     * @param response  The reply text.
+     * @return The result, holding the replied {@link Enquiry} on success.
+     */
+    public OperationResult<Enquiry> submitReply(int enquiryId, String response) {
         if (this.handlingProject == null) {
-            System.out.println("You are not assigned to any project.");
-            return;
+            return OperationResult.failure(ResultCode.NOT_HANDLING_PROJECT, "You are not assigned to any project.");
         }
-        if (!this.handlingProject.getEnquiries().contains(enquiry)) {
-            System.out.println("This enquiry does not belong to your handling project.");
-            return;
+        Enquiry enquiry = findEnquiryById(enquiryId);
+        if (enquiry == null) {
+            return OperationResult.failure(ResultCode.NOT_FOUND, "Enquiry with ID " + enquiryId + " not found.");
+        }
+        return processReply(enquiry, response);
+    }
+
+    /**
+     * Replies to an enquiry without printing anything, provided it belongs to the handling project.
+     * This is the operation behind {@link #replyEnquiry(Enquiry, String)} and {@link #submitReply(int, String)}.
+     *
+     * @param enquiry  The {@link Enquiry} to reply to.
+     * @param response The reply text.
+     * @return The result, holding the replied {@link Enquiry} on success.
+     */
+    private OperationResult<Enquiry> processReply(Enquiry enquiry, String response) {
+        if (this.handlingProject == null) {
+            return OperationResult.failure(ResultCode.NOT_HANDLING_PROJECT, "You are not assigned to any project.");
+        }
+        if (this.handlingProject.getEnquiry(enquiry.getEnquiryId()) != enquiry) {
+            return OperationResult.failure(ResultCode.NOT_HANDLING_PROJECT, "This enquiry does not belong to your handling project.");
         }
         enquiry.setReplyText(response);
-        System.out.println("Reply sent to applicant (Enquiry ID: " + enquiry.getEnquiryId() + "): " + response);
+        return OperationResult.success(enquiry, "Reply sent to applicant (Enquiry ID: " + enquiry.getEnquiryId() + "): " + response);
     }
 
     /**
@@ -451,36 +669,52 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      * @param flatTypeFilter  An optional flat type to filter by (e.g., "TWOROOM", "THREEROOM"). If null, no flat type filter is applied.
      */
     public void generateBookingReport(List<Application> applications, String maritalFilter, String flatTypeFilter) {
-        System.out.println("\n--- Booking Report for Project: " + handlingProject.getName() + " ---");
+        System.out.print(formatBookingReport(handlingProject.getName(), applications, maritalFilter, flatTypeFilter));
+    }
+
+    /**
+     * Formats a booking report as {@link #generateBookingReport(List, String, String)} prints it, so that
+     * it can also be served by a read-only {@link ShardServer} following the JVM that takes the bookings.
+     *
+     * @param projectName     The name of the project the report is for.
+     * @param applications    The applications to include in the report.
+     * @param maritalFilter   An optional marital status to filter by. If null, no marital filter is applied.
+     * @param flatTypeFilter  An optional flat type to filter by. If null, no flat type filter is applied.
+     * @return The report, one line per booked applicant between a header and a total.
+     */
+    static String formatBookingReport(String projectName, Collection<Application> applications, String maritalFilter, String flatTypeFilter) {
+        StringBuilder report = new StringBuilder();
+        report.append("\n--- Booking Report for Project: ").append(projectName).append(" ---\n");
         if (maritalFilter != null) {
-            System.out.println("Filter: " + maritalFilter);
+            report.append("Filter: ").append(maritalFilter).append('\n');
         }
         if (flatTypeFilter != null) {
-            System.out.println("Filter: " + flatTypeFilter);
+            report.append("Filter: ").append(flatTypeFilter).append('\n');
         }
 
         if (applications.isEmpty()) {
-            System.out.println("No booked applicants found based on the applied filters (if any).");
-            return;
+            report.append("No booked applicants found based on the applied filters (if any).\n");
+            return report.toString();
         }
-        System.out.println(String.format("%-15s %-10s %-12s %-10s %-15s", "Applicant Name", "Flat Type", "Project", "Age", "Marital Status"));
-        System.out.println("------------------------------------------------------------------");
+        report.append(String.format("%-15s %-10s %-12s %-10s %-15s", "Applicant Name", "Flat Type", "Project", "Age", "Marital Status")).append('\n');
+        report.append("------------------------------------------------------------------\n");
         for (Application app : applications) {
             Applicant applicant = app.getApplicant();
             boolean maritalMatch = (maritalFilter == null) || applicant.getMaritalStatus().toString().equalsIgnoreCase(maritalFilter);
             boolean flatTypeMatch = (flatTypeFilter == null) || app.getAppliedFlatType().toString().equalsIgnoreCase(flatTypeFilter);
 
             if (maritalMatch && flatTypeMatch && app.getApplicationStatus() == ApplicationStatus.BOOKED) {
-                System.out.println(String.format("%-15s %-10s %-12s %-10d %-15s",
+                report.append(String.format("%-15s %-10s %-12s %-10d %-15s",
                         applicant.getName(),
                         app.getAppliedFlatType(),
-                        handlingProject.getName(),
+                        projectName,
                         applicant.getAge(),
-                        applicant.getMaritalStatus()));
+                        applicant.getMaritalStatus())).append('\n');
             }
         }
-        System.out.println("------------------------------------------------------------------");
-        System.out.println("Total Booked Applicants (after filter): " + applications.stream().filter(app -> app.getApplicationStatus() == ApplicationStatus.BOOKED).count());
+        report.append("------------------------------------------------------------------\n");
+        report.append("Total Booked Applicants (after filter): ").append(applications.stream().filter(app -> app.getApplicationStatus() == ApplicationStatus.BOOKED).count()).append('\n');
+        return report.toString();
     }
 
     /**
@@ -580,24 +814,22 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
                 switch (choice) {
                     case 1:
                         System.out.print("Enter new remaining units for 2-Room flats: ");
-                        if (scanner.hasNextInt()) {
-                            project.getRemainingUnits().put(FlatType.TWOROOM, scanner.nextInt());
-                            scanner.nextLine();
+                        Integer twoRoomUnits = readRemainingUnits(scanner);
+                        if (twoRoomUnits != null) {
+                            project.setRemainingUnits(FlatType.TWOROOM, twoRoomUnits);
                             System.out.println("2-Room units updated.");
                         } else {
                             System.out.println("Invalid input.");
-                            scanner.nextLine();
                         }
                         break;
                     case 2:
                         System.out.print("Enter new remaining units for 3-Room flats: ");
-                        if (scanner.hasNextInt()) {
-                            project.getRemainingUnits().put(FlatType.THREEROOM, scanner.nextInt());
-                            scanner.nextLine();
+                        Integer threeRoomUnits = readRemainingUnits(scanner);
+                        if (threeRoomUnits != null) {
+                            project.setRemainingUnits(FlatType.THREEROOM, threeRoomUnits);
                             System.out.println("3-Room units updated.");
                         } else {
                             System.out.println("Invalid input.");
-                            scanner.nextLine();
                         }
                         break;
                     case 0:
@@ -613,6 +845,26 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
         } while (true);
     }
 
+    /**
+     * Reads a number of remaining units from the console, asking again while the number is negative.
+     *
+     * @param scanner The {@link Scanner} object to read user input.
+     * @return The number of units, or null if the input is not a number. The rest of the line is consumed either way.
+     */
+    private static Integer readRemainingUnits(Scanner scanner) {
+        while (scanner.hasNextInt()) {
+            int units = scanner.nextInt();
+            scanner.nextLine();
+            if (units >= 0) {
+                return units;
+            }
+            System.out.println("Error: Remaining units cannot be negative.");
+            System.out.print("Enter the remaining units again: ");
+        }
+        scanner.nextLine();
+        return null;
+    }
+
     /**
      * Handles the process of creating a new BTO project by prompting the manager
      * for the required details through the console.
@@ -629,26 +881,22 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
         System.out.print("Are there 2-Room flats in this project? (yes/no): ");
         if (scanner.nextLine().trim().equalsIgnoreCase("yes")) {
             System.out.println("Enter remaining units for 2-Room flats: ");
-            if (scanner.hasNextInt()) {
-                remainingUnits.put(FlatType.TWOROOM, scanner.nextInt());
-                scanner.nextLine();
-            } else {
+            Integer units = readRemainingUnits(scanner);
+            if (units == null) {
                 System.out.println("Invalid input for 2-Room units.");
-                scanner.nextLine();
                 return;
             }
+            remainingUnits.put(FlatType.TWOROOM, units);
         }
         System.out.print("Are there 3-Room flats in this project? (yes/no): ");
         if (scanner.nextLine().trim().equalsIgnoreCase("yes")) {
             System.out.println("Enter remaining units for 3-Room flats: ");
-            if (scanner.hasNextInt()) {
-                remainingUnits.put(FlatType.THREEROOM, scanner.nextInt());
-                scanner.nextLine();
-            } else {
+            Integer units = readRemainingUnits(scanner);
+            if (units == null) {
                 System.out.println("Invalid input for 3-Room units.");
-                scanner.nextLine();
                 return;
             }
+            remainingUnits.put(FlatType.THREEROOM, units);
         }
         if (remainingUnits.isEmpty()) {
             System.out.println("Project must have remaining units for at least one flat type.");
@@ -789,6 +1037,21 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
         }
     }
 
+    /**
+     * Handles the display of the BTO projects created by this manager, one page at a time.
+     * If no projects have been created, a corresponding message is displayed.
+     *
+     * @param scanner The {@link Scanner} object used to ask for the next page, or null to print every page.
+     */
+    public void handleViewOwnCreatedProjects(Scanner scanner) {
+        if (this.getProjectsCreated().isEmpty()) {
+            System.out.println("No BTO projects have been created by you yet.");
+            return;
+        }
+        System.out.println("All BTO Projects created by you:");
+        ConsolePager.show(scanner, token -> getProjectsCreatedPage(token, Page.DEFAULT_PAGE_SIZE), BTOProject::getDetails);
+    }
+
     /**
      * Handles the display of all officer registration applications by calling
      * the {@link #viewAllOfficerApplications()} method.
@@ -799,7 +1062,8 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
 
     /**
      * Handles the process of reviewing and approving or rejecting officer
-     * registration applications for the currently handling project.
+     * registration applications for the currently handling project. Registrations can be
+     * handled one at a time, or the oldest can be approved together up to the free officer slots.
      *
      * @param scanner The {@link Scanner} object to read user input.
      */
@@ -809,41 +1073,77 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
             System.out.println("No handling project set. Cannot handle officer registrations.");
             return;
         }
-        if (handlingProject.getOfficerApplications().isEmpty()) {
+        List<RegistrationApplication> pending = new ArrayList<>();
+        for (RegistrationApplication app : registrationQueue.peek(0)) {
+            if (app.getProjectApplied() == handlingProject && app.getRegisterStatusStatus() == RegisterStatus.Pending) {
+                pending.add(app);
+            }
+        }
+        if (pending.isEmpty()) {
             System.out.println("No officer registration applications for " + handlingProject.getName() + ".");
             return;
         }
-        System.out.println("Pending Officer Registration Applications for " + handlingProject.getName() + ":");
-        for (RegistrationApplication app : handlingProject.getOfficerApplications()) {
+        System.out.println("Pending Officer Registration Applications for " + handlingProject.getName()
+                + " (" + handlingProject.getFreeOfficerSlots() + " officer slot(s) free):");
+        for (RegistrationApplication app : pending) {
             System.out.println("Register ID: " + app.getRegisterId() + ", Applicant Name: " + app.getOfficer().getName() + " (NRIC: " + app.getOfficer().getNRIC() + ")");
         }
-        System.out.print("Enter the Register ID of the application to handle: ");
-        if (scanner.hasNextInt()) {
-            int registerIdToHandle = scanner.nextInt();
+        System.out.println("1. Handle one registration");
+        System.out.println("2. Approve the oldest registrations");
+        System.out.println("0. Back to Manager Menu");
+        System.out.print("Enter your choice: ");
+        if (!scanner.hasNextInt()) {
+            System.out.println("Invalid input.");
             scanner.nextLine();
-            RegistrationApplication selectedApplication = null;
-            for (RegistrationApplication app : handlingProject.getOfficerApplications()) {
-                if (app.getRegisterId() == registerIdToHandle && app.getRegisterStatusStatus() == RegisterStatus.Pending) {
-                    selectedApplication = app;
-                    break;
+            return;
+        }
+        int choice = scanner.nextInt();
+        scanner.nextLine();
+        switch (choice) {
+            case 1:
+                System.out.print("Enter the Register ID of the application to handle: ");
+                if (scanner.hasNextInt()) {
+                    int registerIdToHandle = scanner.nextInt();
+                    scanner.nextLine();
+                    RegistrationApplication selectedApplication = registrationQueue.get(registerIdToHandle);
+                    if (selectedApplication != null && selectedApplication.getProjectApplied() == handlingProject
+                            && selectedApplication.getRegisterStatusStatus() == RegisterStatus.Pending) {
+                        System.out.print("Approve (yes/no): ");
+                        String response = scanner.nextLine().trim().toLowerCase();
+                        if (response.equals("yes")) {
+                            handleOfficerRegistration(selectedApplication, RegisterStatus.SUCCESSFUL);
+                        } else if (response.equals("no")) {
+                            handleOfficerRegistration(selectedApplication, RegisterStatus.UNSUCCESSFUL);
+                        } else {
+                            System.out.println("Invalid response.");
+                        }
+                    } else {
+                        System.out.println("Error: Invalid or already handled Register ID.");
+                    }
+                } else {
+                    System.out.println("Invalid input for Register ID.");
+                    scanner.nextLine();
                 }
-            }
-            if (selectedApplication != null) {
-                System.out.print("Approve (yes/no): ");
-                String response = scanner.nextLine().trim().toLowerCase();
-                if (response.equals("yes")) {
-                    handleOfficerRegistration(selectedApplication, RegisterStatus.SUCCESSFUL);
-                } else if (response.equals("no")) {
-                    handleOfficerRegistration(selectedApplication, RegisterStatus.UNSUCCESSFUL);
+                break;
+            case 2:
+                System.out.print("How many of the oldest registrations (0 for as many as there are free slots)? ");
+                if (scanner.hasNextInt()) {
+                    int count = scanner.nextInt();
+                    scanner.nextLine();
+                    if (count >= 0) {
+                        System.out.println(approveOfficerRegistrations(count).getMessage());
+                    } else {
+                        System.out.println("Invalid input.");
+                    }
                 } else {
-                    System.out.println("Invalid response.");
+                    System.out.println("Invalid input.");
+                    scanner.nextLine();
                 }
-            } else {
-                System.out.println("Error: Invalid or already handled Register ID.");
-            }
-        } else {
-            System.out.println("Invalid input for Register ID.");
-            scanner.nextLine();
+                break;
+            case 0:
+                break;
+            default:
+                System.out.println("Invalid choice. Please try again.");
         }
     }
 
@@ -860,32 +1160,24 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
             return;
         }
 
-        List<Application> allProjectApplications = handlingProject.getApplications();
-        if (allProjectApplications.isEmpty()) {
+        if (handlingProject.getApplications().isEmpty()) {
             System.out.println("No applications found for project: " + handlingProject.getName());
             return;
         }
 
         System.out.println("All Applications for Project: " + handlingProject.getName() + ":");
-        for (Application app : allProjectApplications) {
-            System.out.println("Application ID: " + app.getApplicationId() +
-                    ", Applicant: " + app.getApplicant().getName() +
-                    " (NRIC: " + app.getApplicant().getNRIC() + ")" +
-                    ", Status: " + app.getApplicationStatus());
-        }
+        ConsolePager.show(scanner, token -> handlingProject.getApplicationsPage(token, Page.DEFAULT_PAGE_SIZE),
+                app -> "Application ID: " + app.getApplicationId() +
+                        ", Applicant: " + app.getApplicant().getName() +
+                        " (NRIC: " + app.getApplicant().getNRIC() + ")" +
+                        ", Status: " + app.getApplicationStatus());
 
         System.out.print("\nEnter the Application ID to handle (or 0 to go back): ");
         if (scanner.hasNextInt()) {
             int applicationIdToHandle = scanner.nextInt();
             scanner.nextLine();
             if (applicationIdToHandle > 0) {
-                Application selectedApplication = null;
-                for (Application app : allProjectApplications) {
-                    if (app.getApplicationId() == applicationIdToHandle && app.getApplicationStatus() == ApplicationStatus.PENDING) {
-                        selectedApplication = app;
-                        break;
-                    }
-                }
+                Application selectedApplication = handlingProject.getApplicationWithStatus(ApplicationStatus.PENDING, applicationIdToHandle);
                 if (selectedApplication != null) {
                     System.out.print("Approve (yes/no): ");
                     String response = scanner.nextLine().trim().toLowerCase();
@@ -908,88 +1200,120 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
 
     /**
      * Handles the process of reviewing pending withdrawal requests across all
-     * projects managed by this manager.
+     * projects managed by this manager. The requests are listed oldest first from the manager's
+     * withdrawal {@link ReviewQueue}, and can be reviewed one at a time or approved or rejected in a batch.
      *
      * @param scanner The {@link Scanner} object to read user input.
      */
     public void handleReviewWithdrawalRequests(Scanner scanner) {
         System.out.println("\n--- Review Withdrawal Requests ---");
-        List<BTOProject> allProjects = ProjectRegistry.getAllProjects();
-
-        if (allProjects.isEmpty()) {
-            System.out.println("No BTO projects available.");
-            return;
-        }
-        boolean requestsFound = false;
-        System.out.println("Pending Withdrawal Requests across your managed projects:");
-        List<Application> allPendingWithdrawalRequests = new ArrayList<>();
-        for (BTOProject project : allProjects) {
-            if (project.getManager() != null && project.getManager().equals(this)) {
-                List<Application> applications = project.getApplications();
-                if (applications != null) {
-                    for (Application app : applications) {
-                        if (app.isWithdrawalRequested() && !app.isWithdrawalApproved()) {
-                            allPendingWithdrawalRequests.add(app);
-                            requestsFound = true;
-                            if (app.getApplicant() != null) {
-                                System.out.println("- Application ID: " + app.getApplicationId() +
-                                        ", Applicant: " + app.getApplicant().getName() +
-                                        " (Project: " + project.getName() + ")");
-                            } else {
-                                System.out.println("- Application ID: " + app.getApplicationId() +
-                                        ", Applicant: <NULL> (Project: " + project.getName() + ")");
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        if (!requestsFound) {
+        if (withdrawalQueue.isEmpty()) {
             System.out.println("No withdrawal requests to review.");
             return;
         }
-        System.out.print("Enter the Application ID to review (0 to go back): ");
-        if (scanner.hasNextInt()) {
-            int applicationIdToReview = scanner.nextInt();
-            scanner.nextLine();
-            if (applicationIdToReview > 0) {
-                reviewWithdrawalApplication(scanner, applicationIdToReview);
-            } else if (applicationIdToReview != 0) {
-                System.out.println("Invalid input.");
+        System.out.println("Pending Withdrawal Requests across your managed projects (oldest first):");
+        for (Application app : withdrawalQueue.peek(0)) {
+            String projectName = app.getProjectApplied() == null ? "<NULL>" : app.getProjectApplied().getName();
+            if (app.getApplicant() != null) {
+                System.out.println("- Application ID: " + app.getApplicationId() +
+                        ", Applicant: " + app.getApplicant().getName() +
+                        " (Project: " + projectName + ")");
+            } else {
+                System.out.println("- Application ID: " + app.getApplicationId() +
+                        ", Applicant: <NULL> (Project: " + projectName + ")");
             }
-        } else {
+        }
+        System.out.println("1. Review one request");
+        System.out.println("2. Approve the oldest requests");
+        System.out.println("3. Reject the oldest requests");
+        System.out.println("0. Back to Manager Menu");
+        System.out.print("Enter your choice: ");
+        if (!scanner.hasNextInt()) {
             System.out.println("Invalid input.");
             scanner.nextLine();
+            return;
+        }
+        int choice = scanner.nextInt();
+        scanner.nextLine();
+        switch (choice) {
+            case 1:
+                System.out.print("Enter the Application ID to review (0 to go back): ");
+                if (scanner.hasNextInt()) {
+                    int applicationIdToReview = scanner.nextInt();
+                    scanner.nextLine();
+                    if (applicationIdToReview > 0) {
+                        reviewWithdrawalApplication(scanner, applicationIdToReview);
+                    } else if (applicationIdToReview != 0) {
+                        System.out.println("Invalid input.");
+                    }
+                } else {
+                    System.out.println("Invalid input.");
+                    scanner.nextLine();
+                }
+                break;
+            case 2:
+            case 3:
+                System.out.print("How many of the oldest requests (0 for all " + withdrawalQueue.size() + ")? ");
+                if (scanner.hasNextInt()) {
+                    int count = scanner.nextInt();
+                    scanner.nextLine();
+                    if (count >= 0) {
+                        System.out.println(processWithdrawals(count, choice == 2).getMessage());
+                    } else {
+                        System.out.println("Invalid input.");
+                    }
+                } else {
+                    System.out.println("Invalid input.");
+                    scanner.nextLine();
+                }
+                break;
+            case 0:
+                break;
+            default:
+                System.out.println("Invalid choice. Please try again.");
         }
     }
 
     /**
      * Handles the process of viewing all enquiries across all BTO projects.
-     * Allows the manager to select an enquiry to view its details.
+     * The manager can list every enquiry or search them by keyword through the {@link EnquiryIndex},
+     * optionally limited to the handling project, and then select an enquiry to view its details.
      *
      * @param scanner The {@link Scanner} object to read user input.
      */
     public void handleViewAllEnquiries(Scanner scanner) {
         System.out.println("\n--- View All Enquiries ---");
-        List<BTOProject> allProjects = ProjectRegistry.getAllProjects();
-        if (allProjects.isEmpty()) {
+        if (ProjectRegistry.getAllProjects().isEmpty()) {
             System.out.println("No projects with enquiries found.");
             return;
         }
-        List<Enquiry> allEnquiries = new ArrayList<>();
-        for (BTOProject project : allProjects) {
-            List<Enquiry> enquiries = project.getEnquiries();
-            if (enquiries != null) {
-                allEnquiries.addAll(enquiries);
-            }
-        }
-        if (allEnquiries.isEmpty()) {
+        if (ProjectRegistry.getEnquiriesPage(null, 1).getItems().isEmpty()) {
             System.out.println("No enquiries found across all projects.");
             return;
         }
-        System.out.println("All Enquiries:");
-        for (Enquiry enquiry : allEnquiries) {
-            System.out.println("- Enquiry ID: " + enquiry.getEnquiryId() + ", Project: " + enquiry.getProject().getName() + ", From: " + enquiry.getApplicant().getName());
+        System.out.print("Enter keywords to search (e.g. lift MRT, or lift OR MRT to match any; leave empty to list all): ");
+        String query = scanner.nextLine().trim();
+        if (query.isEmpty()) {
+            System.out.println("All Enquiries:");
+            ConsolePager.show(scanner, token -> ProjectRegistry.getEnquiriesPage(token, Page.DEFAULT_PAGE_SIZE),
+                    enquiry -> "- Enquiry ID: " + enquiry.getEnquiryId() + ", Project: " + enquiry.getProject().getName() + ", From: " + enquiry.getApplicant().getName());
+        } else {
+            BTOProject scope = null;
+            if (handlingProject != null) {
+                System.out.print("Search only your handling project " + handlingProject.getName() + "? (yes/no): ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("yes")) {
+                    scope = handlingProject;
+                }
+            }
+            List<Enquiry> matches = EnquiryIndex.search(query, scope);
+            if (matches.isEmpty()) {
+                System.out.println("No enquiries match \"" + query + "\".");
+                return;
+            }
+            System.out.println("Enquiries matching \"" + query + "\" (" + matches.size() + " found):");
+            ConsolePager.show(scanner, token -> Page.ofIdOrdered(matches, Enquiry::getEnquiryId, token, Page.DEFAULT_PAGE_SIZE),
+                    enquiry -> "- Enquiry ID: " + enquiry.getEnquiryId() + ", Project: " + enquiry.getProject().getName() + ", From: " + enquiry.getApplicant().getName()
+                            + ", Enquiry: " + enquiry.getEnquiryText());
         }
         System.out.print("Enter the Enquiry ID to view details (0 to go back): ");
         if (scanner.hasNextInt()) {
@@ -1057,6 +1381,8 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
     /**
      * Handles the process of replying to an enquiry for the project currently
      * being handled by the manager. Prompts the manager for the enquiry ID and the reply text.
+     * If a similar enquiry has been answered before, its reply is suggested; afterwards the manager
+     * may copy the reply to all similar enquiries that are still unanswered.
      *
      * @param scanner The {@link Scanner} object to read user input.
      */
@@ -1086,9 +1412,25 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
                 }
             }
             if (targetEnquiry != null) {
-                System.out.print("Enter your reply: ");
+                String suggestedReply = ReplyReuseCache.suggestReply(targetEnquiry);
+                if (suggestedReply != null) {
+                    System.out.println("Suggested reply from a similar enquiry: " + suggestedReply);
+                    System.out.print("Enter your reply (leave empty to use the suggested reply): ");
+                } else {
+                    System.out.print("Enter your reply: ");
+                }
                 String response = scanner.nextLine();
+                if (response.isEmpty() && suggestedReply != null) {
+                    response = suggestedReply;
+                }
                 replyEnquiry(targetEnquiry, response);
+                int similar = ReplyReuseCache.findUnansweredNearDuplicates(targetEnquiry).size();
+                if (similar > 0) {
+                    System.out.print("Apply this reply to " + similar + " similar unanswered enquiries? (yes/no): ");
+                    if (scanner.nextLine().trim().equalsIgnoreCase("yes")) {
+                        System.out.println("Reply applied to " + ReplyReuseCache.applyReplyToNearDuplicates(targetEnquiry, response).size() + " similar enquiries.");
+                    }
+                }
             } else {
                 System.out.println("Invalid enquiry ID for the handling project.");
             }
@@ -1099,10 +1441,9 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
     }
 
     /**
-     * Handles the process of viewing all BTO projects in the system. It retrieves
-     * all projects from the {@link ProjectRegistry}, applies user-specific filters
-     * for location and flat type, and sorts the projects based on the user's
-     * preferred sorting order. It then displays the details of the filtered and
+     * Handles the process of viewing all BTO projects in the system. It reads
+     * the projects from the {@link ProjectRegistry} index for the user's preferred
+     * sorting order and applies user-specific filters for location and flat type. It then displays the details of the filtered and
      * sorted projects. Additionally, it provides an interactive menu to allow the
      * manager to modify their project viewing filters and sorting preferences.
      *
@@ -1110,22 +1451,14 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
      */
     public void handleViewAllProjects(Scanner scanner) {
         System.out.println("\n--- View All Projects ---");
-        List<BTOProject> allProjects = ProjectRegistry.getAllProjects();
         UserSettings userSettings = getUserSettings();
 
-        List<BTOProject> filteredAndSortedProjects = allProjects;
-
-        filteredAndSortedProjects = ProjectRegistry.filterProjects(
-                filteredAndSortedProjects,
+        List<BTOProject> filteredAndSortedProjects = ProjectRegistry.listProjects(
+                userSettings.getProjectSortOrder(),
                 userSettings.getProjectFilterLocation(),
                 userSettings.getProjectFilterFlatTypes()
         );
 
-        filteredAndSortedProjects = ProjectRegistry.sortProjects(
-                filteredAndSortedProjects,
-                userSettings.getProjectSortOrder()
-        );
-
         if (filteredAndSortedProjects.isEmpty()) {
             System.out.println("No projects found based on your filters.");
         } else {
@@ -1188,16 +1521,11 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
                 }
 
                 // Re-display the updated list
-                List<BTOProject> updatedFilteredAndSortedProjects = ProjectRegistry.getAllProjects();
-                updatedFilteredAndSortedProjects = ProjectRegistry.filterProjects(
-                        updatedFilteredAndSortedProjects,
+                List<BTOProject> updatedFilteredAndSortedProjects = ProjectRegistry.listProjects(
+                        userSettings.getProjectSortOrder(),
                         userSettings.getProjectFilterLocation(),
                         userSettings.getProjectFilterFlatTypes()
                 );
-                updatedFilteredAndSortedProjects = ProjectRegistry.sortProjects(
-                        updatedFilteredAndSortedProjects,
-                        userSettings.getProjectSortOrder()
-                );
 
                 System.out.println("\n--- Updated All BTO Projects ---");
                 if (updatedFilteredAndSortedProjects.isEmpty()) {
@@ -1215,6 +1543,21 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
         }
     }
 
+    /**
+     * Handles writing the receipts of every booked application of every project to files, one file per project,
+     * using a {@link ReceiptBatchWriter} with one worker per available processor.
+     *
+     * @param scanner The {@link Scanner} object to read the directory to write to.
+     */
+    public void handleWriteReceipts(Scanner scanner) {
+        System.out.println("\n--- Write Receipts for Booked Applications ---");
+        System.out.print("Enter the directory to write to (blank for \"" + RECEIPT_DIRECTORY + "\"): ");
+        String directory = scanner.nextLine().trim();
+        ReceiptBatchWriter writer = new ReceiptBatchWriter(Paths.get(directory.isEmpty() ? RECEIPT_DIRECTORY : directory),
+                Runtime.getRuntime().availableProcessors());
+        System.out.println(writer.writeAll(ProjectRegistry.getAllProjects()).getMessage());
+    }
+
     /**
      * Handles the generation of a booking report for the project currently being
      * handled by the manager. It allows the manager to filter the report by
@@ -1231,9 +1574,7 @@ public class HDBManager extends User implements OfficerApplicationManager, Proje
             return;
         }
 
-        List<Application> bookedApplications = handlingProject.getApplications().stream()
-                .filter(app -> app.getApplicationStatus() == ApplicationStatus.BOOKED)
-                .collect(Collectors.toList());
+        List<Application> bookedApplications = new ArrayList<>(handlingProject.getApplicationsWithStatus(ApplicationStatus.BOOKED));
 
         if (bookedApplications.isEmpty()) {
             System.out.println("No booked applications in the current handling project.");
@@ -1,8 +1,8 @@
 package BTO_Management_System;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 
 /**
@@ -16,6 +16,10 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
     private BTOProject handlingProject;
     private RegistrationApplication registrationApplication;
     private HDBManager assignedManager;
+    /**
+     * The latency metrics of {@link #bookFlat(Application, FlatType)}.
+     */
+    private static final OperationMetrics BOOK_FLAT_METRICS = Metrics.operation("bookFlat");
 
     /**
      * Constructs an {@code HDBOfficer} with the specified details.
@@ -131,19 +135,31 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
      */
     @Override
     public void register(ProjectViewable project) {
+        System.out.println(submitRegistration(project).getMessage());
+    }
+
+    /**
+     * Registers this HDB officer to handle a project without printing anything.
+     * This is the operation behind {@link #register(ProjectViewable)}.
+     *
+     * @param project The {@link ProjectViewable} to register for. Must be an instance of {@link BTOProject}.
+     * @return The result, holding the new {@link RegistrationApplication} on success.
+     */
+    public OperationResult<RegistrationApplication> submitRegistration(ProjectViewable project) {
         if (!(project instanceof BTOProject)) {
-            System.out.println("Error: Invalid project type for registration.");
-            return;
+            return OperationResult.failure(ResultCode.INVALID_PROJECT, "Error: Invalid project type for registration.");
         }
         BTOProject btoProject = (BTOProject) project;
         if (!isEligibleToRegister(btoProject)) {
-            System.out.println("You are not eligible to register for this project!");
-            return;
+            return OperationResult.failure(ResultCode.NOT_ELIGIBLE, "You are not eligible to register for this project!");
         }
         RegistrationApplication newApplication = new RegistrationApplication(this, btoProject, RegisterStatus.Pending);
         this.registrationApplication = newApplication;
         btoProject.addRegisterApplication(newApplication);
-        System.out.println("You have successfully registered to handle project: " + btoProject.getName() + ", waiting for approval from its manager.");
+        if (btoProject.getManager() != null) {
+            btoProject.getManager().getRegistrationQueue().enqueue(newApplication);
+        }
+        return OperationResult.success(newApplication, "You have successfully registered to handle project: " + btoProject.getName() + ", waiting for approval from its manager.");
     }
 
     /**
@@ -170,31 +186,35 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
     }
 
     /**
-     * Applies for a specific flat type in a given BTO project as a regular applicant.
+     * Applies for a specific flat type in a given BTO project as a regular applicant, without printing anything.
      * Eligibility to apply is checked based on project visibility, existing applications, age,
      * marital status, and the availability of the requested flat type in the project.
+     * This is the operation behind the inherited {@link #apply(ProjectViewable, FlatType)}.
      *
      * @param project   The {@link ProjectViewable} to apply for. Must be an instance of {@link BTOProject}.
      * @param flatType  The {@link FlatType} to apply for.
+     * @return The result, holding the new {@link Application} on success.
      */
     @Override
-    public void apply(ProjectViewable project, FlatType flatType) {
+    public OperationResult<Application> submitApplication(ProjectViewable project, FlatType flatType) {
         if (this.application != null) {
-            System.out.println("You already have an application!");
-            return;
+            return OperationResult.failure(ResultCode.ALREADY_APPLIED, "You already have an application!");
         }
         if (!(project instanceof BTOProject)) {
-            System.out.println("Error: Invalid project type for application.");
-            return;
+            return OperationResult.failure(ResultCode.INVALID_PROJECT, "Error: Invalid project type for application.");
         }
         BTOProject btoProject = (BTOProject) project;
         if (!this.isEligibleToApply(btoProject)) {
-            System.out.println("You are not eligible to apply for this project!");
-            return;
+            return OperationResult.failure(ResultCode.NOT_ELIGIBLE, "You are not eligible to apply for this project!");
         }
-        this.application = new Application(this, btoProject, ApplicationStatus.PENDING, flatType);
-        btoProject.getApplications().add(this.application);
-        System.out.println("Successfully applied for project: " + btoProject.getName());
+        Application submitted = new Application(this, btoProject, ApplicationStatus.PENDING, flatType);
+        this.application = submitted;
+        // Published before anyone else can change the new application, so its submission is its first event
+        synchronized (submitted) {
+            btoProject.addApplication(submitted);
+            DomainEventBus.publish(DomainEventType.APPLICATION_SUBMITTED, submitted, this, null, ApplicationStatus.PENDING);
+        }
+        return OperationResult.success(this.application, "Successfully applied for project: " + btoProject.getName());
     }
 
     /**
@@ -233,8 +253,18 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
      * If the officer is not assigned to any project, a message is displayed.
      */
     public void showAllHandlingProjectEnquiries() {
+        showAllHandlingProjectEnquiries(null);
+    }
+
+    /**
+     * Shows the enquiries submitted for the project that this officer is currently handling, one page at a time.
+     * If the officer is not assigned to any project, a message is displayed.
+     *
+     * @param scanner The {@link Scanner} object used to ask for the next page, or {@code null} to print every page.
+     */
+    public void showAllHandlingProjectEnquiries(Scanner scanner) {
         if (handlingProject != null) {
-            this.handlingProject.showEnquiries();
+            this.handlingProject.showEnquiries(scanner);
         } else {
             System.out.println("You are not assigned to any project yet.");
         }
@@ -289,16 +319,42 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
      * @param response  The reply text from the officer.
      */
     public void replyHandlingProjectEnquiry(int enquiryId, String response) {
+        System.out.println(submitReply(enquiryId, response).getMessage());
+    }
+
+    /**
+     * Replies to an enquiry of the handling project without printing anything.
+     * This is the operation behind {@link #replyHandlingProjectEnquiry(int, String)}.
+     *
+     * @param enquiryId The ID of the enquiry to reply to.
+     * @param response  The reply text from the officer.
+     * @return The result, holding the replied {@link Enquiry} on success.
+     */
+    public OperationResult<Enquiry> submitReply(int enquiryId, String response) {
         if (handlingProject != null) {
             for (Enquiry enquiry : handlingProject.getEnquiries()) {
                 if (enquiry.getEnquiryId() == enquiryId) {
                     enquiry.setReplyText(response);
-                    System.out.println("Reply sent to applicant: " + response);
-                    return;
+                    return OperationResult.success(enquiry, "Reply sent to applicant: " + response);
                 }
             }
         }
-        System.out.println("Enquiry with ID " + enquiryId + " not found in the handling project.");
+        return OperationResult.failure(ResultCode.NOT_FOUND, "Enquiry with ID " + enquiryId + " not found in the handling project.");
+    }
+
+    /**
+     * Applies a reply to every unanswered enquiry in the handling project that asks nearly the same question
+     * as the given enquiry, as found by the {@link ReplyReuseCache}.
+     *
+     * @param enquiryId The ID of the enquiry whose near-duplicates should receive the reply.
+     * @param response  The reply text from the officer.
+     * @return The number of enquiries that received the reply.
+     */
+    public int replyNearDuplicateEnquiries(int enquiryId, String response) {
+        if (handlingProject == null || !enquiryInHandlingProject(enquiryId)) {
+            return 0;
+        }
+        return ReplyReuseCache.applyReplyToNearDuplicates(findEnquiryById(enquiryId), response).size();
     }
 
     /**
@@ -309,19 +365,48 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
      * @param selectedFlatType The {@link FlatType} to be booked.
      */
     public void bookFlat(Application application, FlatType selectedFlatType) {
-        if (application.getApplicationStatus() == ApplicationStatus.SUCCESSFUL) {
-            BTOProject project = application.getProjectApplied();
-            if (project.getRemainingUnits().containsKey(selectedFlatType) && project.getRemainingUnits().get(selectedFlatType) > 0) {
-                application.setApplicationStatus(ApplicationStatus.BOOKED);
-                application.setAppliedFlatType(selectedFlatType);
-                project.decrementRemainingUnits(selectedFlatType);
-                System.out.println("Flat booking successful for applicant " + application.getApplicant().getNRIC() + " (Application ID: " + application.getApplicationId() + ")");
-            } else {
-                System.out.println("Error: Selected flat type is no longer available in the project.");
+        System.out.println(BOOK_FLAT_METRICS.time(() -> bookFlatForApplication(application, selectedFlatType)).getMessage());
+    }
+
+    /**
+     * Books a flat for a successful application without printing anything.
+     * This is the operation behind {@link #bookFlat(Application, FlatType)}.
+     *
+     * @param application     The {@link Application} to book the flat for. Must have a status of {@link ApplicationStatus#SUCCESSFUL}.
+     * @param selectedFlatType The {@link FlatType} to be booked.
+     * @return The result, holding the booked {@link Application} on success.
+     */
+    public OperationResult<Application> bookFlatForApplication(Application application, FlatType selectedFlatType) {
+        BTOProject project = application.getProjectApplied();
+        // The status check and the unit reservation happen together so that an application is only booked once.
+        synchronized (application) {
+            if (application.getApplicationStatus() != ApplicationStatus.SUCCESSFUL) {
+                return OperationResult.failure(ResultCode.NOT_SUCCESSFUL, "Application ID " + application.getApplicationId() + " is not yet successful.");
             }
-        } else {
-            System.out.println("Application ID " + application.getApplicationId() + " is not yet successful.");
+            if (application.isWithdrawalApproved()) {
+                return OperationResult.failure(ResultCode.ALREADY_PROCESSED, "Application ID " + application.getApplicationId() + " has been withdrawn.");
+            }
+            if (!project.decrementRemainingUnits(selectedFlatType)) {
+                return OperationResult.failure(ResultCode.NO_UNITS_AVAILABLE, "Error: Selected flat type is no longer available in the project.");
+            }
+            // The flat type is set first, so the single FLAT_BOOKED event records the flat actually booked
+            application.setAppliedFlatType(selectedFlatType);
+            application.changeStatus(ApplicationStatus.BOOKED, this, DomainEventType.FLAT_BOOKED);
         }
+        return OperationResult.success(application, "Flat booking successful for applicant " + application.getApplicant().getNRIC() + " (Application ID: " + application.getApplicationId() + ")");
+    }
+
+    /**
+     * Finds a successful application awaiting booking in the project being handled by this officer.
+     *
+     * @param applicationId The ID of the application to find.
+     * @return The successful {@link Application} with that ID, or {@code null} if there is none.
+     */
+    public Application findSuccessfulApplicationById(int applicationId) {
+        if (handlingProject == null) {
+            return null;
+        }
+        return handlingProject.getApplicationWithStatus(ApplicationStatus.SUCCESSFUL, applicationId);
     }
 
     /**
@@ -331,18 +416,7 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
      * @param application The {@link Application} for which to generate the receipt. Must have a status of {@link ApplicationStatus#BOOKED}.
      */
     public void generateReceipt(Application application) {
-        Applicant applicant = application.getApplicant();
-        BTOProject project = application.getProjectApplied();
-        System.out.println("--Receipt for HDB house booking--");
-        System.out.println("Application ID: " + application.getApplicationId());
-        System.out.println("Name: " + applicant.getName());
-        System.out.println("NRIC: " + applicant.getNRIC());
-        System.out.println("Age: " + applicant.getAge());
-        System.out.println("Marital Status: " + applicant.getMaritalStatus());
-        System.out.println("Project involved: " + project.getName());
-        System.out.println("Region: " + project.getNeighborhood());
-        System.out.println("FlatType: " + application.getAppliedFlatType());
-        System.out.println("---------------------------------");
+        System.out.print(ReceiptBatchWriter.DEFAULT_TEMPLATE.render(application));
     }
 
     /**
@@ -394,13 +468,40 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
      */
     @Override
     public void showAllEnquiries() {
+        showAllEnquiries(null);
+    }
+
+    /**
+     * Shows enquiries one page at a time. If the officer is handling a project, it shows enquiries for that project;
+     * otherwise, it defaults to the base class's implementation.
+     *
+     * @param scanner The {@link Scanner} object used to ask for the next page, or {@code null} to print every page.
+     */
+    @Override
+    public void showAllEnquiries(Scanner scanner) {
         if (handlingProject != null) {
-            showAllHandlingProjectEnquiries();
+            showAllHandlingProjectEnquiries(scanner);
         } else {
-            super.showAllEnquiries();
+            super.showAllEnquiries(scanner);
         }
     }
 
+    /**
+     * Returns one page of enquiries. If the officer is handling a project, the page is taken from that project's
+     * enquiries; otherwise, it defaults to the base class's implementation.
+     *
+     * @param token    The continuation token from the previous page, or {@code null} for the first page.
+     * @param pageSize The maximum number of enquiries on the page.
+     * @return The requested {@link Page} of enquiries.
+     */
+    @Override
+    public Page<Enquiry> getEnquiriesPage(String token, int pageSize) {
+        if (handlingProject != null) {
+            return handlingProject.getEnquiriesPage(token, pageSize);
+        }
+        return super.getEnquiriesPage(token, pageSize);
+    }
+
     /**
      * Views a specific enquiry by its ID. If the officer is handling a project and the enquiry is within that project,
      * it views the handling project's enquiry; otherwise, it defaults to the base class's implementation.
@@ -502,7 +603,7 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
             System.out.println("No enquiries for your handling project.");
             return;
         }
-        showAllHandlingProjectEnquiries();
+        showAllHandlingProjectEnquiries(scanner);
         System.out.print("Please enter the enquiry ID to view: ");
         if (scanner.hasNextInt()) {
             int enquiryId = scanner.nextInt();
@@ -523,6 +624,8 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
      * It checks for project assignment and existing enquiries, then prompts the officer
      * for the enquiry ID and the reply text. The reply is sent using
      * {@link #replyHandlingProjectEnquiry(int, String)} if a valid ID is provided.
+     * A reply already given to a similar enquiry is offered as a suggestion, and the reply can then
+     * be applied to every similar unanswered enquiry in one step.
      *
      * @param scanner The {@link Scanner} object to read user input.
      */
@@ -535,15 +638,32 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
             System.out.println("No enquiries for your handling project.");
             return;
         }
-        showAllHandlingProjectEnquiries();
+        showAllHandlingProjectEnquiries(scanner);
         System.out.print("Please enter the enquiry ID to reply to: ");
         if (scanner.hasNextInt()) {
             int enquiryId = scanner.nextInt();
             scanner.nextLine();
             if (enquiryInHandlingProject(enquiryId)) {
-                System.out.print("Enter your reply: ");
+                Enquiry enquiry = findEnquiryById(enquiryId);
+                String suggestedReply = ReplyReuseCache.suggestReply(enquiry);
+                if (suggestedReply != null) {
+                    System.out.println("Suggested reply from a similar enquiry: " + suggestedReply);
+                    System.out.print("Enter your reply (leave empty to use the suggested reply): ");
+                } else {
+                    System.out.print("Enter your reply: ");
+                }
                 String replyText = scanner.nextLine();
+                if (replyText.isEmpty() && suggestedReply != null) {
+                    replyText = suggestedReply;
+                }
                 replyHandlingProjectEnquiry(enquiryId, replyText);
+                int similar = ReplyReuseCache.findUnansweredNearDuplicates(enquiry).size();
+                if (similar > 0) {
+                    System.out.print("Apply this reply to " + similar + " similar unanswered enquiries? (yes/no): ");
+                    if (scanner.nextLine().trim().equalsIgnoreCase("yes")) {
+                        System.out.println("Reply applied to " + replyNearDuplicateEnquiries(enquiryId, replyText) + " similar enquiries.");
+                    }
+                }
             } else {
                 System.out.println("Error: Invalid enquiry ID for the handling project.");
             }
@@ -567,29 +687,21 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
             System.out.println("You are not assigned to a handling project!");
             return;
         }
-        List<Application> successfulApplications = handlingProject.getSuccessfulApplications();
-
-        if (successfulApplications.isEmpty()) {
+        if (handlingProject.getSuccessfulApplications().isEmpty()) {
             System.out.println("No successful applications awaiting booking for the handled project.");
             return;
         }
 
         System.out.println("Successful Applications for " + handlingProject.getName() + ":");
-        for (int i = 0; i < successfulApplications.size(); i++) {
-            System.out.println((i + 1) + ". Application ID: " + successfulApplications.get(i).getApplicationId() + ", Applicant NRIC: " + successfulApplications.get(i).getApplicant().getNRIC());
-        }
+        int[] position = {0};
+        ConsolePager.show(scanner, token -> handlingProject.getSuccessfulApplicationsPage(token, Page.DEFAULT_PAGE_SIZE),
+                app -> (++position[0]) + ". Application ID: " + app.getApplicationId() + ", Applicant NRIC: " + app.getApplicant().getNRIC());
         System.out.print("Enter the Application ID to book a flat for: ");
         if (scanner.hasNextInt()) {
             int applicationIdToBook = scanner.nextInt();
             scanner.nextLine();
 
-            Application selectedApplication = null;
-            for (Application app : successfulApplications) {
-                if (app.getApplicationId() == applicationIdToBook) {
-                    selectedApplication = app;
-                    break;
-                }
-            }
+            Application selectedApplication = findSuccessfulApplicationById(applicationIdToBook);
 
             if (selectedApplication != null) {
                 System.out.print("Enter the flat type to book (TWOROOM / THREEROOM): ");
@@ -625,9 +737,7 @@ public class HDBOfficer extends Applicant implements ProjectApplicant, Enquirer,
             System.out.println("You are not assigned to a handling project!");
             return;
         }
-        List<Application> bookedApplications = handlingProject.getApplications().stream()
-                .filter(app -> app.getApplicationStatus() == ApplicationStatus.BOOKED)
-                .collect(Collectors.toList());
+        List<Application> bookedApplications = new ArrayList<>(handlingProject.getApplicationsWithStatus(ApplicationStatus.BOOKED));
         if (bookedApplications.isEmpty()) {
             System.out.println("No booked applications for the handled project to generate receipts for.");
             return;
@@ -0,0 +1,769 @@
+package BTO_Management_System;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * An HTTP/JSON API over the domain layer, built on the JDK's embedded {@link HttpServer}.
+ * Every request is handled on its own virtual thread and must carry either the user's NRIC and password
+ * as HTTP Basic credentials, or a session token from {@code POST /api/session} as a Bearer token.
+ * Parameters are taken from the query string or from a form-encoded body, and every response is a
+ * JSON object rendered into a buffer by a {@link JsonWriter} and sent once the endpoint has returned.
+ * <pre>
+ * POST   /api/session          opens a session and returns its token
+ * DELETE /api/session          closes the session of the Bearer token used
+ * GET  /api/projects             sort, location, flatType (comma-separated), pageToken, pageSize
+ * GET  /api/application          the user's own application
+ * POST /api/application          project, flatType
+ * POST /api/application/withdrawal
+ * POST /api/bookings             applicationId, flatType (optional; officers only)
+ * GET  /api/enquiries            pageToken, pageSize
+ * POST /api/enquiries            project, text
+ * POST /api/enquiries/reply      enquiryId, text (officers and managers only)
+ * </pre>
+ * Requests rely on the domain's own locking, such as the atomic unit inventory and the application locks,
+ * and otherwise run in parallel. Requests that change anything run one at a time per signed-in user, so that
+ * two requests from the same user cannot both pass a check such as having no application yet. Nothing is
+ * written to the connection until that lock is released, so a client that reads slowly holds up nobody else.
+ */
+public class HttpApiServer {
+    /**
+     * The largest page size a client may ask for.
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+    /**
+     * The initial size of the response buffer, in bytes.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * The system property that turns off Nagle's algorithm on the connections of the JDK's HTTP server.
+     */
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    static {
+        // A response goes out as separate writes for its headers and body, which Nagle's algorithm would hold back
+        // until the client's delayed acknowledgement arrives, adding tens of milliseconds to every request.
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+    }
+
+    /**
+     * Checks an NRIC and password and returns the matching user, or null if they do not match.
+     */
+    private final BiFunction<String, String, User> authenticator;
+    /**
+     * The endpoints of each path, by HTTP method.
+     */
+    private final Map<String, Map<String, Route>> routesByPath = new HashMap<>();
+    /**
+     * The running server, or null if it has not been started.
+     */
+    private HttpServer server;
+    /**
+     * The executor running each request on its own virtual thread.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Constructs an API server that signs users in with the given authenticator.
+     *
+     * @param authenticator A function returning the user with a given NRIC and password, or null if they do not match.
+     */
+    public HttpApiServer(BiFunction<String, String, User> authenticator) {
+        this.authenticator = authenticator;
+    }
+
+    /**
+     * Starts serving the API.
+     *
+     * @param address The address to listen on. A port of 0 picks a free port.
+     * @return The port the server is listening on.
+     * @throws IOException If the server cannot be started.
+     */
+    public synchronized int start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            return server.getAddress().getPort();
+        }
+        HttpServer httpServer = HttpServer.create(address, 0);
+        route(httpServer, "/api/session", "POST", false, this::openSession);
+        route(httpServer, "/api/session", "DELETE", false, this::closeSession);
+        route(httpServer, "/api/projects", "GET", false, this::listProjects);
+        route(httpServer, "/api/application", "GET", false, this::getApplication);
+        route(httpServer, "/api/application", "POST", true, this::submitApplication);
+        route(httpServer, "/api/application/withdrawal", "POST", true, this::requestWithdrawal);
+        route(httpServer, "/api/bookings", "POST", true, this::bookFlat);
+        route(httpServer, "/api/enquiries", "GET", false, this::listEnquiries);
+        route(httpServer, "/api/enquiries", "POST", true, this::submitEnquiry);
+        route(httpServer, "/api/enquiries/reply", "POST", true, this::replyEnquiry);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        server = httpServer;
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, giving open exchanges up to a second to finish.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            server = null;
+            executor = null;
+        }
+    }
+
+    /**
+     * Opens a session for the signed-in user and returns its token, to send as a Bearer token
+     * on later requests so that the password does not have to be checked again.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void openSession(ApiRequest request) throws IOException {
+        String token = CredentialService.openSession(request.user);
+        request.respond(200).beginObject()
+                .name("code").value(ResultCode.SUCCESS)
+                .name("token").value(token)
+                .name("expiresInSeconds").value(CredentialService.getTimeToLiveSeconds())
+                .endObject();
+    }
+
+    /**
+     * Closes the session whose Bearer token the request was made with.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void closeSession(ApiRequest request) throws IOException {
+        if (request.sessionToken == null || !CredentialService.closeSession(request.sessionToken)) {
+            request.respond(OperationResult.failure(ResultCode.NOT_FOUND, "The request was not made with an open session.")).endObject();
+            return;
+        }
+        request.respond(OperationResult.success(null, "Session closed.")).endObject();
+    }
+
+    /**
+     * Lists one page of the projects the user may see, filtered and sorted as requested.
+     * Applicants and officers only see visible projects they are eligible for.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void listProjects(ApiRequest request) throws IOException {
+        List<String> locations = request.list("location");
+        List<FlatType> flatTypes = new ArrayList<>();
+        for (String flatType : request.list("flatType")) {
+            flatTypes.add(parseFlatType(flatType));
+        }
+        User user = request.user;
+        BitSet locationCodes = ProjectRegistry.locationFilter(locations);
+        Predicate<BTOProject> filter = project -> ProjectRegistry.matchesFilters(project, locationCodes, flatTypes)
+                && (!(user instanceof Applicant) || ((Applicant) user).isEligibleToApply(project));
+        Page<BTOProject> page = ProjectRegistry.getProjectsPage(request.param("sort"), filter, request.param("pageToken"), request.pageSize());
+        JsonWriter json = request.respond(200);
+        json.beginObject().name("items").beginArray();
+        for (BTOProject project : page.getItems()) {
+            writeProject(json, project);
+        }
+        json.endArray().name("nextPageToken").value(page.getNextToken()).endObject();
+    }
+
+    /**
+     * Returns the user's own application.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void getApplication(ApiRequest request) throws IOException {
+        Application application = request.as(Applicant.class).getApplication();
+        if (application == null) {
+            request.respond(OperationResult.failure(ResultCode.NO_APPLICATION, "You do not have any application yet!")).endObject();
+            return;
+        }
+        JsonWriter json = request.respond(200);
+        writeApplication(json, application);
+    }
+
+    /**
+     * Submits an application for the user.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void submitApplication(ApiRequest request) throws IOException {
+        OperationResult<Application> result = request.as(Applicant.class)
+                .submitApplication(ProjectRegistry.findProject(request.required("project")), parseFlatType(request.required("flatType")));
+        JsonWriter json = request.respond(result);
+        if (result.isSuccess()) {
+            json.name("application");
+            writeApplication(json, result.getValue());
+        }
+        json.endObject();
+    }
+
+    /**
+     * Requests the withdrawal of the user's application.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void requestWithdrawal(ApiRequest request) throws IOException {
+        request.respond(request.as(Applicant.class).requestWithdrawal()).endObject();
+    }
+
+    /**
+     * Books a flat for a successful application in the officer's handling project.
+     * Without a flat type, the flat type the applicant applied for is booked.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void bookFlat(ApiRequest request) throws IOException {
+        HDBOfficer officer = request.as(HDBOfficer.class);
+        Application application = officer.findSuccessfulApplicationById(parseInt(request.required("applicationId")));
+        if (application == null) {
+            request.respond(OperationResult.failure(ResultCode.NOT_FOUND, "No successful application with that ID in the handling project.")).endObject();
+            return;
+        }
+        String flatType = request.param("flatType");
+        OperationResult<Application> result = officer.bookFlatForApplication(application,
+                flatType == null ? application.getAppliedFlatType() : parseFlatType(flatType));
+        JsonWriter json = request.respond(result);
+        if (result.isSuccess()) {
+            json.name("application");
+            writeApplication(json, result.getValue());
+        }
+        json.endObject();
+    }
+
+    /**
+     * Lists one page of enquiries: an applicant's own, an officer's handling project's, or every enquiry for a manager.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void listEnquiries(ApiRequest request) throws IOException {
+        Page<Enquiry> page = request.user instanceof Applicant
+                ? ((Applicant) request.user).getEnquiriesPage(request.param("pageToken"), request.pageSize())
+                : ProjectRegistry.getEnquiriesPage(request.param("pageToken"), request.pageSize());
+        JsonWriter json = request.respond(200);
+        json.beginObject().name("items").beginArray();
+        for (Enquiry enquiry : page.getItems()) {
+            writeEnquiry(json, enquiry);
+        }
+        json.endArray().name("nextPageToken").value(page.getNextToken()).endObject();
+    }
+
+    /**
+     * Submits an enquiry about a project for the user.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void submitEnquiry(ApiRequest request) throws IOException {
+        OperationResult<Enquiry> result = request.as(Applicant.class)
+                .createEnquiry(ProjectRegistry.findProject(request.required("project")), request.required("text"));
+        JsonWriter json = request.respond(result);
+        if (result.isSuccess()) {
+            json.name("enquiry");
+            writeEnquiry(json, result.getValue());
+        }
+        json.endObject();
+    }
+
+    /**
+     * Replies to an enquiry of the handling project of an officer or manager.
+     *
+     * @param request The request.
+     * @throws IOException If the response cannot be written.
+     */
+    private void replyEnquiry(ApiRequest request) throws IOException {
+        int enquiryId = parseInt(request.required("enquiryId"));
+        String text = request.required("text");
+        OperationResult<Enquiry> result = request.user instanceof HDBManager
+                ? ((HDBManager) request.user).submitReply(enquiryId, text)
+                : request.as(HDBOfficer.class).submitReply(enquiryId, text);
+        request.respond(result).endObject();
+    }
+
+    /**
+     * Writes a project as a JSON object.
+     *
+     * @param json    The writer.
+     * @param project The project.
+     * @throws IOException If the response cannot be written.
+     */
+    private static void writeProject(JsonWriter json, BTOProject project) throws IOException {
+        json.beginObject()
+                .name("name").value(project.getName())
+                .name("neighborhood").value(project.getNeighborhood())
+                .name("openDate").value(String.valueOf(project.getApplicationOpenDate()))
+                .name("closeDate").value(String.valueOf(project.getApplicationCloseDate()))
+                .name("visible").value(project.isVisible())
+                .name("remainingUnits").beginObject();
+        for (FlatType flatType : project.getFlatTypes()) {
+            json.name(flatType.name()).value(project.getRemainingUnits(flatType));
+        }
+        json.endObject().endObject();
+    }
+
+    /**
+     * Writes an application as a JSON object.
+     *
+     * @param json        The writer.
+     * @param application The application.
+     * @throws IOException If the response cannot be written.
+     */
+    private static void writeApplication(JsonWriter json, Application application) throws IOException {
+        json.beginObject()
+                .name("id").value(application.getApplicationId())
+                .name("project").value(application.getProjectApplied().getName())
+                .name("flatType").value(application.getAppliedFlatType())
+                .name("status").value(application.getApplicationStatus())
+                .name("withdrawalRequested").value(application.isWithdrawalRequested())
+                .endObject();
+    }
+
+    /**
+     * Writes an enquiry as a JSON object.
+     *
+     * @param json    The writer.
+     * @param enquiry The enquiry.
+     * @throws IOException If the response cannot be written.
+     */
+    private static void writeEnquiry(JsonWriter json, Enquiry enquiry) throws IOException {
+        json.beginObject()
+                .name("id").value(enquiry.getEnquiryId())
+                .name("project").value(enquiry.getProject().getName())
+                .name("applicant").value(enquiry.getApplicant().getNRIC())
+                .name("text").value(enquiry.getEnquiryText())
+                .name("reply").value(enquiry.getReplyText())
+                .endObject();
+    }
+
+    /**
+     * Parses a whole number parameter.
+     *
+     * @param s The parameter.
+     * @return The number.
+     * @throws IllegalArgumentException If the parameter is not a whole number.
+     */
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + s);
+        }
+    }
+
+    /**
+     * Parses a flat type parameter, ignoring case.
+     *
+     * @param s The parameter.
+     * @return The flat type.
+     * @throws IllegalArgumentException If the parameter is not a flat type.
+     */
+    private static FlatType parseFlatType(String s) {
+        try {
+            return FlatType.valueOf(s.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not a flat type: " + s);
+        }
+    }
+
+    /**
+     * Returns the HTTP status for the code of an operation result.
+     *
+     * @param code The result code.
+     * @return The HTTP status.
+     */
+    private static int statusOf(ResultCode code) {
+        switch (code) {
+            case SUCCESS:
+                return 200;
+            case INVALID_INPUT:
+            case INVALID_STATUS:
+                return 400;
+            case NOT_ELIGIBLE:
+            case NOT_HANDLING_PROJECT:
+                return 403;
+            case INVALID_PROJECT:
+            case NOT_FOUND:
+            case NO_APPLICATION:
+                return 404;
+            case IO_ERROR:
+                return 500;
+            default:
+                return 409;
+        }
+    }
+
+    /**
+     * Registers an endpoint for one method of a path. Several methods of the same path share one context.
+     *
+     * @param httpServer The server.
+     * @param path       The exact path of the endpoint.
+     * @param method     The HTTP method of the endpoint.
+     * @param changes    Whether the endpoint changes the domain and must not run alongside the same user's other changes.
+     * @param endpoint   The endpoint.
+     */
+    private void route(HttpServer httpServer, String path, String method, boolean changes, ApiEndpoint endpoint) {
+        Map<String, Route> routes = routesByPath.computeIfAbsent(path, p -> {
+            Map<String, Route> byMethod = new HashMap<>();
+            OperationMetrics metrics = Metrics.operation("api " + p);
+            httpServer.createContext(p, exchange -> dispatch(exchange, p, byMethod, metrics));
+            return byMethod;
+        });
+        routes.put(method, new Route(endpoint, changes));
+    }
+
+    /**
+     * Authenticates a request, runs its endpoint and reports any failure as a JSON error. An endpoint that changes
+     * the domain runs under the signed-in user's lock. The response is only sent after the endpoint has returned.
+     *
+     * @param exchange The HTTP exchange.
+     * @param path     The path of the context the exchange arrived on.
+     * @param byMethod The endpoints of that path, by HTTP method.
+     * @param metrics  The metrics of the path.
+     */
+    private void dispatch(HttpExchange exchange, String path, Map<String, Route> byMethod, OperationMetrics metrics) {
+        long start = System.nanoTime();
+        ApiRequest request = new ApiRequest(exchange);
+        try {
+            if (!exchange.getRequestURI().getPath().equals(path)) {
+                request.error(404, "NOT_FOUND", "No such endpoint.");
+                return;
+            }
+            Route route = byMethod.get(exchange.getRequestMethod());
+            if (route == null) {
+                exchange.getResponseHeaders().set("Allow", String.join(", ", byMethod.keySet()));
+                request.error(405, "METHOD_NOT_ALLOWED", "Method not allowed.");
+                return;
+            }
+            request.user = authenticate(request);
+            if (request.user == null) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"BTO\"");
+                request.error(401, "UNAUTHORIZED", "Valid NRIC and password, or a valid session token, required.");
+                return;
+            }
+            request.readParams();
+            if (route.changes) {
+                synchronized (request.user) {
+                    route.endpoint.handle(request);
+                }
+            } else {
+                route.endpoint.handle(request);
+            }
+        } catch (RoleException e) {
+            request.error(403, "FORBIDDEN", e.getMessage());
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            request.error(503, "BUSY", "Too many sign-ins are being checked. Please try again.");
+        } catch (IllegalArgumentException e) {
+            request.error(400, ResultCode.INVALID_INPUT.name(), e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            metrics.recordFailure();
+            request.error(500, "INTERNAL_ERROR", "Internal error: " + e.getMessage());
+        } finally {
+            request.close();
+            metrics.recordSince(start);
+        }
+    }
+
+    /**
+     * Signs in the user named by the HTTP Basic credentials of a request, or by its Bearer session token.
+     *
+     * @param request The request.
+     * @return The user, or null if the credentials are missing, do not match, or the session has expired.
+     */
+    private User authenticate(ApiRequest request) {
+        String header = request.exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            request.sessionToken = header.substring(7).trim();
+            return CredentialService.resolveSession(request.sessionToken);
+        }
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        return authenticator.apply(credentials.substring(0, colon).toUpperCase(), credentials.substring(colon + 1));
+    }
+
+    /**
+     * Handles the requests for one method of one path.
+     */
+    @FunctionalInterface
+    private interface ApiEndpoint {
+        /**
+         * Handles a request and writes its response.
+         *
+         * @param request The request.
+         * @throws IOException If the response cannot be written.
+         */
+        void handle(ApiRequest request) throws IOException;
+    }
+
+    /**
+     * An endpoint together with whether it changes the domain.
+     */
+    private static final class Route {
+        private final ApiEndpoint endpoint;
+        private final boolean changes;
+
+        /**
+         * Constructs a route.
+         *
+         * @param endpoint The endpoint.
+         * @param changes  Whether the endpoint changes the domain.
+         */
+        Route(ApiEndpoint endpoint, boolean changes) {
+            this.endpoint = endpoint;
+            this.changes = changes;
+        }
+    }
+
+    /**
+     * Thrown when the signed-in user does not have the role an endpoint needs.
+     */
+    private static final class RoleException extends RuntimeException {
+        /**
+         * The serialization version of the exception.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs the exception.
+         *
+         * @param message The reason.
+         */
+        RoleException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * One request being handled: its exchange, signed-in user, parameters and response writer.
+     */
+    private static final class ApiRequest {
+        private final HttpExchange exchange;
+        private User user;
+        private String sessionToken;
+        private Map<String, String> params = Collections.emptyMap();
+        private int status;
+        private ByteArrayOutputStream body;
+        private JsonWriter json;
+
+        /**
+         * Constructs a request for an exchange.
+         *
+         * @param exchange The HTTP exchange.
+         */
+        ApiRequest(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        /**
+         * Reads the parameters from the query string and, for a form-encoded body, from the body.
+         *
+         * @throws IOException If the body cannot be read.
+         */
+        void readParams() throws IOException {
+            Map<String, String> parsed = new HashMap<>();
+            decodeForm(exchange.getRequestURI().getRawQuery(), parsed);
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+                try (InputStream body = exchange.getRequestBody()) {
+                    decodeForm(new String(body.readAllBytes(), StandardCharsets.UTF_8), parsed);
+                }
+            }
+            params = parsed;
+        }
+
+        /**
+         * Returns a parameter.
+         *
+         * @param name The parameter name.
+         * @return The value, or null if it is missing or blank.
+         */
+        String param(String name) {
+            String value = params.get(name);
+            return value == null || value.isBlank() ? null : value;
+        }
+
+        /**
+         * Returns a parameter that must be present.
+         *
+         * @param name The parameter name.
+         * @return The value.
+         * @throws IllegalArgumentException If the parameter is missing.
+         */
+        String required(String name) {
+            String value = param(name);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing parameter: " + name);
+            }
+            return value;
+        }
+
+        /**
+         * Returns a comma-separated parameter as a list.
+         *
+         * @param name The parameter name.
+         * @return The values, or an empty list if the parameter is missing.
+         */
+        List<String> list(String name) {
+            String value = param(name);
+            List<String> values = new ArrayList<>();
+            if (value != null) {
+                for (String item : value.split(",")) {
+                    if (!item.isBlank()) {
+                        values.add(item.trim());
+                    }
+                }
+            }
+            return values;
+        }
+
+        /**
+         * Returns the requested page size, or {@link Page#DEFAULT_PAGE_SIZE} if none was given.
+         *
+         * @return The page size.
+         * @throws IllegalArgumentException If the page size is not between 1 and {@link #MAX_PAGE_SIZE}.
+         */
+        int pageSize() {
+            String value = param("pageSize");
+            int pageSize = value == null ? Page.DEFAULT_PAGE_SIZE : parseInt(value);
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE + ".");
+            }
+            return pageSize;
+        }
+
+        /**
+         * Returns the signed-in user as the role an endpoint needs.
+         *
+         * @param role The class of the role.
+         * @param <T>  The type of the role.
+         * @return The user as that role.
+         * @throws RoleException If the user does not have that role.
+         */
+        <T extends User> T as(Class<T> role) {
+            if (!role.isInstance(user)) {
+                throw new RoleException("This endpoint is not available to the " + user.getRole() + " role.");
+            }
+            return role.cast(user);
+        }
+
+        /**
+         * Starts the response and returns the writer for the JSON body. The body is kept in memory and sent by {@link #close()}.
+         *
+         * @param status The HTTP status.
+         * @return The JSON writer for the body.
+         */
+        JsonWriter respond(int status) {
+            this.status = status;
+            body = new ByteArrayOutputStream(BUFFER_SIZE);
+            json = new JsonWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8));
+            return json;
+        }
+
+        /**
+         * Sends the response for an operation result and writes its code and message into an object
+         * that the caller may extend before closing it.
+         *
+         * @param result The operation result.
+         * @return The JSON writer, inside the open result object.
+         * @throws IOException If the response cannot be written.
+         */
+        JsonWriter respond(OperationResult<?> result) throws IOException {
+            return respond(statusOf(result.getCode())).beginObject()
+                    .name("code").value(result.getCode())
+                    .name("message").value(result.getMessage());
+        }
+
+        /**
+         * Replaces whatever response has been rendered so far with an error response.
+         *
+         * @param status  The HTTP status.
+         * @param code    The error code reported to the client.
+         * @param message The error message.
+         */
+        void error(int status, String code, String message) {
+            try {
+                respond(status).beginObject().name("code").value(code).name("message").value(message).endObject();
+            } catch (IOException e) {
+                // Cannot happen; the response is rendered in memory.
+            }
+        }
+
+        /**
+         * Sends the rendered response and ends the exchange.
+         */
+        void close() {
+            if (json == null) {
+                exchange.close();
+                return;
+            }
+            try {
+                json.flush();
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(status, body.size());
+                body.writeTo(exchange.getResponseBody());
+            } catch (IOException e) {
+                // The client has gone away; the exchange is closed below regardless.
+            } finally {
+                exchange.close();
+            }
+        }
+
+        /**
+         * Decodes form-encoded {@code name=value} pairs into a map.
+         *
+         * @param form   The encoded pairs, or null.
+         * @param params The map to add the pairs to.
+         */
+        private static void decodeForm(String form, Map<String, String> params) {
+            if (form == null || form.isEmpty()) {
+                return;
+            }
+            for (String pair : form.split("&")) {
+                int equals = pair.indexOf('=');
+                String name = equals < 0 ? pair : pair.substring(0, equals);
+                String value = equals < 0 ? "" : pair.substring(equals + 1);
+                params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -15,39 +15,6 @@ public class Interfaces {
     }
 }
 
-/**
- * Interface for entities that provide viewable project information.
- */
-interface ProjectViewable {
-    /**
-     * Retrieves a detailed description of the project.
-     *
-     * @return A string containing the project's details.
-     */
-    String getDetails();
-
-    /**
-     * Retrieves the name of the project.
-     *
-     * @return The name of the project as a string.
-     */
-    String getName();
-
-    /**
-     * Retrieves the neighborhood where the project is located.
-     *
-     * @return The neighborhood of the project as a string.
-     */
-    String getNeighborhood();
-
-    /**
-     * Retrieves a list of flat types available in the project.
-     *
-     * @return A list of {@link FlatType} offered by the project.
-     */
-    List<FlatType> getFlatTypes();
-}
-
 /**
  * Interface for entities that can submit enquiries about projects.
  */
@@ -315,4 +282,4 @@ interface ProjectEditor {
      * @param project The {@link BTOProject} to be edited.
      */
     void editProjectDetails(Scanner scanner, BTOProject project);
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+package BTO_Management_System;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes JSON text straight to a {@link Writer} as values are added, without building a document in memory.
+ * Commas and quoting are handled by the writer; callers only open and close objects and arrays in the right order.
+ * <pre>
+ * json.beginObject().name("name").value("Acacia").name("units").value(120).endObject();
+ * </pre>
+ */
+public class JsonWriter {
+    /**
+     * The deepest nesting of objects and arrays supported.
+     */
+    private static final int MAX_DEPTH = 32;
+    /**
+     * The escapes of the control characters below 0x20.
+     */
+    private static final String[] CONTROL_ESCAPES = new String[0x20];
+
+    static {
+        for (int c = 0; c < CONTROL_ESCAPES.length; c++) {
+            CONTROL_ESCAPES[c] = String.format("\\u%04x", c);
+        }
+        CONTROL_ESCAPES['\b'] = "\\b";
+        CONTROL_ESCAPES['\f'] = "\\f";
+        CONTROL_ESCAPES['\n'] = "\\n";
+        CONTROL_ESCAPES['\r'] = "\\r";
+        CONTROL_ESCAPES['\t'] = "\\t";
+    }
+
+    /**
+     * The writer the JSON text is written to.
+     */
+    private final Writer out;
+    /**
+     * Whether the object or array at each nesting level already holds a value.
+     */
+    private final boolean[] hasValue = new boolean[MAX_DEPTH];
+    /**
+     * The current nesting level; 0 is the top level.
+     */
+    private int depth;
+    /**
+     * Whether a name has just been written and its value is expected next.
+     */
+    private boolean afterName;
+
+    /**
+     * Constructs a JSON writer that writes to the given writer.
+     *
+     * @param out The writer to write the JSON text to. It should be buffered.
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Opens an object.
+     *
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * Closes the current object.
+     *
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * Opens an array.
+     *
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * Closes the current array.
+     *
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name The member name.
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or null.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a number value.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes the name of an enum value, or null.
+     *
+     * @param value The value.
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    public JsonWriter value(Enum<?> value) throws IOException {
+        return value(value == null ? null : value.name());
+    }
+
+    /**
+     * Flushes the underlying writer.
+     *
+     * @throws IOException If the text cannot be written.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Opens an object or array.
+     *
+     * @param bracket The opening bracket.
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        if (depth + 1 >= MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested too deeply.");
+        }
+        out.write(bracket);
+        hasValue[++depth] = false;
+        return this;
+    }
+
+    /**
+     * Closes an object or array.
+     *
+     * @param bracket The closing bracket.
+     * @return This writer.
+     * @throws IOException If the text cannot be written.
+     */
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("No open object or array to close.");
+        }
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    /**
+     * Writes the comma before a value or member when the current object or array already holds one.
+     *
+     * @throws IOException If the text cannot be written.
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasValue[depth]) {
+            out.write(',');
+        }
+        hasValue[depth] = true;
+    }
+
+    /**
+     * Writes a quoted string, escaping the characters JSON requires.
+     *
+     * @param s The string.
+     * @throws IOException If the text cannot be written.
+     */
+    private void string(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String escape;
+            if (c < 0x20) {
+                escape = CONTROL_ESCAPES[c];
+            } else if (c == '"') {
+                escape = "\\\"";
+            } else if (c == '\\') {
+                escape = "\\\\";
+            } else {
+                continue;
+            }
+            out.write(s, start, i - start);
+            out.write(escape);
+            start = i + 1;
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,177 @@
+package BTO_Management_System;
+
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The registry of the {@link OperationMetrics} of every timed domain operation and of every {@link Gauge}.
+ * Each operation is registered as a platform MBean under {@code BTO_Management_System:type=Operation}
+ * and each gauge under {@code BTO_Management_System:type=Gauge},
+ * and all of them can also be served as plain text over HTTP on the local machine.
+ * The text endpoint is started at launch when the system property {@value #PORT_PROPERTY} is set.
+ */
+public class Metrics {
+    /**
+     * The system property holding the port of the local text endpoint.
+     */
+    public static final String PORT_PROPERTY = "bto.metrics.port";
+    /**
+     * The JMX domain the operation MBeans are registered under.
+     */
+    private static final String JMX_DOMAIN = "BTO_Management_System";
+
+    /**
+     * The metrics of each operation, by operation name.
+     */
+    private static final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    /**
+     * The gauges, by gauge name.
+     */
+    private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    /**
+     * The running text endpoint, or null if it has not been started.
+     */
+    private static HttpServer server;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Metrics() {
+        // Empty private constructor
+    }
+
+    /**
+     * Returns the metrics of an operation, creating and registering them on first use.
+     *
+     * @param name The name of the operation, such as {@code "apply"}.
+     * @return The {@link OperationMetrics} of the operation.
+     */
+    public static OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, n -> {
+            OperationMetrics metrics = new OperationMetrics(n);
+            register(metrics);
+            return metrics;
+        });
+    }
+
+    /**
+     * Registers a gauge, or points an existing gauge of the same name at a new value.
+     *
+     * @param name  The name of the gauge, such as {@code "replication lag events"}.
+     * @param value Reads the current value. It is called whenever the gauge is reported, from any thread.
+     * @return The {@link Gauge}.
+     */
+    public static Gauge gauge(String name, LongSupplier value) {
+        Gauge gauge = gauges.computeIfAbsent(name, n -> {
+            Gauge created = new Gauge(n, value);
+            register("Gauge", n, created);
+            return created;
+        });
+        gauge.setValue(value);
+        return gauge;
+    }
+
+    /**
+     * Registers the metrics of an operation with the platform MBean server.
+     * Failures are reported but do not stop the operation from being timed.
+     *
+     * @param metrics The {@link OperationMetrics} to register.
+     */
+    private static void register(OperationMetrics metrics) {
+        register("Operation", metrics.getName(), metrics);
+    }
+
+    /**
+     * Registers an MBean under the JMX domain of the system. Failures are reported but otherwise ignored.
+     *
+     * @param type  The type of the MBean, which becomes the {@code type} key of its name.
+     * @param name  The name of the MBean, which becomes the {@code name} key of its name.
+     * @param mBean The MBean.
+     */
+    private static void register(String type, String name, Object mBean) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(mBean, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("Error: Cannot register metrics for " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a plain-text report of every operation, one line per operation with latencies in microseconds,
+     * followed by one line per gauge with its current value.
+     *
+     * @return The report.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        for (OperationMetrics metrics : new TreeMap<>(operations).values()) {
+            report.append(String.format(Locale.ROOT,
+                    "%s calls=%d failures=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+                    metrics.getName(), metrics.getCalls(), metrics.getFailures(), metrics.getMeanMicros(),
+                    metrics.getP50Micros(), metrics.getP90Micros(), metrics.getP99Micros(),
+                    metrics.getP999Micros(), metrics.getMaxMicros()));
+        }
+        for (Gauge gauge : new TreeMap<>(gauges).values()) {
+            report.append(String.format(Locale.ROOT, "%s value=%d%n", gauge.getName(), gauge.getValue()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Starts the text endpoint if the system property {@value #PORT_PROPERTY} is set.
+     */
+    public static void startHttpEndpointIfConfigured() {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port != null) {
+            startHttpEndpoint(port);
+        }
+    }
+
+    /**
+     * Starts serving {@link #report()} at {@code http://localhost:<port>/metrics}. Only the loopback
+     * interface is bound, so the endpoint cannot be reached from other machines.
+     *
+     * @param port The port to listen on.
+     * @return true if the endpoint is running, false if it could not be started.
+     */
+    public static synchronized boolean startHttpEndpoint(int port) {
+        if (server != null) {
+            return true;
+        }
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            httpServer.createContext("/metrics", exchange -> {
+                byte[] body = report().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            httpServer.start();
+            server = httpServer;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error: Cannot start metrics endpoint on port " + port + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
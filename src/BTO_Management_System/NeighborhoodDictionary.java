@@ -0,0 +1,157 @@
+package BTO_Management_System;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The canonical dictionary of neighborhood names. Every distinct neighborhood is given a dense integer code,
+ * starting from 0 in the order the neighborhoods are first seen, so a set of neighborhoods is a {@link BitSet}
+ * and anything kept per neighborhood can be an array indexed by code.
+ * <p>
+ * Names are matched after {@link #normalize(String) normalizing} them, so {@code "Tampines"},
+ * {@code "tampines"} and {@code " TAMPINES "} are one neighborhood. Codes are never reused or removed.
+ * Looking a name up is lock-free; only adding a new neighborhood takes a lock.
+ */
+public class NeighborhoodDictionary {
+    /**
+     * The code returned for a name that is not in the dictionary.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * The code of every neighborhood, by normalized name.
+     */
+    private static final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    /**
+     * The name of every neighborhood as it was first seen, by code. Grown under the class lock.
+     */
+    private static volatile String[] names = new String[16];
+    /**
+     * The number of neighborhoods in the dictionary.
+     */
+    private static volatile int size;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private NeighborhoodDictionary() {
+        // Empty private constructor
+    }
+
+    /**
+     * Normalizes a neighborhood name: surrounding whitespace is removed, runs of whitespace become one space,
+     * and letters become lower case.
+     *
+     * @param name The name. May be {@code null}.
+     * @return The normalized name, or an empty string for {@code null}.
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+            } else {
+                if (space) {
+                    normalized.append(' ');
+                    space = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the code of a neighborhood, adding it to the dictionary if it is new.
+     *
+     * @param name The neighborhood name, in any case and spacing.
+     * @return The neighborhood's code.
+     */
+    public static int codeOf(String name) {
+        String key = normalize(name);
+        Integer code = codes.get(key);
+        return code != null ? code : add(key, name == null ? "" : name.trim());
+    }
+
+    /**
+     * Returns the code of a neighborhood without adding it, for names that come from search input.
+     *
+     * @param name The neighborhood name, in any case and spacing.
+     * @return The neighborhood's code, or {@link #UNKNOWN} if no project has used it.
+     */
+    public static int lookup(String name) {
+        Integer code = codes.get(normalize(name));
+        return code != null ? code : UNKNOWN;
+    }
+
+    /**
+     * Returns the codes of several neighborhoods as a set. Names not in the dictionary are left out.
+     *
+     * @param names The neighborhood names.
+     * @return A new set holding the code of every known name.
+     */
+    public static BitSet codesOf(Collection<String> names) {
+        BitSet set = new BitSet(size);
+        for (String name : names) {
+            int code = lookup(name);
+            if (code != UNKNOWN) {
+                set.set(code);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Returns the name of a neighborhood as it was first seen.
+     *
+     * @param code The neighborhood's code.
+     * @return The name.
+     * @throws IllegalArgumentException If no neighborhood has that code.
+     */
+    public static String nameOf(int code) {
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("Unknown neighborhood code " + code + ".");
+        }
+        return names[code];
+    }
+
+    /**
+     * Returns the number of neighborhoods in the dictionary, which is also one more than the highest code.
+     *
+     * @return The number of neighborhoods.
+     */
+    public static int size() {
+        return size;
+    }
+
+    /**
+     * Adds a neighborhood unless another thread has just done so.
+     *
+     * @param key  The normalized name.
+     * @param name The name as it was given.
+     * @return The neighborhood's code.
+     */
+    private static synchronized int add(String key, String name) {
+        Integer existing = codes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int code = size;
+        if (code == names.length) {
+            names = Arrays.copyOf(names, code * 2);
+        }
+        names[code] = name;
+        size = code + 1;
+        codes.put(key, code);
+        return code;
+    }
+}
@@ -0,0 +1,200 @@
+package BTO_Management_System;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The call counters and latency histogram of one domain operation, such as applying for a project
+ * or booking a flat. Instances are obtained from {@link Metrics#operation(String)} and are
+ * published as platform MBeans. Callers wrap the operation in {@link #time(Runnable)} or
+ * {@link #time(Supplier)}, or call {@link #recordSince(long)} or {@link #recordNanos(long)} themselves.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    /**
+     * The name of the operation.
+     */
+    private final String name;
+    /**
+     * The number of calls. A striped counter, so concurrent callers do not contend on one memory location.
+     */
+    private final LongAdder calls = new LongAdder();
+    /**
+     * The number of calls that ended with an exception.
+     */
+    private final LongAdder failures = new LongAdder();
+    /**
+     * The latencies of the calls.
+     */
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Constructs the metrics of an operation. Use {@link Metrics#operation(String)} instead so they are registered.
+     *
+     * @param name The name of the operation.
+     */
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one call that started at the given time and has just finished.
+     *
+     * @param startNanos The value of {@link System#nanoTime()} when the call started.
+     */
+    public void recordSince(long startNanos) {
+        calls.increment();
+        latencies.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records one call whose latency was measured elsewhere, for example between two JVMs.
+     *
+     * @param nanos The latency, in nanoseconds.
+     */
+    public void recordNanos(long nanos) {
+        calls.increment();
+        latencies.record(nanos);
+    }
+
+    /**
+     * Counts one call that ended with an exception. The call's latency is still recorded by {@link #recordSince(long)}.
+     */
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    /**
+     * Runs an operation and records its latency, counting it as failed if it throws.
+     *
+     * @param operation The operation to run.
+     */
+    public void time(Runnable operation) {
+        long start = System.nanoTime();
+        try {
+            operation.run();
+        } catch (RuntimeException e) {
+            recordFailure();
+            throw e;
+        } finally {
+            recordSince(start);
+        }
+    }
+
+    /**
+     * Runs an operation that returns a value and records its latency, counting it as failed if it throws.
+     *
+     * @param operation The operation to run.
+     * @param <T>       The type of the value returned.
+     * @return The value returned by the operation.
+     */
+    public <T> T time(Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            recordFailure();
+            throw e;
+        } finally {
+            recordSince(start);
+        }
+    }
+
+    /**
+     * Returns the latency histogram of the operation.
+     *
+     * @return The {@link LatencyHistogram} of the operation.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Returns the name of the operation.
+     *
+     * @return The operation name.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of recorded calls.
+     *
+     * @return The number of calls.
+     */
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the number of calls that ended with an exception.
+     *
+     * @return The number of failed calls.
+     */
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return The mean latency in microseconds.
+     */
+    @Override
+    public double getMeanMicros() {
+        return latencies.getMean() / 1000.0;
+    }
+
+    /**
+     * Returns the median latency.
+     *
+     * @return The 50th percentile latency in microseconds.
+     */
+    @Override
+    public double getP50Micros() {
+        return latencies.getPercentile(50) / 1000.0;
+    }
+
+    /**
+     * Returns the 90th percentile latency.
+     *
+     * @return The 90th percentile latency in microseconds.
+     */
+    @Override
+    public double getP90Micros() {
+        return latencies.getPercentile(90) / 1000.0;
+    }
+
+    /**
+     * Returns the 99th percentile latency.
+     *
+     * @return The 99th percentile latency in microseconds.
+     */
+    @Override
+    public double getP99Micros() {
+        return latencies.getPercentile(99) / 1000.0;
+    }
+
+    /**
+     * Returns the 99.9th percentile latency.
+     *
+     * @return The 99.9th percentile latency in microseconds.
+     */
+    @Override
+    public double getP999Micros() {
+        return latencies.getPercentile(99.9) / 1000.0;
+    }
+
+    /**
+     * Returns the largest recorded latency.
+     *
+     * @return The largest latency in microseconds.
+     */
+    @Override
+    public double getMaxMicros() {
+        return latencies.getMax() / 1000.0;
+    }
+}
@@ -0,0 +1,71 @@
+package BTO_Management_System;
+
+/**
+ * The management interface of {@link OperationMetrics}, through which JMX clients such as
+ * JConsole read the call counts and latency percentiles of one domain operation.
+ * Latencies are reported in microseconds.
+ */
+public interface OperationMetricsMXBean {
+    /**
+     * Returns the name of the operation.
+     *
+     * @return The operation name.
+     */
+    String getName();
+
+    /**
+     * Returns the number of times the operation has been called.
+     *
+     * @return The number of calls.
+     */
+    long getCalls();
+
+    /**
+     * Returns the number of calls that ended with an exception.
+     *
+     * @return The number of failed calls.
+     */
+    long getFailures();
+
+    /**
+     * Returns the mean latency of the operation.
+     *
+     * @return The mean latency in microseconds.
+     */
+    double getMeanMicros();
+
+    /**
+     * Returns the median latency of the operation.
+     *
+     * @return The 50th percentile latency in microseconds.
+     */
+    double getP50Micros();
+
+    /**
+     * Returns the 90th percentile latency of the operation.
+     *
+     * @return The 90th percentile latency in microseconds.
+     */
+    double getP90Micros();
+
+    /**
+     * Returns the 99th percentile latency of the operation.
+     *
+     * @return The 99th percentile latency in microseconds.
+     */
+    double getP99Micros();
+
+    /**
+     * Returns the 99.9th percentile latency of the operation.
+     *
+     * @return The 99.9th percentile latency in microseconds.
+     */
+    double getP999Micros();
+
+    /**
+     * Returns the slowest recorded call of the operation.
+     *
+     * @return The largest latency in microseconds.
+     */
+    double getMaxMicros();
+}
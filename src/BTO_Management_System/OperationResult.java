@@ -0,0 +1,109 @@
+package BTO_Management_System;
+
+/**
+ * Represents the outcome of a domain operation: a {@link ResultCode}, a message suitable for
+ * showing to the user, and on success the object the operation created or changed.
+ * The domain methods that return results never print; the console menus print the message.
+ *
+ * @param <T> The type of the value produced on success.
+ */
+public final class OperationResult<T> {
+    /**
+     * The outcome of the operation.
+     */
+    private final ResultCode code;
+    /**
+     * A message describing the outcome.
+     */
+    private final String message;
+    /**
+     * The object the operation created or changed, or null on failure.
+     */
+    private final T value;
+
+    /**
+     * Constructs a new result.
+     *
+     * @param code    The outcome of the operation.
+     * @param message A message describing the outcome.
+     * @param value   The object the operation created or changed, or null.
+     */
+    private OperationResult(ResultCode code, String message, T value) {
+        this.code = code;
+        this.message = message;
+        this.value = value;
+    }
+
+    /**
+     * Creates a successful result.
+     *
+     * @param value   The object the operation created or changed.
+     * @param message A message describing the outcome.
+     * @param <T>     The type of the value.
+     * @return The successful result.
+     */
+    public static <T> OperationResult<T> success(T value, String message) {
+        return new OperationResult<>(ResultCode.SUCCESS, message, value);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param code    The reason for the failure. Must not be {@link ResultCode#SUCCESS}.
+     * @param message A message describing the failure.
+     * @param <T>     The type of the value the operation would have produced.
+     * @return The failed result.
+     */
+    public static <T> OperationResult<T> failure(ResultCode code, String message) {
+        if (code == ResultCode.SUCCESS) {
+            throw new IllegalArgumentException("A failure needs a failure code.");
+        }
+        return new OperationResult<>(code, message, null);
+    }
+
+    /**
+     * Checks whether the operation succeeded.
+     *
+     * @return true if the operation succeeded, false otherwise.
+     */
+    public boolean isSuccess() {
+        return code == ResultCode.SUCCESS;
+    }
+
+    /**
+     * Returns the outcome of the operation.
+     *
+     * @return The {@link ResultCode}.
+     */
+    public ResultCode getCode() {
+        return code;
+    }
+
+    /**
+     * Returns a message describing the outcome, suitable for showing to the user.
+     *
+     * @return The message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the object the operation created or changed.
+     *
+     * @return The value, or null if the operation failed.
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the code and message of the result.
+     *
+     * @return A string describing the result.
+     */
+    @Override
+    public String toString() {
+        return code + ": " + message;
+    }
+}
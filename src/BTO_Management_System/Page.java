@@ -0,0 +1,204 @@
+package BTO_Management_System;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Represents one page of a listing, together with an opaque continuation token
+ * that can be passed back to fetch the page that follows it.
+ * Listings are paged in a stable order, so items added or removed between two page
+ * requests never cause the following page to skip or repeat an item that was already there.
+ *
+ * @param <T> The type of the items on the page.
+ */
+public class Page<T> {
+    /**
+     * The default number of items shown per page in the console menus.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 10;
+
+    /**
+     * The items on this page, in listing order.
+     */
+    private final List<T> items;
+    /**
+     * The token for the next page, or null if this is the last page.
+     */
+    private final String nextToken;
+
+    /**
+     * Constructs a new page.
+     *
+     * @param items     The items on the page.
+     * @param nextToken The continuation token for the next page, or {@code null} if there are no more items.
+     */
+    public Page(List<T> items, String nextToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+    }
+
+    /**
+     * Returns the items on this page.
+     *
+     * @return An unmodifiable list of the items on this page.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the continuation token for the next page.
+     *
+     * @return The token to pass back for the next page, or {@code null} if this is the last page.
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    /**
+     * Checks whether there is another page after this one.
+     *
+     * @return true if a next page exists, false otherwise.
+     */
+    public boolean hasNextPage() {
+        return nextToken != null;
+    }
+
+    /**
+     * Returns one page of a list sorted by increasing ID, such as a snapshot of search results.
+     * The start of the page is found by binary search, so each page costs O(log n + pageSize).
+     * Lists that grow while they are paged must not be used here: items appended by several threads do not
+     * arrive in ID order, so such collections are kept keyed by ID and paged with {@link #ofIdMap}.
+     *
+     * @param idOrdered The list to page through, sorted by increasing ID.
+     * @param idOf      A function returning the ID of an item.
+     * @param token     The continuation token from the previous page, or {@code null} for the first page.
+     * @param pageSize  The maximum number of items on the page.
+     * @param <T>       The type of the items.
+     * @return The requested {@link Page}.
+     * @throws IllegalArgumentException if the token is malformed or pageSize is not positive.
+     */
+    public static <T> Page<T> ofIdOrdered(List<T> idOrdered, ToIntFunction<T> idOf, String token, int pageSize) {
+        checkPageSize(pageSize);
+        int start = 0;
+        if (token != null) {
+            int lastId = decodeIdToken(token);
+            int low = 0;
+            int high = idOrdered.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (idOf.applyAsInt(idOrdered.get(mid)) <= lastId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            start = low;
+        }
+        int end = Math.min(idOrdered.size(), start + pageSize);
+        List<T> items = new ArrayList<>(idOrdered.subList(start, end));
+        String next = end < idOrdered.size() && !items.isEmpty() ? encodeIdToken(idOf.applyAsInt(items.get(items.size() - 1))) : null;
+        return new Page<>(items, next);
+    }
+
+    /**
+     * Returns one page of a map of items keyed by ID, such as one status bucket of a project's applications.
+     * The start of the page is found with {@link NavigableMap#tailMap(Object, boolean)}, so each page costs O(log n + pageSize).
+     *
+     * @param byId     The items to page through, keyed by ID.
+     * @param token    The continuation token from the previous page, or {@code null} for the first page.
+     * @param pageSize The maximum number of items on the page.
+     * @param <T>      The type of the items.
+     * @return The requested {@link Page}.
+     * @throws IllegalArgumentException if the token is malformed or pageSize is not positive.
+     */
+    public static <T> Page<T> ofIdMap(NavigableMap<Integer, T> byId, String token, int pageSize) {
+        checkPageSize(pageSize);
+        NavigableMap<Integer, T> remaining = token == null ? byId : byId.tailMap(decodeIdToken(token), false);
+        List<T> items = new ArrayList<>(Math.min(pageSize, 64));
+        Integer lastId = null;
+        for (Map.Entry<Integer, T> entry : remaining.entrySet()) {
+            if (items.size() == pageSize) {
+                return new Page<>(items, encodeIdToken(lastId));
+            }
+            items.add(entry.getValue());
+            lastId = entry.getKey();
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Checks that a requested page size is usable.
+     *
+     * @param pageSize The requested page size.
+     * @throws IllegalArgumentException if pageSize is not positive.
+     */
+    static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+    }
+
+    /**
+     * Encodes the ID of the last item on a page as an opaque continuation token.
+     *
+     * @param lastId The ID of the last item returned.
+     * @return The continuation token.
+     */
+    static String encodeIdToken(int lastId) {
+        return encodeToken("id", Integer.toString(lastId));
+    }
+
+    /**
+     * Decodes a continuation token produced by {@link #encodeIdToken(int)}.
+     *
+     * @param token The continuation token.
+     * @return The ID of the last item on the previous page.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    static int decodeIdToken(String token) {
+        try {
+            return Integer.parseInt(decodeToken("id", token)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page token.");
+        }
+    }
+
+    /**
+     * Encodes a kind marker and a list of fields into an opaque, URL-safe token.
+     *
+     * @param kind   A marker naming the listing the token belongs to.
+     * @param fields The fields needed to resume the listing.
+     * @return The encoded token.
+     */
+    static String encodeToken(String kind, String... fields) {
+        StringBuilder raw = new StringBuilder(kind);
+        for (String field : fields) {
+            raw.append('\n').append(field);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encodeToken(String, String...)}.
+     *
+     * @param kind  The kind marker the token is expected to carry.
+     * @param token The encoded token.
+     * @return The fields stored in the token.
+     * @throws IllegalArgumentException if the token is malformed or belongs to a different listing.
+     */
+    static String[] decodeToken(String kind, String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token.");
+        }
+        String[] parts = raw.split("\n", -1);
+        if (parts.length < 2 || !parts[0].equals(kind)) {
+            throw new IllegalArgumentException("Invalid page token.");
+        }
+        return Arrays.copyOfRange(parts, 1, parts.length);
+    }
+}
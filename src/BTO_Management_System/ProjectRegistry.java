@@ -1,14 +1,72 @@
 package BTO_Management_System;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A registry class that holds and manages all BTO projects in the system.
  * It provides static methods to access, add, remove, find, filter, and sort projects.
+ * For every supported sort order the registry also maintains a pre-sorted skip-list index,
+ * so sorted listings can be streamed out in order without a sort step.
  */
 public class ProjectRegistry {
-    private static List<BTOProject> allProjects = new ArrayList<>();
+    private static List<BTOProject> allProjects = new CopyOnWriteArrayList<>();
+
+    /**
+     * The supported sort orders mapped to the key each one sorts by.
+     * The key for "FLAT_TYPE" is the first flat type offered, matching {@link #sortProjects(List, String)}.
+     */
+    private static final Map<String, Function<BTOProject, String>> SORT_KEYS = new LinkedHashMap<>();
+
+    static {
+        SORT_KEYS.put("ALPHABETICAL", BTOProject::getName);
+        SORT_KEYS.put("LOCATION", BTOProject::getNeighborhood);
+        SORT_KEYS.put("FLAT_TYPE", p -> p.getFlatTypes().isEmpty() ? "" : p.getFlatTypes().get(0).toString());
+    }
+
+    /**
+     * One concurrent sorted index per supported sort order.
+     */
+    private static final Map<String, ConcurrentSkipListMap<IndexKey, BTOProject>> sortedIndexes = new HashMap<>();
+
+    static {
+        for (String sortBy : SORT_KEYS.keySet()) {
+            sortedIndexes.put(sortBy, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * The keys each registered project is currently filed under, one per sort order.
+     * Projects are tracked by identity because their equality depends on mutable fields.
+     */
+    private static final Map<BTOProject, IndexKey[]> indexedKeys = new IdentityHashMap<>();
+
+    /**
+     * The enquiries of every project, keyed by enquiry ID, so all enquiries can be paged in ID order without
+     * visiting every project. Enquiries are added as they are submitted and dropped when they are deleted or
+     * their project is removed, as in the {@link EnquiryIndex}.
+     */
+    private static final ConcurrentSkipListMap<Integer, Enquiry> enquiriesById = new ConcurrentSkipListMap<>();
+
+    /**
+     * Source of insertion sequence numbers, used to keep equal sort keys in a stable order.
+     */
+    private static final AtomicLong insertionSequence = new AtomicLong();
+
+    /**
+     * The latency metrics of {@link #findProject(String)}.
+     */
+    private static final OperationMetrics FIND_PROJECT_METRICS = Metrics.operation("findProject");
+    /**
+     * The latency metrics of {@link #filterProjects(List, List, List)}.
+     */
+    private static final OperationMetrics FILTER_PROJECTS_METRICS = Metrics.operation("filterProjects");
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -28,21 +86,131 @@ public class ProjectRegistry {
     }
 
     /**
-     * Adds a new BTO project to the registry.
+     * Adds a new BTO project to the registry and tells the applicants whose saved searches it matches.
      *
      * @param project The {@link BTOProject} object to be added.
      */
     public static void addProject(BTOProject project) {
         allProjects.add(project);
+        indexProject(project, insertionSequence.incrementAndGet());
+        SavedSearchIndex.projectAvailable(project);
+    }
+
+    /**
+     * Adds many BTO projects to the registry at once. The backing list is copied on every write,
+     * so loading a large dataset through this method costs one copy instead of one per project.
+     * Applicants whose saved searches match a project are told about it, as with {@link #addProject(BTOProject)}.
+     *
+     * @param projects The {@link BTOProject} objects to be added.
+     */
+    public static void addProjects(List<BTOProject> projects) {
+        allProjects.addAll(projects);
+        for (BTOProject project : projects) {
+            indexProject(project, insertionSequence.incrementAndGet());
+            SavedSearchIndex.projectAvailable(project);
+        }
+    }
+
+    /**
+     * Removes every project from the registry and every enquiry from the enquiry listing, the {@link EnquiryIndex}
+     * and the {@link ReplyReuseCache}. Used by the benchmarks and load tests to rebuild their datasets.
+     */
+    static void clear() {
+        synchronized (indexedKeys) {
+            allProjects.clear();
+            indexedKeys.clear();
+            for (ConcurrentSkipListMap<IndexKey, BTOProject> index : sortedIndexes.values()) {
+                index.clear();
+            }
+        }
+        enquiriesById.clear();
+        EnquiryIndex.clear();
+        ReplyReuseCache.clear();
+    }
+
+    /**
+     * Adds a newly submitted enquiry to the listing of every enquiry. Called by {@link BTOProject#addEnquiry(Enquiry)}.
+     *
+     * @param enquiry The enquiry.
+     */
+    static void enquiryAdded(Enquiry enquiry) {
+        enquiriesById.put(enquiry.getEnquiryId(), enquiry);
+    }
+
+    /**
+     * Removes a deleted enquiry from the listing of every enquiry. Called by {@link BTOProject#deleteEnquiry(Enquiry)}.
+     *
+     * @param enquiry The enquiry.
+     */
+    static void enquiryRemoved(Enquiry enquiry) {
+        enquiriesById.remove(enquiry.getEnquiryId(), enquiry);
     }
 
     /**
-     * Removes a BTO project from the registry.
+     * Removes a BTO project from the registry, together with its enquiries in the {@link EnquiryIndex}.
      *
      * @param project The {@link BTOProject} object to be removed.
      */
     public static void removeProject(BTOProject project) {
         allProjects.remove(project);
+        for (Enquiry enquiry : project.getEnquiries()) {
+            enquiriesById.remove(enquiry.getEnquiryId(), enquiry);
+            EnquiryIndex.remove(enquiry);
+        }
+        ReplyReuseCache.forgetProject(project);
+        synchronized (indexedKeys) {
+            IndexKey[] keys = indexedKeys.remove(project);
+            if (keys != null) {
+                unindex(keys);
+            }
+        }
+    }
+
+    /**
+     * Refiles a registered project in the sorted indexes after one of its sort keys may have changed
+     * (its name, neighborhood or offered flat types). Projects that are not in the registry are ignored.
+     *
+     * @param project The {@link BTOProject} that was edited.
+     */
+    public static void reindexProject(BTOProject project) {
+        synchronized (indexedKeys) {
+            IndexKey[] keys = indexedKeys.get(project);
+            if (keys == null) {
+                return;
+            }
+            unindex(keys);
+            indexProject(project, keys[0].sequence);
+        }
+    }
+
+    /**
+     * Files a project in every sorted index under its current sort keys.
+     *
+     * @param project  The project to index.
+     * @param sequence The insertion sequence number of the project.
+     */
+    private static void indexProject(BTOProject project, long sequence) {
+        synchronized (indexedKeys) {
+            IndexKey[] keys = new IndexKey[SORT_KEYS.size()];
+            int i = 0;
+            for (Map.Entry<String, Function<BTOProject, String>> sortKey : SORT_KEYS.entrySet()) {
+                keys[i] = new IndexKey(sortKey.getKey(), sortKey.getValue().apply(project), sequence);
+                sortedIndexes.get(sortKey.getKey()).put(keys[i], project);
+                i++;
+            }
+            indexedKeys.put(project, keys);
+        }
+    }
+
+    /**
+     * Removes the given keys from their sorted indexes.
+     *
+     * @param keys The keys a project was filed under.
+     */
+    private static void unindex(IndexKey[] keys) {
+        for (IndexKey key : keys) {
+            sortedIndexes.get(key.sortBy).remove(key);
+        }
     }
 
     /**
@@ -52,6 +220,16 @@ public class ProjectRegistry {
      * @return The {@link BTOProject} object if found, otherwise {@code null}.
      */
     public static BTOProject findProject(String name) {
+        return FIND_PROJECT_METRICS.time(() -> searchProject(name));
+    }
+
+    /**
+     * Scans the registry for a project on behalf of {@link #findProject(String)}.
+     *
+     * @param name The name of the project to find.
+     * @return The matching project, or null if none is found.
+     */
+    private static BTOProject searchProject(String name) {
         for (BTOProject project : allProjects) {
             if (project.getName().equalsIgnoreCase(name)) {
                 return project;
@@ -74,12 +252,73 @@ public class ProjectRegistry {
      * @return A new {@link List} containing the BTO projects that match the filter criteria.
      */
     public static List<BTOProject> filterProjects(List<BTOProject> projects, List<String> locations, List<FlatType> flatTypes) {
+        return FILTER_PROJECTS_METRICS.time(() -> applyFilters(projects, locations, flatTypes));
+    }
+
+    /**
+     * Applies the filters on behalf of {@link #filterProjects(List, List, List)}.
+     *
+     * @param projects  The projects to filter.
+     * @param locations The neighborhood names to filter by, or an empty list for any.
+     * @param flatTypes The flat types to filter by, or an empty list for any.
+     * @return The matching projects.
+     */
+    private static List<BTOProject> applyFilters(List<BTOProject> projects, List<String> locations, List<FlatType> flatTypes) {
+        BitSet locationCodes = locationFilter(locations);
         return projects.stream()
-                .filter(p -> locations.isEmpty() || locations.contains(p.getNeighborhood()))
-                .filter(p -> flatTypes.isEmpty() || p.getFlatTypes().stream().anyMatch(flatTypes::contains))
+                .filter(p -> matchesFilters(p, locationCodes, flatTypes))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Checks whether a project passes the location and flat type filters used by {@link #filterProjects(List, List, List)}.
+     * Locations match regardless of case and spacing. To test many projects against the same locations,
+     * compile them once with {@link #locationFilter(List)}.
+     *
+     * @param project   The {@link BTOProject} to check.
+     * @param locations The neighborhood names to filter by. An empty list matches every location.
+     * @param flatTypes The {@link FlatType}s to filter by. An empty list matches every project.
+     * @return {@code true} if the project matches both filters, {@code false} otherwise.
+     */
+    public static boolean matchesFilters(BTOProject project, List<String> locations, List<FlatType> flatTypes) {
+        return matchesFilters(project, locationFilter(locations), flatTypes);
+    }
+
+    /**
+     * Checks whether a project passes a compiled location filter and a flat type filter.
+     *
+     * @param project       The {@link BTOProject} to check.
+     * @param locationCodes The neighborhood codes to filter by, from {@link #locationFilter(List)}, or null for any location.
+     * @param flatTypes     The {@link FlatType}s to filter by. An empty list matches every project.
+     * @return {@code true} if the project matches both filters, {@code false} otherwise.
+     */
+    public static boolean matchesFilters(BTOProject project, BitSet locationCodes, List<FlatType> flatTypes) {
+        if (locationCodes != null && !locationCodes.get(project.getNeighborhoodCode())) {
+            return false;
+        }
+        if (flatTypes.isEmpty()) {
+            return true;
+        }
+        UnitInventory inventory = project.getInventory();
+        for (FlatType flatType : flatTypes) {
+            if (inventory.isOffered(flatType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compiles neighborhood names into the set of their {@link NeighborhoodDictionary} codes, so a project's
+     * location is checked with one bit test. Names no project has used match nothing.
+     *
+     * @param locations The neighborhood names to filter by. An empty list means no filtering by location.
+     * @return The set of codes, or null if the list is empty.
+     */
+    public static BitSet locationFilter(List<String> locations) {
+        return locations.isEmpty() ? null : NeighborhoodDictionary.codesOf(locations);
+    }
+
     // --- Sorting Methods (Static) ---
 
     /**
@@ -102,4 +341,132 @@ public class ProjectRegistry {
         }
         return projects;
     }
+
+    /**
+     * Streams every registered project in the requested order, read straight from the pre-sorted index.
+     * An invalid or null sortBy criteria falls back to alphabetical order.
+     *
+     * @param sortBy The sorting criteria as a string ("ALPHABETICAL", "LOCATION", "FLAT_TYPE").
+     * @return An ordered {@link Stream} of the registered BTO projects.
+     */
+    public static Stream<BTOProject> streamSortedProjects(String sortBy) {
+        return sortedIndex(sortBy).values().stream();
+    }
+
+    /**
+     * Lists the registered projects that match the given filters, in the requested order.
+     * This is equivalent to {@link #filterProjects(List, List, List)} followed by {@link #sortProjects(List, String)}
+     * over {@link #getAllProjects()}, but reads the pre-sorted index so no sort step is needed.
+     *
+     * @param sortBy    The sorting criteria as a string ("ALPHABETICAL", "LOCATION", "FLAT_TYPE").
+     * @param locations The neighborhood names to filter by. An empty list means no filtering by location.
+     * @param flatTypes The {@link FlatType}s to filter by. An empty list means no filtering by flat type.
+     * @return A new {@link List} of the matching BTO projects in sorted order.
+     */
+    public static List<BTOProject> listProjects(String sortBy, List<String> locations, List<FlatType> flatTypes) {
+        BitSet locationCodes = locationFilter(locations);
+        return streamSortedProjects(sortBy)
+                .filter(p -> matchesFilters(p, locationCodes, flatTypes))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns one page of the registered projects that match a filter, in the requested order.
+     * The continuation token records the sort key of the last project returned, so paging resumes
+     * directly from that position in the pre-sorted index and stays stable while projects are added or removed.
+     *
+     * @param sortBy   The sorting criteria as a string ("ALPHABETICAL", "LOCATION", "FLAT_TYPE").
+     * @param filter   A predicate selecting the projects to list.
+     * @param token    The continuation token from the previous page, or {@code null} for the first page.
+     * @param pageSize The maximum number of projects on the page.
+     * @return The requested {@link Page} of projects.
+     * @throws IllegalArgumentException if the token is malformed or pageSize is not positive.
+     */
+    public static Page<BTOProject> getProjectsPage(String sortBy, Predicate<BTOProject> filter, String token, int pageSize) {
+        Page.checkPageSize(pageSize);
+        ConcurrentSkipListMap<IndexKey, BTOProject> index = sortedIndex(sortBy);
+        NavigableMap<IndexKey, BTOProject> remaining = index;
+        if (token != null) {
+            String[] fields = Page.decodeToken("projects", token);
+            try {
+                remaining = index.tailMap(new IndexKey(fields[0], fields[2], Long.parseLong(fields[1])), false);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid page token.");
+            }
+        }
+        List<BTOProject> items = new ArrayList<>(pageSize);
+        IndexKey lastKey = null;
+        for (Map.Entry<IndexKey, BTOProject> entry : remaining.entrySet()) {
+            if (!filter.test(entry.getValue())) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                return new Page<>(items, Page.encodeToken("projects", lastKey.sortBy, Long.toString(lastKey.sequence), lastKey.value));
+            }
+            items.add(entry.getValue());
+            lastKey = entry.getKey();
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Returns one page of the enquiries of every registered project, ordered by enquiry ID.
+     * The page is read from one index of every enquiry keyed by ID, so it costs O(log n + pageSize)
+     * however many projects there are.
+     *
+     * @param token    The continuation token from the previous page, or {@code null} for the first page.
+     * @param pageSize The maximum number of enquiries on the page.
+     * @return The requested {@link Page} of enquiries.
+     * @throws IllegalArgumentException if the token is malformed or pageSize is not positive.
+     */
+    public static Page<Enquiry> getEnquiriesPage(String token, int pageSize) {
+        return Page.ofIdMap(enquiriesById, token, pageSize);
+    }
+
+    /**
+     * Returns the sorted index for a sort order, defaulting to the alphabetical index.
+     *
+     * @param sortBy The sorting criteria as a string.
+     * @return The matching sorted index.
+     */
+    static ConcurrentSkipListMap<IndexKey, BTOProject> sortedIndex(String sortBy) {
+        String key = sortBy == null ? "ALPHABETICAL" : sortBy.toUpperCase();
+        ConcurrentSkipListMap<IndexKey, BTOProject> index = sortedIndexes.get(key);
+        return index != null ? index : sortedIndexes.get("ALPHABETICAL");
+    }
+
+    /**
+     * A key in one of the sorted indexes. Keys order by the sort value first and then by
+     * insertion sequence, so projects with equal sort values keep a stable order.
+     */
+    static final class IndexKey implements Comparable<IndexKey> {
+        private final String sortBy;
+        private final String value;
+        private final long sequence;
+
+        /**
+         * Constructs a new index key.
+         *
+         * @param sortBy   The sort order this key belongs to.
+         * @param value    The sort value of the project, or {@code null} if it has none.
+         * @param sequence The insertion sequence number of the project.
+         */
+        IndexKey(String sortBy, String value, long sequence) {
+            this.sortBy = sortBy;
+            this.value = value == null ? "" : value;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Compares this key with another key by sort value and then by insertion sequence.
+         *
+         * @param other The key to compare with.
+         * @return A negative, zero or positive value as this key sorts before, equal to or after the other key.
+         */
+        @Override
+        public int compareTo(IndexKey other) {
+            int byValue = value.compareTo(other.value);
+            return byValue != 0 ? byValue : Long.compare(sequence, other.sequence);
+        }
+    }
 }
\ No newline at end of file
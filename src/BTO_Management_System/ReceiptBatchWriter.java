@@ -0,0 +1,343 @@
+package BTO_Management_System;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Writes the receipts of every booked application of a set of projects to files, one file per project,
+ * for example after a launch when every buyer needs a receipt.
+ * <p>
+ * Receipts are rendered from a {@link Template} that is parsed once into literal byte segments and fields, so
+ * rendering a receipt is only copying bytes. Each project is rendered by one task of a fixed worker pool into
+ * its own direct buffer of {@value #BUFFER_SIZE} bytes, which is written to the project's file with a
+ * {@link FileChannel} whenever it fills up.
+ */
+public class ReceiptBatchWriter {
+    /**
+     * The receipt printed by {@link HDBOfficer#generateReceipt(Application)}.
+     */
+    public static final Template DEFAULT_TEMPLATE = Template.compile(
+            "--Receipt for HDB house booking--\n"
+                    + "Application ID: {applicationId}\n"
+                    + "Name: {name}\n"
+                    + "NRIC: {nric}\n"
+                    + "Age: {age}\n"
+                    + "Marital Status: {maritalStatus}\n"
+                    + "Project involved: {project}\n"
+                    + "Region: {neighborhood}\n"
+                    + "FlatType: {flatType}\n"
+                    + "---------------------------------\n");
+    /**
+     * The size of each task's write buffer, in bytes.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * The latency metrics of writing a batch of receipts.
+     */
+    private static final OperationMetrics BATCH_METRICS = Metrics.operation("receipt batch");
+
+    /**
+     * The directory the receipt files are written to.
+     */
+    private final Path directory;
+    /**
+     * The template the receipts are rendered from.
+     */
+    private final Template template;
+    /**
+     * The number of projects written at the same time.
+     */
+    private final int workers;
+
+    /**
+     * Constructs a writer using the {@link #DEFAULT_TEMPLATE}.
+     *
+     * @param directory The directory to write the receipt files to. It is created if it does not exist.
+     * @param workers   The number of projects to write at the same time.
+     */
+    public ReceiptBatchWriter(Path directory, int workers) {
+        this(directory, DEFAULT_TEMPLATE, workers);
+    }
+
+    /**
+     * Constructs a writer.
+     *
+     * @param directory The directory to write the receipt files to. It is created if it does not exist.
+     * @param template  The template to render the receipts from.
+     * @param workers   The number of projects to write at the same time.
+     * @throws IllegalArgumentException If workers is not positive.
+     */
+    public ReceiptBatchWriter(Path directory, Template template, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("At least one worker is needed.");
+        }
+        this.directory = directory;
+        this.template = template;
+        this.workers = workers;
+    }
+
+    /**
+     * Returns the file the receipts of a project are written to: the project name with every character other
+     * than a letter, digit or hyphen written as an underscore, its code point in hexadecimal and another
+     * underscore, followed by {@code -receipts.txt}. For example, {@code "Acacia Breeze"} is written to
+     * {@code Acacia_20_Breeze-receipts.txt}. Since an underscore always starts an escape, different names
+     * never share a file.
+     *
+     * @param project The project.
+     * @return The path of the file in the writer's directory.
+     */
+    public Path fileFor(BTOProject project) {
+        String name = project.getName();
+        StringBuilder file = new StringBuilder(name.length() + 16);
+        for (int i = 0; i < name.length(); i += Character.charCount(name.codePointAt(i))) {
+            int c = name.codePointAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-') {
+                file.append((char) c);
+            } else {
+                file.append('_').append(Integer.toHexString(c)).append('_');
+            }
+        }
+        return directory.resolve(file.append("-receipts.txt").toString());
+    }
+
+    /**
+     * Writes the receipts of every booked application of the given projects, replacing any earlier receipt
+     * files of the same projects. Projects without booked applications get no file.
+     *
+     * @param projects The projects.
+     * @return The result, holding the number of receipts written per project name on success,
+     * {@link ResultCode#INVALID_INPUT} if two of the projects would share a file, or
+     * {@link ResultCode#IO_ERROR} if a file cannot be written.
+     */
+    public OperationResult<Map<String, Integer>> writeAll(Collection<BTOProject> projects) {
+        return BATCH_METRICS.time(() -> {
+            Map<String, BTOProject> claimed = new HashMap<>();
+            for (BTOProject project : projects) {
+                // Compared ignoring case, as on case-insensitive file systems
+                BTOProject other = claimed.putIfAbsent(fileFor(project).toString().toLowerCase(Locale.ROOT), project);
+                if (other != null) {
+                    return OperationResult.failure(ResultCode.INVALID_INPUT, "Projects \"" + other.getName() + "\" and \""
+                            + project.getName() + "\" would both be written to " + fileFor(project) + ".");
+                }
+            }
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                return OperationResult.failure(ResultCode.IO_ERROR, "Cannot create " + directory + ": " + e.getMessage());
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(workers);
+            try {
+                Map<String, Future<Integer>> tasks = new LinkedHashMap<>();
+                for (BTOProject project : projects) {
+                    tasks.put(project.getName(), pool.submit(() -> write(project)));
+                }
+                Map<String, Integer> written = new LinkedHashMap<>();
+                int total = 0;
+                for (Map.Entry<String, Future<Integer>> task : tasks.entrySet()) {
+                    int count = task.getValue().get();
+                    written.put(task.getKey(), count);
+                    total += count;
+                }
+                return OperationResult.success(written, total + " receipt(s) written to " + directory + ".");
+            } catch (ExecutionException e) {
+                return OperationResult.failure(ResultCode.IO_ERROR, "Cannot write receipts: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return OperationResult.failure(ResultCode.IO_ERROR, "Writing receipts was interrupted.");
+            } finally {
+                pool.shutdownNow();
+            }
+        });
+    }
+
+    /**
+     * Writes the receipts of one project's booked applications to its file.
+     *
+     * @param project The project.
+     * @return The number of receipts written.
+     * @throws IOException If the file cannot be written.
+     */
+    private int write(BTOProject project) throws IOException {
+        Collection<Application> booked = project.getApplicationsWithStatus(ApplicationStatus.BOOKED);
+        if (booked.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(fileFor(project), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            for (Application application : booked) {
+                template.render(application, out);
+                count++;
+            }
+            out.flush();
+        }
+        return count;
+    }
+
+    /**
+     * A receipt template, parsed once into literal text and fields. A field is written as its name in braces:
+     * {@code {applicationId}}, {@code {name}}, {@code {nric}}, {@code {age}}, {@code {maritalStatus}},
+     * {@code {project}}, {@code {neighborhood}} or {@code {flatType}}.
+     */
+    public static final class Template {
+        /**
+         * The values of the fields a template may use, by field name.
+         */
+        private static final Map<String, Function<Application, String>> FIELDS = new LinkedHashMap<>();
+
+        static {
+            FIELDS.put("applicationId", application -> String.valueOf(application.getApplicationId()));
+            FIELDS.put("name", application -> application.getApplicant().getName());
+            FIELDS.put("nric", application -> application.getApplicant().getNRIC());
+            FIELDS.put("age", application -> String.valueOf(application.getApplicant().getAge()));
+            FIELDS.put("maritalStatus", application -> String.valueOf(application.getApplicant().getMaritalStatus()));
+            FIELDS.put("project", application -> application.getProjectApplied().getName());
+            FIELDS.put("neighborhood", application -> application.getProjectApplied().getNeighborhood());
+            FIELDS.put("flatType", application -> String.valueOf(application.getAppliedFlatType()));
+        }
+
+        /**
+         * The literal text around the fields, encoded in UTF-8. There is one more literal than there are fields.
+         */
+        private final byte[][] literals;
+        /**
+         * The fields, in order.
+         */
+        private final List<Function<Application, String>> fields;
+
+        /**
+         * Constructs a parsed template.
+         *
+         * @param literals The literal text around the fields.
+         * @param fields   The fields, in order.
+         */
+        private Template(byte[][] literals, List<Function<Application, String>> fields) {
+            this.literals = literals;
+            this.fields = fields;
+        }
+
+        /**
+         * Parses a template.
+         *
+         * @param text The template text.
+         * @return The parsed template.
+         * @throws IllegalArgumentException If the text names an unknown field or has an unclosed brace.
+         */
+        public static Template compile(String text) {
+            List<byte[]> literals = new ArrayList<>();
+            List<Function<Application, String>> fields = new ArrayList<>();
+            int start = 0;
+            int open;
+            while ((open = text.indexOf('{', start)) >= 0) {
+                int close = text.indexOf('}', open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed field at position " + open + ".");
+                }
+                Function<Application, String> field = FIELDS.get(text.substring(open + 1, close));
+                if (field == null) {
+                    throw new IllegalArgumentException("Unknown field " + text.substring(open, close + 1) + ". Known fields: " + FIELDS.keySet());
+                }
+                literals.add(text.substring(start, open).getBytes(StandardCharsets.UTF_8));
+                fields.add(field);
+                start = close + 1;
+            }
+            literals.add(text.substring(start).getBytes(StandardCharsets.UTF_8));
+            return new Template(literals.toArray(new byte[0][]), fields);
+        }
+
+        /**
+         * Renders the receipt of one application as text.
+         *
+         * @param application The application.
+         * @return The receipt.
+         */
+        public String render(Application application) {
+            StringBuilder receipt = new StringBuilder();
+            for (int i = 0; i < fields.size(); i++) {
+                receipt.append(new String(literals[i], StandardCharsets.UTF_8)).append(fields.get(i).apply(application));
+            }
+            return receipt.append(new String(literals[fields.size()], StandardCharsets.UTF_8)).toString();
+        }
+
+        /**
+         * Renders the receipt of one application into a file's write buffer.
+         *
+         * @param application The application.
+         * @param out         The buffer.
+         * @throws IOException If the buffer fills up and cannot be written.
+         */
+        void render(Application application, Output out) throws IOException {
+            for (int i = 0; i < fields.size(); i++) {
+                out.put(literals[i]);
+                out.put(fields.get(i).apply(application).getBytes(StandardCharsets.UTF_8));
+            }
+            out.put(literals[fields.size()]);
+        }
+    }
+
+    /**
+     * A direct buffer in front of one file, written whenever it fills up.
+     */
+    static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        /**
+         * Constructs a buffer for a file.
+         *
+         * @param channel The file.
+         */
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Adds bytes to the buffer, writing it out as often as it fills up.
+         *
+         * @param bytes The bytes.
+         * @throws IOException If the file cannot be written.
+         */
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        /**
+         * Writes out whatever is in the buffer.
+         *
+         * @throws IOException If the file cannot be written.
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package BTO_Management_System;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Represents an application submitted by an {@link HDBOfficer} to register
  * for handling a specific {@link BTOProject}. This record tracks the officer,
  * the project of interest, and the current status of the registration.
  */
 public class RegistrationApplication {
-    private static int counter = 1;
+    private static final AtomicInteger counter = new AtomicInteger(1);
     private int registerId;
     private final HDBOfficer officer;
     private BTOProject projectApplied;
@@ -21,7 +23,7 @@ public class RegistrationApplication {
      * @param applicationStatus The initial {@link RegisterStatus} of the application (e.g., Pending).
      */
     public RegistrationApplication(HDBOfficer officer, BTOProject projectApplied, RegisterStatus applicationStatus){
-        this.registerId = counter++;
+        this.registerId = counter.getAndIncrement();
         this.officer = officer;
         this.projectApplied = projectApplied;
         this.registerStatusStatus = applicationStatus;
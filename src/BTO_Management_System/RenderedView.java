@@ -0,0 +1,73 @@
+package BTO_Management_System;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The rendered text of an entity, tagged with the modification stamp the entity had when it was rendered.
+ * An entity keeps its last view in a volatile field and hands out the same string for as long as its stamp
+ * is unchanged, so listing the same projects or enquiries again does not rebuild their text.
+ * <p>
+ * A stamp only ever grows, and an entity bumps it after changing what its text shows. The stamp is read before
+ * rendering, so a change that races with a render leaves a view whose stamp is already stale, and the next
+ * read renders again instead of keeping the stale text.
+ */
+final class RenderedView {
+    /**
+     * The number of reads that reused a rendered view.
+     */
+    private static final LongAdder hits = new LongAdder();
+    /**
+     * The number of reads that had to render.
+     */
+    private static final LongAdder misses = new LongAdder();
+
+    static {
+        Metrics.gauge("render cache hits", hits::sum);
+        Metrics.gauge("render cache misses", misses::sum);
+    }
+
+    /**
+     * The modification stamp of the entity when the text was rendered.
+     */
+    private final long stamp;
+    /**
+     * The rendered text.
+     */
+    private final String text;
+
+    /**
+     * Constructs a view.
+     *
+     * @param stamp The modification stamp of the entity, read before rendering.
+     * @param text  The rendered text.
+     */
+    RenderedView(long stamp, String text) {
+        this.stamp = stamp;
+        this.text = text;
+    }
+
+    /**
+     * Checks whether a view can be reused, counting the read as a hit or a miss.
+     *
+     * @param view  The last view of the entity, or null if it was never rendered.
+     * @param stamp The current modification stamp of the entity.
+     * @return true if the view was rendered at the current stamp.
+     */
+    static boolean isCurrent(RenderedView view, long stamp) {
+        if (view != null && view.stamp == stamp) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Returns the rendered text.
+     *
+     * @return The text.
+     */
+    String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,429 @@
+package BTO_Management_System;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Mirrors the projects, applications and enquiries of a {@link ReplicationLeader} into this JVM, so that a
+ * {@link ShardServer} started in read-only mode can answer catalogue and report queries from them.
+ * <p>
+ * The follower reads the leader's records on its own thread and applies each one under the write lock it
+ * shares with the shard server, so queries always see whole records. Projects go into the
+ * {@link ProjectRegistry} as ordinary {@link BTOProject}s; their managers and applicants become replica users
+ * known only to this follower. If the connection fails the follower reconnects and starts again from a
+ * fresh snapshot.
+ * <p>
+ * Replication lag is published as metrics: the {@code replication lag} operation records how long each
+ * record took from the leader to being applied here, and the {@code replication lag events} gauge is how many
+ * events the leader has published that this follower has not applied yet.
+ */
+public class ReplicationFollower {
+    /**
+     * How long to wait before reconnecting to the leader, in milliseconds.
+     */
+    private static final int RECONNECT_MILLIS = 1000;
+    /**
+     * The time from a record being built on the leader to it being applied here.
+     */
+    private static final OperationMetrics LAG_METRICS = Metrics.operation("replication lag");
+
+    /**
+     * The address of the leader.
+     */
+    private final InetSocketAddress leaderAddress;
+    /**
+     * Held for writing while a record is applied, and by the shard server for reading while a query runs.
+     */
+    private final ReadWriteLock domainLock;
+    /**
+     * The replica users, by NRIC.
+     */
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    /**
+     * The replicated applications, by ID.
+     */
+    private final Map<Integer, Application> applications = new HashMap<>();
+    /**
+     * The version of each replicated application, by ID, so that a record older than the state held is ignored.
+     */
+    private final Map<Integer, Integer> versions = new HashMap<>();
+    /**
+     * The sequence number of the last event whose records were applied, or -1 if none.
+     */
+    private volatile long appliedSequence = -1;
+    /**
+     * The sequence number of the last event the leader had published, as of its last heartbeat.
+     */
+    private volatile long leaderSequence = -1;
+    /**
+     * Whether the follower should keep following.
+     */
+    private volatile boolean running;
+    /**
+     * The current connection to the leader, or null if there is none.
+     */
+    private volatile Socket socket;
+
+    /**
+     * Constructs a follower. Call {@link #start()} to start following.
+     *
+     * @param leaderAddress The address the leader accepts followers on.
+     * @param domainLock    The lock shared with the shard server answering queries.
+     */
+    public ReplicationFollower(InetSocketAddress leaderAddress, ReadWriteLock domainLock) {
+        this.leaderAddress = leaderAddress;
+        this.domainLock = domainLock;
+    }
+
+    /**
+     * Starts following the leader on a daemon thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Metrics.gauge("replication applied sequence", () -> appliedSequence);
+        Metrics.gauge("replication lag events", this::getLagEvents);
+        Thread follower = new Thread(this::follow, "replication-follower");
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    /**
+     * Stops following the leader. The replicated state stays as it is.
+     */
+    public synchronized void stop() {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last leader event whose records were applied.
+     *
+     * @return The sequence number, or -1 if nothing has been applied.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Returns how many events the leader had published, as of its last heartbeat, that are not applied here yet.
+     *
+     * @return The number of events.
+     */
+    public long getLagEvents() {
+        return Math.max(0, leaderSequence - appliedSequence);
+    }
+
+    /**
+     * Finds a replica user by NRIC.
+     *
+     * @param nric The NRIC, in upper case.
+     * @return The user, or null if no replicated project, application or enquiry involves them.
+     */
+    public User findUser(String nric) {
+        return users.get(nric);
+    }
+
+    /**
+     * Connects to the leader and applies its records until stopped, reconnecting whenever the connection fails.
+     */
+    private void follow() {
+        while (running) {
+            try (Socket connection = new Socket(leaderAddress.getAddress(), leaderAddress.getPort());
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), ShardServer.BUFFER_SIZE))) {
+                socket = connection;
+                while (running) {
+                    apply(in);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Error: Lost the replication leader at " + leaderAddress + ": " + e.getMessage());
+                }
+            } finally {
+                socket = null;
+            }
+            if (running) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads one record and applies it.
+     *
+     * @param in The stream from the leader.
+     * @throws IOException If the record cannot be read.
+     */
+    private void apply(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        long sequence = in.readLong();
+        long leaderTime = in.readLong();
+        if (kind == ReplicationLeader.HEARTBEAT) {
+            leaderSequence = in.readLong();
+            appliedSequence = Math.max(appliedSequence, sequence);
+            return;
+        }
+        Lock writeLock = domainLock.writeLock();
+        writeLock.lock();
+        try {
+            switch (kind) {
+                case ReplicationLeader.SNAPSHOT_BEGIN:
+                    ProjectRegistry.clear();
+                    applications.clear();
+                    versions.clear();
+                    users.clear();
+                    appliedSequence = -1;
+                    break;
+                case ReplicationLeader.SNAPSHOT_END:
+                    System.out.println("Replicated a snapshot of " + ProjectRegistry.getAllProjects().size() + " project(s) as of event " + sequence + ".");
+                    break;
+                case ReplicationLeader.PROJECT:
+                    applyProject(in);
+                    break;
+                case ReplicationLeader.PROJECT_REMOVED:
+                    removeProject(in.readUTF());
+                    break;
+                case ReplicationLeader.APPLICATION:
+                    applyApplication(in);
+                    break;
+                case ReplicationLeader.APPLICATION_REMOVED:
+                    in.readUTF();
+                    int applicationId = in.readInt();
+                    versions.remove(applicationId);
+                    removeApplication(applications.remove(applicationId));
+                    break;
+                case ReplicationLeader.ENQUIRY:
+                    applyEnquiry(in);
+                    break;
+                case ReplicationLeader.ENQUIRY_REMOVED:
+                    BTOProject project = ProjectRegistry.findProject(in.readUTF());
+                    Enquiry enquiry = project == null ? null : project.getEnquiry(in.readInt());
+                    if (enquiry != null) {
+                        project.deleteEnquiry(enquiry);
+                    }
+                    break;
+                default:
+                    throw new IOException("Unknown record kind " + kind + ".");
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        appliedSequence = Math.max(appliedSequence, sequence);
+        LAG_METRICS.recordNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - leaderTime)));
+    }
+
+    /**
+     * Applies a {@link ReplicationLeader#PROJECT} record, creating the project or updating the one held.
+     *
+     * @param in The stream from the leader.
+     * @throws IOException If the record cannot be read.
+     */
+    private void applyProject(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        String neighborhood = in.readUTF();
+        boolean visible = in.readBoolean();
+        Date openDate = readDate(in);
+        Date closeDate = readDate(in);
+        int maxOfficers = in.readInt();
+        User manager = readUser(in);
+        int flatTypeCount = in.readInt();
+        Map<FlatType, Integer> remainingUnits = new EnumMap<>(FlatType.class);
+        for (int i = 0; i < flatTypeCount; i++) {
+            FlatType flatType = FlatType.valueOf(in.readUTF());
+            remainingUnits.put(flatType, in.readInt());
+        }
+        BTOProject project = ProjectRegistry.findProject(name);
+        if (project == null) {
+            project = new BTOProject(name, neighborhood, remainingUnits, openDate, closeDate, (HDBManager) manager, maxOfficers);
+            project.setVisibility(visible);
+            ProjectRegistry.addProject(project);
+            return;
+        }
+        if (!project.getNeighborhood().equals(neighborhood)) {
+            project.setNeighborhood(neighborhood);
+        }
+        if (!project.getRemainingUnits().equals(remainingUnits)) {
+            project.setRemainingUnits(remainingUnits);
+        }
+        if (project.isVisible() != visible) {
+            project.setVisibility(visible);
+        }
+        project.setApplicationOpenDate(openDate);
+        project.setApplicationCloseDate(closeDate);
+        if (project.getMaxOfficers() != maxOfficers) {
+            project.setMaxOfficers(maxOfficers);
+        }
+    }
+
+    /**
+     * Removes a project, together with its applications.
+     *
+     * @param name The name of the project.
+     */
+    private void removeProject(String name) {
+        BTOProject project = ProjectRegistry.findProject(name);
+        if (project == null) {
+            return;
+        }
+        ProjectRegistry.removeProject(project);
+        Iterator<Application> iterator = applications.values().iterator();
+        while (iterator.hasNext()) {
+            Application application = iterator.next();
+            if (application.getProjectApplied() == project) {
+                iterator.remove();
+                versions.remove(application.getApplicationId());
+                removeApplication(application);
+            }
+        }
+    }
+
+    /**
+     * Applies an {@link ReplicationLeader#APPLICATION} record, creating the application or updating the one held.
+     * A record older than the version held is ignored; it comes from an event the snapshot had already overtaken.
+     *
+     * @param in The stream from the leader.
+     * @throws IOException If the record cannot be read.
+     */
+    private void applyApplication(DataInputStream in) throws IOException {
+        BTOProject project = ProjectRegistry.findProject(in.readUTF());
+        int applicationId = in.readInt();
+        Applicant applicant = (Applicant) readUser(in);
+        FlatType flatType = FlatType.valueOf(in.readUTF());
+        ApplicationStatus status = ApplicationStatus.valueOf(in.readUTF());
+        boolean withdrawalRequested = in.readBoolean();
+        boolean withdrawalApproved = in.readBoolean();
+        int version = in.readInt();
+        Integer held = versions.get(applicationId);
+        if (project == null || (held != null && version < held)) {
+            return;
+        }
+        versions.put(applicationId, version);
+        Application application = applications.get(applicationId);
+        if (application == null) {
+            application = new Application(applicant, project, status, flatType);
+            application.setApplicationId(applicationId);
+            project.addApplication(application);
+            applications.put(applicationId, application);
+        } else {
+            application.setAppliedFlatType(flatType);
+            application.setApplicationStatus(status);
+        }
+        application.setWithdrawalRequested(withdrawalRequested);
+        application.setWithdrawalApproved(withdrawalApproved);
+        applicant.application = application;
+    }
+
+    /**
+     * Takes an application off its project and its applicant.
+     *
+     * @param application The application, or null to do nothing.
+     */
+    private static void removeApplication(Application application) {
+        if (application == null) {
+            return;
+        }
+        application.getProjectApplied().removeApplication(application);
+        if (application.getApplicant().application == application) {
+            application.getApplicant().application = null;
+        }
+    }
+
+    /**
+     * Applies an {@link ReplicationLeader#ENQUIRY} record, creating the enquiry or updating the one held.
+     *
+     * @param in The stream from the leader.
+     * @throws IOException If the record cannot be read.
+     */
+    private void applyEnquiry(DataInputStream in) throws IOException {
+        BTOProject project = ProjectRegistry.findProject(in.readUTF());
+        int enquiryId = in.readInt();
+        Applicant applicant = (Applicant) readUser(in);
+        String text = in.readUTF();
+        String reply = in.readBoolean() ? in.readUTF() : null;
+        if (project == null) {
+            return;
+        }
+        Enquiry enquiry = project.getEnquiry(enquiryId);
+        if (enquiry == null) {
+            enquiry = new Enquiry(enquiryId, applicant, project, text);
+            project.addEnquiry(enquiry);
+        } else if (!enquiry.getEnquiryText().equals(text)) {
+            enquiry.updateEnquiry(text);
+        }
+        if (reply != null && !reply.equals(enquiry.getReplyText())) {
+            enquiry.setReplyText(reply);
+        }
+    }
+
+    /**
+     * Reads a user and returns the replica user with that NRIC, creating one for the user's role if there is none.
+     *
+     * @param in The stream from the leader.
+     * @return The replica user.
+     * @throws IOException If the user cannot be read or has an unknown role.
+     */
+    private User readUser(DataInputStream in) throws IOException {
+        String nric = in.readUTF();
+        String role = in.readUTF();
+        String name = in.readUTF();
+        int age = in.readInt();
+        MaritalStatus maritalStatus = MaritalStatus.valueOf(in.readUTF());
+        User user = users.get(nric);
+        if (user != null) {
+            return user;
+        }
+        switch (role) {
+            case "Applicant":
+                user = new Applicant(name, nric, age, maritalStatus);
+                break;
+            case "Officer":
+                user = new HDBOfficer(name, nric, age, maritalStatus);
+                break;
+            case "Manager":
+                user = new HDBManager(name, nric, age, maritalStatus);
+                break;
+            default:
+                throw new IOException("Unknown role " + role + ".");
+        }
+        users.put(nric, user);
+        return user;
+    }
+
+    /**
+     * Reads a date written as its day, month and year.
+     *
+     * @param in The stream from the leader.
+     * @return The date.
+     * @throws IOException If the date cannot be read.
+     */
+    private static Date readDate(DataInputStream in) throws IOException {
+        int day = in.readInt();
+        int month = in.readInt();
+        return new Date(day, month, in.readInt());
+    }
+}
@@ -0,0 +1,585 @@
+package BTO_Management_System;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the state changes of this JVM to {@link ReplicationFollower}s over loopback sockets, so that
+ * read-only catalogue and report queries can be served by follower JVMs instead of the one taking the writes.
+ * <p>
+ * The leader subscribes to the {@link DomainEventBus}. For every event it sends the state of the project,
+ * application or enquiry the event is about as an upsert record, or a removal record if the entity is gone,
+ * so a follower only ever has to overwrite what it holds. Application records are built from the event
+ * itself, which carries the application's status, flat type and withdrawal request as they were when it
+ * was published, so a follower applying the record of an event sees the application as that event left it.
+ * Project and enquiry records are read from their current state.
+ * <p>
+ * A follower that connects first receives a snapshot of every project, application and enquiry, and then the
+ * records of every later event. A snapshot is read from the current state, which may already include changes
+ * whose events are still on the bus, so every application record carries the application's
+ * {@link DomainEvent#getVersion() version} and a follower ignores a record older than the one it holds.
+ * <p>
+ * Every record is a kind byte, the bus sequence number of the event it was built for, the time the leader
+ * built it in milliseconds since the epoch, and the kind's payload, all written with {@link DataOutputStream}.
+ * When a follower has nothing to receive, a {@link #HEARTBEAT} carrying the last handled and last published
+ * sequence numbers is sent every {@value #HEARTBEAT_MILLIS} ms so the follower can tell how far behind it is.
+ * <p>
+ * Each follower has a bounded queue drained by its own sender thread. A follower whose queue fills up is
+ * disconnected instead of holding up the bus; it reconnects and starts again from a fresh snapshot.
+ */
+public class ReplicationLeader implements DomainEventHandler {
+    /**
+     * The system property naming the port to accept followers on. Replication is off if it is not set.
+     */
+    public static final String PORT_PROPERTY = "bto.replication.port";
+    /**
+     * The record kind of a project's state.
+     */
+    static final byte PROJECT = 1;
+    /**
+     * The record kind of a project that no longer exists.
+     */
+    static final byte PROJECT_REMOVED = 2;
+    /**
+     * The record kind of an application's state.
+     */
+    static final byte APPLICATION = 3;
+    /**
+     * The record kind of an application that no longer exists.
+     */
+    static final byte APPLICATION_REMOVED = 4;
+    /**
+     * The record kind of an enquiry's state.
+     */
+    static final byte ENQUIRY = 5;
+    /**
+     * The record kind of an enquiry that no longer exists.
+     */
+    static final byte ENQUIRY_REMOVED = 6;
+    /**
+     * The record kind of a heartbeat, carrying the last handled and last published sequence numbers.
+     */
+    static final byte HEARTBEAT = 7;
+    /**
+     * The record kind that starts a snapshot. The follower drops everything it holds.
+     */
+    static final byte SNAPSHOT_BEGIN = 8;
+    /**
+     * The record kind that ends a snapshot.
+     */
+    static final byte SNAPSHOT_END = 9;
+    /**
+     * How long a follower's sender waits for a record before sending a heartbeat, in milliseconds.
+     */
+    static final int HEARTBEAT_MILLIS = 100;
+    /**
+     * The number of record batches a follower's queue holds before the follower is disconnected.
+     */
+    private static final int FOLLOWER_QUEUE_CAPACITY = 16384;
+    /**
+     * The leader started from {@link #PORT_PROPERTY}, if any.
+     */
+    private static ReplicationLeader configured;
+
+    /**
+     * Orders snapshots and event records, so that every follower receives each entity's states in order.
+     */
+    private final Object streamLock = new Object();
+    /**
+     * The connected followers.
+     */
+    private final List<Follower> followers = new CopyOnWriteArrayList<>();
+    /**
+     * The sequence number of the last event whose records were queued, or -1 if none.
+     */
+    private volatile long handledSequence = -1;
+    /**
+     * Whether the leader has subscribed to the bus.
+     */
+    private boolean subscribed;
+    /**
+     * The listening socket, or null when stopped.
+     */
+    private ServerSocket serverSocket;
+
+    /**
+     * Constructs a leader. Call {@link #start(InetSocketAddress)} to accept followers.
+     */
+    public ReplicationLeader() {
+        // Empty constructor
+    }
+
+    /**
+     * Starts a leader if the system property {@value #PORT_PROPERTY} is set.
+     */
+    public static synchronized void startIfConfigured() {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null || configured != null) {
+            return;
+        }
+        ReplicationLeader leader = new ReplicationLeader();
+        try {
+            leader.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            configured = leader;
+        } catch (IOException e) {
+            System.err.println("Error: Cannot start replication on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Subscribes to the event bus and starts accepting followers.
+     *
+     * @param address The address to listen on. A port of 0 picks a free port.
+     * @return The port the leader is listening on.
+     * @throws IOException If the socket cannot be opened.
+     */
+    public synchronized int start(InetSocketAddress address) throws IOException {
+        if (serverSocket != null) {
+            return serverSocket.getLocalPort();
+        }
+        ServerSocket socket = new ServerSocket();
+        socket.bind(address);
+        serverSocket = socket;
+        if (!subscribed) {
+            DomainEventBus.subscribe("replication", this);
+            subscribed = true;
+        }
+        Metrics.gauge("replication followers", followers::size);
+        Thread acceptor = new Thread(() -> accept(socket), "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting followers and disconnects the connected ones.
+     * The leader stays subscribed to the bus, but builds no records while no follower is connected.
+     */
+    public synchronized void stop() {
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+            serverSocket = null;
+        }
+        for (Follower follower : followers) {
+            disconnect(follower);
+        }
+    }
+
+    /**
+     * Returns the number of connected followers.
+     *
+     * @return The follower count.
+     */
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    /**
+     * Builds the records of one event and queues them for every follower.
+     *
+     * @param event      The {@link DomainEvent} to handle.
+     * @param endOfBatch Ignored; each follower's sender flushes whenever its queue runs empty.
+     */
+    @Override
+    public void onEvent(DomainEvent event, boolean endOfBatch) {
+        synchronized (streamLock) {
+            if (!followers.isEmpty()) {
+                byte[] records;
+                try {
+                    records = encode(event);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (records.length > 0) {
+                    for (Follower follower : followers) {
+                        if (!follower.queue.offer(records)) {
+                            System.out.println("Error: Follower " + follower.socket.getRemoteSocketAddress() + " fell too far behind and was disconnected.");
+                            disconnect(follower);
+                        }
+                    }
+                }
+            }
+            handledSequence = event.getSequence();
+        }
+    }
+
+    /**
+     * Accepts followers until the listening socket is closed. Each follower is sent a snapshot and
+     * then served by its own sender thread.
+     *
+     * @param socket The listening socket.
+     */
+    private void accept(ServerSocket socket) {
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                connection.setTcpNoDelay(true);
+                Follower follower = new Follower(connection);
+                // Built and queued under the stream lock, so no event record can be queued ahead of it
+                synchronized (streamLock) {
+                    follower.queue.add(snapshot());
+                    followers.add(follower);
+                }
+                Thread sender = new Thread(() -> send(follower), "replication-sender");
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.out.println("Error: Leader cannot accept a follower: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a follower's queued records until it disconnects, with a heartbeat whenever the queue stays
+     * empty for {@value #HEARTBEAT_MILLIS} ms. The heartbeat goes through the queue too, so it never
+     * overtakes the records of the events it reports as handled.
+     *
+     * @param follower The follower.
+     */
+    private void send(Follower follower) {
+        try (OutputStream out = new BufferedOutputStream(follower.socket.getOutputStream(), ShardServer.BUFFER_SIZE)) {
+            while (followers.contains(follower)) {
+                byte[] records = follower.queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                if (records == null) {
+                    follower.queue.offer(heartbeat());
+                    continue;
+                }
+                do {
+                    out.write(records);
+                } while ((records = follower.queue.poll()) != null);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The follower went away.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            disconnect(follower);
+        }
+    }
+
+    /**
+     * Drops a follower and closes its connection.
+     *
+     * @param follower The follower.
+     */
+    private void disconnect(Follower follower) {
+        followers.remove(follower);
+        try {
+            follower.socket.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    /**
+     * Builds a heartbeat record.
+     *
+     * @return The record.
+     * @throws IOException Never; records are built in memory.
+     */
+    private byte[] heartbeat() throws IOException {
+        Records records = new Records();
+        long handled = handledSequence;
+        records.begin(HEARTBEAT, handled);
+        records.out.writeLong(DomainEventBus.getLastSequence());
+        return records.toByteArray();
+    }
+
+    /**
+     * Builds a snapshot of every project, application and enquiry in this JVM, framed by a
+     * {@link #SNAPSHOT_BEGIN} and a {@link #SNAPSHOT_END} record. Called while holding the stream lock.
+     *
+     * @return The records.
+     * @throws IOException Never; records are built in memory.
+     */
+    private byte[] snapshot() throws IOException {
+        long sequence = handledSequence;
+        Records records = new Records();
+        records.begin(SNAPSHOT_BEGIN, sequence);
+        for (BTOProject project : ProjectRegistry.getAllProjects()) {
+            records.project(sequence, project);
+            for (ApplicationStatus status : ApplicationStatus.values()) {
+                for (Application application : project.getApplicationsWithStatus(status)) {
+                    // The version is read first, so the fields read after it are at least as new
+                    int version = application.getVersion();
+                    records.application(sequence, project.getName(), application.getApplicationId(), application.getApplicant(),
+                            application.getAppliedFlatType(), application.getApplicationStatus(),
+                            application.isWithdrawalRequested(), application.isWithdrawalApproved(), version);
+                }
+            }
+            for (Enquiry enquiry : project.getEnquiries()) {
+                records.enquiry(sequence, enquiry);
+            }
+        }
+        records.begin(SNAPSHOT_END, sequence);
+        return records.toByteArray();
+    }
+
+    /**
+     * Builds the records of one event. Application events send the application as the event left it, preceded
+     * by its project when the event can change the project's remaining units; other events send the current
+     * state of what they are about.
+     *
+     * @param event The event.
+     * @return The records, or an empty array if the event changes nothing a follower holds.
+     * @throws IOException Never; records are built in memory.
+     */
+    private static byte[] encode(DomainEvent event) throws IOException {
+        Records records = new Records();
+        long sequence = event.getSequence();
+        BTOProject project = event.getProjectName() == null ? null : ProjectRegistry.findProject(event.getProjectName());
+        switch (event.getType()) {
+            case APPLICATION_SUBMITTED:
+            case APPLICATION_STATUS_CHANGED:
+            case WITHDRAWAL_REQUESTED:
+            case WITHDRAWAL_REJECTED:
+            case FLAT_BOOKED:
+            case WITHDRAWAL_APPROVED:
+                if (project == null) {
+                    records.projectRemoved(sequence, event.getProjectName());
+                    break;
+                }
+                if (event.getType() == DomainEventType.FLAT_BOOKED || event.getType() == DomainEventType.WITHDRAWAL_APPROVED) {
+                    records.project(sequence, project);
+                }
+                if (event.getType() == DomainEventType.WITHDRAWAL_APPROVED) {
+                    records.removed(APPLICATION_REMOVED, sequence, project.getName(), event.getSubjectId());
+                    break;
+                }
+                // Only the applicant is read from the application, and it never changes
+                Application application = project.getApplication(event.getSubjectId());
+                if (application != null) {
+                    records.application(sequence, project.getName(), event.getSubjectId(), application.getApplicant(),
+                            event.getFlatType(), event.getNewStatus() != null ? event.getNewStatus() : event.getOldStatus(),
+                            event.isWithdrawalRequested(), false, event.getVersion());
+                }
+                break;
+            case ENQUIRY_SUBMITTED:
+            case ENQUIRY_UPDATED:
+            case ENQUIRY_REPLIED:
+            case ENQUIRY_DELETED:
+                if (project == null) {
+                    records.projectRemoved(sequence, event.getProjectName());
+                    break;
+                }
+                Enquiry enquiry = project.getEnquiry(event.getSubjectId());
+                if (enquiry != null) {
+                    records.enquiry(sequence, enquiry);
+                } else {
+                    records.removed(ENQUIRY_REMOVED, sequence, project.getName(), event.getSubjectId());
+                }
+                break;
+            case PROJECT_CREATED:
+            case PROJECT_UPDATED:
+            case PROJECT_DELETED:
+            case OFFICER_REGISTERED:
+                if (project == null) {
+                    records.projectRemoved(sequence, event.getProjectName());
+                } else {
+                    records.project(sequence, project);
+                }
+                break;
+            default:
+                break;
+        }
+        return records.toByteArray();
+    }
+
+    /**
+     * One connected follower.
+     */
+    private static final class Follower {
+        private final Socket socket;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(FOLLOWER_QUEUE_CAPACITY);
+
+        /**
+         * Constructs a follower.
+         *
+         * @param socket The follower's connection.
+         */
+        Follower(Socket socket) {
+            this.socket = socket;
+        }
+    }
+
+    /**
+     * A buffer of encoded records.
+     */
+    private static final class Records {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        /**
+         * Constructs an empty buffer.
+         */
+        Records() {
+            // Empty constructor
+        }
+
+        /**
+         * Starts a record by writing its header.
+         *
+         * @param kind     The record kind.
+         * @param sequence The sequence number of the event the record was built for.
+         * @throws IOException Never; records are built in memory.
+         */
+        void begin(byte kind, long sequence) throws IOException {
+            out.writeByte(kind);
+            out.writeLong(sequence);
+            out.writeLong(System.currentTimeMillis());
+        }
+
+        /**
+         * Writes a {@link #PROJECT} record.
+         *
+         * @param sequence The sequence number.
+         * @param project  The project.
+         * @throws IOException Never; records are built in memory.
+         */
+        void project(long sequence, BTOProject project) throws IOException {
+            begin(PROJECT, sequence);
+            out.writeUTF(project.getName());
+            out.writeUTF(project.getNeighborhood());
+            out.writeBoolean(project.isVisible());
+            date(project.getApplicationOpenDate());
+            date(project.getApplicationCloseDate());
+            out.writeInt(project.getMaxOfficers());
+            user(project.getManager());
+            List<FlatType> flatTypes = project.getFlatTypes();
+            out.writeInt(flatTypes.size());
+            for (FlatType flatType : flatTypes) {
+                out.writeUTF(flatType.name());
+                out.writeInt(project.getRemainingUnits(flatType));
+            }
+        }
+
+        /**
+         * Writes a {@link #PROJECT_REMOVED} record.
+         *
+         * @param sequence    The sequence number.
+         * @param projectName The name of the project.
+         * @throws IOException Never; records are built in memory.
+         */
+        void projectRemoved(long sequence, String projectName) throws IOException {
+            begin(PROJECT_REMOVED, sequence);
+            out.writeUTF(projectName);
+        }
+
+        /**
+         * Writes an {@link #APPLICATION} record.
+         *
+         * @param sequence            The sequence number.
+         * @param projectName         The name of the project applied for.
+         * @param applicationId       The ID of the application.
+         * @param applicant           The applicant.
+         * @param flatType            The flat type applied for.
+         * @param status              The status of the application.
+         * @param withdrawalRequested Whether a withdrawal request is pending.
+         * @param withdrawalApproved  Whether the withdrawal has been approved.
+         * @param version             The version of the application the state belongs to.
+         * @throws IOException Never; records are built in memory.
+         */
+        void application(long sequence, String projectName, int applicationId, Applicant applicant, FlatType flatType,
+                         ApplicationStatus status, boolean withdrawalRequested, boolean withdrawalApproved,
+                         int version) throws IOException {
+            begin(APPLICATION, sequence);
+            out.writeUTF(projectName);
+            out.writeInt(applicationId);
+            user(applicant);
+            out.writeUTF(flatType.name());
+            out.writeUTF(status.name());
+            out.writeBoolean(withdrawalRequested);
+            out.writeBoolean(withdrawalApproved);
+            out.writeInt(version);
+        }
+
+        /**
+         * Writes an {@link #ENQUIRY} record.
+         *
+         * @param sequence The sequence number.
+         * @param enquiry  The enquiry.
+         * @throws IOException Never; records are built in memory.
+         */
+        void enquiry(long sequence, Enquiry enquiry) throws IOException {
+            begin(ENQUIRY, sequence);
+            out.writeUTF(enquiry.getProject().getName());
+            out.writeInt(enquiry.getEnquiryId());
+            user(enquiry.getApplicant());
+            out.writeUTF(enquiry.getEnquiryText());
+            out.writeBoolean(enquiry.getReplyText() != null);
+            if (enquiry.getReplyText() != null) {
+                out.writeUTF(enquiry.getReplyText());
+            }
+        }
+
+        /**
+         * Writes an {@link #APPLICATION_REMOVED} or {@link #ENQUIRY_REMOVED} record.
+         *
+         * @param kind        The record kind.
+         * @param sequence    The sequence number.
+         * @param projectName The name of the project the application or enquiry belonged to.
+         * @param id          The ID of the application or enquiry.
+         * @throws IOException Never; records are built in memory.
+         */
+        void removed(byte kind, long sequence, String projectName, int id) throws IOException {
+            begin(kind, sequence);
+            out.writeUTF(projectName);
+            out.writeInt(id);
+        }
+
+        /**
+         * Writes the fields a follower needs to recreate a user.
+         *
+         * @param user The user.
+         * @throws IOException Never; records are built in memory.
+         */
+        private void user(User user) throws IOException {
+            out.writeUTF(user.getNRIC());
+            out.writeUTF(user.getRole());
+            out.writeUTF(user.getName());
+            out.writeInt(user.getAge());
+            out.writeUTF(user.getMaritalStatus().name());
+        }
+
+        /**
+         * Writes a date as its day, month and year.
+         *
+         * @param date The date.
+         * @throws IOException Never; records are built in memory.
+         */
+        private void date(Date date) throws IOException {
+            out.writeInt(date.getDay());
+            out.writeInt(date.getMonth());
+            out.writeInt(date.getYear());
+        }
+
+        /**
+         * Returns the records written so far.
+         *
+         * @return The encoded records.
+         */
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package BTO_Management_System;
+
+import java.util.*;
+
+/**
+ * A cache of enquiry fingerprints that finds near-duplicate enquiries within a project,
+ * so a reply written once can be suggested for, or applied to, every enquiry asking the same question.
+ * Each enquiry text is normalized into terms and reduced to a 64-bit SimHash fingerprint;
+ * two enquiries are near-duplicates when their fingerprints differ in at most {@link #MAX_DISTANCE} bits.
+ * Fingerprints are filed under four 16-bit bands, so candidates are found without comparing against every enquiry.
+ * An enquiry without any terms, such as {@code "?"}, has no fingerprint: it is neither filed nor matched, since
+ * every such enquiry would otherwise be a duplicate of every other.
+ */
+public class ReplyReuseCache {
+    /**
+     * The largest number of differing fingerprint bits for two enquiries to count as near-duplicates.
+     * With four bands, any two fingerprints this close are guaranteed to share at least one band.
+     */
+    public static final int MAX_DISTANCE = 3;
+    /**
+     * The number of 16-bit bands each fingerprint is split into.
+     */
+    private static final int BANDS = 4;
+
+    /**
+     * The fingerprints of each project's enquiries, keyed by project identity.
+     */
+    private static final Map<BTOProject, ProjectFingerprints> projects = new IdentityHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ReplyReuseCache() {
+        // Empty private constructor
+    }
+
+    /**
+     * Computes the SimHash fingerprint of an enquiry text. Every term votes on each of the 64 bits
+     * according to its own hash, weighted by how often it occurs, so texts sharing most of their
+     * terms end up with fingerprints that differ in only a few bits.
+     *
+     * @param text The enquiry text.
+     * @return The 64-bit fingerprint of the text, or 0 if it has no terms.
+     */
+    public static long fingerprint(String text) {
+        return fingerprint(EnquiryIndex.tokenize(text));
+    }
+
+    /**
+     * Computes the SimHash fingerprint of the terms of a text.
+     *
+     * @param terms The terms, including repeats.
+     * @return The 64-bit fingerprint of the terms, or 0 if there are none.
+     */
+    private static long fingerprint(List<String> terms) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int[] votes = new int[64];
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            long hash = hash64(entry.getKey());
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += ((hash >>> bit) & 1L) != 0 ? entry.getValue() : -entry.getValue();
+            }
+        }
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Hashes a term to 64 well-mixed bits using FNV-1a followed by a final avalanche step.
+     *
+     * @param term The term to hash.
+     * @return The 64-bit hash of the term.
+     */
+    private static long hash64(String term) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            hash ^= term.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Adds an enquiry to its project's fingerprints, replacing any earlier fingerprint of the same enquiry.
+     *
+     * @param enquiry The {@link Enquiry} to add.
+     */
+    public static void add(Enquiry enquiry) {
+        fingerprintsOf(enquiry.getProject(), true).add(enquiry);
+    }
+
+    /**
+     * Recomputes the fingerprint of an enquiry after its text changed. Enquiries that are not cached are ignored.
+     *
+     * @param enquiry The {@link Enquiry} that changed.
+     */
+    public static void update(Enquiry enquiry) {
+        ProjectFingerprints fingerprints = fingerprintsOf(enquiry.getProject(), false);
+        if (fingerprints != null && fingerprints.contains(enquiry)) {
+            fingerprints.add(enquiry);
+        }
+    }
+
+    /**
+     * Removes an enquiry from its project's fingerprints.
+     *
+     * @param enquiry The {@link Enquiry} to remove.
+     */
+    public static void remove(Enquiry enquiry) {
+        ProjectFingerprints fingerprints = fingerprintsOf(enquiry.getProject(), false);
+        if (fingerprints != null) {
+            fingerprints.remove(enquiry);
+        }
+    }
+
+    /**
+     * Drops every fingerprint of a project, for example when the project is deleted.
+     *
+     * @param project The {@link BTOProject} to forget.
+     */
+    public static void forgetProject(BTOProject project) {
+        synchronized (projects) {
+            projects.remove(project);
+        }
+    }
+
+    /**
+     * Drops the fingerprints of every project.
+     */
+    static void clear() {
+        synchronized (projects) {
+            projects.clear();
+        }
+    }
+
+    /**
+     * Finds the enquiries in the same project that ask nearly the same question as the given enquiry.
+     *
+     * @param enquiry The {@link Enquiry} to match.
+     * @return The near-duplicate enquiries, closest first, not including the enquiry itself.
+     */
+    public static List<Enquiry> findNearDuplicates(Enquiry enquiry) {
+        ProjectFingerprints fingerprints = fingerprintsOf(enquiry.getProject(), false);
+        return fingerprints == null ? new ArrayList<>() : fingerprints.nearDuplicates(enquiry);
+    }
+
+    /**
+     * Suggests a reply for an enquiry by reusing the reply of its closest near-duplicate that has already been answered.
+     *
+     * @param enquiry The {@link Enquiry} to suggest a reply for.
+     * @return The suggested reply text, or {@code null} if no near-duplicate has been answered yet.
+     */
+    public static String suggestReply(Enquiry enquiry) {
+        for (Enquiry candidate : findNearDuplicates(enquiry)) {
+            if (candidate.getReplyText() != null) {
+                return candidate.getReplyText();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the near-duplicates of an enquiry that have not been answered yet.
+     *
+     * @param enquiry The {@link Enquiry} to match.
+     * @return The unanswered near-duplicate enquiries, closest first.
+     */
+    public static List<Enquiry> findUnansweredNearDuplicates(Enquiry enquiry) {
+        List<Enquiry> unanswered = new ArrayList<>();
+        for (Enquiry candidate : findNearDuplicates(enquiry)) {
+            if (candidate.getReplyText() == null) {
+                unanswered.add(candidate);
+            }
+        }
+        return unanswered;
+    }
+
+    /**
+     * Applies a reply to every unanswered near-duplicate of an enquiry in one operation.
+     * The enquiry itself is not changed.
+     *
+     * @param enquiry   The {@link Enquiry} whose near-duplicates should receive the reply.
+     * @param replyText The reply text to apply.
+     * @return The enquiries that received the reply.
+     */
+    public static List<Enquiry> applyReplyToNearDuplicates(Enquiry enquiry, String replyText) {
+        List<Enquiry> updated = findUnansweredNearDuplicates(enquiry);
+        for (Enquiry duplicate : updated) {
+            duplicate.setReplyText(replyText);
+        }
+        return updated;
+    }
+
+    /**
+     * Returns the fingerprints of a project.
+     *
+     * @param project The project.
+     * @param create  Whether to create the fingerprints if the project has none yet.
+     * @return The fingerprints of the project, or {@code null} if it has none and create is false.
+     */
+    private static ProjectFingerprints fingerprintsOf(BTOProject project, boolean create) {
+        synchronized (projects) {
+            ProjectFingerprints fingerprints = projects.get(project);
+            if (fingerprints == null && create) {
+                fingerprints = new ProjectFingerprints();
+                projects.put(project, fingerprints);
+            }
+            return fingerprints;
+        }
+    }
+
+    /**
+     * The fingerprints of one project's enquiries, filed by band for candidate lookup.
+     */
+    private static final class ProjectFingerprints {
+        /**
+         * The fingerprint of every filed enquiry, by ID. Enquiries without terms have none.
+         */
+        private final Map<Integer, Long> fingerprintById = new HashMap<>();
+        /**
+         * Every cached enquiry, filed or not, by ID.
+         */
+        private final Map<Integer, Enquiry> enquiryById = new HashMap<>();
+        /**
+         * For each band, the IDs of the filed enquiries by the value of that band of their fingerprint.
+         */
+        private final List<Map<Integer, Set<Integer>>> bands = new ArrayList<>();
+
+        /**
+         * Constructs empty fingerprints with one band map per band.
+         */
+        ProjectFingerprints() {
+            for (int band = 0; band < BANDS; band++) {
+                bands.add(new HashMap<>());
+            }
+        }
+
+        /**
+         * Checks whether an enquiry is cached.
+         *
+         * @param enquiry The enquiry to check.
+         * @return true if the enquiry is cached, false otherwise.
+         */
+        synchronized boolean contains(Enquiry enquiry) {
+            return enquiryById.containsKey(enquiry.getEnquiryId());
+        }
+
+        /**
+         * Caches an enquiry's current fingerprint, replacing any earlier one. An enquiry without terms is
+         * remembered, so a later edit that gives it terms files it, but is not filed under any band.
+         *
+         * @param enquiry The enquiry to cache.
+         */
+        synchronized void add(Enquiry enquiry) {
+            remove(enquiry);
+            enquiryById.put(enquiry.getEnquiryId(), enquiry);
+            List<String> terms = EnquiryIndex.tokenize(enquiry.getEnquiryText());
+            if (terms.isEmpty()) {
+                return;
+            }
+            long fingerprint = fingerprint(terms);
+            fingerprintById.put(enquiry.getEnquiryId(), fingerprint);
+            for (int band = 0; band < BANDS; band++) {
+                bands.get(band).computeIfAbsent(bandValue(fingerprint, band), b -> new HashSet<>()).add(enquiry.getEnquiryId());
+            }
+        }
+
+        /**
+         * Removes an enquiry from the cache.
+         *
+         * @param enquiry The enquiry to remove.
+         */
+        synchronized void remove(Enquiry enquiry) {
+            Long fingerprint = fingerprintById.remove(enquiry.getEnquiryId());
+            enquiryById.remove(enquiry.getEnquiryId());
+            if (fingerprint == null) {
+                return;
+            }
+            for (int band = 0; band < BANDS; band++) {
+                Set<Integer> ids = bands.get(band).get(bandValue(fingerprint, band));
+                if (ids != null) {
+                    ids.remove(enquiry.getEnquiryId());
+                    if (ids.isEmpty()) {
+                        bands.get(band).remove(bandValue(fingerprint, band));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Finds the cached enquiries within {@link #MAX_DISTANCE} bits of an enquiry's fingerprint.
+         *
+         * @param enquiry The enquiry to match.
+         * @return The near-duplicates, closest first, not including the enquiry itself. Empty if the enquiry
+         * has no terms.
+         */
+        synchronized List<Enquiry> nearDuplicates(Enquiry enquiry) {
+            List<String> terms = EnquiryIndex.tokenize(enquiry.getEnquiryText());
+            if (terms.isEmpty()) {
+                return new ArrayList<>();
+            }
+            long fingerprint = fingerprint(terms);
+            Map<Integer, Integer> distances = new HashMap<>();
+            for (int band = 0; band < BANDS; band++) {
+                Set<Integer> ids = bands.get(band).get(bandValue(fingerprint, band));
+                if (ids == null) {
+                    continue;
+                }
+                for (int id : ids) {
+                    if (id != enquiry.getEnquiryId() && !distances.containsKey(id)) {
+                        int distance = Long.bitCount(fingerprint ^ fingerprintById.get(id));
+                        if (distance <= MAX_DISTANCE) {
+                            distances.put(id, distance);
+                        }
+                    }
+                }
+            }
+            List<Integer> ids = new ArrayList<>(distances.keySet());
+            ids.sort(Comparator.comparingInt((Integer id) -> distances.get(id)).thenComparingInt(id -> id));
+            List<Enquiry> matches = new ArrayList<>();
+            for (int id : ids) {
+                matches.add(enquiryById.get(id));
+            }
+            return matches;
+        }
+
+        /**
+         * Extracts one 16-bit band of a fingerprint.
+         *
+         * @param fingerprint The fingerprint.
+         * @param band        The band number, from 0 to {@link #BANDS} - 1.
+         * @return The value of the band.
+         */
+        private static int bandValue(long fingerprint, int band) {
+            return (int) ((fingerprint >>> (band * 16)) & 0xFFFF);
+        }
+    }
+}
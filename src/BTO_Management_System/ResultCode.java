@@ -0,0 +1,84 @@
+package BTO_Management_System;
+
+/**
+ * Enumerates the outcomes of the domain operations, carried by an {@link OperationResult}
+ * so that callers can react to a failure without parsing its message.
+ */
+public enum ResultCode {
+    /**
+     * The operation succeeded.
+     */
+    SUCCESS,
+    /**
+     * The project does not exist or is not a BTO project.
+     */
+    INVALID_PROJECT,
+    /**
+     * The user does not meet the eligibility criteria for the operation.
+     */
+    NOT_ELIGIBLE,
+    /**
+     * The project does not offer the requested flat type.
+     */
+    FLAT_TYPE_NOT_OFFERED,
+    /**
+     * There are no units left of the requested flat type.
+     */
+    NO_UNITS_AVAILABLE,
+    /**
+     * The user already has an application or registration.
+     */
+    ALREADY_APPLIED,
+    /**
+     * The user has no application to act on.
+     */
+    NO_APPLICATION,
+    /**
+     * The application has already been booked.
+     */
+    ALREADY_BOOKED,
+    /**
+     * The application or request has already been processed.
+     */
+    ALREADY_PROCESSED,
+    /**
+     * A withdrawal has already been requested for the application.
+     */
+    WITHDRAWAL_ALREADY_REQUESTED,
+    /**
+     * No withdrawal has been requested for the application.
+     */
+    NO_WITHDRAWAL_REQUEST,
+    /**
+     * The application has not been approved yet.
+     */
+    NOT_SUCCESSFUL,
+    /**
+     * The staff member is not handling the project concerned.
+     */
+    NOT_HANDLING_PROJECT,
+    /**
+     * The project already has the maximum number of officers.
+     */
+    MAX_OFFICERS_REACHED,
+    /**
+     * The requested new status is not valid for the operation.
+     */
+    INVALID_STATUS,
+    /**
+     * The application, enquiry or registration could not be found.
+     */
+    NOT_FOUND,
+    /**
+     * The operation changes data but was sent to a read-only replica.
+     */
+    READ_ONLY,
+    /**
+     * The input to the operation is missing or malformed.
+     */
+    INVALID_INPUT,
+    /**
+     * A file the operation needed could not be read or written.
+     */
+    IO_ERROR
+}
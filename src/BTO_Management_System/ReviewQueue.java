@@ -0,0 +1,121 @@
+package BTO_Management_System;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * The requests waiting for one manager's review, such as withdrawal requests or officer registrations, oldest first.
+ * Requests are indexed by ID, so a request can be looked up or taken out of the middle of the queue in
+ * constant time, while batches are taken from the head in the order the requests were made.
+ * <p>
+ * The queue only tracks which requests are waiting; the state of a request is still recorded on the request
+ * itself. A request that was reviewed elsewhere is therefore checked again when it is taken from the queue,
+ * rather than trusted.
+ *
+ * @param <T> The type of the requests.
+ */
+public class ReviewQueue<T> {
+    /**
+     * The function returning the ID of a request.
+     */
+    private final ToIntFunction<T> idOf;
+    /**
+     * The pending requests by ID, in the order they were made.
+     */
+    private final LinkedHashMap<Integer, T> pending = new LinkedHashMap<>();
+
+    /**
+     * Constructs an empty review queue.
+     *
+     * @param idOf A function returning the ID of a request, such as {@code Application::getApplicationId}.
+     */
+    public ReviewQueue(ToIntFunction<T> idOf) {
+        this.idOf = idOf;
+    }
+
+    /**
+     * Adds a request to the back of the queue.
+     *
+     * @param request The request waiting for review.
+     * @return true if the request was added, false if it was already queued.
+     */
+    public synchronized boolean enqueue(T request) {
+        return pending.putIfAbsent(idOf.applyAsInt(request), request) == null;
+    }
+
+    /**
+     * Finds a queued request by ID.
+     *
+     * @param id The ID of the request.
+     * @return The queued request, or null if no request with that ID is queued.
+     */
+    public synchronized T get(int id) {
+        return pending.get(id);
+    }
+
+    /**
+     * Takes a request out of the queue, wherever it is.
+     *
+     * @param request The request that was reviewed.
+     * @return true if the request was queued, false otherwise.
+     */
+    public synchronized boolean remove(T request) {
+        return pending.remove(idOf.applyAsInt(request), request);
+    }
+
+    /**
+     * Returns the number of queued requests.
+     *
+     * @return The number of requests waiting for review.
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Checks whether any requests are queued.
+     *
+     * @return true if no requests are waiting for review.
+     */
+    public synchronized boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Returns the oldest queued requests without taking them out of the queue.
+     *
+     * @param maxCount The maximum number of requests to return, or 0 or less for all of them.
+     * @return A new list of the oldest requests, oldest first.
+     */
+    public synchronized List<T> peek(int maxCount) {
+        int count = maxCount <= 0 ? pending.size() : Math.min(maxCount, pending.size());
+        List<T> oldest = new ArrayList<>(count);
+        for (T request : pending.values()) {
+            if (oldest.size() == count) {
+                break;
+            }
+            oldest.add(request);
+        }
+        return oldest;
+    }
+
+    /**
+     * Takes the oldest queued requests out of the queue.
+     *
+     * @param maxCount The maximum number of requests to take, or 0 or less for all of them.
+     * @return A new list of the requests taken, oldest first.
+     */
+    public synchronized List<T> poll(int maxCount) {
+        int count = maxCount <= 0 ? pending.size() : Math.min(maxCount, pending.size());
+        List<T> oldest = new ArrayList<>(count);
+        Iterator<T> iterator = pending.values().iterator();
+        while (oldest.size() < count) {
+            oldest.add(iterator.next());
+            iterator.remove();
+        }
+        return oldest;
+    }
+}
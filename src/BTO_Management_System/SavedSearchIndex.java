@@ -0,0 +1,476 @@
+package BTO_Management_System;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The saved searches of applicants, kept as a reverse index so a new or newly visible project finds the searches
+ * it matches instead of every applicant polling for new projects.
+ * <p>
+ * A saved search names the neighborhoods and flat types an applicant wants, or none for any, and is narrowed to
+ * the flat types the applicant is eligible for. It is filed under every pair of one of its neighborhood codes
+ * (or "any neighborhood") and one of its flat types. A project then only reads the two neighborhood slots it
+ * belongs to, for the flat types it offers, and every search it reads there matches it. Matching costs time in
+ * proportion to the number of matches, however many searches are saved.
+ * <p>
+ * Search input never adds a neighborhood to the {@link NeighborhoodDictionary}. A search naming a neighborhood
+ * that no project has used yet waits under the normalized name instead, and is filed under the neighborhood's
+ * code when the first visible project there becomes available.
+ * <p>
+ * Each match is queued as a notification for the applicant, who sees it the next time their menu is shown.
+ * A project is announced only the first time it becomes available, so hiding and showing it again does not
+ * notify anyone twice. An applicant who never looks keeps only their {@value #MAX_NOTIFICATIONS_PER_APPLICANT}
+ * newest notifications; older ones are dropped.
+ */
+public class SavedSearchIndex {
+    /**
+     * The slot of searches with no neighborhood filter. Neighborhood code {@code c} is in slot {@code c + 1}.
+     */
+    private static final int ANY_NEIGHBORHOOD = 0;
+    /**
+     * The largest number of notifications kept for one applicant.
+     */
+    static final int MAX_NOTIFICATIONS_PER_APPLICANT = 100;
+    /**
+     * The latency metrics of matching a project against the saved searches.
+     */
+    private static final OperationMetrics MATCH_METRICS = Metrics.operation("saved search match");
+
+    /**
+     * The saved search of every applicant, by NRIC.
+     */
+    private static final Map<String, SavedSearch> searches = new HashMap<>();
+    /**
+     * The saved searches filed under each neighborhood slot and flat type, by slot.
+     */
+    private static final List<EnumMap<FlatType, Set<SavedSearch>>> slots = new ArrayList<>();
+    /**
+     * The saved searches waiting for a neighborhood that no project has used yet, by normalized name.
+     */
+    private static final Map<String, Set<SavedSearch>> waiting = new HashMap<>();
+    /**
+     * The notifications waiting to be shown to each applicant, oldest first, by NRIC.
+     * Each queue is guarded by its own monitor.
+     */
+    private static final Map<String, Deque<String>> notifications = new ConcurrentHashMap<>();
+    /**
+     * The number of notifications waiting to be shown.
+     */
+    private static final AtomicInteger pending = new AtomicInteger();
+    /**
+     * The number of notifications dropped because their applicant already had as many as are kept.
+     */
+    private static final AtomicLong dropped = new AtomicLong();
+    /**
+     * Guards the searches, slots and waiting searches so projects can be matched alongside each other but not
+     * alongside saves.
+     */
+    private static final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    static {
+        Metrics.gauge("saved searches", SavedSearchIndex::size);
+        Metrics.gauge("pending search notifications", pending::get);
+        Metrics.gauge("dropped search notifications", dropped::get);
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SavedSearchIndex() {
+        // Empty private constructor
+    }
+
+    /**
+     * Saves a search for an applicant, replacing any search they saved before.
+     *
+     * @param applicant The applicant.
+     * @param locations The neighborhood names to search for. An empty list means any neighborhood.
+     * @param flatTypes The flat types to search for. An empty list means every flat type the applicant is eligible for.
+     * @return The result, holding the saved search on success, or {@link ResultCode#NOT_ELIGIBLE} if the
+     * applicant is not eligible for any of the flat types.
+     */
+    public static OperationResult<SavedSearch> save(Applicant applicant, List<String> locations, List<FlatType> flatTypes) {
+        EnumSet<FlatType> wanted = EnumSet.noneOf(FlatType.class);
+        for (FlatType flatType : applicant.getEligibleFlatTypes()) {
+            if (flatTypes.isEmpty() || flatTypes.contains(flatType)) {
+                wanted.add(flatType);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return OperationResult.failure(ResultCode.NOT_ELIGIBLE, "You are not eligible for any of the flat types searched for.");
+        }
+        List<String> names = new ArrayList<>();
+        for (String location : locations) {
+            if (!location.trim().isEmpty()) {
+                names.add(location.trim());
+            }
+        }
+        SavedSearch search = new SavedSearch(applicant, names, wanted);
+        lock.writeLock().lock();
+        try {
+            SavedSearch previous = searches.put(applicant.getNRIC(), search);
+            if (previous != null) {
+                unfile(previous);
+            }
+            // Looked up under the lock, so a neighborhood added by a project just now is either found here
+            // or finds this search waiting when the project is matched
+            for (String name : names) {
+                int code = NeighborhoodDictionary.lookup(name);
+                if (code == NeighborhoodDictionary.UNKNOWN) {
+                    String key = NeighborhoodDictionary.normalize(name);
+                    search.waitingNames.add(key);
+                    waiting.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(search);
+                } else {
+                    file(search, code + 1);
+                }
+            }
+            if (names.isEmpty()) {
+                file(search, ANY_NEIGHBORHOOD);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return OperationResult.success(search, "Search saved: " + search + ". You will be told about new projects that match it.");
+    }
+
+    /**
+     * Removes an applicant's saved search.
+     *
+     * @param applicant The applicant.
+     * @return true if the applicant had a saved search.
+     */
+    public static boolean remove(Applicant applicant) {
+        lock.writeLock().lock();
+        try {
+            SavedSearch search = searches.remove(applicant.getNRIC());
+            if (search == null) {
+                return false;
+            }
+            unfile(search);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an applicant's saved search.
+     *
+     * @param applicant The applicant.
+     * @return The saved search, or null if the applicant has none.
+     */
+    public static SavedSearch getSavedSearch(Applicant applicant) {
+        lock.readLock().lock();
+        try {
+            return searches.get(applicant.getNRIC());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of saved searches.
+     *
+     * @return The number of saved searches.
+     */
+    public static int size() {
+        lock.readLock().lock();
+        try {
+            return searches.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the saved searches a project matches and queues a notification for each of their applicants.
+     * Called when a project is added to the {@link ProjectRegistry} and when a hidden project becomes visible.
+     * Hidden projects, projects that were already announced and applicants who are not eligible to apply for
+     * the project are skipped.
+     *
+     * @param project The project.
+     * @return The number of notifications queued.
+     */
+    static int projectAvailable(BTOProject project) {
+        if (!project.isVisible() || !project.markAnnounced()) {
+            return 0;
+        }
+        return MATCH_METRICS.time(() -> {
+            String neighborhood = NeighborhoodDictionary.normalize(project.getNeighborhood());
+            boolean searchesWaiting;
+            lock.readLock().lock();
+            try {
+                searchesWaiting = waiting.containsKey(neighborhood);
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (searchesWaiting) {
+                lock.writeLock().lock();
+                try {
+                    fileWaiting(neighborhood, project.getNeighborhoodCode());
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            List<SavedSearch> matches = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                collect(ANY_NEIGHBORHOOD, project, matches);
+                collect(project.getNeighborhoodCode() + 1, project, matches);
+            } finally {
+                lock.readLock().unlock();
+            }
+            String notification = "New project matching your saved search: " + project.getDetails();
+            int queued = 0;
+            for (SavedSearch search : matches) {
+                if (search.applicant.isEligibleToApply(project)) {
+                    notify(search.applicant, notification);
+                    queued++;
+                }
+            }
+            return queued;
+        });
+    }
+
+    /**
+     * Removes and returns the notifications waiting for an applicant.
+     *
+     * @param applicant The applicant.
+     * @return The notifications, oldest first. Empty if there are none.
+     */
+    public static List<String> takeNotifications(Applicant applicant) {
+        Deque<String> queue = notifications.get(applicant.getNRIC());
+        if (queue == null) {
+            return new ArrayList<>();
+        }
+        List<String> taken;
+        synchronized (queue) {
+            taken = new ArrayList<>(queue);
+            queue.clear();
+        }
+        pending.addAndGet(-taken.size());
+        return taken;
+    }
+
+    /**
+     * Returns the number of notifications dropped so far because their applicant already had as many waiting
+     * as are kept.
+     *
+     * @return The number of dropped notifications.
+     */
+    static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Queues a notification for an applicant, dropping their oldest one if they already have as many as are kept.
+     *
+     * @param applicant    The applicant.
+     * @param notification The notification.
+     */
+    private static void notify(Applicant applicant, String notification) {
+        Deque<String> queue = notifications.computeIfAbsent(applicant.getNRIC(), nric -> new ArrayDeque<>());
+        synchronized (queue) {
+            if (queue.size() >= MAX_NOTIFICATIONS_PER_APPLICANT) {
+                queue.pollFirst();
+                dropped.incrementAndGet();
+            } else {
+                pending.incrementAndGet();
+            }
+            queue.addLast(notification);
+        }
+    }
+
+    /**
+     * Removes every saved search and notification. Used by the benchmarks to rebuild their datasets.
+     */
+    static void clear() {
+        lock.writeLock().lock();
+        try {
+            searches.clear();
+            slots.clear();
+            waiting.clear();
+            notifications.clear();
+            pending.set(0);
+            dropped.set(0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the saved searches filed under one neighborhood slot for any flat type the project offers.
+     * A search filed under several of the project's flat types is added once. Called under the read lock.
+     *
+     * @param slot    The neighborhood slot.
+     * @param project The project.
+     * @param matches The list to add the searches to.
+     */
+    private static void collect(int slot, BTOProject project, List<SavedSearch> matches) {
+        if (slot >= slots.size()) {
+            return;
+        }
+        EnumMap<FlatType, Set<SavedSearch>> byFlatType = slots.get(slot);
+        List<FlatType> offered = project.getFlatTypes();
+        for (int i = 0; i < offered.size(); i++) {
+            Set<SavedSearch> filed = byFlatType.get(offered.get(i));
+            if (filed == null) {
+                continue;
+            }
+            for (SavedSearch search : filed) {
+                if (!search.isFiledUnderEarlier(offered, i)) {
+                    matches.add(search);
+                }
+            }
+        }
+    }
+
+    /**
+     * Files a saved search under one neighborhood slot for each of its flat types. Called under the write lock.
+     *
+     * @param search The saved search.
+     * @param slot   The neighborhood slot.
+     */
+    private static void file(SavedSearch search, int slot) {
+        search.slotNumbers.add(slot);
+        while (slots.size() <= slot) {
+            slots.add(new EnumMap<>(FlatType.class));
+        }
+        for (FlatType flatType : search.flatTypes) {
+            slots.get(slot).computeIfAbsent(flatType, f -> new LinkedHashSet<>()).add(search);
+        }
+    }
+
+    /**
+     * Files the searches waiting for a neighborhood under its code, now that a project has used it.
+     * Called under the write lock.
+     *
+     * @param neighborhood The normalized neighborhood name.
+     * @param code         The neighborhood's code.
+     */
+    private static void fileWaiting(String neighborhood, int code) {
+        Set<SavedSearch> filed = waiting.remove(neighborhood);
+        if (filed == null) {
+            return;
+        }
+        for (SavedSearch search : filed) {
+            search.waitingNames.remove(neighborhood);
+            file(search, code + 1);
+        }
+    }
+
+    /**
+     * Removes a saved search from every slot it is filed under and every neighborhood it waits for.
+     * Called under the write lock.
+     *
+     * @param search The saved search.
+     */
+    private static void unfile(SavedSearch search) {
+        for (String name : search.waitingNames) {
+            Set<SavedSearch> filed = waiting.get(name);
+            if (filed != null) {
+                filed.remove(search);
+                if (filed.isEmpty()) {
+                    waiting.remove(name);
+                }
+            }
+        }
+        for (int slot : search.slotNumbers) {
+            for (FlatType flatType : search.flatTypes) {
+                Set<SavedSearch> filed = slots.get(slot).get(flatType);
+                if (filed != null) {
+                    filed.remove(search);
+                }
+            }
+        }
+    }
+
+    /**
+     * One applicant's saved search.
+     */
+    public static final class SavedSearch {
+        /**
+         * The applicant who saved the search.
+         */
+        private final Applicant applicant;
+        /**
+         * The neighborhood names searched for, as entered, or an empty list for any neighborhood.
+         */
+        private final List<String> locations;
+        /**
+         * The flat types searched for, narrowed to those the applicant is eligible for.
+         */
+        private final EnumSet<FlatType> flatTypes;
+        /**
+         * The neighborhood slots the search is filed under. Changed only under the write lock.
+         */
+        private final SortedSet<Integer> slotNumbers = new TreeSet<>();
+        /**
+         * The normalized names of the neighborhoods searched for that no project has used yet.
+         * Changed only under the write lock.
+         */
+        private final Set<String> waitingNames = new HashSet<>();
+
+        /**
+         * Constructs a saved search that is not filed yet.
+         *
+         * @param applicant The applicant who saved the search.
+         * @param locations The neighborhood names searched for, or an empty list for any neighborhood.
+         * @param flatTypes The flat types searched for.
+         */
+        private SavedSearch(Applicant applicant, List<String> locations, EnumSet<FlatType> flatTypes) {
+            this.applicant = applicant;
+            this.locations = Collections.unmodifiableList(locations);
+            this.flatTypes = flatTypes;
+        }
+
+        /**
+         * Returns the neighborhood names searched for.
+         *
+         * @return The names as entered, or an empty list for any neighborhood.
+         */
+        public List<String> getLocations() {
+            return locations;
+        }
+
+        /**
+         * Returns the flat types searched for.
+         *
+         * @return A copy of the flat types, narrowed to those the applicant is eligible for.
+         */
+        public Set<FlatType> getFlatTypes() {
+            return EnumSet.copyOf(flatTypes);
+        }
+
+        /**
+         * Checks whether the search is also filed under one of the flat types offered before a given one,
+         * so a project offering both finds it only once.
+         *
+         * @param offered The flat types the project offers.
+         * @param index   The position of the flat type being read.
+         * @return true if the search was already found under an earlier flat type.
+         */
+        private boolean isFiledUnderEarlier(List<FlatType> offered, int index) {
+            for (int i = 0; i < index; i++) {
+                if (flatTypes.contains(offered.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Describes the search.
+         *
+         * @return The neighborhoods and flat types searched for.
+         */
+        @Override
+        public String toString() {
+            return "locations " + (locations.isEmpty() ? "any" : String.join(", ", locations)) + ", flat types " + flatTypes;
+        }
+    }
+}
@@ -0,0 +1,702 @@
+package BTO_Management_System;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Routes registry lookups and domain commands to the {@link ShardServer}s that hold the projects, so that the
+ * registry can be spread over several JVMs. Projects are partitioned by neighborhood: a
+ * {@link ConsistentHashRing} assigns every neighborhood to one shard, and a project lives on the shard of its
+ * neighborhood.
+ * <ul>
+ *     <li>{@link #findProject(String)} asks the owning shard when the project's neighborhood is known,
+ *     and every shard otherwise.</li>
+ *     <li>{@link #filterProjects(String, List, List)} asks only the shards owning the requested
+ *     neighborhoods, or every shard when there is no location filter, in parallel, and merges the
+ *     sorted replies.</li>
+ *     <li>{@link #execute(String)} takes any {@link BatchCommandRunner} command. Commands naming a project
+ *     ({@code create-project}, {@code apply}, {@code enquire}, {@code register}) go to the project's shard,
+ *     which the user is then bound to; every other command goes to the shard the user is bound to.</li>
+ * </ul>
+ * A user is made known to a shard, from the router's user lookup, the first time a command of theirs is sent
+ * there. Application, enquiry and registration IDs are numbered by each shard, so an ID is only meaningful
+ * on the shard of the user it was returned to. Staff are expected to work within one neighborhood's shard.
+ * <p>
+ * Each shard is called over pooled loopback connections, one request at a time per connection.
+ * A request whose connection fails is not retried, since a command may already have been applied.
+ */
+public class ShardRouter implements AutoCloseable {
+    /**
+     * The latency metrics of the calls this router makes to its shards.
+     */
+    private static final OperationMetrics CALL_METRICS = Metrics.operation("shard call");
+
+    /**
+     * The shards, by neighborhood.
+     */
+    private final ConsistentHashRing<Shard> ring = new ConsistentHashRing<>();
+    /**
+     * Finds the users named in commands, to make them known to the shards.
+     */
+    private final Function<String, User> userLookup;
+    /**
+     * The neighborhood of every project the router has seen, by lower-case project name.
+     */
+    private final Map<String, String> projectNeighborhoods = new ConcurrentHashMap<>();
+    /**
+     * The shard each user's commands go to, by NRIC.
+     */
+    private final Map<String, Shard> userShards = new ConcurrentHashMap<>();
+    /**
+     * Sends the requests of a scatter-gather call in parallel.
+     */
+    private final ExecutorService scatterExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructs a router over running shards. The order of the addresses matters: the same neighborhood
+     * always belongs to the shard at the same position, whichever port that shard listens on.
+     *
+     * @param shardAddresses The addresses of the shards.
+     * @param userLookup     A function returning the user with a given NRIC, or null if there is none.
+     * @throws IllegalArgumentException If there are no shards.
+     */
+    public ShardRouter(List<InetSocketAddress> shardAddresses, Function<String, User> userLookup) {
+        if (shardAddresses.isEmpty()) {
+            throw new IllegalArgumentException("A router needs at least one shard.");
+        }
+        for (int i = 0; i < shardAddresses.size(); i++) {
+            ring.addNode(new Shard("shard-" + i, shardAddresses.get(i)));
+        }
+        this.userLookup = userLookup;
+    }
+
+    /**
+     * Returns the address of the shard owning a neighborhood.
+     *
+     * @param neighborhood The neighborhood.
+     * @return The address of its shard.
+     */
+    public InetSocketAddress shardFor(String neighborhood) {
+        return shardOf(neighborhood).address;
+    }
+
+    /**
+     * Returns the shard owning a neighborhood. Neighborhoods are placed by their
+     * {@link NeighborhoodDictionary#normalize(String) normalized} name, so every spelling lands on the same shard.
+     *
+     * @param neighborhood The neighborhood.
+     * @return Its shard.
+     */
+    private Shard shardOf(String neighborhood) {
+        return ring.nodeFor(NeighborhoodDictionary.normalize(neighborhood));
+    }
+
+    /**
+     * Finds a project by name, case-insensitively.
+     *
+     * @param name The name of the project.
+     * @return A snapshot of the project as its shard holds it, or null if no shard has it.
+     * @throws UncheckedIOException If a shard cannot be reached.
+     */
+    public RemoteProject findProject(String name) {
+        String[] request = {"find", name};
+        String neighborhood = projectNeighborhoods.get(name.toLowerCase(Locale.ROOT));
+        if (neighborhood != null) {
+            List<RemoteProject> found = shardOf(neighborhood).call(request).projects;
+            if (!found.isEmpty()) {
+                return found.get(0);
+            }
+            projectNeighborhoods.remove(name.toLowerCase(Locale.ROOT), neighborhood);
+        }
+        for (Reply reply : scatter(ring.getNodes(), request)) {
+            if (!reply.projects.isEmpty()) {
+                return reply.projects.get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists the projects of every shard that match the filters, in the requested order. Only the shards
+     * owning the requested neighborhoods are asked; each returns its matches already sorted, and the
+     * replies are merged.
+     *
+     * @param sortBy    The sorting criteria ("ALPHABETICAL", "LOCATION", "FLAT_TYPE"), alphabetical if null or unknown.
+     * @param locations The neighborhood names to filter by. An empty list means no filtering by location.
+     * @param flatTypes The {@link FlatType}s to filter by. An empty list means no filtering by flat type.
+     * @return A new list of snapshots of the matching projects.
+     * @throws UncheckedIOException If a shard cannot be reached.
+     */
+    public List<RemoteProject> filterProjects(String sortBy, List<String> locations, List<FlatType> flatTypes) {
+        Set<Shard> targets = new LinkedHashSet<>();
+        if (locations.isEmpty()) {
+            targets.addAll(ring.getNodes());
+        } else {
+            for (String location : locations) {
+                targets.add(shardOf(location));
+            }
+        }
+        StringBuilder types = new StringBuilder();
+        for (FlatType flatType : flatTypes) {
+            types.append(types.length() == 0 ? "" : ",").append(flatType.name());
+        }
+        String order = sortBy == null ? "ALPHABETICAL" : sortBy.toUpperCase(Locale.ROOT);
+        String[] request = new String[3 + locations.size()];
+        request[0] = "list";
+        request[1] = order;
+        request[2] = types.toString();
+        for (int i = 0; i < locations.size(); i++) {
+            request[3 + i] = locations.get(i);
+        }
+        List<Reply> replies = scatter(targets, request);
+        return merge(replies, order);
+    }
+
+    /**
+     * Applies for a project on behalf of an applicant, on the project's shard.
+     *
+     * @param applicantNric The NRIC of the applicant.
+     * @param projectName   The name of the project.
+     * @param flatType      The flat type applied for.
+     * @return The result, carrying the shard's ID of the new application if it succeeded.
+     * @throws UncheckedIOException If the shard cannot be reached.
+     */
+    public OperationResult<Integer> apply(String applicantNric, String projectName, FlatType flatType) {
+        return execute(new String[] {"apply", applicantNric, projectName, flatType.name()});
+    }
+
+    /**
+     * Books a flat for a successful application on behalf of an officer, on the officer's shard.
+     *
+     * @param officerNric   The NRIC of the officer.
+     * @param applicationId The shard's ID of the application.
+     * @param flatType      The flat type to book.
+     * @return The result, carrying the ID of the application if it succeeded.
+     * @throws UncheckedIOException If the shard cannot be reached.
+     */
+    public OperationResult<Integer> book(String officerNric, int applicationId, FlatType flatType) {
+        return execute(new String[] {"book", officerNric, String.valueOf(applicationId), flatType.name()});
+    }
+
+    /**
+     * Formats the booking report of a project on the project's shard.
+     *
+     * @param projectName    The name of the project.
+     * @param maritalFilter  The marital status to report on, or null for any.
+     * @param flatTypeFilter The flat type to report on, or null for any.
+     * @return The result, carrying the report as its message and the number of booked applications as its value.
+     * @throws UncheckedIOException If the shard cannot be reached.
+     */
+    public OperationResult<Integer> bookingReport(String projectName, String maritalFilter, String flatTypeFilter) {
+        RemoteProject project = findProject(projectName);
+        if (project == null) {
+            return OperationResult.failure(ResultCode.INVALID_PROJECT, "No project named " + projectName + " on any shard.");
+        }
+        return shardOf(project.getNeighborhood()).call("report", project.getName(),
+                maritalFilter == null ? "" : maritalFilter, flatTypeFilter == null ? "" : flatTypeFilter).toResult();
+    }
+
+    /**
+     * Routes one {@link BatchCommandRunner} command to the shard it belongs to and applies it there.
+     *
+     * @param command The command line.
+     * @return The result, carrying the shard's ID of the application, enquiry or registration the command
+     * created or changed, if any.
+     * @throws UncheckedIOException If the shard cannot be reached.
+     */
+    public OperationResult<Integer> execute(String command) {
+        BatchCommandRunner.BatchCommand parsed = BatchCommandRunner.parse(0, command.trim());
+        if (parsed.getError() != null) {
+            return OperationResult.failure(parsed.getError().getCode(), parsed.getError().getMessage());
+        }
+        return execute(parsed.getFields());
+    }
+
+    /**
+     * Routes one command, given as its fields, to the shard it belongs to and applies it there.
+     * The fields are sent to the shard as they are, so names and texts may contain the field separator.
+     *
+     * @param fields The fields of the command, starting with its name.
+     * @return The result, carrying the shard's ID of the application, enquiry or registration the command
+     * created or changed, if any.
+     * @throws UncheckedIOException If the shard cannot be reached.
+     */
+    private OperationResult<Integer> execute(String[] fields) {
+        BatchCommandRunner.BatchCommand checked = BatchCommandRunner.check(0, fields);
+        if (checked.getError() != null) {
+            return OperationResult.failure(checked.getError().getCode(), checked.getError().getMessage());
+        }
+        String name = fields[0];
+        String nric = fields[1].trim().toUpperCase(Locale.ROOT);
+        Shard shard;
+        String createdProject = null;
+        String createdNeighborhood = null;
+        switch (name) {
+            case "create-project":
+                createdProject = fields[2].trim();
+                createdNeighborhood = fields[3].trim();
+                shard = shardOf(createdNeighborhood);
+                break;
+            case "apply":
+            case "enquire":
+            case "register":
+                String projectName = fields[2].trim();
+                RemoteProject project = findProject(projectName);
+                if (project == null) {
+                    return OperationResult.failure(ResultCode.INVALID_PROJECT, "No project named " + projectName + " on any shard.");
+                }
+                shard = shardOf(project.getNeighborhood());
+                break;
+            default:
+                shard = userShards.get(nric);
+                if (shard == null) {
+                    return OperationResult.failure(ResultCode.NOT_FOUND, "User " + nric + " has no project on any shard.");
+                }
+        }
+        OperationResult<Integer> known = makeKnown(shard, nric);
+        if (!known.isSuccess()) {
+            return known;
+        }
+        Reply reply = shard.call(fields);
+        if (reply.code == ResultCode.SUCCESS) {
+            if (createdProject != null) {
+                projectNeighborhoods.put(createdProject.toLowerCase(Locale.ROOT), createdNeighborhood);
+                userShards.putIfAbsent(nric, shard);
+            } else if (name.equals("register")) {
+                userShards.putIfAbsent(nric, shard);
+            } else if (name.equals("apply")) {
+                userShards.put(nric, shard);
+            }
+        }
+        return reply.toResult();
+    }
+
+    /**
+     * Closes the pooled connections and stops the scatter-gather threads. The shards keep running.
+     */
+    @Override
+    public void close() {
+        scatterExecutor.shutdown();
+        for (Shard shard : ring.getNodes()) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Makes a user known to a shard the first time one of their commands is sent there.
+     *
+     * @param shard The shard.
+     * @param nric  The NRIC of the user.
+     * @return A successful result, or the failure to report instead of sending the command.
+     */
+    private OperationResult<Integer> makeKnown(Shard shard, String nric) {
+        if (shard.knownUsers.contains(nric)) {
+            return OperationResult.success(null, "Known.");
+        }
+        User user = userLookup.apply(nric);
+        if (user == null) {
+            return OperationResult.failure(ResultCode.NOT_FOUND, "No user with NRIC " + nric + ".");
+        }
+        Reply reply = shard.call("user", nric, user.getRole(), user.getName(),
+                String.valueOf(user.getAge()), user.getMaritalStatus().name());
+        if (reply.code != ResultCode.SUCCESS) {
+            return reply.toResult();
+        }
+        shard.knownUsers.add(nric);
+        return OperationResult.success(null, "Known.");
+    }
+
+    /**
+     * Sends the same request to several shards in parallel and waits for every reply.
+     *
+     * @param shards  The shards to ask.
+     * @param request The request.
+     * @return The replies, in the order of the shards.
+     * @throws UncheckedIOException If a shard cannot be reached.
+     */
+    private List<Reply> scatter(Iterable<Shard> shards, String[] request) {
+        List<Future<Reply>> futures = new ArrayList<>();
+        for (Shard shard : shards) {
+            futures.add(scatterExecutor.submit(() -> shard.call(request)));
+        }
+        List<Reply> replies = new ArrayList<>(futures.size());
+        try {
+            for (Future<Reply> future : futures) {
+                replies.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Interrupted while waiting for the shards."));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return replies;
+    }
+
+    /**
+     * Merges the sorted project lists of several shards into one sorted list. Projects with equal sort keys
+     * keep the order their shard listed them in, and the shards' order among themselves.
+     *
+     * @param replies The replies of the shards.
+     * @param sortBy  The sort order the shards used.
+     * @return The merged list.
+     */
+    private static List<RemoteProject> merge(List<Reply> replies, String sortBy) {
+        Function<RemoteProject, String> sortKey = sortKey(sortBy);
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator
+                .comparing((Head head) -> sortKey.apply(head.current))
+                .thenComparingInt(head -> head.shardIndex));
+        int size = 0;
+        for (int i = 0; i < replies.size(); i++) {
+            Iterator<RemoteProject> projects = replies.get(i).projects.iterator();
+            size += replies.get(i).projects.size();
+            if (projects.hasNext()) {
+                heads.add(new Head(i, projects));
+            }
+        }
+        List<RemoteProject> merged = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            Head head = heads.poll();
+            merged.add(head.current);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the key a sort order sorts by, matching the pre-sorted indexes of the {@link ProjectRegistry}.
+     *
+     * @param sortBy The sort order, in upper case.
+     * @return A function returning a project's sort key.
+     */
+    private static Function<RemoteProject, String> sortKey(String sortBy) {
+        switch (sortBy) {
+            case "LOCATION":
+                return RemoteProject::getNeighborhood;
+            case "FLAT_TYPE":
+                return p -> p.getFlatTypes().isEmpty() ? "" : p.getFlatTypes().get(0).toString();
+            default:
+                return RemoteProject::getName;
+        }
+    }
+
+    /**
+     * A project as a shard held it when it replied.
+     */
+    public static final class RemoteProject implements ProjectViewable {
+        private final String name;
+        private final String neighborhood;
+        private final boolean visible;
+        private final Map<FlatType, Integer> remainingUnits;
+        private final String details;
+
+        /**
+         * Constructs a project snapshot.
+         *
+         * @param name           The name of the project.
+         * @param neighborhood   The neighborhood of the project.
+         * @param visible        Whether the project is visible to applicants.
+         * @param remainingUnits The remaining units of each offered flat type.
+         * @param details        The details of the project, as {@link BTOProject#getDetails()} formats them.
+         */
+        RemoteProject(String name, String neighborhood, boolean visible, Map<FlatType, Integer> remainingUnits, String details) {
+            this.name = name;
+            this.neighborhood = neighborhood;
+            this.visible = visible;
+            this.remainingUnits = remainingUnits;
+            this.details = details;
+        }
+
+        /**
+         * Gets the details of the project.
+         *
+         * @return The details, as the shard formatted them.
+         */
+        @Override
+        public String getDetails() {
+            return details;
+        }
+
+        /**
+         * Gets the name of the project.
+         *
+         * @return The name.
+         */
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the neighborhood of the project.
+         *
+         * @return The neighborhood.
+         */
+        @Override
+        public String getNeighborhood() {
+            return neighborhood;
+        }
+
+        /**
+         * Gets the flat types the project offers.
+         *
+         * @return An unmodifiable list of the flat types, in flat type order.
+         */
+        @Override
+        public List<FlatType> getFlatTypes() {
+            return Collections.unmodifiableList(new ArrayList<>(remainingUnits.keySet()));
+        }
+
+        /**
+         * Gets the remaining units of a flat type.
+         *
+         * @param flatType The flat type.
+         * @return The remaining units, or 0 if the flat type is not offered.
+         */
+        public int getRemainingUnits(FlatType flatType) {
+            return remainingUnits.getOrDefault(flatType, 0);
+        }
+
+        /**
+         * Checks whether the project is visible to applicants.
+         *
+         * @return true if the project is visible.
+         */
+        public boolean isVisible() {
+            return visible;
+        }
+    }
+
+    /**
+     * One shard: its address, a pool of idle connections to it, and the users it knows.
+     */
+    private static final class Shard {
+        private final String name;
+        private final InetSocketAddress address;
+        private final Queue<Connection> idle = new ConcurrentLinkedQueue<>();
+        private final Set<String> knownUsers = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Constructs a shard.
+         *
+         * @param name    The name placing the shard on the ring.
+         * @param address The address the shard listens on.
+         */
+        Shard(String name, InetSocketAddress address) {
+            this.name = name;
+            this.address = address;
+        }
+
+        /**
+         * Sends a request on an idle connection, or a new one if none is idle, and reads the reply.
+         *
+         * @param request The fields of the request, starting with its name.
+         * @return The reply.
+         * @throws UncheckedIOException If the shard cannot be reached. The connection is then closed.
+         */
+        Reply call(String... request) {
+            long start = System.nanoTime();
+            Connection connection = idle.poll();
+            try {
+                if (connection == null) {
+                    connection = new Connection(address);
+                }
+                Reply reply = connection.call(request);
+                idle.add(connection);
+                return reply;
+            } catch (IOException e) {
+                CALL_METRICS.recordFailure();
+                if (connection != null) {
+                    connection.close();
+                }
+                throw new UncheckedIOException("Shard " + name + " at " + address + " cannot be reached.", e);
+            } finally {
+                CALL_METRICS.recordSince(start);
+            }
+        }
+
+        /**
+         * Closes the idle connections.
+         */
+        void close() {
+            Connection connection;
+            while ((connection = idle.poll()) != null) {
+                connection.close();
+            }
+        }
+
+        /**
+         * Returns the name of the shard, which places it on the ring.
+         *
+         * @return The name.
+         */
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * One open connection to a shard.
+     */
+    private static final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        /**
+         * Opens a connection.
+         *
+         * @param address The address of the shard.
+         * @throws IOException If the connection cannot be opened.
+         */
+        Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), ShardServer.BUFFER_SIZE));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), ShardServer.BUFFER_SIZE));
+        }
+
+        /**
+         * Sends a request and reads the reply.
+         *
+         * @param request The fields of the request, starting with its name.
+         * @return The reply.
+         * @throws IOException If the connection fails.
+         */
+        Reply call(String[] request) throws IOException {
+            ShardServer.writeRequest(out, request);
+            out.flush();
+            ResultCode code = ResultCode.valueOf(in.readUTF());
+            String message = ShardServer.readText(in);
+            int id = in.readInt();
+            int count = in.readInt();
+            List<RemoteProject> projects = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                String neighborhood = in.readUTF();
+                boolean visible = in.readBoolean();
+                int flatTypeCount = in.readInt();
+                Map<FlatType, Integer> remainingUnits = new EnumMap<>(FlatType.class);
+                for (int j = 0; j < flatTypeCount; j++) {
+                    FlatType flatType = FlatType.valueOf(in.readUTF());
+                    remainingUnits.put(flatType, in.readInt());
+                }
+                projects.add(new RemoteProject(name, neighborhood, visible, remainingUnits, in.readUTF()));
+            }
+            return new Reply(code, message, id, projects);
+        }
+
+        /**
+         * Closes the connection, ignoring any error.
+         */
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+
+    /**
+     * A shard's reply to one request.
+     */
+    private static final class Reply {
+        private final ResultCode code;
+        private final String message;
+        private final int id;
+        private final List<RemoteProject> projects;
+
+        /**
+         * Constructs a reply.
+         *
+         * @param code     The result code.
+         * @param message  The result message.
+         * @param id       The ID the command returned, or {@link ShardServer#NO_ID}.
+         * @param projects The projects found.
+         */
+        Reply(ResultCode code, String message, int id, List<RemoteProject> projects) {
+            this.code = code;
+            this.message = message;
+            this.id = id;
+            this.projects = projects;
+        }
+
+        /**
+         * Converts the reply to the result of a command.
+         *
+         * @return The result, carrying the ID if there is one.
+         */
+        OperationResult<Integer> toResult() {
+            if (code != ResultCode.SUCCESS) {
+                return OperationResult.failure(code, message);
+            }
+            return OperationResult.success(id == ShardServer.NO_ID ? null : id, message);
+        }
+    }
+
+    /**
+     * The next project of one shard's sorted list, during a merge.
+     */
+    private static final class Head {
+        private final int shardIndex;
+        private final Iterator<RemoteProject> rest;
+        private RemoteProject current;
+
+        /**
+         * Constructs a head at the first project of a list.
+         *
+         * @param shardIndex The position of the shard's reply.
+         * @param projects   An iterator over the list, with at least one project left.
+         */
+        Head(int shardIndex, Iterator<RemoteProject> projects) {
+            this.shardIndex = shardIndex;
+            this.rest = projects;
+            this.current = projects.next();
+        }
+
+        /**
+         * Moves to the next project of the list.
+         *
+         * @return true if there was one.
+         */
+        boolean advance() {
+            if (!rest.hasNext()) {
+                return false;
+            }
+            current = rest.next();
+            return true;
+        }
+    }
+}
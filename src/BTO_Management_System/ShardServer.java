@@ -0,0 +1,507 @@
+package BTO_Management_System;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Serves one shard of the project registry to a {@link ShardRouter} over a loopback socket. A shard is
+ * an ordinary JVM with its own {@link ProjectRegistry}, holding the projects of the neighborhoods the
+ * router's {@link ConsistentHashRing} assigns to it.
+ * <p>
+ * Each request is a list of fields and each reply one record, both framed with {@link DataOutputStream}.
+ * A request is its number of fields followed by each field as length-prefixed UTF-8, so names and texts may
+ * contain any character. Besides every command of a {@link BatchCommandRunner} script, split into the fields
+ * of its line, a shard understands these requests, shown with their fields separated by {@code |}:
+ * <pre>
+ * user|nric|Applicant, Officer or Manager|name|age|SINGLE or MARRIED   makes a user known to the shard
+ * find|projectName                                                   looks a project up by name
+ * list|sortBy|flatTypes|location...                                  lists projects; flat types are comma-separated, empty for any;
+ *                                                                    one field per location, none for any
+ * report|projectName|maritalStatus|flatType                          formats the booking report of a project; empty for any
+ * </pre>
+ * A reply is the result code and message, the ID of the application, enquiry or registration the command
+ * created or changed (or {@value #NO_ID}), and the projects found: for each, its name, neighborhood,
+ * visibility, remaining units per flat type and details. The reply to a {@code report} request carries the report
+ * as its message and the number of booked applications as its ID. The message is sent as a length-prefixed
+ * UTF-8 byte array rather than with {@link DataOutputStream#writeUTF(String)}, which cannot carry more than
+ * 65535 bytes, so reports of large projects fit.
+ * <p>
+ * Each connection is served on its own virtual thread. As in the {@link HttpApiServer}, lookups and
+ * listings run together under a shared lock and commands that change anything run one at a time.
+ * A read-only shard shares that lock with a {@link ReplicationFollower}, which applies the leader's changes
+ * under it, and rejects every command.
+ */
+public class ShardServer {
+    /**
+     * The ID sent when a command did not create or change an application, enquiry or registration.
+     */
+    public static final int NO_ID = -1;
+    /**
+     * The size of the socket buffers, in bytes.
+     */
+    static final int BUFFER_SIZE = 8192;
+    /**
+     * The largest number of fields a request may have.
+     */
+    private static final int MAX_REQUEST_FIELDS = 1024;
+    /**
+     * The latency metrics of the requests served by this JVM.
+     */
+    private static final OperationMetrics REQUEST_METRICS = Metrics.operation("shard request");
+
+    /**
+     * Finds the users that were not made known to the shard with a {@code user} command.
+     */
+    private final Function<String, User> userLookup;
+    /**
+     * The users made known to the shard by the router, by NRIC.
+     */
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    /**
+     * Applies the commands that change the domain.
+     */
+    private final BatchCommandRunner runner = new BatchCommandRunner(this::findUser);
+    /**
+     * Lets lookups run together while commands run alone.
+     */
+    private final ReadWriteLock domainLock;
+    /**
+     * Whether commands are rejected because the domain is replicated from elsewhere.
+     */
+    private final boolean readOnly;
+    /**
+     * The listening socket, or null when stopped.
+     */
+    private ServerSocket serverSocket;
+    /**
+     * The executor serving the connections, or null when stopped.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Constructs a shard server.
+     *
+     * @param userLookup A function returning a user already in this JVM by NRIC, or null if there is none.
+     */
+    public ShardServer(Function<String, User> userLookup) {
+        this(userLookup, new ReentrantReadWriteLock(), false);
+    }
+
+    /**
+     * Constructs a shard server that shares its lock with whatever else changes the domain in this JVM.
+     *
+     * @param userLookup A function returning a user already in this JVM by NRIC, or null if there is none.
+     * @param domainLock The lock held for reading while a lookup runs and for writing while the domain changes.
+     * @param readOnly   true to reject every command, for a shard serving the state of a {@link ReplicationFollower}.
+     */
+    public ShardServer(Function<String, User> userLookup, ReadWriteLock domainLock, boolean readOnly) {
+        this.userLookup = userLookup;
+        this.domainLock = domainLock;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Starts accepting connections.
+     *
+     * @param address The address to listen on. A port of 0 picks a free port.
+     * @return The port the shard is listening on.
+     * @throws IOException If the socket cannot be opened.
+     */
+    public synchronized int start(InetSocketAddress address) throws IOException {
+        if (serverSocket != null) {
+            return serverSocket.getLocalPort();
+        }
+        ServerSocket socket = new ServerSocket();
+        socket.bind(address);
+        serverSocket = socket;
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        // A platform thread, so that a shard JVM keeps running after main returns
+        new Thread(() -> accept(socket), "shard-acceptor").start();
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes the listening socket.
+     * Connections already open are closed by their clients.
+     */
+    public synchronized void stop() {
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+            executor.shutdown();
+            serverSocket = null;
+            executor = null;
+        }
+    }
+
+    /**
+     * Accepts connections until the listening socket is closed, serving each on its own virtual thread.
+     *
+     * @param socket The listening socket.
+     */
+    private void accept(ServerSocket socket) {
+        ExecutorService connections = executor;
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                connection.setTcpNoDelay(true);
+                connections.execute(() -> serve(connection));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.out.println("Error: Shard cannot accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers the requests on one connection until the router closes it.
+     *
+     * @param connection The connection.
+     */
+    private void serve(Socket connection) {
+        try (Socket socket = connection;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE))) {
+            while (true) {
+                String[] fields;
+                try {
+                    fields = readRequest(in);
+                } catch (EOFException e) {
+                    return;
+                }
+                long start = System.nanoTime();
+                handle(fields, out);
+                out.flush();
+                REQUEST_METRICS.recordSince(start);
+            }
+        } catch (IOException e) {
+            // The router closed the connection or went away.
+        }
+    }
+
+    /**
+     * Answers one request.
+     *
+     * @param fields The fields of the request, starting with its name.
+     * @param out    The stream to write the reply to.
+     * @throws IOException If the reply cannot be written.
+     */
+    private void handle(String[] fields, DataOutputStream out) throws IOException {
+        switch (fields[0]) {
+            case "user":
+                writeReply(out, addUser(fields), Collections.emptyList());
+                return;
+            case "find":
+            case "list":
+            case "report":
+                List<BTOProject> projects;
+                Lock readLock = domainLock.readLock();
+                readLock.lock();
+                try {
+                    if (fields[0].equals("report")) {
+                        report(fields, out);
+                        return;
+                    }
+                    projects = fields[0].equals("find") ? find(fields) : list(fields);
+                    writeReply(out, OperationResult.success(null, projects.size() + " project(s) found."), projects);
+                } catch (IllegalArgumentException e) {
+                    writeReply(out, OperationResult.failure(ResultCode.INVALID_INPUT, e.getMessage()), Collections.emptyList());
+                } finally {
+                    readLock.unlock();
+                }
+                return;
+            default:
+                if (readOnly) {
+                    writeReply(out, OperationResult.failure(ResultCode.READ_ONLY, "This shard is a read-only follower."), Collections.emptyList());
+                    return;
+                }
+                OperationResult<?> result;
+                Lock writeLock = domainLock.writeLock();
+                writeLock.lock();
+                try {
+                    result = runner.execute(fields);
+                } catch (RuntimeException e) {
+                    result = OperationResult.failure(ResultCode.INVALID_INPUT, "Command failed: " + e);
+                } finally {
+                    writeLock.unlock();
+                }
+                writeReply(out, result, Collections.emptyList());
+        }
+    }
+
+    /**
+     * Makes a user known to the shard from the fields of a {@code user} request.
+     * A user the shard already knows is left as it is.
+     *
+     * @param fields The fields of the request.
+     * @return The result of adding the user.
+     */
+    private OperationResult<?> addUser(String[] fields) {
+        if (fields.length != 6) {
+            return OperationResult.failure(ResultCode.INVALID_INPUT, "Request user needs 6 fields but has " + fields.length + ".");
+        }
+        String nric = fields[1].toUpperCase();
+        if (findUser(nric) != null) {
+            return OperationResult.success(null, "User " + nric + " is already known.");
+        }
+        MaritalStatus maritalStatus;
+        int age;
+        try {
+            maritalStatus = MaritalStatus.valueOf(fields[5].toUpperCase());
+            age = Integer.parseInt(fields[4]);
+        } catch (IllegalArgumentException e) {
+            return OperationResult.failure(ResultCode.INVALID_INPUT, "Invalid age or marital status: " + fields[4] + ", " + fields[5]);
+        }
+        User user;
+        switch (fields[2]) {
+            case "Applicant":
+                user = new Applicant(fields[3], nric, age, maritalStatus);
+                break;
+            case "Officer":
+                user = new HDBOfficer(fields[3], nric, age, maritalStatus);
+                break;
+            case "Manager":
+                user = new HDBManager(fields[3], nric, age, maritalStatus);
+                break;
+            default:
+                return OperationResult.failure(ResultCode.INVALID_INPUT, "Unknown role: " + fields[2]);
+        }
+        users.putIfAbsent(nric, user);
+        return OperationResult.success(null, "User " + nric + " added.");
+    }
+
+    /**
+     * Finds a user by NRIC, first among the users the router made known and then in this JVM.
+     *
+     * @param nric The NRIC, in upper case.
+     * @return The user, or null if there is none.
+     */
+    private User findUser(String nric) {
+        User user = users.get(nric);
+        return user != null ? user : userLookup.apply(nric);
+    }
+
+    /**
+     * Looks up the project named by a {@code find} request.
+     *
+     * @param fields The fields of the request.
+     * @return A list of the project, or an empty list if there is none.
+     */
+    private static List<BTOProject> find(String[] fields) {
+        if (fields.length != 2) {
+            throw new IllegalArgumentException("Request find needs 2 fields but has " + fields.length + ".");
+        }
+        BTOProject project = ProjectRegistry.findProject(fields[1]);
+        return project == null ? Collections.emptyList() : Collections.singletonList(project);
+    }
+
+    /**
+     * Lists the projects matching a {@code list} request, in the requested order.
+     *
+     * @param fields The fields of the request.
+     * @return The matching projects.
+     */
+    private static List<BTOProject> list(String[] fields) {
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("Request list needs at least 3 fields but has " + fields.length + ".");
+        }
+        List<FlatType> flatTypes = new ArrayList<>();
+        for (String flatType : splitList(fields[2])) {
+            flatTypes.add(FlatType.valueOf(flatType.toUpperCase()));
+        }
+        List<String> locations = new ArrayList<>();
+        for (int i = 3; i < fields.length; i++) {
+            if (!fields[i].trim().isEmpty()) {
+                locations.add(fields[i].trim());
+            }
+        }
+        return ProjectRegistry.listProjects(fields[1], locations, flatTypes);
+    }
+
+    /**
+     * Answers a {@code report} request with the booking report of a project.
+     *
+     * @param fields The fields of the request.
+     * @param out    The stream to write the reply to.
+     * @throws IOException If the reply cannot be written.
+     */
+    private static void report(String[] fields, DataOutputStream out) throws IOException {
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Request report needs 4 fields but has " + fields.length + ".");
+        }
+        BTOProject project = ProjectRegistry.findProject(fields[1]);
+        if (project == null) {
+            writeReply(out, OperationResult.failure(ResultCode.INVALID_PROJECT, "No project named " + fields[1] + "."), Collections.emptyList());
+            return;
+        }
+        Collection<Application> booked = project.getApplicationsWithStatus(ApplicationStatus.BOOKED);
+        String maritalFilter = fields[2].isEmpty() ? null : fields[2];
+        String flatTypeFilter = fields[3].isEmpty() ? null : fields[3];
+        String report = HDBManager.formatBookingReport(project.getName(), booked, maritalFilter, flatTypeFilter);
+        writeReply(out, ResultCode.SUCCESS, report, booked.size(), Collections.singletonList(project));
+    }
+
+    /**
+     * Splits a comma-separated list field.
+     *
+     * @param field The field.
+     * @return The trimmed, non-empty items.
+     */
+    static List<String> splitList(String field) {
+        List<String> items = new ArrayList<>();
+        for (String item : field.split(",")) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Writes a reply record.
+     *
+     * @param out      The stream to write to.
+     * @param result   The result of the request.
+     * @param projects The projects found, if any.
+     * @throws IOException If the reply cannot be written.
+     */
+    private static void writeReply(DataOutputStream out, OperationResult<?> result, List<BTOProject> projects) throws IOException {
+        writeReply(out, result.getCode(), result.getMessage(), idOf(result.getValue()), projects);
+    }
+
+    /**
+     * Writes a reply record from its fields.
+     *
+     * @param out      The stream to write to.
+     * @param code     The result code.
+     * @param message  The result message.
+     * @param id       The ID to send, or {@link #NO_ID}.
+     * @param projects The projects found, if any.
+     * @throws IOException If the reply cannot be written.
+     */
+    private static void writeReply(DataOutputStream out, ResultCode code, String message, int id, List<BTOProject> projects) throws IOException {
+        out.writeUTF(code.name());
+        writeText(out, message);
+        out.writeInt(id);
+        out.writeInt(projects.size());
+        for (BTOProject project : projects) {
+            out.writeUTF(project.getName());
+            out.writeUTF(project.getNeighborhood());
+            out.writeBoolean(project.isVisible());
+            List<FlatType> flatTypes = project.getFlatTypes();
+            out.writeInt(flatTypes.size());
+            for (FlatType flatType : flatTypes) {
+                out.writeUTF(flatType.name());
+                out.writeInt(project.getRemainingUnits(flatType));
+            }
+            out.writeUTF(project.getDetails());
+        }
+    }
+
+    /**
+     * Writes a request as its number of fields followed by each field as {@link #writeText(DataOutputStream, String) text}.
+     *
+     * @param out    The stream to write to.
+     * @param fields The fields of the request, starting with its name.
+     * @throws IOException If the request cannot be written.
+     */
+    static void writeRequest(DataOutputStream out, String[] fields) throws IOException {
+        out.writeInt(fields.length);
+        for (String field : fields) {
+            writeText(out, field);
+        }
+    }
+
+    /**
+     * Reads a request written by {@link #writeRequest(DataOutputStream, String[])}.
+     *
+     * @param in The stream to read from.
+     * @return The fields of the request, starting with its name.
+     * @throws EOFException If the stream ends before the request starts.
+     * @throws IOException  If the request cannot be read or has no fields or too many.
+     */
+    private static String[] readRequest(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 1 || count > MAX_REQUEST_FIELDS) {
+            throw new IOException("Invalid field count " + count + ".");
+        }
+        String[] fields = new String[count];
+        for (int i = 0; i < count; i++) {
+            fields[i] = readText(in);
+        }
+        return fields;
+    }
+
+    /**
+     * Writes text of any length as its UTF-8 byte count followed by the bytes.
+     *
+     * @param out  The stream to write to.
+     * @param text The text.
+     * @throws IOException If the text cannot be written.
+     */
+    static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads text written by {@link #writeText(DataOutputStream, String)}.
+     *
+     * @param in The stream to read from.
+     * @return The text.
+     * @throws IOException If the text cannot be read or its length is negative.
+     */
+    static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid text length " + length + ".");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the ID of the application, enquiry or registration a command returned.
+     *
+     * @param data The data of the command's result.
+     * @return The ID, or {@link #NO_ID} if the data has none.
+     */
+    private static int idOf(Object data) {
+        if (data instanceof Application) {
+            return ((Application) data).getApplicationId();
+        }
+        if (data instanceof Enquiry) {
+            return ((Enquiry) data).getEnquiryId();
+        }
+        if (data instanceof RegistrationApplication) {
+            return ((RegistrationApplication) data).getRegisterId();
+        }
+        return NO_ID;
+    }
+}
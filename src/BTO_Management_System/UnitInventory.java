@@ -0,0 +1,262 @@
+package BTO_Management_System;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The remaining units of each flat type in a project, kept as one primitive counter per {@link FlatType}
+ * indexed by ordinal. Reading, booking and restocking a unit are single atomic operations that neither box
+ * nor allocate, so concurrent bookings can never take the last unit twice or drive a count below zero.
+ * <p>
+ * A flat type the project does not offer has no counter value at all, which is different from an offered
+ * flat type with no units left. The offered flat types are kept as a cached immutable list, rebuilt only
+ * when a flat type is added or withdrawn.
+ * <p>
+ * Every change also bumps a version number, which lets rendered views of the project tell whether the counts
+ * they show are still current.
+ */
+public final class UnitInventory {
+    /**
+     * The counter value of a flat type that is not offered.
+     */
+    private static final int NOT_OFFERED = -1;
+    /**
+     * The flat types, by ordinal.
+     */
+    private static final FlatType[] FLAT_TYPES = FlatType.values();
+
+    /**
+     * The remaining units of each flat type, by ordinal, or {@link #NOT_OFFERED}.
+     */
+    private final AtomicIntegerArray units = new AtomicIntegerArray(FLAT_TYPES.length);
+    /**
+     * The offered flat types, in ordinal order.
+     */
+    private volatile List<FlatType> flatTypes;
+    /**
+     * The number of changes made to the inventory.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Constructs an inventory offering the flat types of a map, with the given remaining units.
+     *
+     * @param remainingUnits A map of flat types to their remaining units, or null for none.
+     */
+    public UnitInventory(Map<FlatType, Integer> remainingUnits) {
+        setAll(remainingUnits);
+    }
+
+    /**
+     * Returns the remaining units of a flat type.
+     *
+     * @param flatType The flat type.
+     * @return The remaining units, or 0 if the flat type is not offered.
+     */
+    public int get(FlatType flatType) {
+        return Math.max(units.get(flatType.ordinal()), 0);
+    }
+
+    /**
+     * Checks whether a flat type is offered.
+     *
+     * @param flatType The flat type.
+     * @return true if the flat type is offered, even if no units are left.
+     */
+    public boolean isOffered(FlatType flatType) {
+        return units.get(flatType.ordinal()) != NOT_OFFERED;
+    }
+
+    /**
+     * Checks whether a flat type is offered and has at least one unit left.
+     *
+     * @param flatType The flat type.
+     * @return true if a unit of the flat type is available.
+     */
+    public boolean isAvailable(FlatType flatType) {
+        return units.get(flatType.ordinal()) > 0;
+    }
+
+    /**
+     * Takes one unit of a flat type, if one is left.
+     *
+     * @param flatType The flat type.
+     * @return true if a unit was taken, false if the flat type is not offered or has no units left.
+     */
+    public boolean tryDecrement(FlatType flatType) {
+        int index = flatType.ordinal();
+        while (true) {
+            int current = units.get(index);
+            if (current <= 0) {
+                return false;
+            }
+            if (units.compareAndSet(index, current, current - 1)) {
+                version.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns units of an offered flat type to the inventory, for example after a booked flat is withdrawn.
+     *
+     * @param flatType The flat type.
+     * @param count    The number of units to return. Must not be negative.
+     * @return The remaining units afterwards.
+     * @throws IllegalArgumentException If the count is negative or the flat type is not offered.
+     */
+    public int restock(FlatType flatType, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Cannot restock a negative number of units.");
+        }
+        int index = flatType.ordinal();
+        while (true) {
+            int current = units.get(index);
+            if (current == NOT_OFFERED) {
+                throw new IllegalArgumentException(flatType + " is not offered.");
+            }
+            if (units.compareAndSet(index, current, current + count)) {
+                version.incrementAndGet();
+                return current + count;
+            }
+        }
+    }
+
+    /**
+     * Sets the remaining units of a flat type, offering it if it was not offered.
+     *
+     * @param flatType The flat type.
+     * @param count    The remaining units. Must not be negative.
+     * @throws IllegalArgumentException If the count is negative.
+     */
+    public synchronized void set(FlatType flatType, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Remaining units cannot be negative.");
+        }
+        boolean added = units.getAndSet(flatType.ordinal(), count) == NOT_OFFERED;
+        if (added) {
+            flatTypes = buildFlatTypes();
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Replaces the whole inventory with the flat types and remaining units of a map.
+     * Flat types missing from the map are no longer offered.
+     *
+     * @param remainingUnits A map of flat types to their remaining units, or null for none.
+     * @throws IllegalArgumentException If a count is negative.
+     */
+    public synchronized void setAll(Map<FlatType, Integer> remainingUnits) {
+        for (FlatType flatType : FLAT_TYPES) {
+            Integer count = remainingUnits == null ? null : remainingUnits.get(flatType);
+            if (count != null && count < 0) {
+                throw new IllegalArgumentException("Remaining units cannot be negative.");
+            }
+            units.set(flatType.ordinal(), count == null ? NOT_OFFERED : count);
+        }
+        flatTypes = buildFlatTypes();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of changes made to the inventory. It grows with every booking, restock and set.
+     *
+     * @return The version.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the offered flat types. The list is shared and cannot be modified.
+     *
+     * @return The offered flat types, in ordinal order.
+     */
+    public List<FlatType> getFlatTypes() {
+        return flatTypes;
+    }
+
+    /**
+     * Returns a copy of the inventory as a map of the offered flat types to their remaining units.
+     *
+     * @return A new map, in flat type order.
+     */
+    public Map<FlatType, Integer> toMap() {
+        Map<FlatType, Integer> map = new EnumMap<>(FlatType.class);
+        for (FlatType flatType : FLAT_TYPES) {
+            int count = units.get(flatType.ordinal());
+            if (count != NOT_OFFERED) {
+                map.put(flatType, count);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Builds the immutable list of offered flat types.
+     *
+     * @return The offered flat types, in ordinal order.
+     */
+    private List<FlatType> buildFlatTypes() {
+        List<FlatType> offered = new ArrayList<>(FLAT_TYPES.length);
+        for (FlatType flatType : FLAT_TYPES) {
+            if (units.get(flatType.ordinal()) != NOT_OFFERED) {
+                offered.add(flatType);
+            }
+        }
+        return Collections.unmodifiableList(offered);
+    }
+
+    /**
+     * Compares two inventories by the flat types they offer and their remaining units.
+     *
+     * @param obj The object to compare with.
+     * @return true if the other object is an inventory with the same counts.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof UnitInventory)) {
+            return false;
+        }
+        UnitInventory other = (UnitInventory) obj;
+        for (int i = 0; i < FLAT_TYPES.length; i++) {
+            if (units.get(i) != other.units.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return The hash code.
+     */
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < FLAT_TYPES.length; i++) {
+            hash = 31 * hash + units.get(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the inventory in the same form as a map of flat types to remaining units.
+     *
+     * @return A string such as {@code {TWOROOM=10, THREEROOM=5}}.
+     */
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
@@ -3,7 +3,7 @@ import java.util.*;
 
 /**
  * Abstract base class for all users in the BTO management system.
- * Provides common attributes such as name, NRIC, password, age, marital status,
+ * Provides common attributes such as name, NRIC, password hash, age, marital status,
  * and user-specific settings for project filtering and sorting.
  * Subclasses will represent different roles like Applicant, HDBOfficer, and HDBManager.
  */
@@ -12,8 +12,8 @@ public abstract class User {
     protected final String name;
     /** The National Registration Identity Card (NRIC) of the user. */
     protected final String nric;
-    /** The current password of the user. */
-    protected String password;
+    /** The stored hash of the user's current password, as produced by {@link CredentialService#hash(String)}. */
+    protected volatile String passwordHash;
     /** The age of the user. */
     protected int age;
     /** The {@link MaritalStatus} of the user. */
@@ -22,7 +22,7 @@ public abstract class User {
 
     /**
      * Constructs a new {@code User} with the specified personal details.
-     * A default password "password" is assigned, and default user settings are initialized.
+     * The default password "password" is assigned, and default user settings are initialized.
      *
      * @param name          The name of the user.
      * @param nric          The National Registration Identity Card (NRIC) of the user.
@@ -34,20 +34,31 @@ public abstract class User {
         this.nric = nric;
         this.age = age;
         this.maritalStatus = maritalStatus;
-        this.password = "password";
+        this.passwordHash = CredentialService.defaultPasswordHash();
         this.userSettings = new UserSettings();
     }
 
     /**
-     * Sets a new password for the user and confirms the update.
+     * Sets a new password for the user and confirms the update. Only a hash of the password is kept,
+     * and any session or remembered sign-in made with the old password stops being accepted.
      *
      * @param newPassword The new password to be set.
      */
     public void setPassword(String newPassword) {
-        this.password = newPassword;
+        this.passwordHash = CredentialService.hash(newPassword);
         System.out.println("You have successfully updated your password");
     }
 
+    /**
+     * Checks whether a password is the user's current password.
+     *
+     * @param password The password to check.
+     * @return true if the password matches, false otherwise.
+     */
+    public boolean checkPassword(String password) {
+        return CredentialService.checkPassword(this, password);
+    }
+
     /**
      * Retrieves the name of the user.
      *
@@ -67,12 +78,12 @@ public abstract class User {
     }
 
     /**
-     * Retrieves the current password of the user.
+     * Retrieves the stored hash of the user's current password.
      *
-     * @return The password of the user as a string.
+     * @return The password hash, in the form produced by {@link CredentialService#hash(String)}.
      */
-    public String getPassword() {
-        return password;
+    String getPasswordHash() {
+        return passwordHash;
     }
 
     /**